@@ -0,0 +1,89 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.benchmarks;
+
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.model.algorithms.AES;
+import com.ibm.mapper.utils.DetectionLocation;
+import com.ibm.output.cyclondx.CBOMOutputFile;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Adds many occurrences of one algorithm to a {@link CBOMOutputFile}, one finding at a time, as the
+ * aggregator does at the end of a scan. One finding in ten repeats the location of the previous one
+ * and must not add an occurrence. With a constant cost per occurrence, the time grows linearly with
+ * the number of occurrences.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CbomOccurrencesBenchmark {
+    private static final int FILES = 100;
+
+    @Param({"1000", "10000", "100000"})
+    public int occurrences;
+
+    private List<INode> findings;
+
+    @Setup
+    public void setUp() {
+        findings = new ArrayList<>(occurrences);
+        for (int i = 0; i < occurrences; i++) {
+            // every tenth finding is at the location of the previous one
+            final int location = i % 10 == 9 ? i - 1 : i;
+            findings.add(
+                    new AES(
+                            128,
+                            new DetectionLocation(
+                                    "src/main/java/Crypto" + (location % FILES) + ".java",
+                                    location / FILES + 1,
+                                    8,
+                                    List.of("getInstance"),
+                                    () -> "Jca")));
+        }
+    }
+
+    @Nonnull
+    @Benchmark
+    public CBOMOutputFile addOccurrences() {
+        final CBOMOutputFile outputFile = new CBOMOutputFile();
+        for (INode finding : findings) {
+            outputFile.add(List.of(finding));
+        }
+        return outputFile;
+    }
+}
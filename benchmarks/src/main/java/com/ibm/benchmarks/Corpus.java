@@ -0,0 +1,164 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.benchmarks;
+
+import com.ibm.mapper.mapper.IMapper;
+import com.ibm.mapper.mapper.jca.JcaAlgorithmMapper;
+import com.ibm.mapper.mapper.jca.JcaMacMapper;
+import com.ibm.mapper.mapper.jca.JcaMessageDigestMapper;
+import com.ibm.mapper.mapper.jca.JcaSignatureMapper;
+import com.ibm.mapper.mapper.ssl.CipherSuiteMapper;
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.utils.DetectionLocation;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+
+/**
+ * Inputs of the benchmarks recorded from a scan of the Java test files ({@code
+ * java/src/test/files}), so that they reflect the calls and values the rules see in a real scan.
+ */
+public final class Corpus {
+    private static final String CALLS = "corpus-calls.tsv";
+    private static final String ALGORITHMS = "corpus-algorithms.tsv";
+    private static final String CIPHER_SUITE = "ciphersuite";
+
+    private Corpus() {
+        // private
+    }
+
+    /**
+     * Returns the method invocations and constructor calls of the test files, each one as often as
+     * it occurs in the files, in a fixed order.
+     *
+     * @return the recorded calls
+     */
+    @Nonnull
+    public static List<RecordedCall> calls() {
+        final Map<String, RecordedType> types = new HashMap<>();
+        final List<RecordedCall> calls = new ArrayList<>();
+        read(
+                CALLS,
+                columns -> {
+                    if (columns[0].equals("type")) {
+                        final List<String> names = Arrays.asList(columns[2].split(","));
+                        final Set<String> supertypes =
+                                new LinkedHashSet<>(names.subList(1, names.size()));
+                        types.put(
+                                columns[1],
+                                new RecordedType(
+                                        names.get(0), Collections.unmodifiableSet(supertypes)));
+                        return;
+                    }
+                    final List<RecordedType> parameterTypes = new ArrayList<>();
+                    for (int i = 4; i < columns.length; i++) {
+                        parameterTypes.add(typeOf(types, columns[i]));
+                    }
+                    final RecordedCall call =
+                            new RecordedCall(
+                                    columns[2],
+                                    typeOf(types, columns[3]),
+                                    List.copyOf(parameterTypes));
+                    calls.addAll(Collections.nCopies(Integer.parseInt(columns[1]), call));
+                });
+        return Collections.unmodifiableList(calls);
+    }
+
+    /**
+     * Returns the translation trees of the algorithm names passed as string literals to the {@code
+     * getInstance} factories in the test files, and of the cipher suite names they contain. Each
+     * tree is mapped as often as its value occurs in the files, by the mapper of its factory.
+     *
+     * @return the mapped trees, in a fixed order
+     */
+    @Nonnull
+    public static List<INode> algorithmTrees() {
+        final List<INode> trees = new ArrayList<>();
+        read(
+                ALGORITHMS,
+                columns -> {
+                    final String owner = columns[1];
+                    final IMapper mapper = mapperOf(owner);
+                    for (int i = 0; i < Integer.parseInt(columns[0]); i++) {
+                        final DetectionLocation detectionLocation =
+                                new DetectionLocation(
+                                        "Corpus.java",
+                                        trees.size() + 1,
+                                        0,
+                                        List.of(),
+                                        () -> owner.equals(CIPHER_SUITE) ? "SSL" : "Jca");
+                        mapper.parse(columns[2], detectionLocation).ifPresent(trees::add);
+                    }
+                });
+        return Collections.unmodifiableList(trees);
+    }
+
+    @Nonnull
+    private static IMapper mapperOf(@Nonnull String owner) {
+        return switch (owner) {
+            case CIPHER_SUITE -> new CipherSuiteMapper();
+            case "javax.crypto.Mac" -> new JcaMacMapper();
+            case "java.security.Signature" -> new JcaSignatureMapper();
+            case "java.security.MessageDigest" -> new JcaMessageDigestMapper();
+            default -> new JcaAlgorithmMapper();
+        };
+    }
+
+    @Nonnull
+    private static RecordedType typeOf(
+            @Nonnull Map<String, RecordedType> types, @Nonnull String id) {
+        if (id.equals("-")) {
+            return RecordedType.UNKNOWN;
+        }
+        return Objects.requireNonNull(types.get(id), () -> "Unknown type id " + id);
+    }
+
+    private static void read(@Nonnull String resource, @Nonnull Consumer<String[]> consumer) {
+        try (InputStream stream = Corpus.class.getResourceAsStream(resource)) {
+            if (stream == null) {
+                throw new IllegalStateException("Missing resource " + resource);
+            }
+            final BufferedReader reader =
+                    new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8));
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (!line.isEmpty() && !line.startsWith("#")) {
+                    consumer.accept(line.split("\t"));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.benchmarks;
+
+import com.ibm.enricher.Enricher;
+import com.ibm.enricher.IEnricher;
+import com.ibm.enricher.algorithm.AESEnricher;
+import com.ibm.enricher.algorithm.DESEnricher;
+import com.ibm.enricher.algorithm.DHEnricher;
+import com.ibm.enricher.algorithm.DSAEnricher;
+import com.ibm.enricher.algorithm.HMACEnricher;
+import com.ibm.enricher.algorithm.KEMEnricher;
+import com.ibm.enricher.algorithm.PBKDF2Enricher;
+import com.ibm.enricher.algorithm.RSAEnricher;
+import com.ibm.enricher.algorithm.RSAoaepEnricher;
+import com.ibm.enricher.algorithm.RSAssaPSSEnricher;
+import com.ibm.enricher.algorithm.SHA2Enricher;
+import com.ibm.enricher.algorithm.SHA3Enricher;
+import com.ibm.enricher.algorithm.SignatureEnricher;
+import com.ibm.enricher.algorithm.TagOrDigestEnricher;
+import com.ibm.enricher.key.SecretKeyEnricher;
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.reorganizer.Reorganizer;
+import com.ibm.plugin.translation.reorganizer.JavaReorganizerRules;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Enriches the translation trees of the algorithms in the test files, reorganized with the Java
+ * rules, once with {@link Enricher} and once applying every enricher to every node and rebuilding
+ * the children of every node, as {@code Enricher} did before. Since an enrichment changes its tree,
+ * each one runs on a fresh copy; {@link #copyTrees()} measures the copies alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EnricherBenchmark {
+    private List<INode> trees;
+
+    @Setup
+    public void setUp() {
+        final Reorganizer reorganizer = new Reorganizer(JavaReorganizerRules.rules());
+        trees = new ArrayList<>();
+        for (INode tree : Corpus.algorithmTrees()) {
+            final List<INode> roots = new ArrayList<>(1);
+            roots.add(tree);
+            trees.addAll(reorganizer.reorganize(roots));
+        }
+    }
+
+    @Benchmark
+    public List<INode> copyTrees() {
+        return copies();
+    }
+
+    @Benchmark
+    public Collection<INode> dispatchedEnrichers() {
+        return Enricher.enrich(copies());
+    }
+
+    @Benchmark
+    public Collection<INode> allEnrichers() {
+        return AllEnrichers.enrich(copies());
+    }
+
+    @Nonnull
+    private List<INode> copies() {
+        final List<INode> copies = new ArrayList<>(trees.size());
+        for (INode tree : trees) {
+            copies.add(tree.deepCopy());
+        }
+        return copies;
+    }
+
+    /** The former enrichment, applying all enrichers to every node of a tree. */
+    static final class AllEnrichers {
+        @Nonnull
+        private static final List<IEnricher> enrichers =
+                List.of(
+                        new AESEnricher(),
+                        new DESEnricher(),
+                        new RSAEnricher(),
+                        new DHEnricher(),
+                        new DSAEnricher(),
+                        new SHA2Enricher(),
+                        new SHA3Enricher(),
+                        new HMACEnricher(),
+                        new PBKDF2Enricher(),
+                        new RSAssaPSSEnricher(),
+                        new RSAoaepEnricher(),
+                        new SignatureEnricher(),
+                        new TagOrDigestEnricher(),
+                        new KEMEnricher(),
+                        new SecretKeyEnricher());
+
+        private AllEnrichers() {
+            // nothing
+        }
+
+        @Nonnull
+        static Collection<INode> enrich(@Nonnull final Collection<INode> nodes) {
+            return nodes.stream().map(AllEnrichers::enrichTree).toList();
+        }
+
+        @Nonnull
+        static INode enrichTree(@Nonnull INode node) {
+            final INode enriched = enrichNode(node);
+
+            final Collection<INode> enrichedChildren = new ArrayList<>();
+            final Collection<INode> markForRemoval = new ArrayList<>();
+            for (final INode child : enriched.getChildren().values()) {
+                final INode enrichedChild = enrichTree(child);
+                if (!child.is(enrichedChild.getKind())) {
+                    markForRemoval.add(child);
+                }
+                enrichedChildren.add(enrichedChild);
+            }
+
+            enrichedChildren.forEach(enriched::put);
+            markForRemoval.forEach(remove -> enriched.removeChildOfType(remove.getKind()));
+            return enriched;
+        }
+
+        @Nonnull
+        private static INode enrichNode(@Nonnull INode node) {
+            INode enriched = node;
+            for (final IEnricher enricher : enrichers) {
+                enriched = enricher.enrich(enriched);
+            }
+            return enriched;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.benchmarks;
+
+import com.ibm.engine.detection.MatchContext;
+import com.ibm.engine.language.ILanguageTranslation;
+import com.ibm.engine.rule.DetectionRule;
+import com.ibm.engine.rule.IDetectionRule;
+import com.ibm.plugin.rules.detection.JavaDetectionRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Matches the Java detection rules with parameters against the calls of the test files, once with
+ * the match context cached on each rule and once with a match context built for every attempt, as
+ * {@code MatchContext.build} did before. Run it with {@code -prof gc} to compare the allocation
+ * rates.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MatchContextBenchmark {
+    private final ILanguageTranslation<Tree> translation = new RecordedCallTranslation();
+    private List<RecordedCall> calls;
+    private List<DetectionRule<Tree>> rules;
+
+    @Setup
+    public void setUp() {
+        calls = Corpus.calls();
+        rules = new ArrayList<>();
+        for (IDetectionRule<Tree> rule : JavaDetectionRules.rules()) {
+            if (rule instanceof DetectionRule<Tree> detectionRule) {
+                rules.add(detectionRule);
+            }
+        }
+    }
+
+    @Benchmark
+    public int cachedContexts() {
+        int matches = 0;
+        for (RecordedCall call : calls) {
+            for (DetectionRule<Tree> rule : rules) {
+                if (rule.matchers().match(call, translation, rule.matchContext())) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int contextPerAttempt() {
+        int matches = 0;
+        for (RecordedCall call : calls) {
+            for (DetectionRule<Tree> rule : rules) {
+                final MatchContext matchContext =
+                        MatchContext.of(false, rule.shouldMatchExactTypes(), rule.parameters());
+                if (rule.matchers().match(call, translation, matchContext)) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.benchmarks;
+
+import com.ibm.engine.detection.IType;
+import com.ibm.engine.detection.MatchContext;
+import com.ibm.engine.detection.MethodMatcher;
+import com.ibm.engine.language.ILanguageTranslation;
+import com.ibm.engine.rule.DetectionRule;
+import com.ibm.engine.rule.IDetectionRule;
+import com.ibm.engine.rule.MethodDetectionRule;
+import com.ibm.plugin.rules.detection.bc.BouncyCastleDetectionRules;
+import com.ibm.plugin.rules.detection.jca.JcaDetectionRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Matches the method matchers of the JCA and BouncyCastle root rules against the calls of the test
+ * files: once with the compiled {@link MethodMatcher}s of the rules, and once with matchers built
+ * from the same types, names and parameter types as the stream-based predicates {@code
+ * MethodMatcher} used before. Both return the number of matches, which must be equal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodMatcherBenchmark {
+    private final ILanguageTranslation<Tree> translation = new RecordedCallTranslation();
+    private List<RecordedCall> calls;
+    private List<IDetectionRule<Tree>> rules;
+    private List<PredicateMethodMatcher> predicateMatchers;
+
+    @Setup
+    public void setUp() {
+        calls = Corpus.calls();
+        rules = new ArrayList<>(JcaDetectionRules.rules());
+        rules.addAll(BouncyCastleDetectionRules.rules());
+        predicateMatchers = new ArrayList<>(rules.size());
+        for (IDetectionRule<Tree> rule : rules) {
+            predicateMatchers.add(PredicateMethodMatcher.of(rule));
+        }
+    }
+
+    @Benchmark
+    public int compiledMatchers() {
+        int matches = 0;
+        for (RecordedCall call : calls) {
+            for (IDetectionRule<Tree> rule : rules) {
+                if (matchersOf(rule).match(call, translation, rule.matchContext())) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int predicateMatchers() {
+        int matches = 0;
+        for (RecordedCall call : calls) {
+            for (int i = 0; i < rules.size(); i++) {
+                if (predicateMatchers
+                        .get(i)
+                        .match(call, translation, rules.get(i).matchContext())) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Nonnull
+    private static MethodMatcher<Tree> matchersOf(@Nonnull IDetectionRule<Tree> rule) {
+        if (rule instanceof DetectionRule<Tree> detectionRule) {
+            return detectionRule.matchers();
+        } else if (rule instanceof MethodDetectionRule<Tree> methodDetectionRule) {
+            return methodDetectionRule.matchers();
+        }
+        throw new IllegalArgumentException("Rule without method matcher " + rule);
+    }
+
+    /** A method matcher made of the stream-based predicates of the former {@link MethodMatcher}. */
+    private static final class PredicateMethodMatcher {
+        @Nonnull private final Predicate<IType> invokedObjectType;
+        @Nonnull private final Predicate<String> methodName;
+        @Nonnull private final Predicate<List<IType>> parameterTypes;
+
+        private PredicateMethodMatcher(
+                @Nonnull List<String> invokedObjectTypes,
+                @Nonnull List<String> methodNames,
+                @Nullable List<String> parameterTypes) {
+            this.invokedObjectType =
+                    substituteAny(
+                            type -> invokedObjectTypes.stream().anyMatch(type::is),
+                            invokedObjectTypes);
+            this.methodName =
+                    substituteAny(name -> methodNames.stream().anyMatch(name::equals), methodNames);
+            if (parameterTypes == null) {
+                this.parameterTypes = actualTypes -> true;
+            } else {
+                final List<Predicate<IType>> types =
+                        parameterTypes.stream()
+                                .<Predicate<IType>>map(
+                                        parameterType ->
+                                                substituteAny(
+                                                        type -> type.is(parameterType),
+                                                        List.of(parameterType)))
+                                .toList();
+                this.parameterTypes =
+                        actualTypes ->
+                                actualTypes.size() == types.size()
+                                        && matchesParameters(types, actualTypes);
+            }
+        }
+
+        /*
+         * the matchers of method detection rules accept any parameters, the ones of detection
+         * rules exactly their parameter types (see DetectionRuleBuilderImpl)
+         */
+        @Nonnull
+        private static PredicateMethodMatcher of(@Nonnull IDetectionRule<Tree> rule) {
+            final MethodMatcher<Tree> matcher = matchersOf(rule);
+            return new PredicateMethodMatcher(
+                    matcher.getInvokedObjectTypeStringsSerializable(),
+                    matcher.getMethodNamesSerializable(),
+                    rule instanceof MethodDetectionRule
+                            ? null
+                            : matcher.getParameterTypesSerializable());
+        }
+
+        @Nonnull
+        private static <E> Predicate<E> substituteAny(
+                @Nonnull Predicate<E> predicate, @Nonnull List<String> elements) {
+            if (elements.contains(MethodMatcher.ANY)) {
+                return e -> true;
+            }
+            return predicate;
+        }
+
+        private static boolean matchesParameters(
+                @Nonnull List<Predicate<IType>> expectedTypes, @Nonnull List<IType> actualTypes) {
+            for (int i = 0; i < expectedTypes.size(); i++) {
+                if (!expectedTypes.get(i).test(actualTypes.get(i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private boolean match(
+                @Nonnull Tree expression,
+                @Nonnull ILanguageTranslation<Tree> translation,
+                @Nonnull MatchContext matchContext) {
+            final Optional<IType> invokedObjectTypeString =
+                    translation.getInvokedObjectTypeString(matchContext, expression);
+            final Optional<String> invokedMethodName =
+                    translation.getMethodName(matchContext, expression);
+            final List<IType> param = translation.getMethodParameterTypes(matchContext, expression);
+
+            if (invokedObjectTypeString.isEmpty() || invokedMethodName.isEmpty()) {
+                return false;
+            }
+            return this.invokedObjectType.test(invokedObjectTypeString.get())
+                    && this.methodName.test(invokedMethodName.get())
+                    && this.parameterTypes.test(param);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.benchmarks;
+
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+import org.sonar.plugins.java.api.tree.TreeVisitor;
+
+/**
+ * A method invocation or constructor call recorded from a scan: the method name, the type of the
+ * invoked object and the types of the arguments. It stands in for the syntax tree of the call, so
+ * that the detection rules can be matched against it without parsing any source.
+ */
+public record RecordedCall(
+        @Nonnull String methodName,
+        @Nonnull RecordedType invokedObjectType,
+        @Nonnull List<RecordedType> parameterTypes)
+        implements Tree {
+
+    @Override
+    public boolean is(@Nonnull Kind... kinds) {
+        final Kind kind = kind();
+        for (Kind k : kinds) {
+            if (k == kind) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void accept(@Nonnull TreeVisitor visitor) {
+        throw new UnsupportedOperationException("A recorded call has no syntax tree");
+    }
+
+    @Nullable @Override
+    public Tree parent() {
+        return null;
+    }
+
+    @Nullable @Override
+    public SyntaxToken firstToken() {
+        return null;
+    }
+
+    @Nullable @Override
+    public SyntaxToken lastToken() {
+        return null;
+    }
+
+    @Nonnull
+    @Override
+    public Kind kind() {
+        return "<init>".equals(methodName) ? Kind.NEW_CLASS : Kind.METHOD_INVOCATION;
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.benchmarks;
+
+import com.ibm.engine.detection.IType;
+import com.ibm.engine.detection.MatchContext;
+import com.ibm.engine.language.ILanguageTranslation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Translation of {@link RecordedCall}s, resolving types the same way as {@code
+ * JavaLanguageTranslation}: exact types for hooks and rules asking for them, subtypes otherwise.
+ */
+public final class RecordedCallTranslation implements ILanguageTranslation<Tree> {
+
+    @Nonnull
+    @Override
+    public Optional<String> getMethodName(
+            @Nonnull MatchContext matchContext, @Nonnull Tree methodInvocation) {
+        if (methodInvocation instanceof RecordedCall call) {
+            return Optional.of(call.methodName());
+        }
+        return Optional.empty();
+    }
+
+    @Nonnull
+    @Override
+    public Optional<IType> getInvokedObjectTypeString(
+            @Nonnull MatchContext matchContext, @Nonnull Tree methodInvocation) {
+        if (methodInvocation instanceof RecordedCall call) {
+            return Optional.of(
+                    typeOf(
+                            call.invokedObjectType(),
+                            matchContext.isHookContext()
+                                    || matchContext.objectShouldMatchExactTypes()));
+        }
+        return Optional.empty();
+    }
+
+    @Nonnull
+    @Override
+    public Optional<IType> getMethodReturnTypeString(
+            @Nonnull MatchContext matchContext, @Nonnull Tree methodInvocation) {
+        // return types are not recorded
+        return Optional.empty();
+    }
+
+    @Nonnull
+    @Override
+    public List<IType> getMethodParameterTypes(
+            @Nonnull MatchContext matchContext, @Nonnull Tree methodInvocation) {
+        if (!(methodInvocation instanceof RecordedCall call) || call.parameterTypes().isEmpty()) {
+            return Collections.emptyList();
+        }
+        final List<RecordedType> parameterTypes = call.parameterTypes();
+        final List<Boolean> parameterMatchExactTypes =
+                matchContext.parametersShouldMatchExactTypes();
+        final boolean useMatchMatrix = parameterMatchExactTypes.size() == parameterTypes.size();
+
+        final List<IType> types = new ArrayList<>();
+        for (int i = 0; i < parameterTypes.size(); i++) {
+            final boolean exactMatch = useMatchMatrix && parameterMatchExactTypes.get(i);
+            types.add(typeOf(parameterTypes.get(i), matchContext.isHookContext() || exactMatch));
+        }
+        return types;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> resolveIdentifierAsString(
+            @Nonnull MatchContext matchContext, @Nonnull Tree identifier) {
+        return Optional.empty();
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> getEnumIdentifierName(
+            @Nonnull MatchContext matchContext, @Nonnull Tree enumIdentifier) {
+        return Optional.empty();
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> getEnumClassName(
+            @Nonnull MatchContext matchContext, @Nonnull Tree enumClass) {
+        return Optional.empty();
+    }
+
+    @Nonnull
+    private static IType typeOf(@Nonnull RecordedType type, boolean exactMatch) {
+        return string -> {
+            if (exactMatch) {
+                return type.is(string);
+            }
+            return type.is(string) || type.isSubtypeOf(string);
+        };
+    }
+}
@@ -0,0 +1,40 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.benchmarks;
+
+import java.util.Set;
+import javax.annotation.Nonnull;
+
+/**
+ * A type recorded from a scan, together with its supertypes. It answers the type checks of the
+ * detection rules like the types of the Java frontend.
+ */
+public record RecordedType(@Nonnull String name, @Nonnull Set<String> supertypes) {
+    /** The type of an expression that the frontend could not resolve, it matches no type. */
+    public static final RecordedType UNKNOWN = new RecordedType("!unknown!", Set.of());
+
+    public boolean is(@Nonnull String fullyQualifiedName) {
+        return this != UNKNOWN && name.equals(fullyQualifiedName);
+    }
+
+    public boolean isSubtypeOf(@Nonnull String fullyQualifiedName) {
+        return supertypes.contains(fullyQualifiedName);
+    }
+}
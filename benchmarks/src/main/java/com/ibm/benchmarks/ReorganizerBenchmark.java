@@ -0,0 +1,157 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.benchmarks;
+
+import com.ibm.mapper.ITranslator;
+import com.ibm.mapper.model.Algorithm;
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.model.Mac;
+import com.ibm.mapper.model.Signature;
+import com.ibm.mapper.model.TagLength;
+import com.ibm.mapper.model.algorithms.AES;
+import com.ibm.mapper.model.mode.CBC;
+import com.ibm.mapper.model.padding.PKCS7;
+import com.ibm.mapper.reorganizer.IReorganizerRule;
+import com.ibm.mapper.reorganizer.Reorganizer;
+import com.ibm.mapper.reorganizer.rules.CipherSuiteReorganizer;
+import com.ibm.mapper.reorganizer.rules.MacReorganizer;
+import com.ibm.mapper.reorganizer.rules.SignatureReorganizer;
+import com.ibm.mapper.utils.DetectionLocation;
+import com.ibm.plugin.translation.reorganizer.JavaReorganizerRules;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Reorganizes the translation trees of the algorithms in the test files with the rules of {@link
+ * MacReorganizer}, {@link SignatureReorganizer}, {@link CipherSuiteReorganizer} or all Java rules.
+ * The cipher suite of the test files gets its TLS parent, and a few more trees are rewritten by the
+ * Mac and signature rules. Since a reorganization changes its tree, each one runs on a fresh copy;
+ * {@link #copyTrees(Blackhole)} measures the copies alone.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReorganizerBenchmark {
+    @Param({"mac", "signature", "cipherSuite", "java"})
+    public String ruleSet;
+
+    private Reorganizer reorganizer;
+    private List<INode> trees;
+
+    @Setup
+    public void setUp() {
+        reorganizer = new Reorganizer(rules(ruleSet));
+        trees = new ArrayList<>(Corpus.algorithmTrees());
+        trees.addAll(rewrittenTrees());
+    }
+
+    @Benchmark
+    public void copyTrees(@Nonnull Blackhole blackhole) {
+        for (INode tree : trees) {
+            blackhole.consume(roots(tree));
+        }
+    }
+
+    @Benchmark
+    public void reorganize(@Nonnull Blackhole blackhole) {
+        for (INode tree : trees) {
+            blackhole.consume(reorganizer.reorganize(roots(tree)));
+        }
+    }
+
+    @Nonnull
+    private static List<INode> roots(@Nonnull INode tree) {
+        final List<INode> roots = new ArrayList<>(1);
+        roots.add(tree.deepCopy());
+        return roots;
+    }
+
+    @Nonnull
+    private static List<IReorganizerRule> rules(@Nonnull String ruleSet) {
+        return switch (ruleSet) {
+            case "mac" ->
+                    List.of(
+                            MacReorganizer.MERGE_UNKNOWN_MAC_PARENT_AND_CIPHER_CHILD,
+                            MacReorganizer.MOVE_SOME_MAC_CHILDREN_UNDER_BLOCKCIPHER,
+                            MacReorganizer.MOVE_TAG_LENGTH_UNDER_MAC);
+            case "signature" ->
+                    List.of(
+                            SignatureReorganizer.MERGE_UNKNOWN_SIGNATURE_PARENT_AND_CHILD,
+                            SignatureReorganizer.MERGE_SIGNATURE_PARENT_AND_CHILD,
+                            SignatureReorganizer.MERGE_SIGNATURE_WITH_PKE_UNDER_PRIVATE_KEY,
+                            SignatureReorganizer.MOVE_PSS_FROM_UNDER_SIGN_FUNCTION_TO_UNDER_KEY,
+                            SignatureReorganizer.MAKE_RSA_TO_SIGNATURE);
+            case "cipherSuite" -> List.of(CipherSuiteReorganizer.ADD_TLS_PROTOCOL_AS_PARENT_NODE);
+            case "java" -> JavaReorganizerRules.rules();
+            default -> throw new IllegalArgumentException("Unknown rule set " + ruleSet);
+        };
+    }
+
+    /** Trees the rules of the Mac and signature rule sets rewrite. */
+    @Nonnull
+    private static List<INode> rewrittenTrees() {
+        final DetectionLocation detectionLocation =
+                new DetectionLocation("Rewritten.java", 1, 0, List.of(), () -> "Jca");
+        final List<INode> trees = new ArrayList<>();
+
+        // a Mac of unknown name over a block cipher
+        final INode unknownMac = new Algorithm(ITranslator.UNKNOWN, Mac.class, detectionLocation);
+        unknownMac.put(new AES(detectionLocation));
+        trees.add(unknownMac);
+
+        // the mode and padding of a CMAC, to move under its block cipher
+        final INode cmac = new Algorithm("CMAC", Mac.class, detectionLocation);
+        cmac.put(new AES(detectionLocation));
+        cmac.put(new CBC(detectionLocation));
+        cmac.put(new PKCS7(detectionLocation));
+        trees.add(cmac);
+
+        // a tag length next to a Mac, to move under it
+        final INode gmacParent = new AES(detectionLocation);
+        gmacParent.put(new TagLength(128, detectionLocation));
+        gmacParent.put(new Algorithm("GMAC", Mac.class, detectionLocation));
+        trees.add(gmacParent);
+
+        // a signature of unknown name, and a named one, over a signature
+        for (String name : List.of(ITranslator.UNKNOWN, "SHA256withRSA")) {
+            final INode signature = new Algorithm(name, Signature.class, detectionLocation);
+            signature.put(new Algorithm("RSASSA-PSS", Signature.class, detectionLocation));
+            trees.add(signature);
+        }
+        return trees;
+    }
+}
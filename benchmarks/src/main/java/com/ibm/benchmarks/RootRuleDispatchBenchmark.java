@@ -0,0 +1,89 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.benchmarks;
+
+import com.ibm.engine.language.ILanguageTranslation;
+import com.ibm.engine.rule.DetectionRuleIndex;
+import com.ibm.engine.rule.IDetectionRule;
+import com.ibm.plugin.rules.detection.JavaDetectionRules;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Matches the root Java detection rules against the calls of the test files, once by trying every
+ * rule on every call (as {@code JavaBaseDetectionRule} did before the index) and once through the
+ * {@link DetectionRuleIndex}. Both return the number of matches, which must be equal.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RootRuleDispatchBenchmark {
+    private final ILanguageTranslation<Tree> translation = new RecordedCallTranslation();
+    private List<RecordedCall> calls;
+    private List<IDetectionRule<Tree>> rules;
+    private DetectionRuleIndex<Tree> index;
+
+    @Setup
+    public void setUp() {
+        calls = Corpus.calls();
+        rules = JavaDetectionRules.rules();
+        index = new DetectionRuleIndex<>(rules);
+    }
+
+    @Benchmark
+    public int linearScan() {
+        int matches = 0;
+        for (RecordedCall call : calls) {
+            for (IDetectionRule<Tree> rule : rules) {
+                if (rule.match(call, translation)) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+
+    @Benchmark
+    public int indexedDispatch() {
+        int matches = 0;
+        for (RecordedCall call : calls) {
+            for (IDetectionRule<Tree> rule : index.candidates(call, translation)) {
+                if (rule.match(call, translation)) {
+                    matches++;
+                }
+            }
+        }
+        return matches;
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.annotation.Nonnull;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Creates, fills and reads the values and children of detection stores, once with the former layout
+ * of {@link DetectionStore} (a random {@link UUID}, two {@code TreeMap<Integer, List<V>>} filled
+ * through {@code compute}, views flattened with a stream on every read) and once with the compact
+ * layout (a counter, two {@link IndexedLists}, views flattened once). Most stores stay empty, as
+ * most rules do not match; run with {@code -prof gc} to compare the allocations per store. The
+ * benchmark is in the package of {@link IndexedLists}, which is package-private.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DetectionStoreLayoutBenchmark {
+    private static final int STORES = 1000;
+    /* number of times the values and the children of a store are read */
+    private static final int READS = 3;
+    private static final AtomicLong NEXT_STORE_ID = new AtomicLong();
+
+    private final Object value = new Object();
+    private final Object child = new Object();
+
+    @Benchmark
+    public void treeMaps(@Nonnull Blackhole blackhole) {
+        for (int i = 0; i < STORES; i++) {
+            final UUID storeId = UUID.randomUUID();
+            final Map<Integer, List<Object>> values = new TreeMap<>();
+            final Map<Integer, List<Object>> children = new TreeMap<>();
+            final int filled = filledParameters(i);
+            for (int index = 0; index < filled; index++) {
+                add(values, index, value);
+            }
+            if (filled > 1) {
+                add(children, -1, child);
+            }
+            for (int read = 0; read < READS; read++) {
+                blackhole.consume(values.values().stream().flatMap(List::stream).toList());
+                blackhole.consume(children.values().stream().flatMap(List::stream).toList());
+            }
+            blackhole.consume(storeId);
+        }
+    }
+
+    @Benchmark
+    public void indexedLists(@Nonnull Blackhole blackhole) {
+        for (int i = 0; i < STORES; i++) {
+            final long storeId = NEXT_STORE_ID.incrementAndGet();
+            final IndexedLists<Object> values = new IndexedLists<>();
+            final IndexedLists<Object> children = new IndexedLists<>();
+            final int filled = filledParameters(i);
+            for (int index = 0; index < filled; index++) {
+                values.add(index, value);
+            }
+            if (filled > 1) {
+                children.add(-1, child);
+            }
+            List<Object> valuesView = null;
+            List<Object> childrenView = null;
+            for (int read = 0; read < READS; read++) {
+                if (valuesView == null) {
+                    valuesView = values.flatten(null);
+                }
+                if (childrenView == null) {
+                    childrenView = children.flatten(null);
+                }
+                blackhole.consume(valuesView);
+                blackhole.consume(childrenView);
+            }
+            blackhole.consume(storeId);
+        }
+    }
+
+    /**
+     * Returns the number of parameters with a value of the i-th store: none for 80 % of the stores,
+     * one for 15 % and two (and a child for the method) for 5 %.
+     */
+    private static int filledParameters(int i) {
+        final int percentile = i % 100;
+        if (percentile < 80) {
+            return 0;
+        }
+        return percentile < 95 ? 1 : 2;
+    }
+
+    private static void add(
+            @Nonnull Map<Integer, List<Object>> lists, int index, @Nonnull Object element) {
+        lists.compute(
+                index,
+                (i, list) -> {
+                    if (list == null) {
+                        final List<Object> elements = new ArrayList<>();
+                        elements.add(element);
+                        return elements;
+                    }
+                    list.add(element);
+                    return list;
+                });
+    }
+}
@@ -0,0 +1,76 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.mapper.mapper.ssl.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the first cipher-suite lookup of a scanner JVM, which loads the catalogue and builds the
+ * {@link JsonCipherSuiteIndex}: once from the packed resource read by {@link
+ * JsonCipherSuiteLoader}, and once from the {@link GeneratedJsonCipherSuites} class. Every
+ * measurement runs in a fresh JVM, so the time includes the class loading and initialization of the
+ * catalogue, but not the first read of a resource of the jar: the scanner reads resources of the
+ * plugin (e.g. the rule descriptions) before any file is scanned, so the setup reads one too. The
+ * benchmark is in the package of the index to build it from the generated class.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 1)
+@Fork(20)
+public class CipherSuiteCatalogueBenchmark {
+    private static final String CIPHER_SUITE = "TLS_ECDHE_RSA_WITH_AES_128_GCM_SHA256";
+
+    @Setup
+    public void readJarResource() throws IOException {
+        try (InputStream manifest =
+                JsonCipherSuiteLoader.class.getResourceAsStream("/META-INF/MANIFEST.MF")) {
+            if (manifest == null) {
+                throw new IOException("Missing manifest");
+            }
+            manifest.readAllBytes();
+        }
+    }
+
+    @Benchmark
+    public Optional<JsonCipherSuite> packedResource() {
+        return JsonCipherSuiteIndex.getInstance().findByIanaName(CIPHER_SUITE);
+    }
+
+    @Benchmark
+    public Optional<JsonCipherSuite> generatedClass() {
+        return new JsonCipherSuiteIndex(GeneratedJsonCipherSuites.CIPHER_SUITES.values())
+                .findByIanaName(CIPHER_SUITE);
+    }
+}
@@ -21,10 +21,15 @@ package com.ibm.mapper.mapper.ssl.json;
 
 import java.util.Map;
 
+/**
+ * The cipher-suite catalogue as a class generated from {@code mapper/ciphersuites.json}, the way
+ * the mapper shipped it before {@code JsonCipherSuiteLoader} read it from a packed resource. It is
+ * kept as the baseline of {@link CipherSuiteCatalogueBenchmark}.
+ */
 @SuppressWarnings("java:S1192")
-public final class JsonCipherSuites {
+public final class GeneratedJsonCipherSuites {
 
-    private JsonCipherSuites() {
+    private GeneratedJsonCipherSuites() {
         // nothing
     }
 
@@ -26,43 +26,118 @@ import com.ibm.engine.hooks.IHook;
 import com.ibm.engine.hooks.IHookDetectionObserver;
 import com.ibm.engine.language.ILanguageSupport;
 import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.utils.ScanMetrics;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentMap;
+import java.util.WeakHashMap;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Keeps track of the calls seen during the scan, to notify hooks about calls that were visited
+ * before the hook was registered.
+ *
+ * <p>Calls that can invoke a hook (see {@link ILanguageSupport#canInvokeHook(Object)}) are kept for
+ * the whole scan, since the hook may be registered while scanning a later file. They are only
+ * softly referenced, so the garbage collector can release them, together with the AST they belong
+ * to, before the heap runs out. At most {@code maxRetainedCalls} of them are kept; when the limit
+ * is reached, the calls of the least recently used method name are evicted first. A hook registered
+ * after one of its calls was released or evicted misses that call: released calls are logged at
+ * debug level and counted in the {@code callstack} group of the {@link ScanMetrics} ({@code
+ * released}, {@code evicted}).
+ *
+ * <p>All other calls are scoped to the file that is currently scanned: as soon as a call of another
+ * file is added, the calls of the previous file are released. Within a file, at most {@code
+ * maxCallsPerScope} of them are kept, evicted in the same way. These calls only hold weak
+ * references to their trees, so they never keep an AST alive on their own.
+ *
+ * <p>Hooks registered in the {@link com.ibm.engine.hooks.HookRepository} are not affected by the
+ * scope: they are notified about every new call, independent of the file it was found in.
+ */
 public class CallStackAgent<R, T, S, P>
         implements INotifyWhenNewCallWasAddedOntoTheCallStack<R, T>,
                 INewHookSubscription<R, T, S, P> {
+    public static final int DEFAULT_MAX_CALLS_PER_SCOPE = 10_000;
+    public static final int DEFAULT_MAX_RETAINED_CALLS = 10_000;
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(CallStackAgent.class);
+
+    /*
+     * method (or enum) name -> calls, in access order to evict the least recently used names first
+     */
     @Nonnull
-    private final ConcurrentMap<Integer, List<CallContext<R, T>>> invokedCallStack =
-            new ConcurrentHashMap<>();
+    private final Map<String, Deque<CallReference<R, T>>> invokedCallStack =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    /*
+     * calls that can invoke a hook, of all files: method (or enum) name -> calls, in access order
+     */
+    @Nonnull
+    private final Map<String, Deque<RetainedCall<R, T>>> retainedCalls =
+            new LinkedHashMap<>(16, 0.75f, true);
+
+    @Nonnull
+    private final Set<T> visitedTreeObjects = Collections.newSetFromMap(new WeakHashMap<>());
 
-    @Nonnull private final Set<T> visitedTreeObjects = ConcurrentHashMap.newKeySet();
     @Nonnull private final List<IObserver<CallContext<R, T>>> listeners = new ArrayList<>();
     @Nonnull private final ILanguageSupport<R, T, S, P> languageSupport;
+    private final int maxCallsPerScope;
+    private final int maxRetainedCalls;
+    @Nullable private String currentScope;
+    private int numberOfCalls = 0;
+    private int numberOfRetainedCalls = 0;
 
     public CallStackAgent(@Nonnull ILanguageSupport<R, T, S, P> languageSupport) {
+        this(languageSupport, DEFAULT_MAX_CALLS_PER_SCOPE, DEFAULT_MAX_RETAINED_CALLS);
+    }
+
+    public CallStackAgent(
+            @Nonnull ILanguageSupport<R, T, S, P> languageSupport,
+            int maxCallsPerScope,
+            int maxRetainedCalls) {
+        if (maxCallsPerScope <= 0 || maxRetainedCalls <= 0) {
+            throw new IllegalArgumentException("The call stack limits have to be positive.");
+        }
         this.languageSupport = languageSupport;
+        this.maxCallsPerScope = maxCallsPerScope;
+        this.maxRetainedCalls = maxRetainedCalls;
     }
 
     public void addCall(@Nonnull T tree, @Nonnull IScanContext<R, T> scanContext) {
-        Optional<Integer> keyOptional = getKeyFormT(tree);
+        Optional<String> keyOptional = getKeyFor(tree);
         if (keyOptional.isEmpty()) {
             return;
         }
 
-        int key = keyOptional.get();
+        final String key = keyOptional.get();
         final CallContext<R, T> callContext = new CallContext<>(tree, scanContext);
         if (addedToCallContext(key, callContext)) {
             this.notify(callContext);
         }
     }
 
+    /**
+     * Returns the number of calls currently kept on the call stack.
+     *
+     * @return the number of calls of the current scope and of the retained calls
+     */
+    public synchronized int size() {
+        return numberOfCalls + numberOfRetainedCalls;
+    }
+
     @Override
     public void subscribe(@Nonnull IObserver<CallContext<R, T>> listener) {
         listeners.add(listener);
@@ -98,16 +173,13 @@ public class CallStackAgent<R, T, S, P>
         }
 
         final List<CallContext<R, T>> stackCalls = new ArrayList<>();
-        final Iterator<List<CallContext<R, T>>> iterator = invokedCallStack.values().iterator();
+        final Iterator<CallContext<R, T>> iterator =
+                getCallsFor(methodMatcher.getMethodNamesSerializable()).iterator();
         while (iterator.hasNext()) {
-            final List<CallContext<R, T>> callContexts = iterator.next();
-            final Iterator<CallContext<R, T>> callContextIterator = callContexts.iterator();
-            while (callContextIterator.hasNext()) {
-                final CallContext<R, T> callContext = callContextIterator.next();
-                if (methodMatcher.match(
-                        callContext.tree(), languageSupport.translation(), hook.matchContext())) {
-                    stackCalls.add(callContext);
-                }
+            final CallContext<R, T> callContext = iterator.next();
+            if (methodMatcher.match(
+                    callContext.tree(), languageSupport.translation(), hook.matchContext())) {
+                stackCalls.add(callContext);
             }
         }
 
@@ -120,42 +192,162 @@ public class CallStackAgent<R, T, S, P>
         }
     }
 
-    private boolean addedToCallContext(int key, @Nonnull CallContext<R, T> callContext) {
-        if (visitedTreeObjects.contains(callContext.tree())) {
+    /**
+     * Returns the retained calls with the given keys, i.e. the calls that can invoke a hook.
+     *
+     * @param keys the method (or enum) names of the calls
+     * @return the retained calls
+     */
+    @Nonnull
+    public synchronized List<CallContext<R, T>> getRetainedCallsFor(@Nonnull List<String> keys) {
+        final List<CallContext<R, T>> callContexts = new ArrayList<>();
+        for (Deque<RetainedCall<R, T>> bucket : bucketsFor(retainedCalls, keys)) {
+            final Iterator<RetainedCall<R, T>> iterator = bucket.iterator();
+            while (iterator.hasNext()) {
+                final RetainedCall<R, T> retainedCall = iterator.next();
+                final CallContext<R, T> callContext = retainedCall.callContext().get();
+                if (callContext != null) {
+                    callContexts.add(callContext);
+                    continue;
+                }
+                // the garbage collector released the call, a hook on it is missed
+                LOGGER.debug(
+                        "A call of {} in {} was released before a hook on it was registered",
+                        retainedCall.key(),
+                        retainedCall.filePath());
+                ScanMetrics.count("callstack", "released");
+                iterator.remove();
+                numberOfRetainedCalls -= 1;
+            }
+        }
+        return callContexts;
+    }
+
+    /** Releases the calls of the current scope. The retained calls are kept. */
+    public synchronized void clear() {
+        invokedCallStack.clear();
+        visitedTreeObjects.clear();
+        numberOfCalls = 0;
+        currentScope = null;
+    }
+
+    @Nonnull
+    private synchronized List<CallContext<R, T>> getCallsFor(@Nonnull List<String> keys) {
+        final List<CallContext<R, T>> callContexts = getRetainedCallsFor(keys);
+        for (Deque<CallReference<R, T>> bucket : bucketsFor(invokedCallStack, keys)) {
+            for (CallReference<R, T> callReference : bucket) {
+                final T tree = callReference.tree().get();
+                if (tree != null) {
+                    callContexts.add(new CallContext<>(tree, callReference.publisher()));
+                }
+            }
+        }
+        return callContexts;
+    }
+
+    @Nonnull
+    private static <C> Collection<Deque<C>> bucketsFor(
+            @Nonnull Map<String, Deque<C>> calls, @Nonnull List<String> keys) {
+        if (keys.contains(MethodMatcher.ANY)) {
+            return new ArrayList<>(calls.values());
+        }
+        final List<Deque<C>> buckets = new ArrayList<>();
+        for (String key : keys) {
+            // the lookup marks the key as recently used
+            final Deque<C> bucket = calls.get(key);
+            if (bucket != null) {
+                buckets.add(bucket);
+            }
+        }
+        return buckets;
+    }
+
+    private synchronized boolean addedToCallContext(
+            @Nonnull String key, @Nonnull CallContext<R, T> callContext) {
+        final String scope = callContext.publisher().getFilePath();
+        if (!scope.equals(currentScope)) {
+            // a new file is scanned, release the calls of the previous one
+            clear();
+            currentScope = scope;
+        }
+
+        if (!visitedTreeObjects.add(callContext.tree())) {
             return false;
         }
-        visitedTreeObjects.add(callContext.tree());
-        invokedCallStack.compute(
-                key,
-                (k, v) -> {
-                    if (v == null) {
-                        final ArrayList<CallContext<R, T>> callContexts = new ArrayList<>();
-                        callContexts.add(callContext);
-                        return callContexts;
-                    } else {
-                        v.add(callContext);
-                        return v;
-                    }
-                });
+        if (languageSupport.canInvokeHook(callContext.tree())) {
+            // a hook on the called method may be registered in a later file
+            retainedCalls
+                    .computeIfAbsent(key, k -> new ArrayDeque<>())
+                    .addLast(new RetainedCall<>(key, scope, new SoftReference<>(callContext)));
+            numberOfRetainedCalls += 1;
+            final int evicted = evict(retainedCalls, numberOfRetainedCalls - maxRetainedCalls);
+            if (evicted > 0) {
+                ScanMetrics.count("callstack", "evicted", evicted);
+                numberOfRetainedCalls -= evicted;
+            }
+            return true;
+        }
+        invokedCallStack
+                .computeIfAbsent(key, k -> new ArrayDeque<>())
+                .addLast(
+                        new CallReference<>(
+                                new WeakReference<>(callContext.tree()), callContext.publisher()));
+        numberOfCalls += 1;
+        numberOfCalls -= evict(invokedCallStack, numberOfCalls - maxCallsPerScope);
         return true;
     }
 
+    /**
+     * Evicts calls of the least recently used names.
+     *
+     * @return the number of evicted calls
+     */
+    private static <C> int evict(@Nonnull Map<String, Deque<C>> calls, int numberOfCallsToEvict) {
+        int evicted = 0;
+        final Iterator<Deque<C>> iterator = calls.values().iterator();
+        while (evicted < numberOfCallsToEvict && iterator.hasNext()) {
+            // the first bucket is the least recently used one
+            final Deque<C> bucket = iterator.next();
+            while (evicted < numberOfCallsToEvict && !bucket.isEmpty()) {
+                bucket.pollFirst();
+                evicted += 1;
+            }
+            if (bucket.isEmpty()) {
+                iterator.remove();
+            }
+        }
+        return evicted;
+    }
+
+    /**
+     * Returns the key under which a call is kept on the call stack: the method name of the call, or
+     * the enum class name if the tree is not a method invocation.
+     *
+     * @param tree the call
+     * @return the key of the call, or empty if the tree can not be put on the call stack
+     */
     @Nonnull
-    private Optional<Integer> getKeyFormT(@Nonnull T tree) {
-        final String identifierString =
-                languageSupport
-                        .translation()
-                        .getMethodName(MatchContext.createForHookContext(), tree)
-                        .orElse(
+    public Optional<String> getKeyFor(@Nonnull T tree) {
+        return languageSupport
+                .translation()
+                .getMethodName(MatchContext.createForHookContext(), tree)
+                .or(
+                        () ->
                                 languageSupport
                                         .translation()
-                                        .getEnumClassName(MatchContext.createForHookContext(), tree)
-                                        .orElse(null));
-
-        if (identifierString == null) {
-            return Optional.empty();
-        }
-        int key = identifierString.hashCode();
-        return Optional.of(key);
+                                        .getEnumClassName(
+                                                MatchContext.createForHookContext(), tree));
     }
+
+    private record CallReference<R, T>(
+            @Nonnull WeakReference<T> tree, @Nonnull IScanContext<R, T> publisher) {}
+
+    /*
+     * The call and its scan context are referenced together, so they are released together. The
+     * method name and the file are kept to report a call that was released.
+     */
+    private record RetainedCall<R, T>(
+            @Nonnull String key,
+            @Nonnull String filePath,
+            @Nonnull SoftReference<CallContext<R, T>> callContext) {}
 }
@@ -23,49 +23,64 @@ import com.ibm.engine.executive.IStatusReporting;
 import com.ibm.engine.hooks.IHook;
 import com.ibm.engine.hooks.IHookDetectionObserver;
 import com.ibm.engine.hooks.IMethodInvocationHook;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.ILanguageTranslation;
 import com.ibm.engine.language.IScanContext;
 import com.ibm.engine.model.IAction;
 import com.ibm.engine.model.IValue;
 import com.ibm.engine.model.context.IDetectionContext;
 import com.ibm.engine.rule.DetectableParameter;
 import com.ibm.engine.rule.DetectionRule;
+import com.ibm.engine.rule.DetectionRuleIndex;
 import com.ibm.engine.rule.IDetectionRule;
 import com.ibm.engine.rule.MethodDetectionRule;
 import com.ibm.engine.rule.Parameter;
+import com.ibm.engine.utils.ScanMetrics;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.TreeMap;
-import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T, S, P> {
+    private static final AtomicLong NEXT_STORE_ID = new AtomicLong();
+
     protected final int level;
     @Nonnull final IDetectionRule<T> detectionRule;
     @Nonnull final IScanContext<R, T> scanContext;
     /*
      * (0...n) = depending-rules related to the detectable parameter defined by the index
      */
-    @Nonnull final Map<Integer, List<IValue<T>>> detectionValues;
+    @Nonnull final IndexedLists<IValue<T>> detectionValues;
     /*
      * -1 = depending-rules on the root not
      * else (0...n) = depending-rules related to the detectable parameter defined by the index
      */
-    @Nonnull final Map<Integer, List<DetectionStore<R, T, S, P>>> children;
+    @Nonnull final IndexedLists<DetectionStore<R, T, S, P>> children;
     @Nonnull final Handler<R, T, S, P> handler;
     @Nonnull final IStatusReporting<R, T, S, P> statusReporting;
-    @Nonnull private final UUID storeId = UUID.randomUUID();
+    private final long storeId = NEXT_STORE_ID.incrementAndGet();
     /*
      * action related to the detected method
      */
     @Nullable IAction<T> actionValue;
+    /*
+     * flattened views, built on first use and dropped on every change of the store
+     */
+    @Nullable private List<IValue<T>> detectionValuesView;
+    @Nullable private List<DetectionStore<R, T, S, P>> childrenView;
+    /*
+     * a store observing a hook can still receive detections after its finding was emitted
+     */
+    private boolean hookObserver = false;
 
     public DetectionStore(
             final int level,
@@ -76,19 +91,18 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
         this.level = level;
         this.detectionRule = detectionRule;
         this.scanContext = scanContext;
-        this.detectionValues =
-                new TreeMap<>(); // The map is sorted according to the natural ordering of its keys.
-        this.children = new TreeMap<>();
+        this.detectionValues = new IndexedLists<>(); // sorted by the index of the parameter
+        this.children = new IndexedLists<>();
         this.handler = handler;
         this.statusReporting = statusReporting;
+        ScanMetrics.count("detection", "stores");
     }
 
     public int getLevel() {
         return level;
     }
 
-    @Nonnull
-    public UUID getStoreId() {
+    public long getStoreId() {
         return storeId;
     }
 
@@ -120,13 +134,10 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
      */
     @Nonnull
     public List<IValue<T>> getDetectionValues() {
-        if (actionValue == null) {
-            return detectionValues.values().stream().flatMap(List::stream).toList();
+        if (detectionValuesView == null) {
+            detectionValuesView = detectionValues.flatten(actionValue);
         }
-        List<IValue<T>> allValues = new ArrayList<>();
-        allValues.add(actionValue);
-        allValues.addAll(detectionValues.values().stream().flatMap(List::stream).toList());
-        return Collections.unmodifiableList(allValues);
+        return detectionValuesView;
     }
 
     /**
@@ -141,10 +152,7 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
      */
     public void detectionValuesForEachParameter(
             @Nonnull BiConsumer<Integer, List<IValue<T>>> consumer) {
-        this.detectionValues.forEach(
-                (k, v) ->
-                        consumer.accept(
-                                k, Optional.of(Collections.unmodifiableList(v)).orElse(List.of())));
+        this.detectionValues.forEach((k, v) -> consumer.accept(k, Collections.unmodifiableList(v)));
     }
 
     /**
@@ -158,7 +166,10 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
      */
     @Nonnull
     public List<DetectionStore<R, T, S, P>> getChildren() {
-        return children.values().stream().flatMap(List::stream).toList();
+        if (childrenView == null) {
+            childrenView = children.flatten(null);
+        }
+        return childrenView;
     }
 
     /**
@@ -168,7 +179,8 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
      */
     @Nonnull
     public List<DetectionStore<R, T, S, P>> getChildrenForMethod() {
-        return Optional.ofNullable(this.children.get(-1)).orElse(List.of());
+        final List<DetectionStore<R, T, S, P>> methodChildren = this.children.get(-1);
+        return methodChildren == null ? List.of() : methodChildren;
     }
 
     /**
@@ -183,15 +195,12 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
      */
     public void childrenForEachParameter(
             @Nonnull BiConsumer<Integer, List<DetectionStore<R, T, S, P>>> consumer) {
-        for (Map.Entry<Integer, List<DetectionStore<R, T, S, P>>> entry :
-                this.children.entrySet()) {
-            if (entry.getKey() == -1) {
-                continue;
-            }
-            consumer.accept(
-                    entry.getKey(),
-                    Optional.of(Collections.unmodifiableList(entry.getValue())).orElse(List.of()));
-        }
+        this.children.forEach(
+                (k, v) -> {
+                    if (k != -1) {
+                        consumer.accept(k, Collections.unmodifiableList(v));
+                    }
+                });
     }
 
     public Optional<List<DetectionStore<R, T, S, P>>> getChildrenForParameterWithId(int id) {
@@ -203,18 +212,8 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
     }
 
     public void attach(int index, @Nonnull final DetectionStore<R, T, S, P> detectionStore) {
-        this.children.compute(
-                index,
-                (i, list) -> {
-                    if (list == null) {
-                        final List<DetectionStore<R, T, S, P>> stores = new ArrayList<>();
-                        stores.add(detectionStore);
-                        return stores;
-                    } else {
-                        list.add(detectionStore);
-                        return list;
-                    }
-                });
+        this.children.add(index, detectionStore);
+        this.childrenView = null;
     }
 
     void addValue(int index, @Nonnull final IValue<T> iValue) {
@@ -225,22 +224,72 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
             @Nonnull DetectionStore<R, T, S, P> detectionStore,
             int index,
             @Nonnull final IValue<T> iValue) {
-        detectionStore.detectionValues.compute(
-                index,
-                (i, list) -> {
-                    if (list == null) {
-                        // If the list is null, create a new ArrayList
-                        // with the iValue and return it
-                        final List<IValue<T>> values = new ArrayList<>();
-                        values.add(iValue);
-                        return values;
-                    } else {
-                        // If the list is not null, add the iValue to it
-                        // and return the modified list
-                        list.add(iValue);
-                        return list;
-                    }
-                });
+        detectionStore.detectionValues.add(index, iValue);
+        detectionStore.detectionValuesView = null;
+    }
+
+    void markAsHookObserver() {
+        this.hookObserver = true;
+    }
+
+    /**
+     * Detaches a child store whose rule did not match anything, if the stores are released eagerly.
+     * Such a store holds no value and can not receive any later.
+     *
+     * @param index the index the child store is attached to
+     * @param detectionStore the child store
+     */
+    void pruneIfEmpty(int index, @Nonnull DetectionStore<R, T, S, P> detectionStore) {
+        if (!statusReporting.releasesStoresEagerly()
+                || detectionStore.actionValue != null
+                || !detectionStore.detectionValues.isEmpty()
+                || !detectionStore.children.isEmpty()
+                || detectionStore.hookObserver) {
+            return;
+        }
+        this.children.remove(index, detectionStore);
+        this.childrenView = null;
+    }
+
+    /**
+     * Releases the values and the children of this store and of its descendants, once its finding
+     * was translated. Nothing is released if one of the stores observes a hook, since it can still
+     * emit a finding that includes the other stores.
+     *
+     * @return {@code true} if the store was released
+     */
+    public boolean release() {
+        if (observesHooks()) {
+            return false;
+        }
+        clear();
+        return true;
+    }
+
+    private boolean observesHooks() {
+        if (hookObserver) {
+            return true;
+        }
+        for (DetectionStore<R, T, S, P> child : getChildren()) {
+            if (child.observesHooks()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void clear() {
+        getChildren().forEach(DetectionStore::clear);
+        this.children.clear();
+        this.detectionValues.clear();
+        this.actionValue = null;
+        this.childrenView = null;
+        this.detectionValuesView = null;
+    }
+
+    private void setActionValue(@Nonnull IAction<T> iAction) {
+        this.actionValue = iAction;
+        this.detectionValuesView = null;
     }
 
     /**
@@ -269,14 +318,14 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
                 if (fullDetectionRule.actionFactory() != null) {
                     methodDetection
                             .toValue(fullDetectionRule.actionFactory())
-                            .ifPresent(iAction -> this.actionValue = iAction);
+                            .ifPresent(this::setActionValue);
                 }
                 nextDetectionRules = fullDetectionRule.nextDetectionRules();
             } else if (detectionRule.is(MethodDetectionRule.class)) {
                 MethodDetectionRule<T> methodDetectionRule = (MethodDetectionRule<T>) detectionRule;
                 methodDetection
                         .toValue(methodDetectionRule.actionFactory())
-                        .ifPresent(iAction -> this.actionValue = iAction);
+                        .ifPresent(this::setActionValue);
                 nextDetectionRules = methodDetectionRule.nextDetectionRules();
             }
 
@@ -446,28 +495,92 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
             @Nonnull final T enclosedMethodDefinition,
             @Nonnull final TraceSymbol<S> traceSymbol,
             @Nonnull final List<IDetectionRule<T>> nextDetectionRules) {
-        nextDetectionRules.stream()
-                .map(
-                        iDetectionRule ->
-                                new DetectionStore<>(
-                                        level + 1,
-                                        iDetectionRule,
-                                        scanContext,
-                                        handler,
-                                        statusReporting))
-                .forEach(
-                        newDetectionStore -> {
-                            this.attach(index, newDetectionStore);
-                            this.statusReporting.incrementVisitedRules();
-                            handler.getLanguageSupport()
-                                    .getBaseMethodVisitorFactory()
-                                    .create(
-                                            traceSymbol,
-                                            handler.getLanguageSupport()
-                                                    .createDetectionEngineInstance(
-                                                            newDetectionStore))
-                                    .visitMethodDefinition(enclosedMethodDefinition);
-                        });
+        final List<DetectionStore<R, T, S, P>> newDetectionStores =
+                nextDetectionRules.stream()
+                        .<DetectionStore<R, T, S, P>>map(
+                                iDetectionRule ->
+                                        new DetectionStore<>(
+                                                level + 1,
+                                                iDetectionRule,
+                                                scanContext,
+                                                handler,
+                                                statusReporting))
+                        .toList();
+        visitMethodDefinition(
+                enclosedMethodDefinition,
+                traceSymbol,
+                nextDetectionRules,
+                newDetectionStores,
+                newDetectionStore -> {
+                    this.attach(index, newDetectionStore);
+                    this.statusReporting.incrementVisitedRules();
+                });
+        newDetectionStores.forEach(newDetectionStore -> pruneIfEmpty(index, newDetectionStore));
+    }
+
+    /**
+     * Runs the detection engines of the given stores on the invocations of a method definition.
+     *
+     * <p>The invocations are taken from the per-method index of the {@link Handler}, so the method
+     * is only walked once, no matter how many rules follow it. Every invocation is dispatched to
+     * the stores whose rule can match its method name, using the dispatch index of the rule list
+     * (see {@link Handler#getDetectionRuleIndex(List)}). The stores are then visited one after the
+     * other, in the given order, each one only on the invocations dispatched to it. While the first
+     * store is visited, every invocation is put onto the call stack right before it would be
+     * visited, so the calls and the hook notifications they cause come in the same order as in a
+     * walk of the method.
+     *
+     * @param methodDefinition the method definition to visit
+     * @param traceSymbol the trace symbol the detection engines start with
+     * @param rules the rules of the stores
+     * @param detectionStores the stores to run detection engines for, one per rule, in the order of
+     *     the rules
+     * @param beforeVisit called for every store, right before its detection engine runs
+     */
+    protected <D extends DetectionStore<R, T, S, P>> void visitMethodDefinition(
+            @Nonnull final T methodDefinition,
+            @Nonnull final TraceSymbol<S> traceSymbol,
+            @Nonnull final List<IDetectionRule<T>> rules,
+            @Nonnull final List<D> detectionStores,
+            @Nonnull final Consumer<D> beforeVisit) {
+        if (detectionStores.isEmpty()) {
+            return;
+        }
+        final ILanguageSupport<R, T, S, P> languageSupport = handler.getLanguageSupport();
+        final ILanguageTranslation<T> translation = languageSupport.translation();
+        final IScanContext<R, T> storeScanContext = detectionStores.get(0).getScanContext();
+        final DetectionRuleIndex<T> ruleIndex = handler.getDetectionRuleIndex(rules);
+
+        final List<T> invocations =
+                handler.getMethodInvocations(methodDefinition, storeScanContext);
+        // the positions of the invocations dispatched to each store
+        final List<BitSet> invocationsPerStore = new ArrayList<>(detectionStores.size());
+        detectionStores.forEach(store -> invocationsPerStore.add(new BitSet()));
+        for (int j = 0; j < invocations.size(); j++) {
+            for (int i : ruleIndex.candidatePositions(invocations.get(j), translation)) {
+                invocationsPerStore.get(i).set(j);
+            }
+        }
+
+        for (int i = 0; i < detectionStores.size(); i++) {
+            final D detectionStore = detectionStores.get(i);
+            beforeVisit.accept(detectionStore);
+            final IDetectionEngine<T, S> detectionEngine =
+                    languageSupport.createDetectionEngineInstance(detectionStore);
+            final BitSet dispatched = invocationsPerStore.get(i);
+            if (i == 0) {
+                for (int j = 0; j < invocations.size(); j++) {
+                    languageSupport.addCallToCallStack(invocations.get(j), storeScanContext);
+                    if (dispatched.get(j)) {
+                        detectionEngine.run(traceSymbol, invocations.get(j));
+                    }
+                }
+                continue;
+            }
+            for (int j = dispatched.nextSetBit(0); j >= 0; j = dispatched.nextSetBit(j + 1)) {
+                detectionEngine.run(traceSymbol, invocations.get(j));
+            }
+        }
     }
 
     protected void followNextRulesWithExpression(
@@ -491,6 +604,7 @@ public class DetectionStore<R, T, S, P> implements IHookDetectionObserver<R, T,
                                     handler.getLanguageSupport()
                                             .createDetectionEngineInstance(newDetectionStore);
                             detectionEngine.run(TraceSymbol.createStart(), expression);
+                            pruneIfEmpty(index, newDetectionStore);
                         });
     }
 
@@ -188,31 +188,44 @@ public final class DetectionStoreWithHook<R, T, S, P> extends DetectionStore<R,
         final TraceSymbol<S> traceSymbol =
                 Objects.requireNonNullElseGet(traceSymbolForParameter, TraceSymbol::createStart);
 
-        hook.getParameter().getDetectionRules().stream()
-                .map(
-                        iDetectionRule ->
-                                new DetectionStoreWithHook<>(
-                                        level + 1,
-                                        iDetectionRule,
-                                        invocationTree,
-                                        hookRootDetectionStore))
-                .forEach(
-                        newDetectionStore -> {
-                            attach(hook.getParameter().getIndex(), newDetectionStore);
-                            handler.getLanguageSupport()
-                                    .getBaseMethodVisitorFactory()
-                                    .create(
-                                            traceSymbol,
-                                            handler.getLanguageSupport()
-                                                    .createDetectionEngineInstance(
-                                                            newDetectionStore))
-                                    .visitMethodDefinition(hook.methodDefinition());
-                        });
+        final int parameterIndex = hook.getParameter().getIndex();
+        final List<DetectionStoreWithHook<R, T, S, P>> parameterDetectionStores =
+                createDetectionStores(hook.getParameter().getDetectionRules());
+        visitMethodDefinition(
+                hook.methodDefinition(),
+                traceSymbol,
+                hook.getParameter().getDetectionRules(),
+                parameterDetectionStores,
+                newDetectionStore -> attach(parameterIndex, newDetectionStore));
+        parameterDetectionStores.forEach(
+                newDetectionStore -> pruneIfEmpty(parameterIndex, newDetectionStore));
 
         // add additional expected rule visits based on the size of the next detection rules
         statusReporting.addAdditionalExpectedRuleVisits(detectionRule.nextDetectionRules().size());
 
-        detectionRule.nextDetectionRules().stream()
+        final List<DetectionStoreWithHook<R, T, S, P>> nextDetectionStores =
+                createDetectionStores(detectionRule.nextDetectionRules());
+        visitMethodDefinition(
+                hook.methodDefinition(),
+                TraceSymbol.createStart(),
+                detectionRule.nextDetectionRules(),
+                nextDetectionStores,
+                newDetectionStore -> {
+                    attach(newDetectionStore);
+                    statusReporting.incrementVisitedRules();
+                });
+        nextDetectionStores.forEach(newDetectionStore -> pruneIfEmpty(-1, newDetectionStore));
+
+        // emit a finding to the status report if the root detection store contains any findings
+        if (!isSuccessive) {
+            statusReporting.emitFinding(hookRootDetectionStore);
+        }
+    }
+
+    @Nonnull
+    private List<DetectionStoreWithHook<R, T, S, P>> createDetectionStores(
+            @Nonnull List<IDetectionRule<T>> detectionRules) {
+        return detectionRules.stream()
                 .map(
                         iDetectionRule ->
                                 new DetectionStoreWithHook<>(
@@ -220,24 +233,7 @@ public final class DetectionStoreWithHook<R, T, S, P> extends DetectionStore<R,
                                         iDetectionRule,
                                         invocationTree,
                                         hookRootDetectionStore))
-                .forEach(
-                        newDetectionStore -> {
-                            attach(newDetectionStore);
-                            statusReporting.incrementVisitedRules();
-                            handler.getLanguageSupport()
-                                    .getBaseMethodVisitorFactory()
-                                    .create(
-                                            TraceSymbol.createStart(),
-                                            handler.getLanguageSupport()
-                                                    .createDetectionEngineInstance(
-                                                            newDetectionStore))
-                                    .visitMethodDefinition(hook.methodDefinition());
-                        });
-
-        // emit a finding to the status report if the root detection store contains any findings
-        if (!isSuccessive) {
-            statusReporting.emitFinding(hookRootDetectionStore);
-        }
+                .toList();
     }
 
     private void handleEnumHook(
@@ -26,21 +26,62 @@ import com.ibm.engine.hooks.HookDetectionObservable;
 import com.ibm.engine.hooks.HookRepository;
 import com.ibm.engine.hooks.IHook;
 import com.ibm.engine.hooks.IHookDetectionObserver;
+import com.ibm.engine.hooks.SharedHookRegistry;
 import com.ibm.engine.language.ILanguageSupport;
 import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.rule.DetectionRuleIndex;
+import com.ibm.engine.rule.IDetectionRule;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+/**
+ * Holds the detection state of a scan: the call stack, the registered hooks and their observers.
+ *
+ * <p>A handler is not thread-safe. In a parallel scan, each thread uses its own handler and the
+ * handlers share their hooks through a {@link SharedHookRegistry}. The only entry point that may be
+ * called from another thread is {@link #postHookInvocation(Object, IHook, IScanContext)}.
+ */
 public class Handler<R, T, S, P> {
     @Nonnull private final ILanguageSupport<R, T, S, P> languageSupport;
     @Nonnull private final CallStackAgent<R, T, S, P> callStackAgent;
     @Nonnull private final HookRepository<R, T, S, P> hookRepository;
     @Nonnull private final HookDetectionObservable<R, T, S, P> hookDetectionObservable;
+    @Nonnull private final MethodInvocationIndex<T> methodInvocationIndex;
+    @Nonnull private final MethodSummaries<T> methodSummaries;
+    private long numberOfHookSubscriptions;
+
+    /*
+     * rule list (e.g. the next rules of a detection rule) -> its dispatch index. The lists are part
+     * of the rule definitions, so there is one entry per list, not per visit.
+     */
+    @Nonnull
+    private final Map<List<IDetectionRule<T>>, DetectionRuleIndex<T>> detectionRuleIndexes =
+            new IdentityHashMap<>();
+
+    @Nonnull
+    private final Queue<PendingHookInvocation<R, T, S, P>> pendingHookInvocations =
+            new ConcurrentLinkedQueue<>();
 
     public Handler(@Nonnull ILanguageSupport<R, T, S, P> languageSupport) {
+        this(languageSupport, null);
+    }
+
+    public Handler(
+            @Nonnull ILanguageSupport<R, T, S, P> languageSupport,
+            @Nullable SharedHookRegistry<R, T, S, P> sharedHookRegistry) {
         this.languageSupport = languageSupport;
         this.callStackAgent = new CallStackAgent<>(languageSupport);
         this.hookDetectionObservable = new HookDetectionObservable<>(this);
-        this.hookRepository = new HookRepository<>(this);
+        this.hookRepository = new HookRepository<>(this, sharedHookRegistry);
+        this.methodInvocationIndex =
+                new MethodInvocationIndex<>(languageSupport::getMethodInvocations);
+        this.methodSummaries = new MethodSummaries<>(languageSupport::getMethodIdentity);
     }
 
     @Nonnull
@@ -49,28 +90,134 @@ public class Handler<R, T, S, P> {
     }
 
     public void addCallToCallStack(@Nonnull T tree, @Nonnull IScanContext<R, T> scanContext) {
+        processPendingHookInvocations();
         this.callStackAgent.addCall(tree, scanContext);
     }
 
+    /**
+     * Hands over an invocation of one of the hooks of this handler, found by the handler of another
+     * thread. It is processed on the thread of this handler, before it adds its next call to the
+     * call stack or at the end of its file (see {@link #leaveFile()}).
+     *
+     * @param invocationTree the call that matched the hook
+     * @param hook the hook of this handler
+     * @param scanContext the scan context of the call
+     */
+    public void postHookInvocation(
+            @Nonnull T invocationTree,
+            @Nonnull IHook<R, T, S, P> hook,
+            @Nonnull IScanContext<R, T> scanContext) {
+        this.pendingHookInvocations.add(
+                new PendingHookInvocation<>(invocationTree, hook, scanContext));
+    }
+
+    /**
+     * Processes the hook invocations handed over by the handlers of other threads. It has to be
+     * called on the thread of this handler, or once all threads finished scanning: at the end of
+     * each file, and at the end of the scan for the invocations found after the last file of this
+     * handler.
+     *
+     * @return if an invocation was processed
+     */
+    public boolean processPendingHookInvocations() {
+        boolean processed = false;
+        PendingHookInvocation<R, T, S, P> pending;
+        while ((pending = this.pendingHookInvocations.poll()) != null) {
+            notifyAllHookDetectionObservers(
+                    pending.invocationTree(), pending.hook(), pending.scanContext());
+            processed = true;
+        }
+        return processed;
+    }
+
+    /**
+     * Ends the scan of a file: processes the pending hook invocations. The method summaries are
+     * kept, the hooks of the methods of this file can fire in later files.
+     */
+    public void leaveFile() {
+        processPendingHookInvocations();
+    }
+
+    @Nonnull
+    public Optional<String> getCallStackKey(@Nonnull T tree) {
+        return this.callStackAgent.getKeyFor(tree);
+    }
+
+    @Nonnull
+    public List<T> getMethodInvocations(
+            @Nonnull T methodDefinition, @Nonnull IScanContext<R, T> scanContext) {
+        return this.methodInvocationIndex.invocationsOf(
+                scanContext.getFilePath(), methodDefinition);
+    }
+
+    /**
+     * Returns the dispatch index of a list of detection rules. It is created on the first request
+     * for the list, and reused for later requests of the same list instance.
+     *
+     * @param rules the detection rules, e.g. the next rules of a detection rule
+     * @return the dispatch index of the rules
+     */
+    @Nonnull
+    public DetectionRuleIndex<T> getDetectionRuleIndex(@Nonnull List<IDetectionRule<T>> rules) {
+        return this.detectionRuleIndexes.computeIfAbsent(rules, DetectionRuleIndex::new);
+    }
+
+    @Nonnull
+    public MethodSummaries<T> getMethodSummaries() {
+        return this.methodSummaries;
+    }
+
     public void onNewHookSubscription(
             @Nonnull IHook<R, T, S, P> hook,
             @Nonnull IHookDetectionObserver<R, T, S, P> hookDetectionObserver) {
         this.callStackAgent.onNewHookSubscription(hook, hookDetectionObserver);
+        this.hookRepository.onNewHookSubscription(hook);
+    }
+
+    /**
+     * Returns the retained calls of this handler with the given keys. It may be called from the
+     * thread of another handler, which checks its hooks against them.
+     *
+     * @param keys the method (or enum) names of the calls
+     * @return the retained calls
+     */
+    @Nonnull
+    public List<CallContext<R, T>> getRetainedCallsFor(@Nonnull List<String> keys) {
+        return this.callStackAgent.getRetainedCallsFor(keys);
     }
 
     public boolean addHookToHookRepository(@Nonnull IHook<R, T, S, P> hook) {
         return this.hookRepository.add(hook);
     }
 
+    @Nonnull
+    public HookRepository<R, T, S, P> getHookRepository() {
+        return hookRepository;
+    }
+
     public boolean deleteHookToHookRepository(@Nonnull IHook<R, T, S, P> hook) {
         return this.hookRepository.delete(hook);
     }
 
     public void subscribeToHookDetectionObservable(
             @Nonnull IHook<R, T, S, P> hook, @Nonnull IHookDetectionObserver<R, T, S, P> listener) {
+        if (listener instanceof DetectionStore<R, T, S, P> detectionStore) {
+            detectionStore.markAsHookObserver();
+        }
+        this.numberOfHookSubscriptions++;
         this.hookDetectionObservable.subscribe(hook, listener);
     }
 
+    /**
+     * Returns how many times a detection store subscribed to a hook, i.e. started to wait for an
+     * invocation that may be found in another file.
+     *
+     * @return the number of hook subscriptions
+     */
+    public long getNumberOfHookSubscriptions() {
+        return this.numberOfHookSubscriptions;
+    }
+
     public void unsubscribeFormHookDetectionObservable(
             @Nonnull IHook<R, T, S, P> hook, @Nonnull IHookDetectionObserver<R, T, S, P> listener) {
         this.hookDetectionObservable.unsubscribe(hook, listener);
@@ -94,4 +241,9 @@ public class Handler<R, T, S, P> {
     public void notifyAllCallStackAgentObservers(@Nonnull CallContext<R, T> callContext) {
         this.callStackAgent.notify(callContext);
     }
+
+    private record PendingHookInvocation<R, T, S, P>(
+            @Nonnull T invocationTree,
+            @Nonnull IHook<R, T, S, P> hook,
+            @Nonnull IScanContext<R, T> scanContext) {}
 }
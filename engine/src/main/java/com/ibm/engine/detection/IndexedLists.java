@@ -0,0 +1,184 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Compact replacement of a {@code TreeMap<Integer, List<V>>} for the values and children of a
+ * {@link DetectionStore}, keyed by the (small) index of a parameter.
+ *
+ * <p>The indices are kept sorted in a plain array, next to an array of their lists. Nothing is
+ * allocated before the first value is added, since most stores never receive a value or a child.
+ */
+final class IndexedLists<V> {
+    private static final int[] NO_INDICES = new int[0];
+    private static final int INITIAL_CAPACITY = 2;
+
+    @Nonnull private int[] indices = NO_INDICES;
+    @Nullable private List<V>[] lists;
+    private int size = 0;
+
+    void add(int index, @Nonnull V value) {
+        int position = Arrays.binarySearch(indices, 0, size, index);
+        if (position >= 0) {
+            Objects.requireNonNull(lists)[position].add(value);
+            return;
+        }
+        position = -(position + 1);
+        ensureCapacity();
+        final List<V>[] currentLists = Objects.requireNonNull(lists);
+        System.arraycopy(indices, position, indices, position + 1, size - position);
+        System.arraycopy(currentLists, position, currentLists, position + 1, size - position);
+        // most parameters hold a single value
+        final List<V> list = new ArrayList<>(1);
+        list.add(value);
+        indices[position] = index;
+        currentLists[position] = list;
+        size += 1;
+    }
+
+    @Nullable List<V> get(int index) {
+        final int position = Arrays.binarySearch(indices, 0, size, index);
+        if (position < 0) {
+            return null;
+        }
+        return Objects.requireNonNull(lists)[position];
+    }
+
+    /**
+     * Removes a value from the list of an index, and the index if its list becomes empty. Values
+     * are compared by identity.
+     *
+     * @param index the index of the list
+     * @param value the value to remove
+     */
+    void remove(int index, @Nonnull V value) {
+        final int position = Arrays.binarySearch(indices, 0, size, index);
+        if (position < 0) {
+            return;
+        }
+        final List<V>[] currentLists = Objects.requireNonNull(lists);
+        final List<V> list = currentLists[position];
+        for (int i = 0; i < list.size(); i++) {
+            if (list.get(i) == value) {
+                list.remove(i);
+                break;
+            }
+        }
+        if (!list.isEmpty()) {
+            return;
+        }
+        System.arraycopy(indices, position + 1, indices, position, size - position - 1);
+        System.arraycopy(currentLists, position + 1, currentLists, position, size - position - 1);
+        size -= 1;
+        currentLists[size] = null;
+    }
+
+    void clear() {
+        indices = NO_INDICES;
+        lists = null;
+        size = 0;
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Iterates over the lists in the order of their indices.
+     *
+     * @param consumer receives the index and the list of each entry
+     */
+    void forEach(@Nonnull BiConsumer<Integer, List<V>> consumer) {
+        for (int i = 0; i < size; i++) {
+            consumer.accept(indices[i], Objects.requireNonNull(lists)[i]);
+        }
+    }
+
+    /**
+     * Returns the values of all lists, in the order of their indices.
+     *
+     * @param prefix an eventual value to put in front of the others
+     * @return an immutable list of the values
+     */
+    @Nonnull
+    List<V> flatten(@Nullable V prefix) {
+        int total = prefix == null ? 0 : 1;
+        for (int i = 0; i < size; i++) {
+            total += Objects.requireNonNull(lists)[i].size();
+        }
+        if (total == 0) {
+            return List.of();
+        }
+        final List<V> values = new ArrayList<>(total);
+        if (prefix != null) {
+            values.add(prefix);
+        }
+        for (int i = 0; i < size; i++) {
+            values.addAll(Objects.requireNonNull(lists)[i]);
+        }
+        return Collections.unmodifiableList(values);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void ensureCapacity() {
+        if (lists == null) {
+            indices = new int[INITIAL_CAPACITY];
+            lists = (List<V>[]) new List<?>[INITIAL_CAPACITY];
+        } else if (size == indices.length) {
+            indices = Arrays.copyOf(indices, size * 2);
+            lists = Arrays.copyOf(lists, size * 2);
+        }
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof IndexedLists<?> that)) return false;
+        if (size != that.size) return false;
+        for (int i = 0; i < size; i++) {
+            if (indices[i] != that.indices[i]
+                    || !Objects.equals(
+                            Objects.requireNonNull(lists)[i],
+                            Objects.requireNonNull(that.lists)[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int result = 1;
+        for (int i = 0; i < size; i++) {
+            result = 31 * result + indices[i];
+            result = 31 * result + Objects.requireNonNull(lists)[i].hashCode();
+        }
+        return result;
+    }
+}
@@ -19,10 +19,8 @@
  */
 package com.ibm.engine.detection;
 
-import com.ibm.engine.rule.DetectionRule;
 import com.ibm.engine.rule.IDetectionRule;
 import com.ibm.engine.rule.Parameter;
-import java.util.ArrayList;
 import java.util.List;
 import javax.annotation.Nonnull;
 
@@ -35,16 +33,24 @@ public record MatchContext(
         return new MatchContext(true, false, List.of());
     }
 
+    /**
+     * Returns the match context of the given rule. Rules precompute their normal and hook contexts
+     * when they are built, so this does not allocate.
+     */
     @Nonnull
     public static <T> MatchContext build(
             boolean isHookContext, @Nonnull IDetectionRule<T> iDetectionRule) {
-        List<Boolean> parameters = new ArrayList<>();
-        if (iDetectionRule instanceof DetectionRule<T> detectionRule) {
-            parameters =
-                    detectionRule.parameters().stream()
-                            .map(Parameter::shouldMatchExactTypes)
-                            .toList();
-        }
-        return new MatchContext(isHookContext, iDetectionRule.shouldMatchExactTypes(), parameters);
+        return isHookContext ? iDetectionRule.hookMatchContext() : iDetectionRule.matchContext();
+    }
+
+    @Nonnull
+    public static <T> MatchContext of(
+            boolean isHookContext,
+            boolean shouldMatchExactTypes,
+            @Nonnull List<Parameter<T>> parameters) {
+        return new MatchContext(
+                isHookContext,
+                shouldMatchExactTypes,
+                parameters.stream().map(Parameter::shouldMatchExactTypes).toList());
     }
 }
@@ -0,0 +1,107 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Caches, per method definition, the flat list of trees a detection engine has to look at when
+ * following the next detection rules inside that method (method invocations, constructor calls,
+ * ...). The list is collected on the first request and reused by all following rules, instead of
+ * walking the method once per rule.
+ *
+ * <p>The cache is scoped to a file: requesting a method of another file releases the methods of the
+ * previous one. Within a file, at most {@code maxMethodsPerScope} methods are kept, the least
+ * recently used method is evicted first.
+ *
+ * @param <T> the language specific tree type
+ */
+public final class MethodInvocationIndex<T> {
+    public static final int DEFAULT_MAX_METHODS_PER_SCOPE = 64;
+
+    @Nonnull private final Function<T, List<T>> collector;
+    private final int maxMethodsPerScope;
+    @Nonnull private final Map<Key<T>, List<T>> invocationsByMethod;
+    @Nullable private String currentScope;
+
+    public MethodInvocationIndex(@Nonnull Function<T, List<T>> collector) {
+        this(collector, DEFAULT_MAX_METHODS_PER_SCOPE);
+    }
+
+    public MethodInvocationIndex(@Nonnull Function<T, List<T>> collector, int maxMethodsPerScope) {
+        this.collector = collector;
+        this.maxMethodsPerScope = maxMethodsPerScope;
+        this.invocationsByMethod =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Key<T>, List<T>> eldest) {
+                        return size() > MethodInvocationIndex.this.maxMethodsPerScope;
+                    }
+                };
+    }
+
+    /**
+     * Returns the trees of the method definition to run detection engines on, in the order a visit
+     * of the method would encounter them.
+     *
+     * @param scope the file containing the method definition
+     * @param methodDefinition the method definition
+     * @return the (cached) trees of the method definition
+     */
+    @Nonnull
+    public synchronized List<T> invocationsOf(@Nonnull String scope, @Nonnull T methodDefinition) {
+        if (!Objects.equals(scope, currentScope)) {
+            invocationsByMethod.clear();
+            currentScope = scope;
+        }
+        return invocationsByMethod.computeIfAbsent(
+                new Key<>(methodDefinition),
+                key -> Collections.unmodifiableList(collector.apply(key.tree())));
+    }
+
+    public synchronized int size() {
+        return invocationsByMethod.size();
+    }
+
+    public synchronized void clear() {
+        invocationsByMethod.clear();
+        currentScope = null;
+    }
+
+    /** Compares trees by identity, independent of how a tree implementation defines equality. */
+    private record Key<T>(@Nonnull T tree) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key<?> other && other.tree == tree;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(tree);
+        }
+    }
+}
@@ -21,19 +21,35 @@ package com.ibm.engine.detection;
 
 import com.ibm.engine.language.ILanguageTranslation;
 import java.util.Arrays;
+import java.util.BitSet;
 import java.util.List;
 import java.util.Optional;
-import java.util.function.Function;
-import java.util.function.Predicate;
+import java.util.Set;
 import javax.annotation.Nonnull;
-import org.sonarsource.analyzer.commons.collections.SetUtils;
+import javax.annotation.Nullable;
 
+/**
+ * Matches method invocations by the type of the invoked object, the method name and the types of
+ * the parameters.
+ *
+ * <p>The matcher is compiled when it is created: the method names are kept in a hashed set, the
+ * type strings are interned, and the parameters that accept any type are marked in a bit set. A
+ * match checks the cheapest criteria first: the method name, then the number of parameters, and
+ * only then the types, which can require a semantic lookup.
+ */
 public final class MethodMatcher<T> {
     public static final String ANY = "*";
 
-    @Nonnull private final Predicate<IType> invokedObjectTypeString;
-    @Nonnull private final Predicate<String> methodName;
-    @Nonnull private final Predicate<List<IType>> parameterTypes;
+    /*
+     * compiled predicates, null if any value matches
+     */
+    @Nullable private final String[] invokedObjectTypes;
+    @Nullable private final Set<String> methodNames;
+    @Nullable private final String[] parameterTypes;
+    /*
+     * indices of the parameters that accept any type
+     */
+    @Nonnull private final BitSet anyParameterTypes;
 
     /*
      * The following attributes are only used for serializing the MethodMatcher class (see
@@ -48,108 +64,89 @@ public final class MethodMatcher<T> {
             @Nonnull String invokedObjectTypeString,
             @Nonnull String methodName,
             @Nonnull List<String> parameterTypes) {
-
-        this.invokedObjectTypeStringsSerializable = List.of(invokedObjectTypeString);
-        this.methodNamesSerializable = List.of(methodName);
-        this.parameterTypesSerializable = parameterTypes;
-
-        this.invokedObjectTypeString =
-                createPredicate(invokedObjectTypeString, (type1 -> (iType -> iType.is(type1))));
-
-        this.methodName = createPredicate(methodName, (methodName1 -> (methodName1::equals)));
-
-        List<Predicate<IType>> types =
-                parameterTypes.stream()
-                        .<Predicate<IType>>map(
-                                parameterType ->
-                                        substituteAny(
-                                                type -> type.is(parameterType), parameterType))
-                        .toList();
-        this.parameterTypes =
-                (List<IType> actualTypes) -> exactMatchesParameters(types, actualTypes);
+        this(new String[] {invokedObjectTypeString}, new String[] {methodName}, parameterTypes);
     }
 
     public MethodMatcher(
             @Nonnull String[] invokedObjectTypeStrings,
             @Nonnull String[] methodNames,
             @Nonnull List<String> parameterTypes) {
-
-        this.invokedObjectTypeStringsSerializable = Arrays.asList(invokedObjectTypeStrings);
-        this.methodNamesSerializable = Arrays.asList(methodNames);
-        this.parameterTypesSerializable = parameterTypes;
-
-        this.invokedObjectTypeString =
-                createPredicate(
-                        invokedObjectTypeStrings,
-                        types -> (type -> types.stream().anyMatch(type::is)));
-
-        this.methodName =
-                createPredicate(
-                        methodNames, names -> (name -> names.stream().anyMatch(name::equals)));
-
-        List<Predicate<IType>> types =
-                parameterTypes.stream()
-                        .<Predicate<IType>>map(
-                                parameterType ->
-                                        substituteAny(
-                                                type -> type.is(parameterType), parameterType))
-                        .toList();
-        this.parameterTypes =
-                (List<IType> actualTypes) -> exactMatchesParameters(types, actualTypes);
+        this(invokedObjectTypeStrings, methodNames, parameterTypes, parameterTypes);
     }
 
     public MethodMatcher(
             @Nonnull String[] invokedObjectTypeStrings, @Nonnull String[] methodNames) {
+        this(invokedObjectTypeStrings, methodNames, null, List.of());
+    }
 
+    private MethodMatcher(
+            @Nonnull String[] invokedObjectTypeStrings,
+            @Nonnull String[] methodNames,
+            @Nullable List<String> parameterTypes,
+            @Nonnull List<String> parameterTypesSerializable) {
         this.invokedObjectTypeStringsSerializable = Arrays.asList(invokedObjectTypeStrings);
         this.methodNamesSerializable = Arrays.asList(methodNames);
-        this.parameterTypesSerializable = List.of();
-
-        this.invokedObjectTypeString =
-                createPredicate(
-                        invokedObjectTypeStrings,
-                        types -> (type -> types.stream().anyMatch(type::is)));
-
-        this.methodName =
-                createPredicate(
-                        methodNames, names -> (name -> names.stream().anyMatch(name::equals)));
-        this.parameterTypes = (List<IType> actualTypes) -> true;
+        this.parameterTypesSerializable = parameterTypesSerializable;
+
+        this.invokedObjectTypes =
+                isAny(invokedObjectTypeStrings) ? null : intern(invokedObjectTypeStrings);
+        this.methodNames =
+                isAny(methodNames) ? null : Set.copyOf(Arrays.asList(intern(methodNames)));
+
+        this.anyParameterTypes = new BitSet();
+        if (parameterTypes == null) {
+            this.parameterTypes = null;
+        } else {
+            this.parameterTypes = intern(parameterTypes.toArray(String[]::new));
+            for (int i = 0; i < this.parameterTypes.length; i++) {
+                if (ANY.equals(this.parameterTypes[i])) {
+                    this.anyParameterTypes.set(i);
+                }
+            }
+        }
     }
 
-    private static <E> Predicate<E> substituteAny(Predicate<E> predicate, String... elements) {
-        if (SetUtils.immutableSetOf(elements).contains(ANY)) {
+    private static boolean isAny(@Nonnull String[] elements) {
+        if (Arrays.asList(elements).contains(ANY)) {
             if (elements.length > 1) {
                 throw new IllegalStateException(
                         "Incompatible MethodMatchers.ANY with other predicates.");
             }
-            return e -> true;
+            return true;
         }
-        return predicate;
+        return false;
     }
 
-    private static <E> Predicate<E> createPredicate(
-            @Nonnull String element,
-            @Nonnull Function<String, Predicate<E>> singleElementPredicate) {
-        return substituteAny(singleElementPredicate.apply(element), element);
-    }
-
-    private static <E> Predicate<E> createPredicate(
-            @Nonnull String[] elements,
-            @Nonnull Function<List<String>, Predicate<E>> multiElementsPredicate) {
-        List<String> multiElements = Arrays.asList(elements);
-        return substituteAny(multiElementsPredicate.apply(multiElements), elements);
+    @Nonnull
+    private static String[] intern(@Nonnull String[] elements) {
+        final String[] interned = new String[elements.length];
+        for (int i = 0; i < elements.length; i++) {
+            interned[i] = elements[i].intern();
+        }
+        return interned;
     }
 
-    private boolean exactMatchesParameters(
-            @Nonnull List<Predicate<IType>> expectedTypes, @Nonnull List<IType> actualTypes) {
-        return actualTypes.size() == expectedTypes.size()
-                && matchesParameters(expectedTypes, actualTypes);
+    private boolean matchesInvokedObjectType(@Nonnull IType invokedObjectType) {
+        if (invokedObjectTypes == null) {
+            return true;
+        }
+        for (String type : invokedObjectTypes) {
+            if (invokedObjectType.is(type)) {
+                return true;
+            }
+        }
+        return false;
     }
 
-    private boolean matchesParameters(
-            @Nonnull List<Predicate<IType>> expectedTypes, @Nonnull List<IType> actualTypes) {
-        for (int i = 0; i < expectedTypes.size(); i++) {
-            if (!expectedTypes.get(i).test(actualTypes.get(i))) {
+    private boolean matchesParameters(@Nonnull List<IType> actualTypes) {
+        if (parameterTypes == null) {
+            return true;
+        }
+        if (actualTypes.size() != parameterTypes.length) {
+            return false;
+        }
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!anyParameterTypes.get(i) && !actualTypes.get(i).is(parameterTypes[i])) {
                 return false;
             }
         }
@@ -160,18 +157,21 @@ public final class MethodMatcher<T> {
             @Nonnull T expression,
             @Nonnull ILanguageTranslation<T> translation,
             @Nonnull MatchContext matchContext) {
-        Optional<IType> invokedObjectType =
-                translation.getInvokedObjectTypeString(matchContext, expression);
-        Optional<String> invokedMethodName = translation.getMethodName(matchContext, expression);
-        List<IType> param = translation.getMethodParameterTypes(matchContext, expression);
-
-        if (invokedObjectType.isEmpty() || invokedMethodName.isEmpty()) {
+        final Optional<String> invokedMethodName =
+                translation.getMethodName(matchContext, expression);
+        if (invokedMethodName.isEmpty()
+                || (methodNames != null && !methodNames.contains(invokedMethodName.get()))) {
             return false;
         }
-
-        return this.invokedObjectTypeString.test(invokedObjectType.get())
-                && this.methodName.test(invokedMethodName.get())
-                && this.parameterTypes.test(param);
+        final List<IType> param = translation.getMethodParameterTypes(matchContext, expression);
+        if (parameterTypes != null && param.size() != parameterTypes.length) {
+            return false;
+        }
+        final Optional<IType> invokedObjectType =
+                translation.getInvokedObjectTypeString(matchContext, expression);
+        return invokedObjectType.isPresent()
+                && matchesInvokedObjectType(invokedObjectType.get())
+                && matchesParameters(param);
     }
 
     @Nonnull
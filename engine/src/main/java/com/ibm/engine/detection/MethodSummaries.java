@@ -0,0 +1,113 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import com.ibm.engine.utils.ScanMetrics;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+import javax.annotation.Nonnull;
+
+/**
+ * Caches a {@link MethodSummary} per method, so that the facts the detection derives from a method
+ * definition are computed once, and not again for every call site of the method that triggers one
+ * of its hooks, in whichever file the call site is.
+ *
+ * <p>The summaries are kept for the whole scan and keyed by a stable identity of the method, the
+ * owner type and the signature (see {@link
+ * com.ibm.engine.language.ILanguageSupport#getMethodIdentity(Object)}). A summary is only reused
+ * for the method definition tree it was computed from: if the declaring file is scanned again, the
+ * method has a new tree, and its summary is computed again and replaces the previous one, which
+ * releases the previous tree. Methods without an identity are keyed by their tree. At most {@code
+ * maxMethods} summaries are kept, the least recently used summary is evicted first.
+ *
+ * @param <T> the language specific tree type
+ */
+public final class MethodSummaries<T> {
+    public static final int DEFAULT_MAX_METHODS = 1024;
+
+    private final int maxMethods;
+    @Nonnull private final Function<T, Optional<String>> methodIdentity;
+    @Nonnull private final Map<Object, MethodSummary<T>> summariesByMethod;
+
+    public MethodSummaries(@Nonnull Function<T, Optional<String>> methodIdentity) {
+        this(methodIdentity, DEFAULT_MAX_METHODS);
+    }
+
+    public MethodSummaries(@Nonnull Function<T, Optional<String>> methodIdentity, int maxMethods) {
+        this.maxMethods = maxMethods;
+        this.methodIdentity = methodIdentity;
+        this.summariesByMethod =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(
+                            Map.Entry<Object, MethodSummary<T>> eldest) {
+                        return size() > MethodSummaries.this.maxMethods;
+                    }
+                };
+    }
+
+    /**
+     * Returns the summary of the method definition, creating an empty one on the first request, and
+     * when the summary of the method was computed from another tree of its definition.
+     *
+     * @param methodDefinition the method definition
+     * @return the summary of the method definition
+     */
+    @Nonnull
+    public synchronized MethodSummary<T> summaryOf(@Nonnull T methodDefinition) {
+        final Object key =
+                methodIdentity
+                        .apply(methodDefinition)
+                        .<Object>map(identity -> identity)
+                        .orElseGet(() -> new TreeKey<>(methodDefinition));
+        final MethodSummary<T> summary = summariesByMethod.get(key);
+        if (summary != null && summary.methodDefinition() == methodDefinition) {
+            ScanMetrics.count("summaries", "methods.reused");
+            return summary;
+        }
+        ScanMetrics.count("summaries", summary == null ? "methods" : "methods.invalidated");
+        final MethodSummary<T> newSummary = new MethodSummary<>(methodDefinition);
+        summariesByMethod.put(key, newSummary);
+        return newSummary;
+    }
+
+    public synchronized int size() {
+        return summariesByMethod.size();
+    }
+
+    public synchronized void clear() {
+        summariesByMethod.clear();
+    }
+
+    /** Compares trees by identity, independent of how a tree implementation defines equality. */
+    private record TreeKey<T>(@Nonnull T tree) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TreeKey<?> other && other.tree == tree;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(tree);
+        }
+    }
+}
@@ -0,0 +1,115 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import com.ibm.engine.model.factory.IValueFactory;
+import com.ibm.engine.utils.ScanMetrics;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The facts about a method definition that do not depend on the call site of the method: the
+ * matcher for the invocations of the method, and the values it returns. Each fact is computed on
+ * its first request and reused for all following call sites.
+ *
+ * @param <T> the language specific tree type
+ */
+public final class MethodSummary<T> {
+    @Nonnull private final T methodDefinition;
+    private boolean invocationMatcherComputed;
+    @Nullable private MethodMatcher<T> invocationMatcher;
+
+    @Nonnull
+    private final Map<ReturnValuesKey, List<? extends ReturnValue<?, T>>> returnValuesByKey =
+            new HashMap<>();
+
+    MethodSummary(@Nonnull T methodDefinition) {
+        this.methodDefinition = methodDefinition;
+    }
+
+    @Nonnull
+    public T methodDefinition() {
+        return methodDefinition;
+    }
+
+    /**
+     * Returns the matcher for the invocations of the method.
+     *
+     * @param factory creates the matcher on the first request
+     * @return the matcher, or null if no matcher can be created for the method
+     */
+    @Nullable public synchronized MethodMatcher<T> invocationMatcher(
+            @Nonnull Function<T, MethodMatcher<T>> factory) {
+        if (!invocationMatcherComputed) {
+            invocationMatcher = factory.apply(methodDefinition);
+            invocationMatcherComputed = true;
+        }
+        return invocationMatcher;
+    }
+
+    /**
+     * Returns the values returned by the method, in the order of its return statements.
+     *
+     * @param clazz the type of the resolved values
+     * @param valueFactory the value factory used to resolve the returned expressions, or null if
+     *     the returned expressions are not resolved
+     * @param summarizer collects the returned values on the first request
+     * @return the returned values
+     */
+    @Nonnull
+    @SuppressWarnings("unchecked")
+    public synchronized <O> List<ReturnValue<O, T>> returnValues(
+            @Nonnull Class<O> clazz,
+            @Nullable IValueFactory<T> valueFactory,
+            @Nonnull Supplier<List<ReturnValue<O, T>>> summarizer) {
+        final ReturnValuesKey key = new ReturnValuesKey(clazz, valueFactory);
+        List<? extends ReturnValue<?, T>> returnValues = returnValuesByKey.get(key);
+        if (returnValues == null) {
+            ScanMetrics.count("summaries", "returnValues.computed");
+            returnValues = List.copyOf(summarizer.get());
+            returnValuesByKey.put(key, returnValues);
+        } else {
+            ScanMetrics.count("summaries", "returnValues.reused");
+        }
+        return (List<ReturnValue<O, T>>) returnValues;
+    }
+
+    /**
+     * An expression returned by the method, with the values it resolves to. Without resolved
+     * values, the expression has to be resolved in the outer scope of the call site.
+     */
+    public record ReturnValue<O, T>(
+            @Nonnull T expression, @Nonnull List<ResolvedValue<O, T>> resolvedValues) {
+        public ReturnValue {
+            resolvedValues = List.copyOf(resolvedValues);
+        }
+
+        public boolean isResolved() {
+            return !resolvedValues.isEmpty();
+        }
+    }
+
+    private record ReturnValuesKey(@Nonnull Class<?> clazz, @Nullable Object valueFactory) {}
+}
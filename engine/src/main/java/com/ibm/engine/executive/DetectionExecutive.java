@@ -26,61 +26,128 @@ import com.ibm.engine.detection.Finding;
 import com.ibm.engine.detection.Handler;
 import com.ibm.engine.language.IScanContext;
 import com.ibm.engine.rule.IDetectionRule;
-import java.util.ArrayList;
+import com.ibm.engine.utils.ScanMetrics;
 import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public class DetectionExecutive<R, T, S, P>
         implements IStatusReporting<R, T, S, P>, IDomainEvent<Finding<R, T, S, P>> {
-    @Nonnull private final List<IObserver<Finding<R, T, S, P>>> listeners = new ArrayList<>();
+    /*
+     * eager release of detection stores: stores whose rule did not match are detached right away,
+     * and the store tree is released after the detection, unless it waits for a hook invocation
+     */
+    private static volatile boolean eagerReleaseEnabled = false;
 
-    @Nonnull private final DetectionStore<R, T, S, P> rootDetectionStore;
-    @Nonnull private final T tree;
-    private int expectedRuleVisits;
-    private int visitedRules = 0;
+    @Nonnull
+    private final List<IObserver<Finding<R, T, S, P>>> listeners = new CopyOnWriteArrayList<>();
+
+    @Nonnull private final Handler<R, T, S, P> handler;
+    @Nullable private DetectionStore<R, T, S, P> rootDetectionStore;
+    @Nullable private T tree;
+    private final boolean eagerRelease;
+    private boolean subscribedToHooks;
+    @Nonnull private final AtomicInteger expectedRuleVisits = new AtomicInteger(1);
+    @Nonnull private final AtomicInteger visitedRules = new AtomicInteger(0);
 
     public DetectionExecutive(
             @Nonnull final T tree,
             @Nonnull final IDetectionRule<T> detectionRule,
             @Nonnull final IScanContext<R, T> scanContext,
             @Nonnull final Handler<R, T, S, P> handler) {
+        this.handler = handler;
         this.tree = tree;
-        this.expectedRuleVisits = 1;
+        this.eagerRelease = eagerReleaseEnabled;
         this.rootDetectionStore =
                 new DetectionStore<>(0, detectionRule, scanContext, handler, this);
     }
 
     public void start() {
-        this.rootDetectionStore.analyse(tree);
+        if (this.rootDetectionStore == null || this.tree == null) {
+            return;
+        }
+        final long hookSubscriptions = handler.getNumberOfHookSubscriptions();
+        if (!ScanMetrics.isEnabled()) {
+            this.rootDetectionStore.analyse(tree);
+        } else {
+            final long start = System.nanoTime();
+            this.rootDetectionStore.analyse(tree);
+            ScanMetrics.addTime(
+                    "detection",
+                    this.rootDetectionStore.getDetectionRule().bundle().getIdentifier(),
+                    System.nanoTime() - start);
+        }
+        this.subscribedToHooks = handler.getNumberOfHookSubscriptions() != hookSubscriptions;
+        if (eagerRelease && !subscribedToHooks) {
+            // the detection ran synchronously and no hook can emit a later finding from the root,
+            // so the findings were emitted and translated by now
+            this.rootDetectionStore.release();
+            this.rootDetectionStore = null;
+            this.tree = null;
+        }
+    }
+
+    public static boolean isEagerReleaseEnabled() {
+        return eagerReleaseEnabled;
+    }
+
+    /**
+     * Enables the eager release of detection stores for the detections started afterwards.
+     *
+     * @param enabled if the stores are released eagerly
+     */
+    public static void setEagerReleaseEnabled(boolean enabled) {
+        eagerReleaseEnabled = enabled;
+    }
+
+    /**
+     * Returns if the detection subscribed to hooks, i.e. if later findings of this detection may
+     * depend on the invocations found in other files.
+     *
+     * @return {@code true} if a detection store of this detection waits for a hook invocation
+     */
+    public boolean subscribedToHooks() {
+        return subscribedToHooks;
     }
 
     @Override
     public void emitFinding() {
+        if (this.rootDetectionStore == null) {
+            return;
+        }
         emitFinding(this.rootDetectionStore);
     }
 
     @Override
     public void emitFinding(@Nonnull final DetectionStore<R, T, S, P> rootDetectionStore) {
-        if (this.expectedRuleVisits != this.visitedRules) {
+        if (this.expectedRuleVisits.get() != this.visitedRules.get()) {
             return;
         }
         getRootStoresWithValue(rootDetectionStore)
                 .forEach(
                         store -> {
                             final Finding<R, T, S, P> finding = new Finding<>(store);
+                            ScanMetrics.count("detection", "findings");
                             this.notify(finding);
                         });
     }
 
     @Override
     public void incrementVisitedRules() {
-        this.visitedRules += 1;
+        this.visitedRules.incrementAndGet();
     }
 
     @Override
     public void addAdditionalExpectedRuleVisits(int number) {
-        this.expectedRuleVisits += number;
+        this.expectedRuleVisits.addAndGet(number);
+    }
+
+    @Override
+    public boolean releasesStoresEagerly() {
+        return eagerRelease;
     }
 
     @Nonnull
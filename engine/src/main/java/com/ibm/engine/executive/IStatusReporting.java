@@ -30,4 +30,6 @@ public interface IStatusReporting<R, T, S, P> {
     void incrementVisitedRules();
 
     void addAdditionalExpectedRuleVisits(int number);
+
+    boolean releasesStoresEagerly();
 }
@@ -24,24 +24,55 @@ import com.ibm.common.IObservers;
 import com.ibm.engine.callstack.CallContext;
 import com.ibm.engine.callstack.IGetNotifiedWhenNewCallWasAddedToCallStack;
 import com.ibm.engine.detection.Handler;
+import com.ibm.engine.detection.MethodMatcher;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.utils.ScanMetrics;
 import java.util.ArrayList;
 import java.util.EnumMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
+/**
+ * Keeps the registered hooks and notifies the hook detection observers when a new call on the call
+ * stack matches one of them.
+ *
+ * <p>Hooks are indexed by the method (or enum) name of their {@link IHook#hookValue()}, the same
+ * key the {@link com.ibm.engine.callstack.CallStackAgent} uses for its calls. A new call is only
+ * checked against the hooks registered for its key and the hooks that accept any method name.
+ *
+ * <p>In a parallel scan, the hooks are also published to a {@link SharedHookRegistry}, and new
+ * calls are checked against the hooks of the other handlers as well. A new hook is checked against
+ * the retained calls of the other handlers, which they added before the hook was published.
+ */
 public class HookRepository<R, T, S, P>
         implements IGetNotifiedWhenNewCallWasAddedToCallStack<R, T>,
                 IDomainEvents<HookRepository.Event, IHook<R, T, S, P>> {
-    @Nonnull private final Set<IHook<R, T, S, P>> hookSet = ConcurrentHashMap.newKeySet();
+    /*
+     * hook -> the keys it is indexed by
+     */
+    @Nonnull
+    private final Map<IHook<R, T, S, P>, List<String>> hookKeys = new ConcurrentHashMap<>();
+
+    @Nonnull
+    private final Map<String, Set<IHook<R, T, S, P>>> hooksByKey = new ConcurrentHashMap<>();
+
+    @Nonnull private final Set<IHook<R, T, S, P>> wildcardHooks = ConcurrentHashMap.newKeySet();
+
+    @Nonnull private final LongAdder numberOfHookChecks = new LongAdder();
+    @Nonnull private final LongAdder numberOfHookMatches = new LongAdder();
 
     @Nonnull
     private final Map<Event, List<IObservers<Event, IHook<R, T, S, P>>>> listeners =
             new EnumMap<>(Event.class);
 
     @Nonnull private final Handler<R, T, S, P> handler;
+    @Nullable private final SharedHookRegistry<R, T, S, P> sharedHookRegistry;
 
     public enum Event {
         HOOK_ADDED,
@@ -49,30 +80,83 @@ public class HookRepository<R, T, S, P>
     }
 
     public HookRepository(@Nonnull Handler<R, T, S, P> handler) {
+        this(handler, null);
+    }
+
+    public HookRepository(
+            @Nonnull Handler<R, T, S, P> handler,
+            @Nullable SharedHookRegistry<R, T, S, P> sharedHookRegistry) {
         this.handler = handler;
+        this.sharedHookRegistry = sharedHookRegistry;
 
         listeners.putIfAbsent(Event.HOOK_ADDED, new ArrayList<>());
         listeners.putIfAbsent(Event.HOOK_REMOVED, new ArrayList<>());
         // listen to callstack events
         this.handler.subscribeToCallStackAgent(this);
+        if (sharedHookRegistry != null) {
+            sharedHookRegistry.addHandler(handler);
+        }
     }
 
     public boolean add(@Nonnull IHook<R, T, S, P> hook) {
-        boolean res = hookSet.add(hook);
+        final List<String> keys = keysOf(hook);
+        boolean res = hookKeys.putIfAbsent(hook, keys) == null;
         if (res) {
+            if (keys.contains(MethodMatcher.ANY)) {
+                wildcardHooks.add(hook);
+            } else {
+                for (String key : keys) {
+                    hooksByKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(hook);
+                }
+            }
+            if (sharedHookRegistry != null) {
+                sharedHookRegistry.add(hook, keys, handler);
+            }
+            ScanMetrics.count("hooks.registered", hook.getClass().getSimpleName());
             this.notify(Event.HOOK_ADDED, hook);
         }
         return res;
     }
 
     public boolean delete(@Nonnull IHook<R, T, S, P> hook) {
-        boolean res = hookSet.remove(hook);
+        final List<String> keys = hookKeys.remove(hook);
+        boolean res = keys != null;
         if (res) {
+            wildcardHooks.remove(hook);
+            for (String key : keys) {
+                hooksByKey.computeIfPresent(
+                        key,
+                        (k, hooks) -> {
+                            hooks.remove(hook);
+                            return hooks.isEmpty() ? null : hooks;
+                        });
+            }
+            if (sharedHookRegistry != null) {
+                sharedHookRegistry.delete(hook, keys, handler);
+            }
             this.notify(Event.HOOK_REMOVED, hook);
         }
         return res;
     }
 
+    /**
+     * Returns how many times a hook was checked against a new call.
+     *
+     * @return the number of hook checks
+     */
+    public long getNumberOfHookChecks() {
+        return numberOfHookChecks.sum();
+    }
+
+    /**
+     * Returns how many hook checks matched the new call and triggered a hook detection event.
+     *
+     * @return the number of matching hook checks
+     */
+    public long getNumberOfHookMatches() {
+        return numberOfHookMatches.sum();
+    }
+
     @Override
     public void subscribe(
             @Nonnull Event event, @Nonnull IObservers<Event, IHook<R, T, S, P>> listener) {
@@ -113,11 +197,86 @@ public class HookRepository<R, T, S, P>
      */
     @Override
     public void update(@Nonnull final CallContext<R, T> callContext) {
-        hookSet.stream()
-                .filter(hook -> hook.isInvocationOn(callContext, handler.getLanguageSupport()))
-                .forEach(
-                        hook ->
-                                handler.notifyAllHookDetectionObservers(
-                                        callContext.tree(), hook, callContext.publisher()));
+        final Optional<String> key = handler.getCallStackKey(callContext.tree());
+        final List<IHook<R, T, S, P>> candidates = new ArrayList<>(wildcardHooks);
+        key.map(hooksByKey::get).ifPresent(candidates::addAll);
+
+        for (IHook<R, T, S, P> hook : candidates) {
+            numberOfHookChecks.increment();
+            if (hook.isInvocationOn(callContext, handler.getLanguageSupport())) {
+                numberOfHookMatches.increment();
+                ScanMetrics.count("hooks.fired", hook.getClass().getSimpleName());
+                handler.notifyAllHookDetectionObservers(
+                        callContext.tree(), hook, callContext.publisher());
+            }
+        }
+
+        if (sharedHookRegistry == null || key.isEmpty()) {
+            return;
+        }
+        // hooks of other threads are handed over to their owner
+        for (SharedHookRegistry.RegisteredHook<R, T, S, P> registeredHook :
+                sharedHookRegistry.foreignCandidates(key.get(), handler)) {
+            final IHook<R, T, S, P> hook = registeredHook.hook();
+            numberOfHookChecks.increment();
+            if (hook.isInvocationOn(callContext, handler.getLanguageSupport())
+                    && sharedHookRegistry.claim(hook, callContext.tree())) {
+                numberOfHookMatches.increment();
+                ScanMetrics.count("hooks.fired", hook.getClass().getSimpleName());
+                registeredHook
+                        .owner()
+                        .postHookInvocation(callContext.tree(), hook, callContext.publisher());
+            }
+        }
+    }
+
+    /**
+     * Checks a newly subscribed hook of this handler against the retained calls of the other
+     * handlers of a parallel scan. A call another thread added before the hook was published did
+     * not see the hook, and the call stack of this handler does not have it.
+     *
+     * @param hook the hook
+     */
+    public void onNewHookSubscription(@Nonnull IHook<R, T, S, P> hook) {
+        final List<String> keys = hookKeys.get(hook);
+        if (sharedHookRegistry == null || keys == null || keys.isEmpty()) {
+            return;
+        }
+        for (Handler<R, T, S, P> otherHandler : sharedHookRegistry.otherHandlers(handler)) {
+            for (CallContext<R, T> callContext : otherHandler.getRetainedCallsFor(keys)) {
+                numberOfHookChecks.increment();
+                if (hook.isInvocationOn(callContext, handler.getLanguageSupport())
+                        && sharedHookRegistry.claim(hook, callContext.tree())) {
+                    numberOfHookMatches.increment();
+                    ScanMetrics.count("hooks.fired", hook.getClass().getSimpleName());
+                    handler.notifyAllHookDetectionObservers(
+                            callContext.tree(), hook, callContext.publisher());
+                }
+            }
+        }
+    }
+
+    /**
+     * Computes the keys a hook is indexed by, matching the keys of the calls it can be an
+     * invocation on. A hook without keys can never match a call and is not indexed.
+     */
+    @Nonnull
+    private List<String> keysOf(@Nonnull IHook<R, T, S, P> hook) {
+        final ILanguageSupport<R, T, S, P> languageSupport = handler.getLanguageSupport();
+        if (hook instanceof EnumHook<R, T, S, P> enumHook) {
+            // an enum hook matches the calls whose enum class name equals its identifier name
+            final Optional<String> enumIdentifierName =
+                    languageSupport
+                            .translation()
+                            .getEnumIdentifierName(
+                                    enumHook.matchContext(), enumHook.enumValueIdentifier());
+            return enumIdentifierName.map(List::of).orElse(List.of());
+        }
+        final MethodMatcher<T> methodMatcher =
+                languageSupport.createMethodMatcherBasedOn(hook.hookValue());
+        if (methodMatcher == null) {
+            return List.of();
+        }
+        return List.copyOf(methodMatcher.getMethodNamesSerializable());
     }
 }
@@ -0,0 +1,177 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.hooks;
+
+import com.ibm.engine.detection.Handler;
+import com.ibm.engine.detection.MethodMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+
+/**
+ * Hooks registered by all handlers of a parallel scan, so that a hook registered while scanning one
+ * file is also checked against the calls of the files scanned by other threads.
+ *
+ * <p>Each handler keeps its own {@link HookRepository} and publishes its hooks here, together with
+ * itself as the owner. The detection stores behind a hook are confined to the thread of their
+ * owner: a match found on another thread is handed over with {@link
+ * Handler#postHookInvocation(Object, IHook, com.ibm.engine.language.IScanContext)} and processed by
+ * the owner before it visits its next call.
+ *
+ * <p>The handlers register here as well, so that a new hook is also checked against the calls that
+ * the other handlers retained before it was published. A call added while the hook is published can
+ * then be matched from both sides; each invocation of a hook on a call of another handler is
+ * claimed (see {@link #claim(IHook, Object)}), so that it is only processed once.
+ */
+public final class SharedHookRegistry<R, T, S, P> {
+    @Nonnull
+    private final Map<String, Set<RegisteredHook<R, T, S, P>>> hooksByKey =
+            new ConcurrentHashMap<>();
+
+    @Nonnull
+    private final Set<RegisteredHook<R, T, S, P>> wildcardHooks = ConcurrentHashMap.newKeySet();
+
+    @Nonnull private final Set<Handler<R, T, S, P>> handlers = ConcurrentHashMap.newKeySet();
+
+    @Nonnull
+    private final Set<ClaimedInvocation<R, T, S, P>> claimedInvocations =
+            ConcurrentHashMap.newKeySet();
+
+    /**
+     * Registers a handler of the scan, whose retained calls are checked against the hooks of the
+     * other handlers.
+     *
+     * @param handler the handler
+     */
+    public void addHandler(@Nonnull Handler<R, T, S, P> handler) {
+        handlers.add(handler);
+    }
+
+    /**
+     * Returns the handlers of the scan other than the given one.
+     *
+     * @param handler the handler asking
+     * @return the other handlers
+     */
+    @Nonnull
+    public List<Handler<R, T, S, P>> otherHandlers(@Nonnull Handler<R, T, S, P> handler) {
+        final List<Handler<R, T, S, P>> otherHandlers = new ArrayList<>();
+        for (Handler<R, T, S, P> registeredHandler : handlers) {
+            if (registeredHandler != handler) {
+                otherHandlers.add(registeredHandler);
+            }
+        }
+        return otherHandlers;
+    }
+
+    /**
+     * Claims the invocation of a hook on a call of another handler than its owner.
+     *
+     * @param hook the hook
+     * @param invocationTree the call that matched the hook
+     * @return {@code true} if the invocation was not claimed before, and has to be processed
+     */
+    public boolean claim(@Nonnull IHook<R, T, S, P> hook, @Nonnull T invocationTree) {
+        return claimedInvocations.add(new ClaimedInvocation<>(hook, invocationTree));
+    }
+
+    /**
+     * Publishes a hook under the keys it is indexed by in the repository of its owner.
+     *
+     * @param hook the hook
+     * @param keys the method (or enum) names the hook can match
+     * @param owner the handler the detection stores of the hook belong to
+     */
+    public void add(
+            @Nonnull IHook<R, T, S, P> hook,
+            @Nonnull List<String> keys,
+            @Nonnull Handler<R, T, S, P> owner) {
+        final RegisteredHook<R, T, S, P> registeredHook = new RegisteredHook<>(hook, owner);
+        if (keys.contains(MethodMatcher.ANY)) {
+            wildcardHooks.add(registeredHook);
+            return;
+        }
+        for (String key : keys) {
+            hooksByKey.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(registeredHook);
+        }
+    }
+
+    /**
+     * Removes a hook published by {@code owner}.
+     *
+     * @param hook the hook
+     * @param keys the keys the hook was published under
+     * @param owner the handler that published the hook
+     */
+    public void delete(
+            @Nonnull IHook<R, T, S, P> hook,
+            @Nonnull List<String> keys,
+            @Nonnull Handler<R, T, S, P> owner) {
+        final RegisteredHook<R, T, S, P> registeredHook = new RegisteredHook<>(hook, owner);
+        wildcardHooks.remove(registeredHook);
+        for (String key : keys) {
+            hooksByKey.computeIfPresent(
+                    key,
+                    (k, hooks) -> {
+                        hooks.remove(registeredHook);
+                        return hooks.isEmpty() ? null : hooks;
+                    });
+        }
+    }
+
+    /**
+     * Returns the hooks of other handlers that can match a call with the given key.
+     *
+     * @param key the method (or enum) name of the call
+     * @param handler the handler that found the call, its own hooks are not returned
+     * @return the candidate hooks, with their owners
+     */
+    @Nonnull
+    public List<RegisteredHook<R, T, S, P>> foreignCandidates(
+            @Nonnull String key, @Nonnull Handler<R, T, S, P> handler) {
+        final List<RegisteredHook<R, T, S, P>> candidates = new ArrayList<>();
+        addForeign(candidates, wildcardHooks, handler);
+        final Set<RegisteredHook<R, T, S, P>> hooks = hooksByKey.get(key);
+        if (hooks != null) {
+            addForeign(candidates, hooks, handler);
+        }
+        return candidates;
+    }
+
+    private static <R, T, S, P> void addForeign(
+            @Nonnull List<RegisteredHook<R, T, S, P>> candidates,
+            @Nonnull Set<RegisteredHook<R, T, S, P>> hooks,
+            @Nonnull Handler<R, T, S, P> handler) {
+        for (RegisteredHook<R, T, S, P> registeredHook : hooks) {
+            if (registeredHook.owner() != handler) {
+                candidates.add(registeredHook);
+            }
+        }
+    }
+
+    public record RegisteredHook<R, T, S, P>(
+            @Nonnull IHook<R, T, S, P> hook, @Nonnull Handler<R, T, S, P> owner) {}
+
+    private record ClaimedInvocation<R, T, S, P>(
+            @Nonnull IHook<R, T, S, P> hook, @Nonnull T invocationTree) {}
+}
@@ -27,6 +27,7 @@ import com.ibm.engine.detection.MatchContext;
 import com.ibm.engine.detection.MethodMatcher;
 import com.ibm.engine.executive.DetectionExecutive;
 import com.ibm.engine.rule.IDetectionRule;
+import java.util.List;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -58,6 +59,46 @@ public interface ILanguageSupport<R, T, S, P> {
             @Nonnull IDetectionRule<T> detectionRule,
             @Nonnull IScanContext<R, T> scanContext);
 
+    /**
+     * Pushes the specified tree onto the call stack without running a detection rule on it.
+     *
+     * <p>Detection engines add every visited invocation to the call stack before matching it
+     * against their rule, so that registered hooks get notified. When a visitor skips all rules for
+     * a tree (e.g. because no rule can match its method name), it has to call this method to keep
+     * the call stack complete. Trees that are not tracked by the call stack are ignored. The file
+     * of the scan context also defines the scope of the memoised {@link #translation()}.
+     *
+     * @param tree the visited tree
+     * @param scanContext the context for the scan of the file containing the tree
+     */
+    void addCallToCallStack(@Nonnull T tree, @Nonnull IScanContext<R, T> scanContext);
+
+    /**
+     * Processes the hook invocations that language supports of other threads found in a parallel
+     * scan (see {@link com.ibm.engine.hooks.SharedHookRegistry}). The scan calls it once all
+     * threads finished, until no invocation is left.
+     *
+     * @return if an invocation was processed
+     */
+    boolean processPendingHookInvocations();
+
+    /**
+     * Ends the scan of a file: processes the pending hook invocations (see {@link
+     * #processPendingHookInvocations()}). Visitors call it at the end of each file.
+     */
+    void leaveFile();
+
+    /**
+     * Returns if a call on the call stack can be the invocation of a hook. Hooks are registered on
+     * the method definitions of the scanned sources, so calls of library methods never invoke a
+     * hook. The call stack keeps the calls that can for the whole scan, since the hook on the
+     * called method may only be registered while scanning a later file.
+     *
+     * @param call a call on the call stack
+     * @return {@code false} if the call can not invoke a hook
+     */
+    boolean canInvokeHook(@Nonnull T call);
+
     /**
      * Creates a new {@link IDetectionEngine} instance for the specified detection store.
      *
@@ -83,6 +124,16 @@ public interface ILanguageSupport<R, T, S, P> {
     @Nonnull
     IBaseMethodVisitorFactory<T, S> getBaseMethodVisitorFactory();
 
+    /**
+     * Returns the trees of the specified method definition that a visitor created by {@link
+     * #getBaseMethodVisitorFactory()} passes to its detection engine, in visiting order.
+     *
+     * @param methodDefinition the method definition
+     * @return the method invocations (and similar trees) of the method definition
+     */
+    @Nonnull
+    List<T> getMethodInvocations(@Nonnull T methodDefinition);
+
     /**
      * Returns the enclosing method for the specified expression.
      *
@@ -92,6 +143,16 @@ public interface ILanguageSupport<R, T, S, P> {
     @Nonnull
     Optional<T> getEnclosingMethod(@Nonnull T expression);
 
+    /**
+     * Returns a stable identity of the specified method definition, the owner type and the
+     * signature of the method, which is the same for every tree of the definition.
+     *
+     * @param methodDefinition the method definition
+     * @return the identity of the method, or empty if the method can not be identified
+     */
+    @Nonnull
+    Optional<String> getMethodIdentity(@Nonnull T methodDefinition);
+
     /**
      * Creates a new {@link MethodMatcher} instance based on the specified method definition.
      *
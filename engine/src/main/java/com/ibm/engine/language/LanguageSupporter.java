@@ -19,20 +19,36 @@
  */
 package com.ibm.engine.language;
 
+import com.ibm.engine.hooks.SharedHookRegistry;
 import com.ibm.engine.language.java.JavaLanguageSupport;
 import com.ibm.engine.language.python.PythonLanguageSupport;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.python.api.PythonCheck;
 import org.sonar.plugins.python.api.PythonVisitorContext;
 
 public final class LanguageSupporter {
+    /*
+     * parallel detection mode: the detection state is confined to the scanning thread, each thread
+     * uses its own language support, and the language supports of a scan share their hooks through
+     * a SharedHookRegistry
+     */
+    private static volatile boolean parallelDetection = false;
 
     private LanguageSupporter() {
         // nothing
     }
 
+    public static boolean isParallelDetectionEnabled() {
+        return parallelDetection;
+    }
+
+    public static void setParallelDetectionEnabled(boolean enabled) {
+        parallelDetection = enabled;
+    }
+
     @Nonnull
     public static ILanguageSupport<
                     JavaCheck,
@@ -43,6 +59,22 @@ public final class LanguageSupporter {
         return new JavaLanguageSupport();
     }
 
+    @Nonnull
+    public static ILanguageSupport<
+                    JavaCheck,
+                    org.sonar.plugins.java.api.tree.Tree,
+                    org.sonar.plugins.java.api.semantic.Symbol,
+                    JavaFileScannerContext>
+            javaLanguageSupporter(
+                    @Nullable SharedHookRegistry<
+                                            JavaCheck,
+                                            org.sonar.plugins.java.api.tree.Tree,
+                                            org.sonar.plugins.java.api.semantic.Symbol,
+                                            JavaFileScannerContext>
+                                    sharedHookRegistry) {
+        return new JavaLanguageSupport(sharedHookRegistry);
+    }
+
     @Nonnull
     public static ILanguageSupport<
                     PythonCheck,
@@ -52,4 +84,20 @@ public final class LanguageSupporter {
             pythonLanguageSupporter() {
         return new PythonLanguageSupport();
     }
+
+    @Nonnull
+    public static ILanguageSupport<
+                    PythonCheck,
+                    org.sonar.plugins.python.api.tree.Tree,
+                    org.sonar.plugins.python.api.symbols.Symbol,
+                    PythonVisitorContext>
+            pythonLanguageSupporter(
+                    @Nullable SharedHookRegistry<
+                                            PythonCheck,
+                                            org.sonar.plugins.python.api.tree.Tree,
+                                            org.sonar.plugins.python.api.symbols.Symbol,
+                                            PythonVisitorContext>
+                                    sharedHookRegistry) {
+        return new PythonLanguageSupport(sharedHookRegistry);
+    }
 }
@@ -0,0 +1,203 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.language;
+
+import com.ibm.engine.detection.IType;
+import com.ibm.engine.detection.MatchContext;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * An {@link ILanguageTranslation} that memoises the method name, the invoked object type, the
+ * return type and the parameter types of a tree. The same tree is usually matched against many
+ * detection rules and hooks; with this translation, the language specific resolution only runs once
+ * per tree and match context. The returned {@link IType}s additionally memoise their {@link
+ * IType#is(String)} answers per requested type.
+ *
+ * <p>Trees are compared by identity. The cache is scoped to a file: entering the scope of another
+ * file releases the trees of the previous one. Within a file, at most {@code maxTreesPerScope}
+ * entries are kept, the least recently used entry is evicted first.
+ *
+ * @param <T> the language specific tree type
+ */
+@SuppressWarnings("java:S2789") // null marks a result that was not resolved yet
+public final class MemoizedLanguageTranslation<T> implements ILanguageTranslation<T> {
+    public static final int DEFAULT_MAX_TREES_PER_SCOPE = 4096;
+
+    @Nonnull private final ILanguageTranslation<T> delegate;
+    private final int maxTreesPerScope;
+    @Nonnull private final Map<Key<T>, Results> resultsByTree;
+    @Nullable private String currentScope;
+
+    public MemoizedLanguageTranslation(@Nonnull ILanguageTranslation<T> delegate) {
+        this(delegate, DEFAULT_MAX_TREES_PER_SCOPE);
+    }
+
+    public MemoizedLanguageTranslation(
+            @Nonnull ILanguageTranslation<T> delegate, int maxTreesPerScope) {
+        this.delegate = delegate;
+        this.maxTreesPerScope = maxTreesPerScope;
+        this.resultsByTree =
+                new LinkedHashMap<>(16, 0.75f, true) {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<Key<T>, Results> eldest) {
+                        return size() > MemoizedLanguageTranslation.this.maxTreesPerScope;
+                    }
+                };
+    }
+
+    /**
+     * Sets the file whose trees are translated next. The memoised results are released if the file
+     * differs from the current one.
+     *
+     * @param scope the file path of the scanned file
+     */
+    public synchronized void enterScope(@Nonnull String scope) {
+        if (!Objects.equals(scope, currentScope)) {
+            resultsByTree.clear();
+            currentScope = scope;
+        }
+    }
+
+    public synchronized int size() {
+        return resultsByTree.size();
+    }
+
+    @Nonnull
+    @Override
+    public synchronized Optional<String> getMethodName(
+            @Nonnull MatchContext matchContext, @Nonnull T methodInvocation) {
+        final Results results = results(matchContext, methodInvocation);
+        if (results.methodName == null) {
+            results.methodName = delegate.getMethodName(matchContext, methodInvocation);
+        }
+        return results.methodName;
+    }
+
+    @Nonnull
+    @Override
+    public synchronized Optional<IType> getInvokedObjectTypeString(
+            @Nonnull MatchContext matchContext, @Nonnull T methodInvocation) {
+        final Results results = results(matchContext, methodInvocation);
+        if (results.invokedObjectType == null) {
+            results.invokedObjectType =
+                    delegate.getInvokedObjectTypeString(matchContext, methodInvocation)
+                            .map(MemoizedType::new);
+        }
+        return results.invokedObjectType;
+    }
+
+    @Nonnull
+    @Override
+    public synchronized Optional<IType> getMethodReturnTypeString(
+            @Nonnull MatchContext matchContext, @Nonnull T methodInvocation) {
+        final Results results = results(matchContext, methodInvocation);
+        if (results.returnType == null) {
+            results.returnType =
+                    delegate.getMethodReturnTypeString(matchContext, methodInvocation)
+                            .map(MemoizedType::new);
+        }
+        return results.returnType;
+    }
+
+    @Nonnull
+    @Override
+    public synchronized List<IType> getMethodParameterTypes(
+            @Nonnull MatchContext matchContext, @Nonnull T methodInvocation) {
+        final Results results = results(matchContext, methodInvocation);
+        if (results.parameterTypes == null) {
+            results.parameterTypes =
+                    delegate.getMethodParameterTypes(matchContext, methodInvocation).stream()
+                            .<IType>map(MemoizedType::new)
+                            .toList();
+        }
+        return results.parameterTypes;
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> resolveIdentifierAsString(
+            @Nonnull MatchContext matchContext, @Nonnull T identifierTree) {
+        return delegate.resolveIdentifierAsString(matchContext, identifierTree);
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> getEnumIdentifierName(
+            @Nonnull MatchContext matchContext, @Nonnull T enumIdentifier) {
+        return delegate.getEnumIdentifierName(matchContext, enumIdentifier);
+    }
+
+    @Nonnull
+    @Override
+    public Optional<String> getEnumClassName(
+            @Nonnull MatchContext matchContext, @Nonnull T enumClass) {
+        return delegate.getEnumClassName(matchContext, enumClass);
+    }
+
+    @Nonnull
+    private Results results(@Nonnull MatchContext matchContext, @Nonnull T tree) {
+        return resultsByTree.computeIfAbsent(new Key<>(tree, matchContext), key -> new Results());
+    }
+
+    /** Identifies a tree by identity, together with the context it is matched in. */
+    private record Key<T>(@Nonnull T tree, @Nonnull MatchContext matchContext) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key<?> other
+                    && other.tree == tree
+                    && other.matchContext.equals(matchContext);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * System.identityHashCode(tree) + matchContext.hashCode();
+        }
+    }
+
+    /** The results resolved so far for a tree, {@code null} if not resolved yet. */
+    private static final class Results {
+        @Nullable Optional<String> methodName;
+        @Nullable Optional<IType> invokedObjectType;
+        @Nullable Optional<IType> returnType;
+        @Nullable List<IType> parameterTypes;
+    }
+
+    /** An {@link IType} remembering its answer for every requested type. */
+    private static final class MemoizedType implements IType {
+        @Nonnull private final IType delegate;
+        @Nonnull private final Map<String, Boolean> answers = new ConcurrentHashMap<>();
+
+        MemoizedType(@Nonnull IType delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public boolean is(@Nonnull String typeString) {
+            return answers.computeIfAbsent(typeString, delegate::is);
+        }
+    }
+}
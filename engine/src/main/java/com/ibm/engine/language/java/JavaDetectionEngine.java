@@ -26,6 +26,7 @@ import com.ibm.engine.detection.IDetectionEngine;
 import com.ibm.engine.detection.MatchContext;
 import com.ibm.engine.detection.MethodDetection;
 import com.ibm.engine.detection.MethodMatcher;
+import com.ibm.engine.detection.MethodSummary;
 import com.ibm.engine.detection.ResolvedValue;
 import com.ibm.engine.detection.TraceSymbol;
 import com.ibm.engine.detection.ValueDetection;
@@ -131,8 +132,7 @@ public final class JavaDetectionEngine implements IDetectionEngine<Tree, Symbol>
                 return null;
             }
 
-            final MatchContext matchContext =
-                    MatchContext.build(false, detectionStore.getDetectionRule());
+            final MatchContext matchContext = detectionStore.getDetectionRule().matchContext();
             Optional<String> targetVarIdOptional =
                     handler.getLanguageSupport()
                             .translation()
@@ -430,7 +430,7 @@ public final class JavaDetectionEngine implements IDetectionEngine<Tree, Symbol>
                  * See test case src/test/java/com/ibm/plugin/resolve/ResolveValueIfFunctionWasNotCalledTest.java
                  */
                 final MatchContext matchContext =
-                        MatchContext.build(true, detectionStore.getDetectionRule());
+                        detectionStore.getDetectionRule().hookMatchContext();
                 EnumHook<JavaCheck, Tree, Symbol, JavaFileScannerContext> enumHook =
                         new EnumHook<>(
                                 identifierTree,
@@ -450,8 +450,7 @@ public final class JavaDetectionEngine implements IDetectionEngine<Tree, Symbol>
             @Nonnull MethodTree methodTree,
             @Nullable Tree methodParameter,
             @Nonnull Parameter<Tree> parameter) {
-        final MatchContext matchContext =
-                MatchContext.build(true, detectionStore.getDetectionRule());
+        final MatchContext matchContext = detectionStore.getDetectionRule().hookMatchContext();
         if (methodParameter == null) {
             MethodInvocationHookWithReturnResolvement<
                             JavaCheck, Tree, Symbol, JavaFileScannerContext>
@@ -493,7 +492,59 @@ public final class JavaDetectionEngine implements IDetectionEngine<Tree, Symbol>
             @Nonnull final Class<O> clazz,
             @Nonnull final Tree methodDefinition,
             @Nonnull final Parameter<Tree> parameter) {
-        BaseTreeVisitor resultMethodVisitor =
+        if (!(methodDefinition instanceof MethodTree methodTree)) {
+            return;
+        }
+        final DetectableParameter<Tree> detectableParameter =
+                parameter.is(DetectableParameter.class)
+                        ? (DetectableParameter<Tree>) parameter
+                        : null;
+        /*
+         * The returned values do not depend on the call site, they are collected once per method
+         * and value factory and replayed for every invocation that fires the hook.
+         */
+        final List<MethodSummary.ReturnValue<O, Tree>> returnValues =
+                handler.getMethodSummaries()
+                        .summaryOf(methodTree)
+                        .returnValues(
+                                clazz,
+                                detectableParameter == null
+                                        ? null
+                                        : detectableParameter.getiValueFactory(),
+                                () ->
+                                        summarizeReturnValues(
+                                                clazz, methodTree, detectableParameter));
+        for (MethodSummary.ReturnValue<O, Tree> returnValue : returnValues) {
+            final Tree expressionTree = returnValue.expression();
+            if (detectableParameter != null && returnValue.isResolved()) {
+                returnValue.resolvedValues().stream()
+                        .map(
+                                resolvedValue ->
+                                        new ValueDetection<>(
+                                                resolvedValue,
+                                                detectableParameter,
+                                                expressionTree,
+                                                expressionTree))
+                        .forEach(detectionStore::onReceivingNewDetection);
+            } else {
+                // look in outer scope
+                resolveValuesInOuterScope(expressionTree, parameter);
+            }
+        }
+    }
+
+    /**
+     * Collects the expressions returned by the method. An expression resolved in the inner scope is
+     * not visited any further, the expressions nested in an unresolved one (e.g. the return
+     * statements of a lambda) follow it.
+     */
+    @Nonnull
+    private <O> List<MethodSummary.ReturnValue<O, Tree>> summarizeReturnValues(
+            @Nonnull final Class<O> clazz,
+            @Nonnull final MethodTree methodTree,
+            @Nullable final DetectableParameter<Tree> detectableParameter) {
+        final List<MethodSummary.ReturnValue<O, Tree>> returnValues = new ArrayList<>();
+        final BaseTreeVisitor resultMethodVisitor =
                 new BaseTreeVisitor() {
                     @Override
                     public void visitReturnStatement(
@@ -504,36 +555,26 @@ public final class JavaDetectionEngine implements IDetectionEngine<Tree, Symbol>
                             return;
                         }
 
-                        if (parameter.is(DetectableParameter.class)) {
-                            DetectableParameter<Tree> detectableParameter =
-                                    (DetectableParameter<Tree>) parameter;
+                        if (detectableParameter != null) {
                             List<ResolvedValue<O, Tree>> resolvedValues =
                                     resolveValuesInInnerScope(
                                             clazz,
                                             expressionTree,
                                             detectableParameter.getiValueFactory());
                             if (!resolvedValues.isEmpty()) {
-                                resolvedValues.stream()
-                                        .map(
-                                                resolvedValue ->
-                                                        new ValueDetection<>(
-                                                                resolvedValue,
-                                                                detectableParameter,
-                                                                expressionTree,
-                                                                expressionTree))
-                                        .forEach(detectionStore::onReceivingNewDetection);
+                                returnValues.add(
+                                        new MethodSummary.ReturnValue<>(
+                                                expressionTree, resolvedValues));
                                 return;
                             }
                         }
-                        // look in outer scope
-                        resolveValuesInOuterScope(expressionTree, parameter);
+                        returnValues.add(
+                                new MethodSummary.ReturnValue<>(expressionTree, List.of()));
                         super.visitReturnStatement(returnStatementTree);
                     }
                 };
-
-        if (methodDefinition instanceof MethodTree methodTree) {
-            methodTree.accept(resultMethodVisitor);
-        }
+        methodTree.accept(resultMethodVisitor);
+        return returnValues;
     }
 
     @Nullable @Override
@@ -27,12 +27,15 @@ import com.ibm.engine.detection.IDetectionEngine;
 import com.ibm.engine.detection.MatchContext;
 import com.ibm.engine.detection.MethodMatcher;
 import com.ibm.engine.executive.DetectionExecutive;
+import com.ibm.engine.hooks.SharedHookRegistry;
 import com.ibm.engine.language.ILanguageSupport;
 import com.ibm.engine.language.ILanguageTranslation;
 import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.language.MemoizedLanguageTranslation;
 import com.ibm.engine.rule.IDetectionRule;
 import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
@@ -44,6 +47,7 @@ import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.ClassTree;
 import org.sonar.plugins.java.api.tree.ExpressionTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
 import org.sonar.plugins.java.api.tree.MethodTree;
 import org.sonar.plugins.java.api.tree.Tree;
 import org.sonar.plugins.java.api.tree.TypeTree;
@@ -51,16 +55,26 @@ import org.sonar.plugins.java.api.tree.TypeTree;
 public final class JavaLanguageSupport
         implements ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext> {
     private static final Logger LOGGER = LoggerFactory.getLogger(JavaLanguageSupport.class);
+    /* packages of the JDK, their methods are never defined in the scanned sources */
+    private static final List<String> LIBRARY_PACKAGES = List.of("java.", "javax.", "jdk.");
     @Nonnull private final Handler<JavaCheck, Tree, Symbol, JavaFileScannerContext> handler;
+    @Nonnull private final MemoizedLanguageTranslation<Tree> translation;
 
     public JavaLanguageSupport() {
-        this.handler = new Handler<>(this);
+        this(null);
+    }
+
+    public JavaLanguageSupport(
+            @Nullable SharedHookRegistry<JavaCheck, Tree, Symbol, JavaFileScannerContext>
+                            sharedHookRegistry) {
+        this.handler = new Handler<>(this, sharedHookRegistry);
+        this.translation = new MemoizedLanguageTranslation<>(new JavaLanguageTranslation());
     }
 
     @Nonnull
     @Override
     public ILanguageTranslation<Tree> translation() {
-        return new JavaLanguageTranslation();
+        return this.translation;
     }
 
     @Nonnull
@@ -73,6 +87,40 @@ public final class JavaLanguageSupport
         return new DetectionExecutive<>(tree, detectionRule, scanContext, this.handler);
     }
 
+    @Override
+    public void addCallToCallStack(
+            @Nonnull Tree tree, @Nonnull IScanContext<JavaCheck, Tree> scanContext) {
+        // every visited tree passes here first, it defines the file the memoised translation is
+        // scoped to
+        this.translation.enterScope(scanContext.getFilePath());
+        if (tree.is(Tree.Kind.METHOD_INVOCATION, Tree.Kind.ENUM)) {
+            this.handler.addCallToCallStack(tree, scanContext);
+        }
+    }
+
+    @Override
+    public boolean processPendingHookInvocations() {
+        return this.handler.processPendingHookInvocations();
+    }
+
+    @Override
+    public void leaveFile() {
+        this.handler.leaveFile();
+    }
+
+    @Override
+    public boolean canInvokeHook(@Nonnull Tree call) {
+        if (call instanceof MethodInvocationTree methodInvocation) {
+            final Symbol.MethodSymbol methodSymbol = methodInvocation.methodSymbol();
+            if (methodSymbol.isUnknown()) {
+                return true;
+            }
+            final String owner = methodSymbol.owner().type().fullyQualifiedName();
+            return LIBRARY_PACKAGES.stream().noneMatch(owner::startsWith);
+        }
+        return true;
+    }
+
     @Nonnull
     @Override
     public IDetectionEngine<Tree, Symbol> createDetectionEngineInstance(
@@ -88,6 +136,12 @@ public final class JavaLanguageSupport
         return JavaBaseMethodVisitor::new;
     }
 
+    @Nonnull
+    @Override
+    public List<Tree> getMethodInvocations(@Nonnull Tree methodDefinition) {
+        return JavaMethodInvocationCollector.collect(methodDefinition);
+    }
+
     @Nonnull
     @Override
     public Optional<Tree> getEnclosingMethod(@Nonnull Tree expression) {
@@ -97,8 +151,29 @@ public final class JavaLanguageSupport
         return Optional.empty();
     }
 
+    @Nonnull
+    @Override
+    public Optional<String> getMethodIdentity(@Nonnull Tree methodDefinition) {
+        if (methodDefinition instanceof MethodTree method && !method.symbol().isUnknown()) {
+            // e.g. com.example.Crypto#encrypt(Ljava/lang/String;)[B
+            return Optional.ofNullable(method.symbol().signature());
+        }
+        return Optional.empty();
+    }
+
     @Nullable @Override
     public MethodMatcher<Tree> createMethodMatcherBasedOn(@Nonnull Tree methodDefinition) {
+        if (!(methodDefinition instanceof MethodTree)) {
+            return null;
+        }
+        // hooks match every new call against their method definition, the matcher is built once
+        return this.handler
+                .getMethodSummaries()
+                .summaryOf(methodDefinition)
+                .invocationMatcher(JavaLanguageSupport::methodMatcherFor);
+    }
+
+    @Nullable private static MethodMatcher<Tree> methodMatcherFor(@Nonnull Tree methodDefinition) {
         if (methodDefinition instanceof MethodTree method) {
             Symbol.TypeSymbol enclosingClass = method.symbol().enclosingClass();
             if (enclosingClass == null) {
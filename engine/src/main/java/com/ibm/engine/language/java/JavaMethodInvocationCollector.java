@@ -0,0 +1,69 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.language.java;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.EnumConstantTree;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Collects the trees of a method that {@link JavaBaseMethodVisitor} passes to its detection engine,
+ * in the same order.
+ */
+public final class JavaMethodInvocationCollector extends BaseTreeVisitor {
+    @Nonnull private final List<Tree> invocations = new ArrayList<>();
+
+    private JavaMethodInvocationCollector() {
+        // use collect
+    }
+
+    @Nonnull
+    public static List<Tree> collect(@Nonnull Tree method) {
+        final JavaMethodInvocationCollector collector = new JavaMethodInvocationCollector();
+        if (method instanceof MethodTree methodTree) {
+            methodTree.accept(collector);
+        }
+        return collector.invocations;
+    }
+
+    @Override
+    public void visitMethodInvocation(@Nonnull MethodInvocationTree tree) {
+        invocations.add(tree);
+        super.visitMethodInvocation(tree);
+    }
+
+    @Override
+    public void visitNewClass(@Nonnull NewClassTree tree) {
+        invocations.add(tree);
+        super.visitNewClass(tree);
+    }
+
+    @Override
+    public void visitEnumConstant(@Nonnull EnumConstantTree tree) {
+        invocations.add(tree);
+        super.visitEnumConstant(tree);
+    }
+}
@@ -92,8 +92,7 @@ public class PythonDetectionEngine implements IDetectionEngine<Tree, Symbol> {
             }
 
             // Check that the parameter identifier has a name
-            final MatchContext matchContext =
-                    MatchContext.build(false, this.detectionStore.getDetectionRule());
+            final MatchContext matchContext = this.detectionStore.getDetectionRule().matchContext();
             Optional<String> targetVarIdOptional =
                     handler.getLanguageSupport()
                             .translation()
@@ -182,8 +181,7 @@ public class PythonDetectionEngine implements IDetectionEngine<Tree, Symbol> {
             @Nonnull Tree methodTree,
             @Nullable Tree methodParameter,
             @Nonnull Parameter<Tree> detectableParameter) {
-        final MatchContext matchContext =
-                MatchContext.build(true, detectionStore.getDetectionRule());
+        final MatchContext matchContext = detectionStore.getDetectionRule().hookMatchContext();
         if (methodParameter == null) {
             MethodInvocationHookWithReturnResolvement<
                             PythonCheck, Tree, Symbol, PythonVisitorContext>
@@ -29,17 +29,22 @@ import com.ibm.engine.detection.IDetectionEngine;
 import com.ibm.engine.detection.MatchContext;
 import com.ibm.engine.detection.MethodMatcher;
 import com.ibm.engine.executive.DetectionExecutive;
+import com.ibm.engine.hooks.SharedHookRegistry;
 import com.ibm.engine.language.ILanguageSupport;
 import com.ibm.engine.language.ILanguageTranslation;
 import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.language.MemoizedLanguageTranslation;
 import com.ibm.engine.rule.IDetectionRule;
 import java.util.Arrays;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Optional;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 import org.sonar.plugins.python.api.PythonCheck;
 import org.sonar.plugins.python.api.PythonVisitorContext;
 import org.sonar.plugins.python.api.symbols.Symbol;
+import org.sonar.plugins.python.api.tree.CallExpression;
 import org.sonar.plugins.python.api.tree.FileInput;
 import org.sonar.plugins.python.api.tree.FunctionDef;
 import org.sonar.plugins.python.api.tree.Name;
@@ -49,15 +54,23 @@ import org.sonar.plugins.python.api.tree.Tree;
 public class PythonLanguageSupport
         implements ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext> {
     @Nonnull private final Handler<PythonCheck, Tree, Symbol, PythonVisitorContext> handler;
+    @Nonnull private final MemoizedLanguageTranslation<Tree> translation;
 
     public PythonLanguageSupport() {
-        this.handler = new Handler<>(this);
+        this(null);
+    }
+
+    public PythonLanguageSupport(
+            @Nullable SharedHookRegistry<PythonCheck, Tree, Symbol, PythonVisitorContext>
+                            sharedHookRegistry) {
+        this.handler = new Handler<>(this, sharedHookRegistry);
+        this.translation = new MemoizedLanguageTranslation<>(new PythonLanguageTranslation());
     }
 
     @Nonnull
     @Override
     public ILanguageTranslation<Tree> translation() {
-        return new PythonLanguageTranslation();
+        return this.translation;
     }
 
     @Override
@@ -69,6 +82,34 @@ public class PythonLanguageSupport
         return new DetectionExecutive<>(tree, detectionRule, scanContext, this.handler);
     }
 
+    @Override
+    public void addCallToCallStack(
+            @Nonnull Tree tree, @Nonnull IScanContext<PythonCheck, Tree> scanContext) {
+        // every visited tree passes here first, it defines the file the memoised translation and
+        // value resolution are scoped to
+        this.translation.enterScope(scanContext.getFilePath());
+        PythonSemantic.enterScope(scanContext.getFilePath());
+        if (tree instanceof CallExpression) {
+            this.handler.addCallToCallStack(tree, scanContext);
+        }
+    }
+
+    @Override
+    public boolean processPendingHookInvocations() {
+        return this.handler.processPendingHookInvocations();
+    }
+
+    @Override
+    public void leaveFile() {
+        this.handler.leaveFile();
+    }
+
+    @Override
+    public boolean canInvokeHook(@Nonnull Tree call) {
+        // the Python semantic does not tell library functions apart from the scanned ones
+        return true;
+    }
+
     @Override
     public @Nonnull IDetectionEngine<Tree, Symbol> createDetectionEngineInstance(
             @Nonnull
@@ -82,6 +123,12 @@ public class PythonLanguageSupport
         return PythonBaseMethodVisitor::new;
     }
 
+    @Nonnull
+    @Override
+    public List<Tree> getMethodInvocations(@Nonnull Tree methodDefinition) {
+        return PythonMethodInvocationCollector.collect(methodDefinition);
+    }
+
     @Override
     public @Nonnull Optional<Tree> getEnclosingMethod(@Nonnull Tree expression) {
         // In Python, there isn't necessarily an enclosing method: we return it if it exists,
@@ -97,8 +144,31 @@ public class PythonLanguageSupport
         return Optional.empty();
     }
 
+    @Nonnull
+    @Override
+    public Optional<String> getMethodIdentity(@Nonnull Tree methodDefinition) {
+        // a function is identified by its fully qualified name, there are no overloads
+        return Optional.of(methodDefinition)
+                .filter(FunctionDef.class::isInstance)
+                .map(FunctionDef.class::cast)
+                .map(FunctionDef::name)
+                .map(Name::symbol)
+                .map(Symbol::fullyQualifiedName);
+    }
+
     @Override
     public MethodMatcher<Tree> createMethodMatcherBasedOn(@Nonnull Tree methodDefinition) {
+        if (!(methodDefinition instanceof FunctionDef)) {
+            return null;
+        }
+        // hooks match every new call against their function definition, the matcher is built once
+        return this.handler
+                .getMethodSummaries()
+                .summaryOf(methodDefinition)
+                .invocationMatcher(PythonLanguageSupport::methodMatcherFor);
+    }
+
+    @Nullable private static MethodMatcher<Tree> methodMatcherFor(@Nonnull Tree methodDefinition) {
         if (methodDefinition instanceof FunctionDef functionDefTree) {
             // The `invocationObjectName` consists of the filename + the class(es). We use
             // `fullyQualifiedName`, here that basically is `invocationObjectName` + the function
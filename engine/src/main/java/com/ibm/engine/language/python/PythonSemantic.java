@@ -21,14 +21,19 @@ package com.ibm.engine.language.python;
 
 import com.ibm.engine.detection.IType;
 import com.ibm.engine.detection.ResolvedValue;
+import com.ibm.engine.utils.ScanMetrics;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.tuple.Pair;
@@ -65,10 +70,28 @@ import org.sonar.plugins.python.api.tree.Tuple;
 public final class PythonSemantic {
     private static final Logger LOGGER = LoggerFactory.getLogger(PythonSemantic.class);
 
+    /*
+     * The resolution results of the file currently scanned by this thread
+     */
+    private static final ThreadLocal<ResolutionCache> RESOLUTION_CACHE =
+            ThreadLocal.withInitial(ResolutionCache::new);
+
     private PythonSemantic() {
         // private
     }
 
+    /**
+     * Sets the file whose trees are resolved next by the current thread. The memoised results of
+     * {@link #resolveValues} and {@link #resolveTreeType} are released if the file differs from the
+     * current one.
+     *
+     * @param filePath the file path of the scanned file
+     */
+    public static void enterScope(@Nonnull String filePath) {
+        RESOLUTION_CACHE.get().enterScope(filePath);
+    }
+
+    @SuppressWarnings("unchecked")
     @Nonnull
     public static <O> List<ResolvedValue<O, Tree>> resolveValues(
             @Nonnull Class<O> clazz,
@@ -77,15 +100,40 @@ public final class PythonSemantic {
             Object subscriptionIndex,
             boolean returnEnclosingParam,
             PythonDetectionEngine detectionEngine) {
-        return resolveValues(
-                clazz,
-                tree,
-                new LinkedList<>(argsMappingList),
-                subscriptionIndex,
-                returnEnclosingParam,
-                false,
-                detectionEngine,
-                new LinkedList<>());
+        final ResolutionCache cache = RESOLUTION_CACHE.get();
+        final ResolutionKey key =
+                new ResolutionKey(
+                        clazz,
+                        tree,
+                        new ArrayList<>(argsMappingList),
+                        subscriptionIndex,
+                        returnEnclosingParam,
+                        detectionEngine);
+        List<ResolvedValue<?, Tree>> values = cache.values.get(key);
+        if (values != null) {
+            ScanMetrics.count("resolution", "values.reused");
+        } else {
+            ScanMetrics.count("resolution", "values.computed");
+            // the resolution can re-enter the cache (e.g. through `resolveTreeType`), the map is
+            // therefore not updated with `computeIfAbsent`
+            values =
+                    List.copyOf(
+                            resolveValues(
+                                    clazz,
+                                    tree,
+                                    new LinkedList<>(argsMappingList),
+                                    subscriptionIndex,
+                                    returnEnclosingParam,
+                                    false,
+                                    detectionEngine,
+                                    new HashSet<>()));
+            cache.values.put(key, values);
+        }
+        final List<ResolvedValue<O, Tree>> result = new LinkedList<>();
+        for (ResolvedValue<?, Tree> value : values) {
+            result.add((ResolvedValue<O, Tree>) value);
+        }
+        return result;
     }
 
     /**
@@ -101,8 +149,24 @@ public final class PythonSemantic {
      * @param tree - any kind of Tree
      * @return An optional IType representing the type
      */
+    @SuppressWarnings("java:S2789") // null marks a tree that was not resolved yet
     @Nonnull
     public static Optional<IType> resolveTreeType(@Nonnull Tree tree) {
+        final ResolutionCache cache = RESOLUTION_CACHE.get();
+        final IdentityKey key = new IdentityKey(tree);
+        Optional<IType> type = cache.types.get(key);
+        if (type != null) {
+            ScanMetrics.count("resolution", "types.reused");
+        } else {
+            ScanMetrics.count("resolution", "types.computed");
+            type = computeTreeType(tree);
+            cache.types.put(key, type);
+        }
+        return type;
+    }
+
+    @Nonnull
+    private static Optional<IType> computeTreeType(@Nonnull Tree tree) {
         final List<ResolvedValue<Object, Tree>> values =
                 resolveValues(
                         Object.class,
@@ -112,7 +176,7 @@ public final class PythonSemantic {
                         false,
                         true,
                         null,
-                        new LinkedList<>());
+                        new HashSet<>());
         // call would enhance the results
         final List<Tree> results = new LinkedList<>();
         for (ResolvedValue<Object, Tree> value : values) {
@@ -292,9 +356,9 @@ public final class PythonSemantic {
      *     declaration Name trees in addition to the usual results)
      * @param detectionEngine - instance of the current PythonDetectionEngine (it can be set to null
      *     {@code null} but this will limit the depth of the resolution)
-     * @param alreadyResolvedTrees - list storing all recursively vsisited trees to resolve, along
+     * @param alreadyResolvedTrees - set storing all recursively vsisited trees to resolve, along
      *     with the last arguments mapping, in order to check if a tree has already been resolved to
-     *     avoid infinite loops (it should be an empty list in the initial function call)
+     *     avoid infinite loops (it should be an empty set in the initial function call)
      * @return A list of resolved values, composed of the actual resolved values as an Object and
      *     the associated Tree
      */
@@ -310,7 +374,7 @@ public final class PythonSemantic {
             boolean returnEnclosingParam,
             boolean isResolvingType,
             PythonDetectionEngine detectionEngine,
-            List<Pair<Tree, Map<org.sonar.plugins.python.api.tree.Parameter, Argument>>>
+            Set<Pair<Tree, Map<org.sonar.plugins.python.api.tree.Parameter, Argument>>>
                     alreadyResolvedTrees) {
         // Checks is the tree to resolve has been previously resolved (and with the same set of
         // arguments)
@@ -321,10 +385,9 @@ public final class PythonSemantic {
         }
         Pair<Tree, Map<org.sonar.plugins.python.api.tree.Parameter, Argument>> pair =
                 Pair.of(tree, map);
-        if (alreadyResolvedTrees.contains(pair)) {
+        if (!alreadyResolvedTrees.add(pair)) {
             return new LinkedList<>();
         }
-        alreadyResolvedTrees.add(pair);
 
         // Case disjunction depending on the type of Tree
         if (tree.is(Tree.Kind.NAME)) {
@@ -1012,4 +1075,83 @@ public final class PythonSemantic {
         }
         return null;
     }
+
+    /**
+     * Identifies the arguments of a {@link #resolveValues} call. The tree and the detection engine
+     * are compared by identity.
+     */
+    private record ResolutionKey(
+            @Nonnull Class<?> clazz,
+            @Nonnull Tree tree,
+            @Nonnull List<Map<org.sonar.plugins.python.api.tree.Parameter, Argument>> argsMapping,
+            @Nullable Object subscriptionIndex,
+            boolean returnEnclosingParam,
+            @Nullable PythonDetectionEngine detectionEngine) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof ResolutionKey other
+                    && other.tree == tree
+                    && other.detectionEngine == detectionEngine
+                    && other.clazz == clazz
+                    && other.returnEnclosingParam == returnEnclosingParam
+                    && Objects.equals(other.subscriptionIndex, subscriptionIndex)
+                    && other.argsMapping.equals(argsMapping);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(
+                    System.identityHashCode(tree),
+                    System.identityHashCode(detectionEngine),
+                    clazz,
+                    returnEnclosingParam,
+                    subscriptionIndex,
+                    argsMapping);
+        }
+    }
+
+    /** Identifies a tree by identity. */
+    private record IdentityKey(@Nonnull Tree tree) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof IdentityKey other && other.tree == tree;
+        }
+
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(tree);
+        }
+    }
+
+    /**
+     * The resolution results of a file, keyed by the resolved tree and the arguments of the
+     * resolution. At most {@code MAX_ENTRIES_PER_SCOPE} results of each kind are kept, the least
+     * recently used one is evicted first.
+     */
+    private static final class ResolutionCache {
+        private static final int MAX_ENTRIES_PER_SCOPE = 4096;
+
+        @Nonnull private final Map<ResolutionKey, List<ResolvedValue<?, Tree>>> values = lruMap();
+
+        @Nonnull private final Map<IdentityKey, Optional<IType>> types = lruMap();
+        @Nullable private String currentScope;
+
+        void enterScope(@Nonnull String scope) {
+            if (!Objects.equals(scope, currentScope)) {
+                values.clear();
+                types.clear();
+                currentScope = scope;
+            }
+        }
+
+        @Nonnull
+        private static <K, V> Map<K, V> lruMap() {
+            return new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+                    return size() > MAX_ENTRIES_PER_SCOPE;
+                }
+            };
+        }
+    }
 }
@@ -19,6 +19,7 @@
  */
 package com.ibm.engine.model.context;
 
+import java.util.Collections;
 import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
@@ -40,6 +41,11 @@ public abstract class DetectionContext implements IDetectionContext {
         return Optional.ofNullable(properties.get(key));
     }
 
+    @Nonnull
+    public Map<String, String> properties() {
+        return Collections.unmodifiableMap(properties);
+    }
+
     @Override
     public String toString() {
         return properties.keySet().stream()
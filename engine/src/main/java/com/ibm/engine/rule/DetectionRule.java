@@ -24,7 +24,9 @@ import com.ibm.engine.detection.MethodMatcher;
 import com.ibm.engine.language.ILanguageTranslation;
 import com.ibm.engine.model.context.IDetectionContext;
 import com.ibm.engine.model.factory.IActionFactory;
+import com.ibm.engine.utils.ScanMetrics;
 import java.util.List;
+import java.util.Objects;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -35,8 +37,45 @@ public record DetectionRule<T>(
         @Nullable IActionFactory<T> actionFactory,
         @Nonnull IDetectionContext detectionValueContext,
         @Nonnull IBundle bundle,
-        @Nonnull List<IDetectionRule<T>> nextDetectionRules)
+        @Nonnull List<IDetectionRule<T>> nextDetectionRules,
+        @Nonnull MatchContext matchContext,
+        @Nonnull MatchContext hookMatchContext)
         implements IDetectionRule<T> {
+
+    /**
+     * Checks that the match contexts are the ones derived from the other components. They are
+     * components only because a record holds no other fields, and they are left out of {@link
+     * #equals(Object)}, {@link #hashCode()} and {@link #toString()}.
+     */
+    public DetectionRule {
+        if (!matchContext.equals(MatchContext.of(false, shouldMatchExactTypes, parameters))
+                || !hookMatchContext.equals(
+                        MatchContext.of(true, shouldMatchExactTypes, parameters))) {
+            throw new IllegalArgumentException(
+                    "The match contexts do not match the parameters of the rule.");
+        }
+    }
+
+    public DetectionRule(
+            @Nonnull MethodMatcher<T> matchers,
+            boolean shouldMatchExactTypes,
+            @Nonnull List<Parameter<T>> parameters,
+            @Nullable IActionFactory<T> actionFactory,
+            @Nonnull IDetectionContext detectionValueContext,
+            @Nonnull IBundle bundle,
+            @Nonnull List<IDetectionRule<T>> nextDetectionRules) {
+        this(
+                matchers,
+                shouldMatchExactTypes,
+                parameters,
+                actionFactory,
+                detectionValueContext,
+                bundle,
+                nextDetectionRules,
+                MatchContext.of(false, shouldMatchExactTypes, parameters),
+                MatchContext.of(true, shouldMatchExactTypes, parameters));
+    }
+
     @Override
     public boolean is(@Nonnull Class<? extends IDetectionRule> kind) {
         return kind.equals(DetectionRule.class);
@@ -44,6 +83,60 @@ public record DetectionRule<T>(
 
     @Override
     public boolean match(@Nonnull T expression, @Nonnull ILanguageTranslation<T> translation) {
-        return this.matchers.match(expression, translation, MatchContext.build(false, this));
+        if (!ScanMetrics.isEnabled()) {
+            return matchers.match(expression, translation, matchContext);
+        }
+        final long start = System.nanoTime();
+        final boolean matched = matchers.match(expression, translation, matchContext);
+        ScanMetrics.recordMatch(bundle, matchers, matched, System.nanoTime() - start);
+        return matched;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof DetectionRule<?> that)) {
+            return false;
+        }
+        return Objects.equals(matchers, that.matchers)
+                && shouldMatchExactTypes == that.shouldMatchExactTypes
+                && Objects.equals(parameters, that.parameters)
+                && Objects.equals(actionFactory, that.actionFactory)
+                && Objects.equals(detectionValueContext, that.detectionValueContext)
+                && Objects.equals(bundle, that.bundle)
+                && Objects.equals(nextDetectionRules, that.nextDetectionRules);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(
+                matchers,
+                shouldMatchExactTypes,
+                parameters,
+                actionFactory,
+                detectionValueContext,
+                bundle,
+                nextDetectionRules);
+    }
+
+    @Override
+    public String toString() {
+        return "DetectionRule[matchers="
+                + matchers
+                + ", shouldMatchExactTypes="
+                + shouldMatchExactTypes
+                + ", parameters="
+                + parameters
+                + ", actionFactory="
+                + actionFactory
+                + ", detectionValueContext="
+                + detectionValueContext
+                + ", bundle="
+                + bundle
+                + ", nextDetectionRules="
+                + nextDetectionRules
+                + "]";
     }
 }
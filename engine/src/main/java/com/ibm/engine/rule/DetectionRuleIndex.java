@@ -0,0 +1,159 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.rule;
+
+import com.ibm.engine.detection.MatchContext;
+import com.ibm.engine.detection.MethodMatcher;
+import com.ibm.engine.language.ILanguageTranslation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Precomputed dispatch index over a list of root detection rules, keyed by the method names of
+ * their {@link MethodMatcher}. A visited tree is only handed to the rules that could match its
+ * method name, instead of running every rule on every invocation.
+ *
+ * <p>Rules whose matcher accepts any method name ({@link MethodMatcher#ANY}) are part of every
+ * bucket. Within a bucket the rules keep their original order, so findings are emitted in the same
+ * order as with a linear scan over all rules. Besides the rules, the index returns their positions
+ * in the indexed list, for callers that keep data per position (e.g. a detection store per rule).
+ *
+ * @param <T> the language specific tree type
+ */
+public final class DetectionRuleIndex<T> {
+    private static final int[] NO_POSITIONS = new int[0];
+
+    @Nonnull private final List<IDetectionRule<T>> rules;
+    @Nonnull private final Map<String, List<IDetectionRule<T>>> rulesByMethodName;
+    @Nonnull private final List<IDetectionRule<T>> wildcardRules;
+    @Nonnull private final Map<String, int[]> positionsByMethodName;
+    @Nonnull private final int[] wildcardPositions;
+
+    public DetectionRuleIndex(@Nonnull List<IDetectionRule<T>> rules) {
+        this.rules = List.copyOf(rules);
+
+        final Set<String> methodNames = new LinkedHashSet<>();
+        final List<IDetectionRule<T>> wildcards = new ArrayList<>();
+        final List<Integer> wildcardIndices = new ArrayList<>();
+        for (int i = 0; i < this.rules.size(); i++) {
+            final IDetectionRule<T> rule = this.rules.get(i);
+            final List<String> names = methodNamesOf(rule);
+            if (names == null || names.contains(MethodMatcher.ANY)) {
+                wildcards.add(rule);
+                wildcardIndices.add(i);
+            } else {
+                methodNames.addAll(names);
+            }
+        }
+        this.wildcardRules = Collections.unmodifiableList(wildcards);
+        this.wildcardPositions = toArray(wildcardIndices);
+
+        final Map<String, List<IDetectionRule<T>>> index = new HashMap<>();
+        final Map<String, int[]> positions = new HashMap<>();
+        for (String methodName : methodNames) {
+            final List<IDetectionRule<T>> bucket = new ArrayList<>();
+            final List<Integer> bucketPositions = new ArrayList<>();
+            for (int i = 0; i < this.rules.size(); i++) {
+                final IDetectionRule<T> rule = this.rules.get(i);
+                final List<String> names = methodNamesOf(rule);
+                if (names == null
+                        || names.contains(MethodMatcher.ANY)
+                        || names.contains(methodName)) {
+                    bucket.add(rule);
+                    bucketPositions.add(i);
+                }
+            }
+            index.put(methodName, Collections.unmodifiableList(bucket));
+            positions.put(methodName, toArray(bucketPositions));
+        }
+        this.rulesByMethodName = Map.copyOf(index);
+        this.positionsByMethodName = Map.copyOf(positions);
+    }
+
+    /**
+     * Returns the rules that can match the given tree, in their original order.
+     *
+     * @param tree the visited tree (method invocation, constructor call, ...)
+     * @param translation the language translation used to resolve the method name of the tree
+     * @return the candidate rules, or an empty list if no rule can match the tree
+     */
+    @Nonnull
+    public List<IDetectionRule<T>> candidates(
+            @Nonnull T tree, @Nonnull ILanguageTranslation<T> translation) {
+        final Optional<String> methodName =
+                translation.getMethodName(MatchContext.createForHookContext(), tree);
+        if (methodName.isEmpty()) {
+            // a rule can never match a tree without a method name
+            return Collections.emptyList();
+        }
+        return rulesByMethodName.getOrDefault(methodName.get(), wildcardRules);
+    }
+
+    /**
+     * Returns the positions of the rules that can match the given tree in the indexed list, in
+     * ascending order. The returned array must not be modified.
+     *
+     * @param tree the visited tree (method invocation, constructor call, ...)
+     * @param translation the language translation used to resolve the method name of the tree
+     * @return the positions of the candidate rules, empty if no rule can match the tree
+     */
+    @Nonnull
+    public int[] candidatePositions(@Nonnull T tree, @Nonnull ILanguageTranslation<T> translation) {
+        final Optional<String> methodName =
+                translation.getMethodName(MatchContext.createForHookContext(), tree);
+        if (methodName.isEmpty()) {
+            return NO_POSITIONS;
+        }
+        return positionsByMethodName.getOrDefault(methodName.get(), wildcardPositions);
+    }
+
+    /**
+     * Returns all indexed rules, in their original order.
+     *
+     * @return all indexed rules
+     */
+    @Nonnull
+    public List<IDetectionRule<T>> rules() {
+        return rules;
+    }
+
+    @Nonnull
+    private static int[] toArray(@Nonnull List<Integer> positions) {
+        return positions.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    @Nullable private static <T> List<String> methodNamesOf(@Nonnull IDetectionRule<T> rule) {
+        if (rule instanceof DetectionRule<T> detectionRule) {
+            return detectionRule.matchers().getMethodNamesSerializable();
+        } else if (rule instanceof MethodDetectionRule<T> methodDetectionRule) {
+            return methodDetectionRule.matchers().getMethodNamesSerializable();
+        }
+        // unknown rule type, has to be checked against every tree
+        return null;
+    }
+}
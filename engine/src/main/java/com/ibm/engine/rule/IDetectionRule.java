@@ -19,6 +19,7 @@
  */
 package com.ibm.engine.rule;
 
+import com.ibm.engine.detection.MatchContext;
 import com.ibm.engine.language.ILanguageTranslation;
 import com.ibm.engine.model.context.IDetectionContext;
 import com.ibm.engine.model.factory.IActionFactory;
@@ -33,6 +34,12 @@ public interface IDetectionRule<T> {
 
     boolean shouldMatchExactTypes();
 
+    @Nonnull
+    MatchContext matchContext();
+
+    @Nonnull
+    MatchContext hookMatchContext();
+
     @Nonnull
     IDetectionContext detectionValueContext();
 
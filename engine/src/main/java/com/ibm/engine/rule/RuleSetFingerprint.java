@@ -0,0 +1,163 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.rule;
+
+import com.ibm.engine.detection.MethodMatcher;
+import com.ibm.engine.model.context.DetectionContext;
+import com.ibm.engine.model.context.IDetectionContext;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Fingerprint of a set of detection rules, for caches of findings that have to be dropped when the
+ * rules change. It covers the matchers, the parameters, the bundles and the types of the factories
+ * and detection contexts of the rules and of all their next rules.
+ *
+ * <p>The fingerprint only depends on the structure of the rules, so it is the same in every run of
+ * the same rules. Factories are described by their type, factories defined as lambdas only as such,
+ * since the names of their classes change between runs.
+ */
+public final class RuleSetFingerprint {
+
+    private RuleSetFingerprint() {
+        // nothing
+    }
+
+    /**
+     * Computes the fingerprint of the given root detection rules.
+     *
+     * @param rules the root detection rules
+     * @param <T> the language specific tree type
+     * @return the hex encoded SHA-256 digest of the rules
+     */
+    @Nonnull
+    public static <T> String of(@Nonnull List<IDetectionRule<T>> rules) {
+        final StringBuilder description = new StringBuilder();
+        final Map<IDetectionRule<T>, Integer> visited = new IdentityHashMap<>();
+        for (IDetectionRule<T> rule : rules) {
+            describe(rule, visited, description);
+        }
+        try {
+            final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of()
+                    .formatHex(
+                            digest.digest(description.toString().getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform implements SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static <T> void describe(
+            @Nonnull IDetectionRule<T> rule,
+            @Nonnull Map<IDetectionRule<T>, Integer> visited,
+            @Nonnull StringBuilder description) {
+        final Integer ordinal = visited.get(rule);
+        if (ordinal != null) {
+            // rules can be shared or refer to each other, they are described once
+            description.append("#").append(ordinal).append(';');
+            return;
+        }
+        visited.put(rule, visited.size());
+
+        description
+                .append('(')
+                .append(rule.getClass().getSimpleName())
+                .append(';')
+                .append(rule.bundle().getIdentifier())
+                .append(';')
+                .append(rule.shouldMatchExactTypes())
+                .append(';')
+                .append(contextOf(rule.detectionValueContext()))
+                .append(';');
+        if (rule instanceof DetectionRule<T> detectionRule) {
+            describe(detectionRule.matchers(), description);
+            description.append(typeOf(detectionRule.actionFactory())).append(';');
+            for (Parameter<T> parameter : detectionRule.parameters()) {
+                description
+                        .append("param:")
+                        .append(parameter.getClass().getSimpleName())
+                        .append(';')
+                        .append(parameter.getParameterType())
+                        .append(';')
+                        .append(parameter.getIndex())
+                        .append(';')
+                        .append(parameter.shouldMatchExactTypes())
+                        .append(';');
+                if (parameter instanceof DetectableParameter<T> detectableParameter) {
+                    description.append(typeOf(detectableParameter.getiValueFactory())).append(';');
+                }
+                for (IDetectionRule<T> parameterRule : parameter.getDetectionRules()) {
+                    describe(parameterRule, visited, description);
+                }
+            }
+        } else if (rule instanceof MethodDetectionRule<T> methodDetectionRule) {
+            describe(methodDetectionRule.matchers(), description);
+            description.append(typeOf(methodDetectionRule.actionFactory())).append(';');
+        }
+        for (IDetectionRule<T> nextRule : rule.nextDetectionRules()) {
+            describe(nextRule, visited, description);
+        }
+        description.append(')');
+    }
+
+    private static <T> void describe(
+            @Nonnull MethodMatcher<T> matcher, @Nonnull StringBuilder description) {
+        description
+                .append(matcher.getInvokedObjectTypeStringsSerializable())
+                .append(';')
+                .append(matcher.getMethodNamesSerializable())
+                .append(';')
+                .append(matcher.getParameterTypesSerializable())
+                .append(';');
+    }
+
+    @Nonnull
+    private static String contextOf(@Nonnull IDetectionContext context) {
+        if (context instanceof DetectionContext detectionContext) {
+            // sorted, the iteration order of some maps changes between runs
+            return typeOf(context) + new TreeMap<>(detectionContext.properties());
+        }
+        return typeOf(context);
+    }
+
+    @Nonnull
+    private static String typeOf(@Nullable Object object) {
+        if (object == null) {
+            return "null";
+        }
+        final Class<?> type = object.getClass();
+        if (type.isHidden() || type.isSynthetic()) {
+            return "lambda";
+        }
+        if (type.isEnum()) {
+            return type.getName() + "." + object;
+        }
+        return type.getName();
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.rule;
+
+import com.ibm.engine.detection.MethodMatcher;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * File-level prefilter over a list of root detection rules. It is derived from the invoked object
+ * types of their {@link MethodMatcher}s: each type is cut to its first package segments (e.g.
+ * {@code javax.crypto} for {@code javax.crypto.Cipher}), and a file can only contain a call one of
+ * the rules matches if its source mentions one of these prefixes, in an import, a package
+ * declaration or a fully qualified type reference.
+ *
+ * <p>The filter accepts every file if a rule accepts any invoked object type, if a rule type is
+ * unknown, or if a prefix belongs to the implicitly imported packages of the language (e.g. {@code
+ * java.lang}), since such types can be used without being named in the source.
+ *
+ * <p>Calls on objects whose type is only inferred (e.g. the result of a method of another file
+ * assigned to {@code var}) are not seen by the filter; it is meant for rules on library types that
+ * a file has to name before using them. The filter is therefore disabled unless it is enabled with
+ * {@link #setEnabled(boolean)}, which the plugin does from the scanner settings.
+ */
+public final class TypePrefixFilter {
+    private static volatile boolean enabled = false;
+
+    /*
+     * null: every file can match
+     */
+    @Nullable private final List<String> prefixes;
+
+    private TypePrefixFilter(@Nullable List<String> prefixes) {
+        this.prefixes = prefixes;
+    }
+
+    /**
+     * Returns if files are filtered.
+     *
+     * @return {@code true} if the prefilter was enabled
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables the filtering of files.
+     *
+     * @param enabled if files are filtered
+     */
+    public static void setEnabled(boolean enabled) {
+        TypePrefixFilter.enabled = enabled;
+    }
+
+    /**
+     * Derives the filter of the given root detection rules.
+     *
+     * @param rules the root detection rules
+     * @param segments the number of package segments a prefix keeps
+     * @param implicitPrefixes the prefixes of the types a source can use without naming them
+     * @param <T> the language specific tree type
+     * @return the filter
+     */
+    @Nonnull
+    public static <T> TypePrefixFilter of(
+            @Nonnull List<IDetectionRule<T>> rules,
+            int segments,
+            @Nonnull Set<String> implicitPrefixes) {
+        final Set<String> prefixes = new LinkedHashSet<>();
+        for (IDetectionRule<T> rule : rules) {
+            final List<String> types = invokedObjectTypesOf(rule);
+            if (types == null || types.contains(MethodMatcher.ANY)) {
+                return new TypePrefixFilter(null);
+            }
+            for (String type : types) {
+                final String prefix = prefixOf(type, segments);
+                if (implicitPrefixes.contains(prefix)) {
+                    return new TypePrefixFilter(null);
+                }
+                prefixes.add(prefix);
+            }
+        }
+        return new TypePrefixFilter(List.copyOf(prefixes));
+    }
+
+    /**
+     * Returns if a file with the given source can contain a call one of the rules matches.
+     *
+     * @param source the content of the file
+     * @return {@code false} if the source does not mention any of the prefixes
+     */
+    public boolean canMatch(@Nonnull String source) {
+        if (prefixes == null) {
+            return true;
+        }
+        for (String prefix : prefixes) {
+            if (source.contains(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the prefixes of the filter.
+     *
+     * @return the prefixes, or {@code null} if the filter accepts every file
+     */
+    @Nullable public List<String> prefixes() {
+        return prefixes;
+    }
+
+    @Nonnull
+    private static String prefixOf(@Nonnull String type, int segments) {
+        int end = -1;
+        for (int i = 0; i < segments; i++) {
+            final int next = type.indexOf('.', end + 1);
+            if (next < 0) {
+                return type;
+            }
+            end = next;
+        }
+        return type.substring(0, end);
+    }
+
+    @Nullable private static <T> List<String> invokedObjectTypesOf(@Nonnull IDetectionRule<T> rule) {
+        if (rule instanceof DetectionRule<T> detectionRule) {
+            return detectionRule.matchers().getInvokedObjectTypeStringsSerializable();
+        } else if (rule instanceof MethodDetectionRule<T> methodDetectionRule) {
+            return methodDetectionRule.matchers().getInvokedObjectTypeStringsSerializable();
+        }
+        // unknown rule type
+        return null;
+    }
+}
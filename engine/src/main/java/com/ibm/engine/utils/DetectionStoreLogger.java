@@ -19,6 +19,8 @@
  */
 package com.ibm.engine.utils;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
 import com.ibm.engine.detection.DetectionStore;
 import com.ibm.engine.model.AlgorithmParameter;
 import com.ibm.engine.model.IValue;
@@ -28,7 +30,9 @@ import com.ibm.engine.model.context.IDetectionContext;
 import com.ibm.engine.model.context.ISupportKind;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.TreeMap;
 import javax.annotation.Nonnull;
 import org.apache.commons.lang3.StringUtils;
 import org.slf4j.Logger;
@@ -39,7 +43,12 @@ public class DetectionStoreLogger<R, T, S, P> {
     private static final Logger LOGGER = LoggerFactory.getLogger(DetectionStoreLogger.class);
 
     public void print(@Nonnull DetectionStore<R, T, S, P> rootDetectionStore) {
-        printDstoreValues(0, List.of(rootDetectionStore));
+        if (LOGGER.isDebugEnabled()) {
+            printDstoreValues(0, List.of(rootDetectionStore));
+        }
+        if (Tracer.isStructuredTraceEnabled()) {
+            Tracer.trace("detection-store", () -> toJson(rootDetectionStore));
+        }
     }
 
     private static final int TRUNCATE_SIZE_FOR_LONG_NUMBERS = 6;
@@ -49,66 +58,13 @@ public class DetectionStoreLogger<R, T, S, P> {
         detectionStores.forEach(
                 store -> {
                     store.getActionValue()
-                            .ifPresent(
-                                    value ->
-                                            LOGGER.debug(
-                                                    "[id: "
-                                                            + store.getStoreId()
-                                                                    .toString()
-                                                                    .substring(0, 5)
-                                                            + ", bundle: "
-                                                            + store.getDetectionRule()
-                                                                    .bundle()
-                                                                    .getIdentifier()
-                                                            + ", level: "
-                                                            + store.getLevel()
-                                                            + ", hash: "
-                                                            + getFormattedNumericString(
-                                                                    store.hashCode())
-                                                            + "] "
-                                                            + "   ".repeat(Math.max(0, tabs))
-                                                            + (tabs > 0 ? "└─ " : "")
-                                                            + "("
-                                                            + getDetectionValueContextMessage(
-                                                                    store
-                                                                            .getDetectionValueContext())
-                                                            + ", "
-                                                            + value.getClass().getSimpleName()
-                                                            + valueSpecificString(value)
-                                                            + ") "
-                                                            + value.asString()));
+                            .ifPresent(value -> LOGGER.debug(valueMessage(tabs, store, value)));
 
                     final Set<Integer> visitedChildren = new HashSet<>();
                     store.detectionValuesForEachParameter(
                             (i, values) -> {
                                 values.forEach(
-                                        value ->
-                                                LOGGER.debug(
-                                                        "[id: "
-                                                                + store.getStoreId()
-                                                                        .toString()
-                                                                        .substring(0, 5)
-                                                                + ", bundle: "
-                                                                + store.getDetectionRule()
-                                                                        .bundle()
-                                                                        .getIdentifier()
-                                                                + ", level: "
-                                                                + store.getLevel()
-                                                                + ", hash: "
-                                                                + getFormattedNumericString(
-                                                                        store.hashCode())
-                                                                + "] "
-                                                                + "   ".repeat(Math.max(0, tabs))
-                                                                + (tabs > 0 ? "└─ " : "")
-                                                                + "("
-                                                                + getDetectionValueContextMessage(
-                                                                        store
-                                                                                .getDetectionValueContext())
-                                                                + ", "
-                                                                + value.getClass().getSimpleName()
-                                                                + valueSpecificString(value)
-                                                                + ") "
-                                                                + value.asString()));
+                                        value -> LOGGER.debug(valueMessage(tabs, store, value)));
                                 store.getChildrenForParameterWithId(i)
                                         .ifPresent(
                                                 children -> {
@@ -127,6 +83,83 @@ public class DetectionStoreLogger<R, T, S, P> {
                 });
     }
 
+    @Nonnull
+    private String valueMessage(
+            int tabs, @Nonnull DetectionStore<R, T, S, P> store, @Nonnull IValue<T> value) {
+        return "[id: "
+                + store.getStoreId()
+                + ", bundle: "
+                + store.getDetectionRule().bundle().getIdentifier()
+                + ", level: "
+                + store.getLevel()
+                + ", hash: "
+                + getFormattedNumericString(store.hashCode())
+                + "] "
+                + "   ".repeat(Math.max(0, tabs))
+                + (tabs > 0 ? "└─ " : "")
+                + "("
+                + getDetectionValueContextMessage(store.getDetectionValueContext())
+                + ", "
+                + value.getClass().getSimpleName()
+                + valueSpecificString(value)
+                + ") "
+                + value.asString();
+    }
+
+    @Nonnull
+    private JsonObject toJson(@Nonnull DetectionStore<R, T, S, P> store) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("id", store.getStoreId());
+        json.addProperty("bundle", store.getDetectionRule().bundle().getIdentifier());
+        json.addProperty("level", store.getLevel());
+        json.addProperty(
+                "context", getDetectionValueContextMessage(store.getDetectionValueContext()));
+        store.getActionValue().ifPresent(value -> json.add("action", toJson(value)));
+
+        // parameters ordered by their index, with their values and their child stores
+        final Map<Integer, JsonObject> parameters = new TreeMap<>();
+        store.detectionValuesForEachParameter(
+                (i, values) -> {
+                    final JsonArray jsonValues = new JsonArray();
+                    values.forEach(value -> jsonValues.add(toJson(value)));
+                    parameter(parameters, i).add("values", jsonValues);
+                });
+        store.childrenForEachParameter(
+                (i, children) -> parameter(parameters, i).add("children", toJson(children)));
+        final JsonArray jsonParameters = new JsonArray();
+        parameters.values().forEach(jsonParameters::add);
+        json.add("parameters", jsonParameters);
+
+        json.add("methodChildren", toJson(store.getChildrenForMethod()));
+        return json;
+    }
+
+    @Nonnull
+    private JsonArray toJson(@Nonnull List<DetectionStore<R, T, S, P>> stores) {
+        final JsonArray json = new JsonArray();
+        stores.forEach(store -> json.add(toJson(store)));
+        return json;
+    }
+
+    @Nonnull
+    private JsonObject toJson(@Nonnull IValue<T> value) {
+        final JsonObject json = new JsonObject();
+        json.addProperty("kind", value.getClass().getSimpleName() + valueSpecificString(value));
+        json.addProperty("value", value.asString());
+        return json;
+    }
+
+    @Nonnull
+    private static JsonObject parameter(@Nonnull Map<Integer, JsonObject> parameters, int index) {
+        return parameters.computeIfAbsent(
+                index,
+                i -> {
+                    final JsonObject json = new JsonObject();
+                    json.addProperty("index", i);
+                    return json;
+                });
+    }
+
     @Nonnull
     private String valueSpecificString(@Nonnull IValue<T> value) {
         if (value instanceof Size<T> keySize) {
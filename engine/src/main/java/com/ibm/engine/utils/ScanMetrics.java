@@ -0,0 +1,304 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.utils;
+
+import com.google.gson.GsonBuilder;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.ibm.engine.detection.MethodMatcher;
+import com.ibm.engine.rule.IBundle;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import javax.annotation.Nonnull;
+
+/**
+ * Optional performance metrics of a scan: match attempts, hits and matching time per detection
+ * rule, and named counters and timers of the detection, hook, reorganizer and enricher steps.
+ *
+ * <p>The metrics are only collected once they are enabled with {@link #setEnabled(boolean)}, which
+ * the plugin does from the scanner settings; otherwise the recording methods return right away.
+ * Counters and timers are identified by a group (e.g. {@code hooks.fired}) and a name within the
+ * group (e.g. the hook type).
+ */
+public final class ScanMetrics {
+    private static final int NUMBER_OF_PRINTED_RULES = 10;
+
+    /*
+     * Method matchers are created for a single rule and do not override equals, so the matcher
+     * identifies the rule without hashing the rule record.
+     */
+    @Nonnull
+    private static final Map<MethodMatcher<?>, RuleMetrics> RULES = new ConcurrentHashMap<>();
+
+    @Nonnull
+    private static final Map<String, Map<String, LongAdder>> COUNTERS = new ConcurrentHashMap<>();
+
+    @Nonnull
+    private static final Map<String, Map<String, LongAdder>> TIMERS = new ConcurrentHashMap<>();
+
+    private static volatile boolean enabled = false;
+
+    private ScanMetrics() {
+        // nothing
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    public static void setEnabled(boolean enabled) {
+        ScanMetrics.enabled = enabled;
+    }
+
+    /** Drops the collected metrics. */
+    public static void reset() {
+        RULES.clear();
+        COUNTERS.clear();
+        TIMERS.clear();
+    }
+
+    /**
+     * Records a match attempt of a detection rule.
+     *
+     * @param bundle the bundle of the rule
+     * @param matcher the method matcher of the rule
+     * @param matched if the rule matched the expression
+     * @param nanos the time spent matching, in nanoseconds
+     */
+    public static void recordMatch(
+            @Nonnull IBundle bundle,
+            @Nonnull MethodMatcher<?> matcher,
+            boolean matched,
+            long nanos) {
+        if (!enabled) {
+            return;
+        }
+        final RuleMetrics metrics =
+                RULES.computeIfAbsent(
+                        matcher, m -> new RuleMetrics(bundle.getIdentifier(), ruleName(m)));
+        metrics.attempts.increment();
+        if (matched) {
+            metrics.hits.increment();
+        }
+        metrics.nanos.add(nanos);
+    }
+
+    public static void count(@Nonnull String group, @Nonnull String name) {
+        add(COUNTERS, group, name, 1);
+    }
+
+    public static void count(@Nonnull String group, @Nonnull String name, long amount) {
+        add(COUNTERS, group, name, amount);
+    }
+
+    public static void addTime(@Nonnull String group, @Nonnull String name, long nanos) {
+        add(TIMERS, group, name, nanos);
+    }
+
+    /**
+     * Returns an immutable copy of the metrics collected so far.
+     *
+     * @return the snapshot of the metrics
+     */
+    @Nonnull
+    public static Snapshot snapshot() {
+        final List<RuleSnapshot> rules =
+                RULES.values().stream()
+                        .map(
+                                rule ->
+                                        new RuleSnapshot(
+                                                rule.bundle,
+                                                rule.rule,
+                                                rule.attempts.sum(),
+                                                rule.hits.sum(),
+                                                rule.nanos.sum()))
+                        .sorted(Comparator.comparingLong(RuleSnapshot::nanos).reversed())
+                        .toList();
+        return new Snapshot(rules, sums(COUNTERS), sums(TIMERS));
+    }
+
+    private static void add(
+            @Nonnull Map<String, Map<String, LongAdder>> metrics,
+            @Nonnull String group,
+            @Nonnull String name,
+            long amount) {
+        if (!enabled) {
+            return;
+        }
+        metrics.computeIfAbsent(group, g -> new ConcurrentHashMap<>())
+                .computeIfAbsent(name, n -> new LongAdder())
+                .add(amount);
+    }
+
+    @Nonnull
+    private static Map<String, Map<String, Long>> sums(
+            @Nonnull Map<String, Map<String, LongAdder>> metrics) {
+        final Map<String, Map<String, Long>> sums = new TreeMap<>();
+        metrics.forEach(
+                (group, values) -> {
+                    final Map<String, Long> groupSums = new TreeMap<>();
+                    values.forEach((name, value) -> groupSums.put(name, value.sum()));
+                    sums.put(group, groupSums);
+                });
+        return sums;
+    }
+
+    @Nonnull
+    private static String ruleName(@Nonnull MethodMatcher<?> matcher) {
+        return String.join("|", matcher.getInvokedObjectTypeStringsSerializable())
+                + "#"
+                + String.join("|", matcher.getMethodNamesSerializable())
+                + "("
+                + String.join(", ", matcher.getParameterTypesSerializable())
+                + ")";
+    }
+
+    private static final class RuleMetrics {
+        @Nonnull private final String bundle;
+        @Nonnull private final String rule;
+        @Nonnull private final LongAdder attempts = new LongAdder();
+        @Nonnull private final LongAdder hits = new LongAdder();
+        @Nonnull private final LongAdder nanos = new LongAdder();
+
+        private RuleMetrics(@Nonnull String bundle, @Nonnull String rule) {
+            this.bundle = bundle;
+            this.rule = rule;
+        }
+    }
+
+    public record RuleSnapshot(
+            @Nonnull String bundle, @Nonnull String rule, long attempts, long hits, long nanos) {}
+
+    /**
+     * The metrics of a scan at a point in time. Rules are sorted by the time spent matching them,
+     * counters and timers by their group and name.
+     */
+    public record Snapshot(
+            @Nonnull List<RuleSnapshot> rules,
+            @Nonnull Map<String, Map<String, Long>> counters,
+            @Nonnull Map<String, Map<String, Long>> timers) {
+
+        public void print(@Nonnull Consumer<String> out) {
+            out.accept("========== Scan Metrics ==========");
+            final Map<String, long[]> bundles = new TreeMap<>();
+            for (RuleSnapshot rule : rules) {
+                final long[] totals = bundles.computeIfAbsent(rule.bundle(), b -> new long[3]);
+                totals[0] += rule.attempts();
+                totals[1] += rule.hits();
+                totals[2] += rule.nanos();
+            }
+            out.accept("Rule matching per bundle (attempts / hits / ms)");
+            bundles.forEach(
+                    (bundle, totals) ->
+                            out.accept(
+                                    String.format(
+                                            " - %-30s: %d / %d / %d",
+                                            bundle, totals[0], totals[1], millis(totals[2]))));
+            out.accept("Slowest rules (attempts / hits / ms)");
+            rules.stream()
+                    .limit(NUMBER_OF_PRINTED_RULES)
+                    .forEach(
+                            rule ->
+                                    out.accept(
+                                            String.format(
+                                                    " - [%s] %s: %d / %d / %d",
+                                                    rule.bundle(),
+                                                    rule.rule(),
+                                                    rule.attempts(),
+                                                    rule.hits(),
+                                                    millis(rule.nanos()))));
+            counters.forEach(
+                    (group, values) ->
+                            values.forEach(
+                                    (name, value) ->
+                                            out.accept(
+                                                    String.format(
+                                                            "%-33s: %s",
+                                                            group + " " + name, value))));
+            timers.forEach(
+                    (group, values) ->
+                            values.forEach(
+                                    (name, value) ->
+                                            out.accept(
+                                                    String.format(
+                                                            "%-33s: %d ms",
+                                                            group + " " + name, millis(value)))));
+            out.accept("==================================");
+        }
+
+        @Nonnull
+        public JsonObject toJson() {
+            final JsonArray rulesJson = new JsonArray();
+            for (RuleSnapshot rule : rules) {
+                final JsonObject ruleJson = new JsonObject();
+                ruleJson.addProperty("bundle", rule.bundle());
+                ruleJson.addProperty("rule", rule.rule());
+                ruleJson.addProperty("attempts", rule.attempts());
+                ruleJson.addProperty("hits", rule.hits());
+                ruleJson.addProperty("timeNanos", rule.nanos());
+                rulesJson.add(ruleJson);
+            }
+            final JsonObject json = new JsonObject();
+            json.add("rules", rulesJson);
+            json.add("counters", groupsToJson(counters));
+            json.add("timersNanos", groupsToJson(timers));
+            return json;
+        }
+
+        /**
+         * Writes the metrics as JSON to the given file.
+         *
+         * @param path the file to write to
+         * @throws IOException if the file could not be written
+         */
+        public void saveTo(@Nonnull Path path) throws IOException {
+            Files.writeString(
+                    path,
+                    new GsonBuilder().setPrettyPrinting().create().toJson(toJson()),
+                    StandardCharsets.UTF_8);
+        }
+
+        @Nonnull
+        private static JsonObject groupsToJson(@Nonnull Map<String, Map<String, Long>> groups) {
+            final JsonObject json = new JsonObject();
+            groups.forEach(
+                    (group, values) -> {
+                        final JsonObject groupJson = new JsonObject();
+                        values.forEach(groupJson::addProperty);
+                        json.add(group, groupJson);
+                    });
+            return json;
+        }
+
+        private static long millis(long nanos) {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Objects;
+import java.util.function.Supplier;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Debug tracing of the detection, translation and reorganisation steps. Trace messages are only
+ * built if they are written: the arguments are passed as suppliers and are evaluated after the log
+ * level was checked.
+ *
+ * <p>Besides the logger, a structured trace can be written to a file, one JSON object per line, for
+ * offline debugging. It is enabled by setting the path of the file with {@link
+ * #setTraceFile(Path)}, which the plugin does from the scanner settings; records are appended to
+ * it. The records are buffered and written out when the trace is closed with {@link #close()} at
+ * the end of the scan.
+ */
+public final class Tracer {
+    private static final Logger LOGGER = LoggerFactory.getLogger(Tracer.class);
+    private static final Gson GSON = new Gson();
+
+    @Nullable private static volatile Path traceFile;
+    @Nullable private static BufferedWriter traceWriter;
+
+    private Tracer() {
+        // nothing
+    }
+
+    /**
+     * Logs a debug message, evaluating the arguments only if debug logging is enabled.
+     *
+     * @param logger the logger to write to
+     * @param format the message format, with a {@code {}} placeholder per argument
+     * @param arguments the suppliers of the message arguments
+     */
+    @SafeVarargs
+    public static void debug(
+            @Nonnull Logger logger, @Nonnull String format, @Nonnull Supplier<?>... arguments) {
+        if (!logger.isDebugEnabled()) {
+            return;
+        }
+        final Object[] values = new Object[arguments.length];
+        for (int i = 0; i < arguments.length; i++) {
+            values[i] = arguments[i].get();
+        }
+        logger.debug(format, values);
+    }
+
+    /**
+     * Sets the file the structured trace is written to, or disables the structured trace.
+     *
+     * @param file the path of the trace file, or {@code null} to disable the structured trace
+     */
+    public static synchronized void setTraceFile(@Nullable Path file) {
+        if (!Objects.equals(file, traceFile)) {
+            close();
+            traceFile = file;
+        }
+    }
+
+    /**
+     * Returns if the structured trace is written to a file.
+     *
+     * @return {@code true} if a trace file is set
+     */
+    public static boolean isStructuredTraceEnabled() {
+        return traceFile != null;
+    }
+
+    /**
+     * Appends a record to the structured trace file. The payload is only built if the structured
+     * trace is enabled.
+     *
+     * @param event the name of the traced step, stored in the {@code event} field of the record
+     * @param payload the supplier of the traced data, stored in the {@code data} field of the
+     *     record
+     */
+    public static void trace(@Nonnull String event, @Nonnull Supplier<JsonElement> payload) {
+        if (!isStructuredTraceEnabled()) {
+            return;
+        }
+        final JsonObject record = new JsonObject();
+        record.addProperty("event", event);
+        record.add("data", payload.get());
+        write(GSON.toJson(record));
+    }
+
+    private static synchronized void write(@Nonnull String line) {
+        final Path file = traceFile;
+        if (file == null) {
+            return;
+        }
+        try {
+            if (traceWriter == null) {
+                if (file.getParent() != null) {
+                    Files.createDirectories(file.getParent());
+                }
+                traceWriter =
+                        Files.newBufferedWriter(
+                                file,
+                                StandardCharsets.UTF_8,
+                                StandardOpenOption.CREATE,
+                                StandardOpenOption.APPEND);
+            }
+            traceWriter.write(line);
+            traceWriter.newLine();
+        } catch (IOException e) {
+            LOGGER.warn("Could not write the trace to {}: {}", file, e.getMessage());
+            close();
+        }
+    }
+
+    /**
+     * Writes the buffered records to the trace file and closes it. Records traced afterwards are
+     * appended to the same file again.
+     */
+    public static synchronized void close() {
+        if (traceWriter != null) {
+            try {
+                traceWriter.close();
+            } catch (IOException ignored) {
+                // the trace is best effort
+            }
+        }
+        traceWriter = null;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class IndexedListsTest {
+
+    @Test
+    void emptyLists() {
+        final IndexedLists<String> lists = new IndexedLists<>();
+        assertThat(lists.isEmpty()).isTrue();
+        assertThat(lists.get(0)).isNull();
+        assertThat(lists.flatten(null)).isEmpty();
+        assertThat(lists.flatten("action")).containsExactly("action");
+    }
+
+    @Test
+    void valuesAreOrderedByIndex() {
+        final IndexedLists<String> lists = new IndexedLists<>();
+        lists.add(2, "c");
+        lists.add(-1, "method");
+        lists.add(0, "a");
+        lists.add(2, "d");
+        lists.add(1, "b");
+
+        assertThat(lists.get(2)).containsExactly("c", "d");
+        assertThat(lists.get(3)).isNull();
+        assertThat(lists.flatten("action")).containsExactly("action", "method", "a", "b", "c", "d");
+
+        final List<Integer> indices = new ArrayList<>();
+        lists.forEach((index, values) -> indices.add(index));
+        assertThat(indices).containsExactly(-1, 0, 1, 2);
+    }
+
+    @Test
+    void removeDropsIndexWithoutValues() {
+        final IndexedLists<String> lists = new IndexedLists<>();
+        final String value = "b";
+        lists.add(0, "a");
+        lists.add(1, value);
+        lists.add(2, "c");
+
+        lists.remove(1, new String("b"));
+        assertThat(lists.get(1)).containsExactly(value);
+        lists.remove(1, value);
+        assertThat(lists.get(1)).isNull();
+        assertThat(lists.flatten(null)).containsExactly("a", "c");
+
+        lists.clear();
+        assertThat(lists.isEmpty()).isTrue();
+    }
+
+    @Test
+    void equalListsHaveEqualHashCodes() {
+        final IndexedLists<String> first = new IndexedLists<>();
+        first.add(1, "b");
+        first.add(0, "a");
+        final IndexedLists<String> second = new IndexedLists<>();
+        second.add(0, "a");
+        second.add(1, "b");
+
+        assertThat(first).isEqualTo(second).hasSameHashCodeAs(second);
+        second.add(1, "c");
+        assertThat(first).isNotEqualTo(second);
+    }
+}
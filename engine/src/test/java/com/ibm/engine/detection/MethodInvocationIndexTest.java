@@ -0,0 +1,121 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class MethodInvocationIndexTest {
+    private static final String FILE = "Crypto.java";
+    private static final String OTHER_FILE = "Digests.java";
+
+    /** Methods are strings, their invocations are listed in this map by method name. */
+    private static final Map<String, List<String>> INVOCATIONS =
+            Map.of(
+                    "encrypt",
+                    List.of("javax.crypto.Cipher#getInstance", "javax.crypto.Cipher#init"),
+                    "digest",
+                    List.of("java.security.MessageDigest#getInstance"),
+                    "noCrypto",
+                    List.of());
+
+    private final List<String> collected = new ArrayList<>();
+    private final MethodInvocationIndex<String> index =
+            new MethodInvocationIndex<>(
+                    method -> {
+                        collected.add(method);
+                        return new ArrayList<>(INVOCATIONS.get(method));
+                    },
+                    2);
+
+    @Test
+    void invocationsAreCollectedOncePerMethod() {
+        final String encrypt = "encrypt";
+
+        final List<String> invocations = index.invocationsOf(FILE, encrypt);
+        assertThat(invocations)
+                .containsExactly("javax.crypto.Cipher#getInstance", "javax.crypto.Cipher#init");
+        assertThat(index.invocationsOf(FILE, encrypt)).isSameAs(invocations);
+        assertThat(collected).containsExactly(encrypt);
+        assertThatThrownBy(() -> invocations.add("javax.crypto.Cipher#doFinal"))
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void methodsWithoutInvocationsAreCached() {
+        final String noCrypto = "noCrypto";
+
+        assertThat(index.invocationsOf(FILE, noCrypto)).isEmpty();
+        assertThat(index.invocationsOf(FILE, noCrypto)).isEmpty();
+        assertThat(collected).containsExactly(noCrypto);
+    }
+
+    @Test
+    void equalMethodDefinitionsAreMisses() {
+        final String encrypt = "encrypt";
+        final String sameName = new String(encrypt);
+
+        index.invocationsOf(FILE, encrypt);
+        assertThat(index.invocationsOf(FILE, sameName))
+                .containsExactly("javax.crypto.Cipher#getInstance", "javax.crypto.Cipher#init");
+        assertThat(collected).hasSize(2);
+        assertThat(index.size()).isEqualTo(2);
+    }
+
+    @Test
+    void anotherFileReleasesTheMethods() {
+        final String encrypt = "encrypt";
+        final String digest = "digest";
+
+        index.invocationsOf(FILE, encrypt);
+        assertThat(index.invocationsOf(OTHER_FILE, digest))
+                .containsExactly("java.security.MessageDigest#getInstance");
+        assertThat(index.size()).isEqualTo(1);
+
+        index.invocationsOf(FILE, encrypt);
+        assertThat(collected).containsExactly(encrypt, digest, encrypt);
+
+        index.clear();
+        assertThat(index.size()).isZero();
+    }
+
+    @Test
+    void leastRecentlyUsedMethodIsEvicted() {
+        final String encrypt = "encrypt";
+        final String digest = "digest";
+        final String noCrypto = "noCrypto";
+
+        index.invocationsOf(FILE, encrypt);
+        index.invocationsOf(FILE, digest);
+        index.invocationsOf(FILE, encrypt);
+        index.invocationsOf(FILE, noCrypto);
+        assertThat(index.size()).isEqualTo(2);
+
+        // encrypt was used last, digest was evicted
+        index.invocationsOf(FILE, encrypt);
+        index.invocationsOf(FILE, digest);
+        assertThat(collected).containsExactly(encrypt, digest, noCrypto, digest);
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ibm.engine.language.ILanguageTranslation;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+class MethodMatcherTest {
+
+    private record Call(String owner, String name, List<String> parameterTypes) {}
+
+    /** Resolves the calls from their record fields, and counts the type checks. */
+    private static final class CallTranslation implements ILanguageTranslation<Call> {
+        final AtomicInteger typeChecks = new AtomicInteger();
+
+        @Nonnull
+        private IType type(@Nonnull String actualType) {
+            return type -> {
+                typeChecks.incrementAndGet();
+                return type.equals(actualType);
+            };
+        }
+
+        @Nonnull
+        @Override
+        public Optional<String> getMethodName(
+                @Nonnull MatchContext matchContext, @Nonnull Call methodInvocation) {
+            return Optional.of(methodInvocation.name());
+        }
+
+        @Nonnull
+        @Override
+        public Optional<IType> getInvokedObjectTypeString(
+                @Nonnull MatchContext matchContext, @Nonnull Call methodInvocation) {
+            return Optional.of(type(methodInvocation.owner()));
+        }
+
+        @Nonnull
+        @Override
+        public Optional<IType> getMethodReturnTypeString(
+                @Nonnull MatchContext matchContext, @Nonnull Call methodInvocation) {
+            return Optional.empty();
+        }
+
+        @Nonnull
+        @Override
+        public List<IType> getMethodParameterTypes(
+                @Nonnull MatchContext matchContext, @Nonnull Call methodInvocation) {
+            return methodInvocation.parameterTypes().stream().map(this::type).toList();
+        }
+
+        @Nonnull
+        @Override
+        public Optional<String> resolveIdentifierAsString(
+                @Nonnull MatchContext matchContext, @Nonnull Call identifierTree) {
+            return Optional.empty();
+        }
+
+        @Nonnull
+        @Override
+        public Optional<String> getEnumIdentifierName(
+                @Nonnull MatchContext matchContext, @Nonnull Call enumIdentifier) {
+            return Optional.empty();
+        }
+
+        @Nonnull
+        @Override
+        public Optional<String> getEnumClassName(
+                @Nonnull MatchContext matchContext, @Nonnull Call enumClass) {
+            return Optional.empty();
+        }
+    }
+
+    private static final MatchContext CONTEXT = new MatchContext(false, false, List.of());
+
+    @Test
+    void matchesNamesOwnersAndParameters() {
+        final CallTranslation translation = new CallTranslation();
+        final MethodMatcher<Call> matcher =
+                new MethodMatcher<>(
+                        new String[] {"javax.crypto.Cipher", "javax.crypto.Mac"},
+                        new String[] {"getInstance", "init", "getInstance"},
+                        List.of("java.lang.String", MethodMatcher.ANY));
+
+        final Call macInit =
+                new Call("javax.crypto.Mac", "init", List.of("java.lang.String", "int"));
+        final Call macInitWithInt = new Call("javax.crypto.Mac", "init", List.of("int", "int"));
+        final Call objectInit =
+                new Call("java.lang.Object", "init", List.of("java.lang.String", "int"));
+
+        assertThat(matcher.match(macInit, translation, CONTEXT)).isTrue();
+        assertThat(matcher.match(macInitWithInt, translation, CONTEXT)).isFalse();
+        assertThat(matcher.match(objectInit, translation, CONTEXT)).isFalse();
+    }
+
+    @Test
+    void rejectsByNameAndArityBeforeTypeChecks() {
+        final CallTranslation translation = new CallTranslation();
+        final MethodMatcher<Call> matcher =
+                new MethodMatcher<>(
+                        "javax.crypto.Cipher", "getInstance", List.of("java.lang.String"));
+
+        assertThat(
+                        matcher.match(
+                                new Call("javax.crypto.Cipher", "doFinal", List.of("byte[]")),
+                                translation,
+                                CONTEXT))
+                .isFalse();
+        assertThat(
+                        matcher.match(
+                                new Call("javax.crypto.Cipher", "getInstance", List.of()),
+                                translation,
+                                CONTEXT))
+                .isFalse();
+        assertThat(translation.typeChecks.get()).isZero();
+    }
+
+    @Test
+    void anyMatchesEveryValue() {
+        final CallTranslation translation = new CallTranslation();
+        final MethodMatcher<Call> matcher =
+                new MethodMatcher<>(
+                        new String[] {MethodMatcher.ANY}, new String[] {MethodMatcher.ANY});
+
+        assertThat(matcher.match(new Call("a.B", "c", List.of("d")), translation, CONTEXT))
+                .isTrue();
+        assertThat(translation.typeChecks.get()).isZero();
+        assertThatThrownBy(
+                        () ->
+                                new MethodMatcher<Call>(
+                                        new String[] {MethodMatcher.ANY, "a.B"},
+                                        new String[] {"c"}))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
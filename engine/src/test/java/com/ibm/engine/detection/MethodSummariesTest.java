@@ -0,0 +1,163 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.language.java.JavaLanguageSupport;
+import java.lang.reflect.Proxy;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+class MethodSummariesTest {
+
+    @Test
+    void summariesOfMethodsWithoutIdentityAreKeyedByTree() {
+        final MethodSummaries<String> summaries = withoutIdentity();
+        final String method = "encrypt";
+
+        final MethodSummary<String> summary = summaries.summaryOf(method);
+        assertThat(summaries.summaryOf(method)).isSameAs(summary);
+        assertThat(summaries.summaryOf(new String(method))).isNotSameAs(summary);
+        assertThat(summary.methodDefinition()).isSameAs(method);
+        assertThat(summaries.size()).isEqualTo(2);
+
+        summaries.clear();
+        assertThat(summaries.size()).isZero();
+    }
+
+    @Test
+    void summaryIsReplacedForANewTreeOfTheSameMethod() {
+        final MethodSummaries<String> summaries =
+                new MethodSummaries<>(method -> Optional.of("com.example.Crypto#" + method));
+        final String method = "encrypt";
+        final MethodSummary<String> summary = summaries.summaryOf(method);
+
+        // the declaring file was scanned again
+        final String rescannedMethod = new String(method);
+        final MethodSummary<String> rescannedSummary = summaries.summaryOf(rescannedMethod);
+
+        assertThat(rescannedSummary).isNotSameAs(summary);
+        assertThat(rescannedSummary.methodDefinition()).isSameAs(rescannedMethod);
+        assertThat(summaries.summaryOf(rescannedMethod)).isSameAs(rescannedSummary);
+        assertThat(summaries.size()).isEqualTo(1);
+    }
+
+    @Test
+    void leastRecentlyUsedSummaryIsEvicted() {
+        final MethodSummaries<String> summaries =
+                new MethodSummaries<>(method -> Optional.empty(), 2);
+        final String first = "first";
+        final MethodSummary<String> firstSummary = summaries.summaryOf(first);
+        summaries.summaryOf("second");
+        summaries.summaryOf(first);
+        summaries.summaryOf("third");
+
+        assertThat(summaries.size()).isEqualTo(2);
+        assertThat(summaries.summaryOf(first)).isSameAs(firstSummary);
+    }
+
+    @Test
+    void invocationMatcherIsCreatedOnce() {
+        final MethodSummary<String> summary = withoutIdentity().summaryOf("encrypt");
+        final AtomicInteger created = new AtomicInteger();
+        final MethodMatcher<String> matcher =
+                summary.invocationMatcher(
+                        method -> {
+                            created.incrementAndGet();
+                            return new MethodMatcher<>("com.example.Crypto", method, List.of());
+                        });
+
+        assertThat(summary.invocationMatcher(method -> null)).isSameAs(matcher);
+        assertThat(created).hasValue(1);
+
+        // a method without matcher is not asked again
+        final MethodSummary<String> noMatcher = withoutIdentity().summaryOf("init");
+        assertThat(noMatcher.invocationMatcher(method -> null)).isNull();
+        assertThat(noMatcher.invocationMatcher(method -> matcher)).isNull();
+    }
+
+    @Test
+    void returnValuesAreCollectedOncePerValueType() {
+        final MethodSummary<String> summary = withoutIdentity().summaryOf("algorithm");
+        final AtomicInteger collected = new AtomicInteger();
+        final List<MethodSummary.ReturnValue<String, String>> returnValues =
+                summary.returnValues(
+                        String.class,
+                        null,
+                        () -> {
+                            collected.incrementAndGet();
+                            return List.of(
+                                    new MethodSummary.ReturnValue<>(
+                                            "\"AES\"",
+                                            List.of(new ResolvedValue<>("AES", "\"AES\""))),
+                                    new MethodSummary.ReturnValue<>("name", List.of()));
+                        });
+
+        assertThat(summary.returnValues(String.class, null, List::of)).isSameAs(returnValues);
+        assertThat(collected).hasValue(1);
+        assertThat(returnValues.get(0).isResolved()).isTrue();
+        assertThat(returnValues.get(1).isResolved()).isFalse();
+
+        assertThat(summary.returnValues(Object.class, null, List::of)).isEmpty();
+    }
+
+    @Test
+    void summariesAreKeptWhenTheFileIsLeft() {
+        final Handler<JavaCheck, Tree, Symbol, JavaFileScannerContext> handler =
+                new Handler<>(new JavaLanguageSupport());
+        final Symbol.MethodSymbol symbol =
+                (Symbol.MethodSymbol)
+                        Proxy.newProxyInstance(
+                                Symbol.MethodSymbol.class.getClassLoader(),
+                                new Class<?>[] {Symbol.MethodSymbol.class},
+                                (proxy, m, args) ->
+                                        switch (m.getName()) {
+                                            case "isUnknown" -> false;
+                                            case "signature" ->
+                                                    "com.example.Crypto#encrypt(Ljava/lang/String;)[B";
+                                            default -> null;
+                                        });
+        final MethodTree method =
+                (MethodTree)
+                        Proxy.newProxyInstance(
+                                MethodTree.class.getClassLoader(),
+                                new Class<?>[] {MethodTree.class},
+                                (proxy, m, args) -> "symbol".equals(m.getName()) ? symbol : null);
+
+        final MethodSummary<Tree> summary = handler.getMethodSummaries().summaryOf(method);
+        handler.leaveFile();
+
+        assertThat(handler.getMethodSummaries().summaryOf(method)).isSameAs(summary);
+    }
+
+    @Nonnull
+    private static MethodSummaries<String> withoutIdentity() {
+        return new MethodSummaries<>(method -> Optional.empty());
+    }
+}
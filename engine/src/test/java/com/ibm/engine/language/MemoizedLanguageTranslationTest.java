@@ -0,0 +1,137 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.language;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.detection.IType;
+import com.ibm.engine.detection.MatchContext;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+class MemoizedLanguageTranslationTest {
+
+    /** Trees are plain strings, the invoked object type of a tree is the tree itself. */
+    private static final class CountingTranslation implements ILanguageTranslation<String> {
+        final AtomicInteger resolutions = new AtomicInteger();
+        final AtomicInteger typeChecks = new AtomicInteger();
+
+        @Nonnull
+        @Override
+        public Optional<String> getMethodName(
+                @Nonnull MatchContext matchContext, @Nonnull String methodInvocation) {
+            resolutions.incrementAndGet();
+            return Optional.of(methodInvocation);
+        }
+
+        @Nonnull
+        @Override
+        public Optional<IType> getInvokedObjectTypeString(
+                @Nonnull MatchContext matchContext, @Nonnull String methodInvocation) {
+            resolutions.incrementAndGet();
+            return Optional.of(
+                    type -> {
+                        typeChecks.incrementAndGet();
+                        return type.equals(methodInvocation);
+                    });
+        }
+
+        @Nonnull
+        @Override
+        public Optional<IType> getMethodReturnTypeString(
+                @Nonnull MatchContext matchContext, @Nonnull String methodInvocation) {
+            return Optional.empty();
+        }
+
+        @Nonnull
+        @Override
+        public List<IType> getMethodParameterTypes(
+                @Nonnull MatchContext matchContext, @Nonnull String methodInvocation) {
+            resolutions.incrementAndGet();
+            return List.of();
+        }
+
+        @Nonnull
+        @Override
+        public Optional<String> resolveIdentifierAsString(
+                @Nonnull MatchContext matchContext, @Nonnull String identifierTree) {
+            return Optional.empty();
+        }
+
+        @Nonnull
+        @Override
+        public Optional<String> getEnumIdentifierName(
+                @Nonnull MatchContext matchContext, @Nonnull String enumIdentifier) {
+            return Optional.empty();
+        }
+
+        @Nonnull
+        @Override
+        public Optional<String> getEnumClassName(
+                @Nonnull MatchContext matchContext, @Nonnull String enumClass) {
+            return Optional.empty();
+        }
+    }
+
+    @Test
+    void resolvesEachTreeOncePerContext() {
+        final CountingTranslation delegate = new CountingTranslation();
+        final MemoizedLanguageTranslation<String> translation =
+                new MemoizedLanguageTranslation<>(delegate);
+        translation.enterScope("File.java");
+        final String tree = "java.lang.Object";
+        final MatchContext context = new MatchContext(false, false, List.of());
+
+        for (int i = 0; i < 10; i++) {
+            assertThat(translation.getMethodName(context, tree)).contains(tree);
+            assertThat(translation.getMethodParameterTypes(context, tree)).isEmpty();
+            final IType type = translation.getInvokedObjectTypeString(context, tree).orElseThrow();
+            assertThat(type.is("java.lang.Object")).isTrue();
+            assertThat(type.is("java.lang.String")).isFalse();
+        }
+        assertThat(delegate.resolutions.get()).isEqualTo(3);
+        assertThat(delegate.typeChecks.get()).isEqualTo(2);
+
+        translation.getMethodName(MatchContext.createForHookContext(), tree);
+        assertThat(delegate.resolutions.get()).isEqualTo(4);
+    }
+
+    @Test
+    void releasesTreesOfPreviousScope() {
+        final CountingTranslation delegate = new CountingTranslation();
+        final MemoizedLanguageTranslation<String> translation =
+                new MemoizedLanguageTranslation<>(delegate, 2);
+        final MatchContext context = new MatchContext(false, false, List.of());
+
+        translation.enterScope("A.java");
+        translation.getMethodName(context, "a");
+        translation.getMethodName(context, "b");
+        translation.getMethodName(context, "c");
+        assertThat(translation.size()).isEqualTo(2);
+
+        translation.enterScope("A.java");
+        assertThat(translation.size()).isEqualTo(2);
+        translation.enterScope("B.java");
+        assertThat(translation.size()).isZero();
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.detection.IType;
+import com.ibm.engine.detection.MatchContext;
+import com.ibm.engine.detection.MethodMatcher;
+import com.ibm.engine.language.ILanguageTranslation;
+import com.ibm.engine.model.context.CipherContext;
+import java.util.List;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+class DetectionRuleIndexTest {
+
+    /** Trees are plain method names, an empty string stands for a tree without a name. */
+    private static final ILanguageTranslation<String> TRANSLATION =
+            new ILanguageTranslation<>() {
+                @Nonnull
+                @Override
+                public Optional<String> getMethodName(
+                        @Nonnull MatchContext matchContext, @Nonnull String methodInvocation) {
+                    return Optional.of(methodInvocation).filter(name -> !name.isEmpty());
+                }
+
+                @Nonnull
+                @Override
+                public Optional<IType> getInvokedObjectTypeString(
+                        @Nonnull MatchContext matchContext, @Nonnull String methodInvocation) {
+                    return Optional.empty();
+                }
+
+                @Nonnull
+                @Override
+                public Optional<IType> getMethodReturnTypeString(
+                        @Nonnull MatchContext matchContext, @Nonnull String methodInvocation) {
+                    return Optional.empty();
+                }
+
+                @Nonnull
+                @Override
+                public List<IType> getMethodParameterTypes(
+                        @Nonnull MatchContext matchContext, @Nonnull String methodInvocation) {
+                    return List.of();
+                }
+
+                @Nonnull
+                @Override
+                public Optional<String> resolveIdentifierAsString(
+                        @Nonnull MatchContext matchContext, @Nonnull String identifierTree) {
+                    return Optional.empty();
+                }
+
+                @Nonnull
+                @Override
+                public Optional<String> getEnumIdentifierName(
+                        @Nonnull MatchContext matchContext, @Nonnull String enumIdentifier) {
+                    return Optional.empty();
+                }
+
+                @Nonnull
+                @Override
+                public Optional<String> getEnumClassName(
+                        @Nonnull MatchContext matchContext, @Nonnull String enumClass) {
+                    return Optional.empty();
+                }
+            };
+
+    private static IDetectionRule<String> rule(@Nonnull String... methodNames) {
+        return new MethodDetectionRule<>(
+                new MethodMatcher<>(new String[] {"java.lang.Object"}, methodNames),
+                false,
+                (tree) -> Optional.empty(),
+                new CipherContext(),
+                () -> "Test",
+                List.of());
+    }
+
+    @Test
+    void dispatchesByMethodName() {
+        final IDetectionRule<String> getInstance = rule("getInstance");
+        final IDetectionRule<String> any = rule(MethodMatcher.ANY);
+        final IDetectionRule<String> initOrGetInstance = rule("init", "getInstance");
+        final IDetectionRule<String> init = rule("init");
+
+        final DetectionRuleIndex<String> index =
+                new DetectionRuleIndex<>(List.of(getInstance, any, initOrGetInstance, init));
+
+        assertThat(index.candidates("getInstance", TRANSLATION))
+                .containsExactly(getInstance, any, initOrGetInstance);
+        assertThat(index.candidates("init", TRANSLATION))
+                .containsExactly(any, initOrGetInstance, init);
+        assertThat(index.candidates("doFinal", TRANSLATION)).containsExactly(any);
+        assertThat(index.candidates("", TRANSLATION)).isEmpty();
+        assertThat(index.rules()).hasSize(4);
+    }
+
+    @Test
+    void dispatchesPositionsByMethodName() {
+        final IDetectionRule<String> getInstance = rule("getInstance");
+        final IDetectionRule<String> any = rule(MethodMatcher.ANY);
+
+        // the same rule can occur at several positions
+        final DetectionRuleIndex<String> index =
+                new DetectionRuleIndex<>(List.of(getInstance, any, getInstance));
+
+        assertThat(index.candidatePositions("getInstance", TRANSLATION)).containsExactly(0, 1, 2);
+        assertThat(index.candidatePositions("doFinal", TRANSLATION)).containsExactly(1);
+        assertThat(index.candidatePositions("", TRANSLATION)).isEmpty();
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import com.ibm.engine.detection.MatchContext;
+import com.ibm.engine.model.context.CipherContext;
+import com.ibm.engine.model.factory.AlgorithmFactory;
+import com.ibm.engine.rule.builder.DetectionRuleBuilder;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class MatchContextCacheTest {
+
+    @Test
+    void builtRulesCarryPrecomputedContexts() {
+        final IDetectionRule<String> rule = rule();
+
+        assertThat(rule.matchContext())
+                .isEqualTo(new MatchContext(false, true, List.of(true, false)));
+        assertThat(rule.hookMatchContext())
+                .isEqualTo(new MatchContext(true, true, List.of(true, false)));
+        assertThat(MatchContext.build(false, rule)).isSameAs(rule.matchContext());
+        assertThat(MatchContext.build(true, rule)).isSameAs(rule.hookMatchContext());
+    }
+
+    @Test
+    void contextsMustMatchTheParameters() {
+        final DetectionRule<String> rule = (DetectionRule<String>) rule();
+
+        assertThatThrownBy(
+                        () ->
+                                new DetectionRule<>(
+                                        rule.matchers(),
+                                        rule.shouldMatchExactTypes(),
+                                        rule.parameters(),
+                                        rule.actionFactory(),
+                                        rule.detectionValueContext(),
+                                        rule.bundle(),
+                                        rule.nextDetectionRules(),
+                                        MatchContext.createForHookContext(),
+                                        rule.hookMatchContext()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void contextsAreLeftOutOfEquality() {
+        final DetectionRule<String> rule = (DetectionRule<String>) rule();
+        final DetectionRule<String> copy =
+                new DetectionRule<>(
+                        rule.matchers(),
+                        rule.shouldMatchExactTypes(),
+                        rule.parameters(),
+                        rule.actionFactory(),
+                        rule.detectionValueContext(),
+                        rule.bundle(),
+                        rule.nextDetectionRules());
+
+        assertThat(copy).isEqualTo(rule).hasSameHashCodeAs(rule);
+        assertThat(rule.toString()).doesNotContain("matchContext", "hookMatchContext");
+    }
+
+    private static IDetectionRule<String> rule() {
+        return new DetectionRuleBuilder<String>()
+                .createDetectionRule()
+                .forObjectExactTypes("javax.crypto.Cipher")
+                .forMethods("getInstance")
+                .withMethodParameterMatchExactType("java.lang.String")
+                .shouldBeDetectedAs(new AlgorithmFactory<>())
+                .withMethodParameter("java.security.Provider")
+                .buildForContext(new CipherContext())
+                .inBundle(() -> "Test")
+                .withoutDependingDetectionRules();
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.rule;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.detection.MethodMatcher;
+import com.ibm.engine.model.context.CipherContext;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+
+class TypePrefixFilterTest {
+
+    @Test
+    void prefixesAreDerivedFromInvokedObjectTypes() {
+        final TypePrefixFilter filter =
+                TypePrefixFilter.of(
+                        List.of(
+                                rule("javax.crypto.Cipher"),
+                                rule("org.bouncycastle.crypto.engines.AESEngine"),
+                                rule("javax.crypto.Mac")),
+                        2,
+                        Set.of("java.lang"));
+
+        assertThat(filter.prefixes()).containsExactly("javax.crypto", "org.bouncycastle");
+        assertThat(filter.canMatch("import javax.crypto.Cipher;")).isTrue();
+        assertThat(filter.canMatch("var engine = new org.bouncycastle.crypto.engines.AESEngine();"))
+                .isTrue();
+        assertThat(filter.canMatch("import java.util.List;")).isFalse();
+    }
+
+    @Test
+    void implicitlyImportedTypesAcceptEveryFile() {
+        final TypePrefixFilter filter =
+                TypePrefixFilter.of(
+                        List.of(rule("javax.crypto.Cipher"), rule("java.lang.String")),
+                        2,
+                        Set.of("java.lang"));
+
+        assertThat(filter.prefixes()).isNull();
+        assertThat(filter.canMatch("")).isTrue();
+    }
+
+    @Test
+    void anyObjectTypeAcceptsEveryFile() {
+        final TypePrefixFilter filter =
+                TypePrefixFilter.of(List.of(rule(MethodMatcher.ANY)), 1, Set.of());
+
+        assertThat(filter.canMatch("import os")).isTrue();
+    }
+
+    @Nonnull
+    private static IDetectionRule<String> rule(@Nonnull String type) {
+        return new DetectionRule<>(
+                new MethodMatcher<>(type, "getInstance", List.of()),
+                false,
+                List.of(),
+                null,
+                new CipherContext(),
+                () -> "Test",
+                List.of());
+    }
+}
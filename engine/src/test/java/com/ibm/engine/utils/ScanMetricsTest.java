@@ -0,0 +1,87 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.gson.JsonObject;
+import com.ibm.engine.detection.MethodMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+class ScanMetricsTest {
+
+    @AfterEach
+    void disableMetrics() {
+        ScanMetrics.setEnabled(false);
+        ScanMetrics.reset();
+    }
+
+    @Test
+    void nothingIsRecordedIfDisabled() {
+        ScanMetrics.reset();
+        ScanMetrics.count("detection", "stores");
+        ScanMetrics.recordMatch(
+                () -> "Jca",
+                new MethodMatcher<>("javax.crypto.Cipher", "getInstance", List.of()),
+                true,
+                5);
+
+        final ScanMetrics.Snapshot snapshot = ScanMetrics.snapshot();
+        assertThat(snapshot.rules()).isEmpty();
+        assertThat(snapshot.counters()).isEmpty();
+    }
+
+    @Test
+    void matchesAreRecordedPerRule() {
+        ScanMetrics.setEnabled(true);
+        ScanMetrics.reset();
+        final MethodMatcher<Object> cipher =
+                new MethodMatcher<>("javax.crypto.Cipher", "getInstance", List.of("int"));
+        final MethodMatcher<Object> digest =
+                new MethodMatcher<>("java.security.MessageDigest", "getInstance", List.of());
+        ScanMetrics.recordMatch(() -> "Jca", cipher, true, 10);
+        ScanMetrics.recordMatch(() -> "Jca", cipher, false, 20);
+        ScanMetrics.recordMatch(() -> "Jca", digest, false, 5);
+        ScanMetrics.count("hooks.fired", "EnumHook");
+        ScanMetrics.count("hooks.fired", "EnumHook");
+        ScanMetrics.addTime("detection", "Jca", 35);
+
+        final ScanMetrics.Snapshot snapshot = ScanMetrics.snapshot();
+        assertThat(snapshot.rules())
+                .containsExactly(
+                        new ScanMetrics.RuleSnapshot(
+                                "Jca", "javax.crypto.Cipher#getInstance(int)", 2, 1, 30),
+                        new ScanMetrics.RuleSnapshot(
+                                "Jca", "java.security.MessageDigest#getInstance()", 1, 0, 5));
+        assertThat(snapshot.counters().get("hooks.fired")).containsEntry("EnumHook", 2L);
+
+        final JsonObject json = snapshot.toJson();
+        assertThat(json.getAsJsonArray("rules")).hasSize(2);
+        assertThat(json.getAsJsonObject("timersNanos").getAsJsonObject("detection").get("Jca"))
+                .hasToString("35");
+
+        final List<String> lines = new ArrayList<>();
+        snapshot.print(lines::add);
+        assertThat(lines).anyMatch(line -> line.contains("Jca") && line.contains("3 / 1 / 0"));
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.engine.utils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.gson.JsonPrimitive;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class TracerTest {
+
+    @AfterEach
+    void disableTrace() {
+        Tracer.setTraceFile(null);
+    }
+
+    @Test
+    void payloadIsNotBuiltIfTraceIsDisabled() {
+        final AtomicBoolean built = new AtomicBoolean(false);
+        Tracer.trace(
+                "event",
+                () -> {
+                    built.set(true);
+                    return new JsonPrimitive("data");
+                });
+        assertThat(built).isFalse();
+    }
+
+    @Test
+    void recordsAreAppendedToTraceFile(@TempDir Path directory) throws IOException {
+        final Path file = directory.resolve("trace.jsonl");
+        Tracer.setTraceFile(file);
+        Tracer.trace("first", () -> new JsonPrimitive("a"));
+        Tracer.trace("second", () -> new JsonPrimitive("b"));
+        Tracer.close();
+        assertThat(Files.readAllLines(file, StandardCharsets.UTF_8))
+                .containsExactly(
+                        "{\"event\":\"first\",\"data\":\"a\"}",
+                        "{\"event\":\"second\",\"data\":\"b\"}");
+
+        // a closed trace is reopened and appended to
+        Tracer.trace("third", () -> new JsonPrimitive("c"));
+        Tracer.close();
+        assertThat(Files.readAllLines(file, StandardCharsets.UTF_8))
+                .hasSize(3)
+                .last()
+                .isEqualTo("{\"event\":\"third\",\"data\":\"c\"}");
+    }
+}
@@ -19,6 +19,7 @@
  */
 package com.ibm.enricher;
 
+import com.ibm.engine.utils.ScanMetrics;
 import com.ibm.enricher.algorithm.AESEnricher;
 import com.ibm.enricher.algorithm.DESEnricher;
 import com.ibm.enricher.algorithm.DHEnricher;
@@ -34,10 +35,26 @@ import com.ibm.enricher.algorithm.SHA3Enricher;
 import com.ibm.enricher.algorithm.SignatureEnricher;
 import com.ibm.enricher.algorithm.TagOrDigestEnricher;
 import com.ibm.enricher.key.SecretKeyEnricher;
+import com.ibm.mapper.model.IAsset;
 import com.ibm.mapper.model.INode;
+import com.ibm.mapper.model.Key;
+import com.ibm.mapper.model.algorithms.AES;
+import com.ibm.mapper.model.algorithms.DES;
+import com.ibm.mapper.model.algorithms.DH;
+import com.ibm.mapper.model.algorithms.DSA;
+import com.ibm.mapper.model.algorithms.ECDSA;
+import com.ibm.mapper.model.algorithms.HMAC;
+import com.ibm.mapper.model.algorithms.MLDSA;
+import com.ibm.mapper.model.algorithms.MLKEM;
+import com.ibm.mapper.model.algorithms.PBKDF2;
+import com.ibm.mapper.model.algorithms.RSA;
+import com.ibm.mapper.model.algorithms.RSAssaPSS;
+import com.ibm.mapper.model.algorithms.SHA2;
+import com.ibm.mapper.model.algorithms.SHA3;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
+import java.util.stream.IntStream;
 import javax.annotation.Nonnull;
 
 /**
@@ -54,22 +71,43 @@ public class Enricher implements IEnricher {
      */
     @Nonnull
     public static Collection<INode> enrich(@Nonnull final Collection<INode> nodes) {
-        return nodes.stream().map(Enricher::enrichTree).toList();
+        final long start = System.nanoTime();
+        final Collection<INode> enriched = nodes.stream().map(Enricher::enrichTree).toList();
+        ScanMetrics.count("enricher", "trees", nodes.size());
+        ScanMetrics.addTime("enricher", "enrich", System.nanoTime() - start);
+        return enriched;
     }
 
     @Nonnull
     private static INode enrichTree(@Nonnull INode node) {
-        final Enricher enricher = new Enricher();
-        final INode enriched = enricher.enrich(node);
+        final INode enriched = enrichNode(node);
 
-        final Collection<INode> enrichedChildren = new ArrayList<>();
-        final Collection<INode> markForRemoval = new ArrayList<>();
-        for (final INode child : enriched.getChildren().values()) {
+        /*
+         * Most enrichers update a node in place. The children are only collected and put back
+         * once an enricher replaced one of them (e.g. a key by a secret key).
+         */
+        final Collection<INode> children = enriched.getChildren().values();
+        List<INode> enrichedChildren = null;
+        List<INode> markForRemoval = null;
+        int position = 0;
+        for (final INode child : children) {
             final INode enrichedChild = enrichTree(child);
-            if (!child.is(enrichedChild.getKind())) {
-                markForRemoval.add(child);
+            if (enrichedChild != child && enrichedChildren == null) {
+                enrichedChildren = new ArrayList<>(children.size());
+                markForRemoval = new ArrayList<>();
+                // the children visited so far were not replaced
+                children.stream().limit(position).forEach(enrichedChildren::add);
+            }
+            if (enrichedChildren != null) {
+                if (!child.is(enrichedChild.getKind())) {
+                    markForRemoval.add(child);
+                }
+                enrichedChildren.add(enrichedChild);
             }
-            enrichedChildren.add(enrichedChild);
+            position++;
+        }
+        if (enrichedChildren == null) {
+            return enriched;
         }
 
         enrichedChildren.forEach(enriched::put);
@@ -77,24 +115,88 @@ public class Enricher implements IEnricher {
         return enriched;
     }
 
+    /**
+     * Applies the enrichers to a node, in their registration order, skipping the enrichers that do
+     * not apply to the node type. If an enricher replaces the node, the following enrichers are
+     * selected for the type of the new node.
+     */
+    @Nonnull
+    private static INode enrichNode(@Nonnull INode node) {
+        INode current = node;
+        int[] applicable = ENRICHERS_BY_NODE_TYPE.get(current.getClass());
+        int next = 0;
+        for (int i = 0; i < applicable.length; i++) {
+            final int enricherIndex = applicable[i];
+            if (enricherIndex < next) {
+                continue;
+            }
+            final INode enriched = enrichers.get(enricherIndex).enricher().enrich(current);
+            if (enriched != current) {
+                current = enriched;
+                applicable = ENRICHERS_BY_NODE_TYPE.get(current.getClass());
+                next = enricherIndex + 1;
+                i = -1;
+            }
+        }
+        return current;
+    }
+
+    /*
+     * the enrichers in registration order, each with the node types it applies to; an enricher
+     * returns the nodes of any other type unchanged
+     */
     @Nonnull
-    private static final List<IEnricher> enrichers =
+    private static final List<Registration> enrichers =
             List.of(
-                    new AESEnricher(),
-                    new DESEnricher(),
-                    new RSAEnricher(),
-                    new DHEnricher(),
-                    new DSAEnricher(),
-                    new SHA2Enricher(),
-                    new SHA3Enricher(),
-                    new HMACEnricher(),
-                    new PBKDF2Enricher(),
-                    new RSAssaPSSEnricher(),
-                    new RSAoaepEnricher(),
-                    new SignatureEnricher(),
-                    new TagOrDigestEnricher(),
-                    new KEMEnricher(),
-                    new SecretKeyEnricher());
+                    register(new AESEnricher(), AES.class),
+                    register(new DESEnricher(), DES.class),
+                    register(new RSAEnricher(), RSA.class),
+                    register(new DHEnricher(), DH.class),
+                    register(new DSAEnricher(), DSA.class),
+                    register(new SHA2Enricher(), SHA2.class),
+                    register(new SHA3Enricher(), SHA3.class),
+                    register(new HMACEnricher(), HMAC.class),
+                    register(new PBKDF2Enricher(), PBKDF2.class),
+                    register(new RSAssaPSSEnricher(), RSAssaPSS.class),
+                    register(new RSAoaepEnricher(), RSA.class),
+                    register(
+                            new SignatureEnricher(),
+                            DSA.class,
+                            ECDSA.class,
+                            RSA.class,
+                            MLDSA.class),
+                    register(new TagOrDigestEnricher(), IAsset.class),
+                    register(new KEMEnricher(), MLKEM.class),
+                    register(new SecretKeyEnricher(), Key.class));
+
+    /*
+     * node type -> indices of the enrichers applying to it, in registration order
+     */
+    @Nonnull
+    private static final ClassValue<int[]> ENRICHERS_BY_NODE_TYPE =
+            new ClassValue<>() {
+                @Override
+                protected int[] computeValue(@Nonnull Class<?> nodeType) {
+                    return IntStream.range(0, enrichers.size())
+                            .filter(index -> enrichers.get(index).appliesTo(nodeType))
+                            .toArray();
+                }
+            };
+
+    @SafeVarargs
+    @Nonnull
+    private static Registration register(
+            @Nonnull IEnricher enricher, @Nonnull Class<? extends INode>... targetTypes) {
+        return new Registration(enricher, List.of(targetTypes));
+    }
+
+    private record Registration(
+            @Nonnull IEnricher enricher, @Nonnull List<Class<? extends INode>> targetTypes) {
+        boolean appliesTo(@Nonnull Class<?> nodeType) {
+            return targetTypes.stream()
+                    .anyMatch(targetType -> targetType.isAssignableFrom(nodeType));
+        }
+    }
 
     /**
      * Enriches the given node with additional information.
@@ -104,9 +206,6 @@ public class Enricher implements IEnricher {
     @Nonnull
     @Override
     public INode enrich(@Nonnull INode node) {
-        for (final IEnricher enricher : enrichers) {
-            node = enricher.enrich(node);
-        }
-        return node;
+        return enrichNode(node);
     }
 }
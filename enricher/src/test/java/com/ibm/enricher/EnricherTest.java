@@ -0,0 +1,85 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.enricher;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.mapper.model.BlockCipher;
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.model.Key;
+import com.ibm.mapper.model.Oid;
+import com.ibm.mapper.model.SecretKey;
+import com.ibm.mapper.model.algorithms.AES;
+import com.ibm.mapper.model.algorithms.SHA2;
+import com.ibm.mapper.model.mode.ECB;
+import com.ibm.mapper.utils.DetectionLocation;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class EnricherTest extends TestBase {
+
+    @Test
+    void replacedRootIsEnrichedByFollowingEnrichers() {
+        DetectionLocation testDetectionLocation =
+                new DetectionLocation("testfile", 1, 1, List.of("test"), () -> "SSL");
+        final Key key =
+                new Key(new AES(256, new ECB(testDetectionLocation), testDetectionLocation));
+        this.logBefore(key);
+
+        final INode enriched = Enricher.enrich(List.of(key)).iterator().next();
+        this.logAfter(enriched);
+
+        assertThat(enriched).isInstanceOf(SecretKey.class);
+        assertThat(enriched.hasChildOfType(BlockCipher.class)).isPresent();
+        final INode aes = enriched.hasChildOfType(BlockCipher.class).get();
+        assertThat(aes.hasChildOfType(Oid.class)).isPresent();
+        assertThat(aes.hasChildOfType(Oid.class).get().asString())
+                .isEqualTo("2.16.840.1.101.3.4.1.41");
+    }
+
+    @Test
+    void replacedChildIsPutBack() {
+        DetectionLocation testDetectionLocation =
+                new DetectionLocation("testfile", 1, 1, List.of("test"), () -> "SSL");
+        final SHA2 sha256 = new SHA2(256, testDetectionLocation);
+        sha256.put(new Key(new AES(128, new ECB(testDetectionLocation), testDetectionLocation)));
+        this.logBefore(sha256);
+
+        final INode enriched = Enricher.enrich(List.of(sha256)).iterator().next();
+        this.logAfter(enriched);
+
+        assertThat(enriched).isSameAs(sha256);
+        assertThat(enriched.hasChildOfType(Oid.class)).isPresent();
+        assertThat(enriched.hasChildOfType(Key.class)).isEmpty();
+        assertThat(enriched.hasChildOfType(SecretKey.class)).isPresent();
+    }
+
+    @Test
+    void nodeWithoutApplicableEnricherIsUnchanged() {
+        DetectionLocation testDetectionLocation =
+                new DetectionLocation("testfile", 1, 1, List.of("test"), () -> "SSL");
+        final ECB ecb = new ECB(testDetectionLocation);
+
+        final INode enriched = new Enricher().enrich(ecb);
+
+        assertThat(enriched).isSameAs(ecb);
+        assertThat(enriched.getChildren()).isEmpty();
+    }
+}
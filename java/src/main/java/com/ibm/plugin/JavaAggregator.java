@@ -19,47 +19,210 @@
  */
 package com.ibm.plugin;
 
+import com.ibm.engine.hooks.SharedHookRegistry;
 import com.ibm.engine.language.ILanguageSupport;
 import com.ibm.engine.language.LanguageSupporter;
+import com.ibm.engine.rule.RuleSetFingerprint;
 import com.ibm.mapper.model.INode;
 import com.ibm.output.IAggregator;
-import java.util.ArrayList;
-import java.util.Collections;
+import com.ibm.output.ShardedNodeAggregator;
+import com.ibm.output.cache.FindingsCache;
+import com.ibm.output.cyclondx.RecordedComponents;
+import com.ibm.plugin.rules.detection.JavaDetectionRules;
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.List;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.sonar.plugins.java.api.JavaCheck;
 import org.sonar.plugins.java.api.JavaFileScannerContext;
 import org.sonar.plugins.java.api.semantic.Symbol;
 import org.sonar.plugins.java.api.tree.Tree;
 
 public final class JavaAggregator implements IAggregator {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JavaAggregator.class);
 
-    private static ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext>
+    private static volatile ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext>
             javaLanguageSupport = LanguageSupporter.javaLanguageSupporter();
-    private static List<INode> detectedNodes = new ArrayList<>();
+
+    /*
+     * parallel detection mode: one language support per scanning thread, sharing their hooks
+     */
+    @Nonnull
+    private static volatile Queue<ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext>>
+            threadLanguageSupports = new ConcurrentLinkedQueue<>();
+
+    private static volatile ThreadLocal<
+                    ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext>>
+            threadLanguageSupport = newThreadLanguageSupport(threadLanguageSupports);
+    private static volatile ShardedNodeAggregator detectedNodes = new ShardedNodeAggregator();
+    @Nonnull private static volatile LongAdder scannedFiles = new LongAdder();
+    @Nonnull private static volatile LongAdder skippedFiles = new LongAdder();
+
+    /*
+     * incremental scans: the findings cache, loaded by the first file using it
+     */
+    @Nullable private static volatile FindingsCache findingsCache;
+    private static volatile boolean findingsCacheLoaded;
 
     private JavaAggregator() {
         // nothing
     }
 
     public static void addNodes(@Nonnull List<INode> newNodes) {
-        detectedNodes.addAll(newNodes);
+        detectedNodes.add(newNodes);
         IAggregator.log(newNodes);
     }
 
+    /**
+     * Adds the CBOM components recorded for the nodes of a finding served from the findings cache.
+     *
+     * @param recordedComponents the recorded components
+     */
+    public static void addRecordedComponents(@Nonnull RecordedComponents recordedComponents) {
+        detectedNodes.add(recordedComponents);
+    }
+
     @Nonnull
     public static List<INode> getDetectedNodes() {
-        return Collections.unmodifiableList(detectedNodes);
+        return detectedNodes.getNodes();
+    }
+
+    @Nonnull
+    public static ShardedNodeAggregator getAggregator() {
+        return detectedNodes;
+    }
+
+    /**
+     * Counts a file visited by the shared detection pass.
+     *
+     * @param skipped if the file was skipped because none of the rules can match it
+     */
+    public static void addScannedFile(boolean skipped) {
+        scannedFiles.increment();
+        if (skipped) {
+            skippedFiles.increment();
+        }
+    }
+
+    public static long getNumberOfScannedFiles() {
+        return scannedFiles.sum();
+    }
+
+    public static long getNumberOfSkippedFiles() {
+        return skippedFiles.sum();
     }
 
     @Nonnull
     public static ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext>
             getLanguageSupport() {
+        if (LanguageSupporter.isParallelDetectionEnabled()) {
+            return threadLanguageSupport.get();
+        }
         return javaLanguageSupport;
     }
 
+    /**
+     * Returns the findings cache of an incremental scan (see {@link FindingsCache}), loaded on
+     * first use. Incremental scans are not supported in the parallel detection mode.
+     *
+     * @return the findings cache, or empty if incremental scans are disabled
+     */
+    @Nonnull
+    public static Optional<FindingsCache> getFindingsCache() {
+        if (!findingsCacheLoaded) {
+            synchronized (JavaAggregator.class) {
+                if (!findingsCacheLoaded) {
+                    findingsCache = loadFindingsCache();
+                    findingsCacheLoaded = true;
+                }
+            }
+        }
+        return Optional.ofNullable(findingsCache);
+    }
+
+    /** Writes the findings cache of an incremental scan, if there is one. */
+    public static void saveFindingsCache() {
+        final FindingsCache cache = findingsCache;
+        if (cache == null) {
+            return;
+        }
+        try {
+            cache.save();
+        } catch (IOException e) {
+            LOGGER.warn("Could not write the findings cache: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Processes the hook invocations that the threads of a parallel scan handed over to each other
+     * after the thread owning the hook scanned its last file. It has to be called once all files
+     * are scanned, before the detected nodes are read.
+     */
+    public static void processPendingHookInvocations() {
+        boolean processed;
+        do {
+            processed = javaLanguageSupport.processPendingHookInvocations();
+            for (ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext> languageSupport :
+                    threadLanguageSupports) {
+                processed |= languageSupport.processPendingHookInvocations();
+            }
+        } while (processed);
+    }
+
     public static void reset() {
         javaLanguageSupport = LanguageSupporter.javaLanguageSupporter();
-        detectedNodes = new ArrayList<>();
+        threadLanguageSupports = new ConcurrentLinkedQueue<>();
+        threadLanguageSupport = newThreadLanguageSupport(threadLanguageSupports);
+        detectedNodes = new ShardedNodeAggregator();
+        scannedFiles = new LongAdder();
+        skippedFiles = new LongAdder();
+        findingsCache = null;
+        findingsCacheLoaded = false;
+    }
+
+    @Nullable private static FindingsCache loadFindingsCache() {
+        if (!FindingsCache.isEnabled()) {
+            return null;
+        }
+        if (LanguageSupporter.isParallelDetectionEnabled()) {
+            LOGGER.warn(
+                    "Incremental scans are not supported with the parallel detection, all files"
+                            + " are scanned.");
+            return null;
+        }
+        final Optional<Path> location = FindingsCache.location();
+        if (location.isEmpty()) {
+            LOGGER.warn("No directory is set for the findings cache, all files are scanned.");
+            return null;
+        }
+        return FindingsCache.load(
+                location.get(),
+                FindingsCache.versionOf(JavaAggregator.class),
+                RuleSetFingerprint.of(JavaDetectionRules.rules()));
+    }
+
+    @Nonnull
+    private static ThreadLocal<ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext>>
+            newThreadLanguageSupport(
+                    @Nonnull
+                            Queue<ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext>>
+                                    languageSupports) {
+        final SharedHookRegistry<JavaCheck, Tree, Symbol, JavaFileScannerContext>
+                sharedHookRegistry = new SharedHookRegistry<>();
+        return ThreadLocal.withInitial(
+                () -> {
+                    final ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext>
+                            languageSupport =
+                                    LanguageSupporter.javaLanguageSupporter(sharedHookRegistry);
+                    languageSupports.add(languageSupport);
+                    return languageSupport;
+                });
     }
 }
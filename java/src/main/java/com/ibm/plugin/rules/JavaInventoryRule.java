@@ -22,7 +22,6 @@ package com.ibm.plugin.rules;
 import com.ibm.engine.rule.IDetectionRule;
 import com.ibm.mapper.model.INode;
 import com.ibm.plugin.rules.detection.JavaBaseDetectionRule;
-import com.ibm.plugin.rules.detection.JavaDetectionRules;
 import com.ibm.plugin.translation.reorganizer.JavaReorganizerRules;
 import com.ibm.rules.InventoryRule;
 import com.ibm.rules.issue.Issue;
@@ -36,7 +35,7 @@ import org.sonar.plugins.java.api.tree.Tree;
 public class JavaInventoryRule extends JavaBaseDetectionRule {
 
     public JavaInventoryRule() {
-        super(true, JavaDetectionRules.rules(), JavaReorganizerRules.rules());
+        super(true);
     }
 
     @VisibleForTesting
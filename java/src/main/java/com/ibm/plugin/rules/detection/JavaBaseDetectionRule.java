@@ -22,10 +22,14 @@ package com.ibm.plugin.rules.detection;
 import com.ibm.common.IObserver;
 import com.ibm.engine.detection.Finding;
 import com.ibm.engine.executive.DetectionExecutive;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.IScanContext;
 import com.ibm.engine.language.java.JavaScanContext;
+import com.ibm.engine.rule.DetectionRuleIndex;
 import com.ibm.engine.rule.IDetectionRule;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.reorganizer.IReorganizerRule;
+import com.ibm.output.cyclondx.RecordedComponents;
 import com.ibm.plugin.JavaAggregator;
 import com.ibm.plugin.translation.JavaTranslationProcess;
 import com.ibm.plugin.translation.reorganizer.JavaReorganizerRules;
@@ -45,21 +49,53 @@ public abstract class JavaBaseDetectionRule extends IssuableSubscriptionVisitor
                 IReportableDetectionRule<Tree> {
 
     private final boolean isInventory;
+    private final boolean sharesDetection;
     @Nonnull protected final JavaTranslationProcess javaTranslationProcess;
     @Nonnull protected final List<IDetectionRule<Tree>> detectionRules;
+    @Nonnull protected final DetectionRuleIndex<Tree> detectionRuleIndex;
 
     protected JavaBaseDetectionRule() {
-        this.isInventory = false;
-        this.detectionRules = JavaDetectionRules.rules();
-        this.javaTranslationProcess = new JavaTranslationProcess(JavaReorganizerRules.rules());
+        this(false);
     }
 
+    /**
+     * Creates a check using the default detection and reorganizer rules. The detection and
+     * translation of a file is shared with the other checks using the default rules (see {@link
+     * JavaSharedDetectionPass}), so the check only adds the cost of its {@link #report}.
+     *
+     * @param isInventory if the translated nodes are added to the {@link JavaAggregator}
+     */
+    protected JavaBaseDetectionRule(final boolean isInventory) {
+        this(
+                isInventory,
+                true,
+                JavaSharedDetectionPass.detectionRules(),
+                JavaReorganizerRules.rules());
+    }
+
+    /**
+     * Creates a check running its own detection pass with the given rules.
+     *
+     * @param isInventory if the translated nodes are added to the {@link JavaAggregator}
+     * @param detectionRules the detection rules of the check
+     * @param reorganizerRules the reorganizer rules applied to the translated nodes
+     */
     protected JavaBaseDetectionRule(
             final boolean isInventory,
             @Nonnull List<IDetectionRule<Tree>> detectionRules,
             @Nonnull List<IReorganizerRule> reorganizerRules) {
+        this(isInventory, false, detectionRules, reorganizerRules);
+    }
+
+    private JavaBaseDetectionRule(
+            final boolean isInventory,
+            final boolean sharesDetection,
+            @Nonnull List<IDetectionRule<Tree>> detectionRules,
+            @Nonnull List<IReorganizerRule> reorganizerRules) {
         this.isInventory = isInventory;
+        this.sharesDetection = sharesDetection;
         this.detectionRules = detectionRules;
+        this.detectionRuleIndex = new DetectionRuleIndex<>(this.detectionRules);
         this.javaTranslationProcess = new JavaTranslationProcess(reorganizerRules);
     }
 
@@ -74,22 +110,62 @@ public abstract class JavaBaseDetectionRule extends IssuableSubscriptionVisitor
     }
 
     /**
-     * Visits a tree node and applies detection rules to it.
+     * Sets the context of the next file. A check sharing the detection joins the file, so that the
+     * pass knows all checks of the file before the first tree is visited.
+     *
+     * @param context the context of the file
+     */
+    @Override
+    public void setContext(@Nonnull JavaFileScannerContext context) {
+        super.setContext(context);
+        if (sharesDetection) {
+            JavaSharedDetectionPass.current().join(this, context);
+        }
+    }
+
+    /**
+     * Visits a tree node and applies the detection rules that can match it.
      *
      * @param tree The tree node to visit.
      */
     @Override
     public void visitNode(@Nonnull Tree tree) {
-        detectionRules.forEach(
-                rule -> {
-                    DetectionExecutive<JavaCheck, Tree, Symbol, JavaFileScannerContext>
-                            detectionExecutive =
-                                    JavaAggregator.getLanguageSupport()
-                                            .createDetectionExecutive(
-                                                    tree, rule, new JavaScanContext(this.context));
-                    detectionExecutive.subscribe(this);
-                    detectionExecutive.start();
-                });
+        if (sharesDetection) {
+            JavaSharedDetectionPass.current().visitNode(this, this.context, tree);
+            return;
+        }
+        final ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext> languageSupport =
+                JavaAggregator.getLanguageSupport();
+        final JavaScanContext scanContext = new JavaScanContext(this.context);
+        // the call stack has to know about every call, even if no rule can match it
+        languageSupport.addCallToCallStack(tree, scanContext);
+        detectionRuleIndex
+                .candidates(tree, languageSupport.translation())
+                .forEach(
+                        rule -> {
+                            DetectionExecutive<JavaCheck, Tree, Symbol, JavaFileScannerContext>
+                                    detectionExecutive =
+                                            languageSupport.createDetectionExecutive(
+                                                    tree, rule, scanContext);
+                            detectionExecutive.subscribe(this);
+                            detectionExecutive.start();
+                        });
+    }
+
+    /**
+     * Ends the file for the language support: it processes the invocations of the hooks of this
+     * thread found by other threads of a parallel scan, and releases the method summaries. A file
+     * none of whose trees were visited is started in the shared detection pass.
+     *
+     * @param context the context of the scanned file
+     */
+    @Override
+    public void leaveFile(@Nonnull JavaFileScannerContext context) {
+        if (sharesDetection) {
+            JavaSharedDetectionPass.current().leaveFile(this, context);
+        }
+        JavaAggregator.getLanguageSupport().leaveFile();
+        super.leaveFile(context);
     }
 
     /**
@@ -100,16 +176,49 @@ public abstract class JavaBaseDetectionRule extends IssuableSubscriptionVisitor
     @Override
     public void update(@Nonnull Finding<JavaCheck, Tree, Symbol, JavaFileScannerContext> finding) {
         final List<INode> nodes = javaTranslationProcess.initiate(finding.detectionStore());
+        onTranslatedFinding(
+                finding.detectionStore().getScanContext(), finding.getMarkerTree(), nodes);
+    }
+
+    /**
+     * Adds the translated nodes of a finding to the inventory, if this check is an inventory check,
+     * and reports the issues of this check on them.
+     *
+     * @param scanContext the scan context of the file the finding was detected in
+     * @param markerTree the tree the issues are reported on by default
+     * @param nodes the translated nodes of the finding
+     * @return the reported issues
+     */
+    @Nonnull
+    List<Issue<Tree>> onTranslatedFinding(
+            @Nonnull IScanContext<JavaCheck, Tree> scanContext,
+            @Nonnull Tree markerTree,
+            @Nonnull List<INode> nodes) {
         if (isInventory) {
             JavaAggregator.addNodes(nodes);
         }
         // report
-        this.report(finding.getMarkerTree(), nodes)
-                .forEach(
-                        issue ->
-                                finding.detectionStore()
-                                        .getScanContext()
-                                        .reportIssue(this, issue.tree(), issue.message()));
+        final List<Issue<Tree>> issues = this.report(markerTree, nodes);
+        issues.forEach(issue -> scanContext.reportIssue(this, issue.tree(), issue.message()));
+        return issues;
+    }
+
+    /**
+     * Adds the recorded components of a finding served from the findings cache to the inventory, if
+     * this check is an inventory check, and reports the cached issues of this check.
+     *
+     * @param scanContext the scan context of the file of the finding
+     * @param issues the issues this check reported on the finding when it was cached
+     * @param recordedComponents the CBOM components of the translated nodes of the finding
+     */
+    void onCachedFinding(
+            @Nonnull IScanContext<JavaCheck, Tree> scanContext,
+            @Nonnull List<Issue<Tree>> issues,
+            @Nonnull RecordedComponents recordedComponents) {
+        if (isInventory) {
+            JavaAggregator.addRecordedComponents(recordedComponents);
+        }
+        issues.forEach(issue -> scanContext.reportIssue(this, issue.tree(), issue.message()));
     }
 
     @Override
@@ -0,0 +1,173 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin.rules.detection;
+
+import com.ibm.output.cache.FindingsCache;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.sonar.plugins.java.api.location.Position;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.semantic.Type;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.ClassTree;
+import org.sonar.plugins.java.api.tree.IdentifierTree;
+import org.sonar.plugins.java.api.tree.SyntaxToken;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * The parts of a Java file the {@link FindingsCache} needs: the types the file declares, the types
+ * it references, and the trees its cached issues were reported on.
+ *
+ * <p>A type is referenced by an identifier naming it, or naming a member of it (e.g. a called
+ * method). Types of the JDK and unknown types are left out, since no file of the project declares
+ * them.
+ */
+final class JavaFileOutline extends BaseTreeVisitor {
+    @Nonnull private final Set<String> declaredTypes = new LinkedHashSet<>();
+    @Nonnull private final Set<String> referencedTypes = new LinkedHashSet<>();
+
+    /*
+     * null: only the declared and referenced types are collected
+     */
+    @Nullable private final Map<FindingsCache.Marker, Tree> markerTrees;
+
+    private JavaFileOutline(@Nullable Collection<FindingsCache.Marker> markers) {
+        if (markers == null) {
+            this.markerTrees = null;
+        } else {
+            this.markerTrees = new HashMap<>();
+            markers.forEach(marker -> this.markerTrees.put(marker, null));
+        }
+    }
+
+    /**
+     * Collects the types declared and referenced by a file.
+     *
+     * @param compilationUnit the compilation unit of the file
+     * @return the outline of the file
+     */
+    @Nonnull
+    static JavaFileOutline of(@Nonnull Tree compilationUnit) {
+        final JavaFileOutline outline = new JavaFileOutline(null);
+        outline.scan(compilationUnit);
+        return outline;
+    }
+
+    /**
+     * Locates the trees at the given markers. If several trees share a marker, the outermost one is
+     * taken; they have the same position.
+     *
+     * @param compilationUnit the compilation unit of the file
+     * @param markers the markers of the cached issues of the file
+     * @return the tree at each marker, or empty if a marker does not match any tree
+     */
+    @Nonnull
+    static Optional<Map<FindingsCache.Marker, Tree>> locate(
+            @Nonnull Tree compilationUnit, @Nonnull Collection<FindingsCache.Marker> markers) {
+        final JavaFileOutline outline = new JavaFileOutline(markers);
+        outline.scan(compilationUnit);
+        if (outline.markerTrees == null || outline.markerTrees.containsValue(null)) {
+            return Optional.empty();
+        }
+        return Optional.of(outline.markerTrees);
+    }
+
+    /**
+     * Returns the marker of a tree: its kind and the position of its first and last token.
+     *
+     * @param tree the tree
+     * @return the marker, or empty if the tree has no tokens
+     */
+    @Nonnull
+    static Optional<FindingsCache.Marker> markerOf(@Nonnull Tree tree) {
+        final SyntaxToken firstToken = tree.firstToken();
+        final SyntaxToken lastToken = tree.lastToken();
+        if (firstToken == null || lastToken == null) {
+            return Optional.empty();
+        }
+        final Position first = firstToken.range().start();
+        final Position last = lastToken.range().start();
+        return Optional.of(
+                new FindingsCache.Marker(
+                        tree.kind().name(),
+                        first.line(),
+                        first.columnOffset(),
+                        last.line(),
+                        last.columnOffset()));
+    }
+
+    @Nonnull
+    Set<String> getDeclaredTypes() {
+        return declaredTypes;
+    }
+
+    @Nonnull
+    Set<String> getReferencedTypes() {
+        return referencedTypes;
+    }
+
+    @Override
+    protected void scan(@Nullable Tree tree) {
+        if (tree != null && markerTrees != null) {
+            markerOf(tree)
+                    .filter(marker -> markerTrees.containsKey(marker))
+                    .ifPresent(marker -> markerTrees.putIfAbsent(marker, tree));
+        }
+        super.scan(tree);
+    }
+
+    @Override
+    public void visitClass(@Nonnull ClassTree tree) {
+        if (markerTrees == null) {
+            addType(declaredTypes, tree.symbol().type());
+        }
+        super.visitClass(tree);
+    }
+
+    @Override
+    public void visitIdentifier(@Nonnull IdentifierTree tree) {
+        if (markerTrees == null) {
+            final Symbol symbol = tree.symbol();
+            if (symbol.isTypeSymbol()) {
+                addType(referencedTypes, symbol.type());
+            } else if (!symbol.isUnknown() && symbol.enclosingClass() != null) {
+                addType(referencedTypes, symbol.enclosingClass().type());
+            }
+        }
+        super.visitIdentifier(tree);
+    }
+
+    private static void addType(@Nonnull Set<String> types, @Nullable Type type) {
+        if (type == null || type.isUnknown()) {
+            return;
+        }
+        final String name = type.fullyQualifiedName();
+        // anonymous classes have no name
+        if (!name.isEmpty() && !name.startsWith("java.") && !name.startsWith("javax.")) {
+            types.add(name);
+        }
+    }
+}
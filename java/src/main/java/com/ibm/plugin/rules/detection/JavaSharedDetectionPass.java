@@ -0,0 +1,389 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin.rules.detection;
+
+import com.ibm.common.IObserver;
+import com.ibm.engine.detection.Finding;
+import com.ibm.engine.executive.DetectionExecutive;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.language.java.JavaScanContext;
+import com.ibm.engine.rule.DetectionRuleIndex;
+import com.ibm.engine.rule.IDetectionRule;
+import com.ibm.engine.rule.TypePrefixFilter;
+import com.ibm.engine.utils.ScanMetrics;
+import com.ibm.mapper.model.INode;
+import com.ibm.output.cache.FindingsCache;
+import com.ibm.output.cyclondx.RecordedComponents;
+import com.ibm.plugin.JavaAggregator;
+import com.ibm.plugin.translation.JavaTranslationProcess;
+import com.ibm.plugin.translation.reorganizer.JavaReorganizerRules;
+import com.ibm.rules.issue.Issue;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * The detection, translation, reorganisation and enrichment of the default Java detection rules,
+ * run once per file for all the checks using these rules.
+ *
+ * <p>The checks join the file when their context is set, before its first tree is visited. The
+ * first check visiting a tree of the file runs the detection on it; the other checks skip it. Each
+ * finding is translated once, and the translated nodes are handed to every check that joined the
+ * file. A check joining the file later first receives the findings translated so far.
+ *
+ * <p>If the prefilter is enabled, files that none of the rules can match (see {@link
+ * TypePrefixFilter}) skip the detection. Their calls are still added to the call stack, since they
+ * may invoke the hooks of other files (e.g. a call of a project method wrapping a crypto API).
+ *
+ * <p>In an incremental scan (see {@link FindingsCache}), a file served from the cache skips the
+ * detection as well: each check reports the issues it reported on the cached findings, and the
+ * inventory checks add the recorded CBOM components of the findings instead of their nodes. Its
+ * calls are still added to the call stack, for the hooks of the other files. A scanned file is
+ * recorded in the cache, unless it registered a hook or received a finding of another file through
+ * a hook, since its findings then depend on other files.
+ *
+ * <p>There is one pass per thread, like the language support of the {@link JavaAggregator} in a
+ * parallel scan. The passes share the index of the rules.
+ */
+final class JavaSharedDetectionPass
+        implements IObserver<Finding<JavaCheck, Tree, Symbol, JavaFileScannerContext>> {
+    private static final ThreadLocal<JavaSharedDetectionPass> CURRENT =
+            ThreadLocal.withInitial(JavaSharedDetectionPass::new);
+
+    /*
+     * the rules do not change during a scan, so the passes of all threads share them and their
+     * index
+     */
+    @Nonnull private static final List<IDetectionRule<Tree>> DETECTION_RULES;
+    @Nonnull private static final DetectionRuleIndex<Tree> DETECTION_RULE_INDEX;
+    @Nonnull private static final TypePrefixFilter TYPE_PREFIX_FILTER;
+
+    static {
+        DETECTION_RULES = JavaDetectionRules.rules();
+        DETECTION_RULE_INDEX = new DetectionRuleIndex<>(DETECTION_RULES);
+        // a package can not be imported through its parent, so its first two segments (e.g.
+        // javax.crypto) are named by every file using one of its types
+        TYPE_PREFIX_FILTER = TypePrefixFilter.of(DETECTION_RULES, 2, Set.of("java.lang"));
+    }
+
+    @Nonnull private final JavaTranslationProcess javaTranslationProcess;
+
+    /*
+     * state of the file being scanned, identified by its compilation unit
+     */
+    @Nullable private Tree file;
+    private boolean fileStarted;
+    private boolean fileCanMatch;
+    @Nonnull private final List<JavaBaseDetectionRule> checks = new ArrayList<>();
+    @Nonnull private final List<FileFinding> findings = new ArrayList<>();
+
+    @Nonnull
+    private final Set<Tree> visitedTrees = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    /*
+     * incremental scan: if the file is served from the cache, or else its record in the cache
+     */
+    private boolean servedFromCache;
+    @Nullable private String filePath;
+    @Nullable private FindingsCache.FileRecord fileRecord;
+
+    private JavaSharedDetectionPass() {
+        this.javaTranslationProcess = new JavaTranslationProcess(JavaReorganizerRules.rules());
+    }
+
+    /**
+     * Returns the detection rules of the passes. The checks sharing the detection take them over
+     * instead of building their own copy of the rules, which are large.
+     *
+     * @return the default Java detection rules
+     */
+    @Nonnull
+    static List<IDetectionRule<Tree>> detectionRules() {
+        return DETECTION_RULES;
+    }
+
+    @Nonnull
+    static JavaSharedDetectionPass current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the detection on a tree, unless another check already visited it.
+     *
+     * @param check the check visiting the tree
+     * @param context the context of the file the tree belongs to
+     * @param tree the visited tree
+     */
+    void visitNode(
+            @Nonnull JavaBaseDetectionRule check,
+            @Nonnull JavaFileScannerContext context,
+            @Nonnull Tree tree) {
+        join(check, context);
+        if (!fileStarted) {
+            startFile(context);
+        }
+        if (!visitedTrees.add(tree)) {
+            return;
+        }
+        final ILanguageSupport<JavaCheck, Tree, Symbol, JavaFileScannerContext> languageSupport =
+                JavaAggregator.getLanguageSupport();
+        final JavaScanContext scanContext = new JavaScanContext(context);
+        // the call stack has to know about every call, even if no rule can match it
+        languageSupport.addCallToCallStack(tree, scanContext);
+        if (!fileCanMatch || servedFromCache) {
+            return;
+        }
+        DETECTION_RULE_INDEX
+                .candidates(tree, languageSupport.translation())
+                .forEach(
+                        rule -> {
+                            DetectionExecutive<JavaCheck, Tree, Symbol, JavaFileScannerContext>
+                                    detectionExecutive =
+                                            languageSupport.createDetectionExecutive(
+                                                    tree, rule, scanContext);
+                            detectionExecutive.subscribe(this);
+                            detectionExecutive.start();
+                            if (fileRecord != null && detectionExecutive.subscribedToHooks()) {
+                                fileRecord.markUncacheable();
+                            }
+                        });
+    }
+
+    /**
+     * Starts the file, if none of its trees was visited: it is still counted as scanned and, in an
+     * incremental scan, recorded with the types it declares, which other files may depend on.
+     *
+     * @param check the check leaving the file
+     * @param context the context of the file
+     */
+    void leaveFile(@Nonnull JavaBaseDetectionRule check, @Nonnull JavaFileScannerContext context) {
+        join(check, context);
+        if (!fileStarted) {
+            startFile(context);
+        }
+    }
+
+    @Override
+    public void update(@Nonnull Finding<JavaCheck, Tree, Symbol, JavaFileScannerContext> finding) {
+        final TranslatedFinding translatedFinding =
+                new TranslatedFinding(
+                        finding.detectionStore().getScanContext(),
+                        finding.getMarkerTree(),
+                        javaTranslationProcess.initiate(finding.detectionStore()));
+        findings.add(translatedFinding);
+        final Map<String, List<Issue<Tree>>> issues = new LinkedHashMap<>();
+        for (JavaBaseDetectionRule check : checks) {
+            issues.put(keyOf(check), translatedFinding.report(check));
+        }
+        if (fileRecord != null) {
+            // after the checks, which get the nodes as they were translated
+            record(fileRecord, translatedFinding, issues);
+        }
+    }
+
+    /**
+     * Adds a check to the checks of a file, and hands the findings of the file translated so far
+     * over to it.
+     *
+     * @param check the check
+     * @param context the context of the file
+     */
+    void join(@Nonnull JavaBaseDetectionRule check, @Nonnull JavaFileScannerContext context) {
+        if (this.file != context.getTree()) {
+            this.file = context.getTree();
+            this.fileStarted = false;
+            this.checks.clear();
+            this.findings.clear();
+            this.visitedTrees.clear();
+            this.servedFromCache = false;
+            this.fileRecord = null;
+        }
+        if (this.checks.stream().noneMatch(joined -> joined == check)) {
+            this.checks.add(check);
+            if (this.fileRecord != null) {
+                // the issues of the check on the findings so far are not recorded
+                this.fileRecord.markUncacheable();
+            }
+            this.findings.forEach(fileFinding -> fileFinding.handOver(check));
+        }
+    }
+
+    private void startFile(@Nonnull JavaFileScannerContext context) {
+        this.fileStarted = true;
+        this.fileCanMatch =
+                !TypePrefixFilter.isEnabled()
+                        || TYPE_PREFIX_FILTER.canMatch(context.getFileContent());
+        JavaAggregator.addScannedFile(!fileCanMatch);
+        JavaAggregator.getFindingsCache().ifPresent(cache -> useCache(cache, context));
+    }
+
+    /**
+     * Serves the file from the cache, if its cached findings are valid for the joined checks and
+     * the trees of their issues are found in the file, and starts its record in the cache
+     * otherwise.
+     */
+    private void useCache(@Nonnull FindingsCache cache, @Nonnull JavaFileScannerContext context) {
+        final JavaScanContext scanContext = new JavaScanContext(context);
+        final String fileKey = context.getInputFile().uri().toString();
+        final List<String> checkKeys = checks.stream().map(JavaSharedDetectionPass::keyOf).toList();
+        this.filePath = scanContext.getFilePath();
+        final Optional<List<FindingsCache.CachedFinding>> cachedFindings =
+                fileCanMatch ? cache.lookup(fileKey, checkKeys) : Optional.empty();
+        if (cachedFindings.isPresent()) {
+            final Optional<Map<FindingsCache.Marker, Tree>> issueTrees =
+                    JavaFileOutline.locate(
+                            context.getTree(),
+                            cachedFindings.get().stream()
+                                    .flatMap(
+                                            cachedFinding ->
+                                                    cachedFinding.issues().values().stream())
+                                    .flatMap(List::stream)
+                                    .map(FindingsCache.CachedIssue::marker)
+                                    .toList());
+            if (issueTrees.isPresent()) {
+                for (FindingsCache.CachedFinding cachedFinding : cachedFindings.get()) {
+                    final ServedFinding servedFinding =
+                            new ServedFinding(
+                                    scanContext,
+                                    issuesOf(cachedFinding, issueTrees.get()),
+                                    cachedFinding.components());
+                    findings.add(servedFinding);
+                    checks.forEach(servedFinding::handOver);
+                }
+                this.servedFromCache = true;
+                ScanMetrics.count("cache", "hits");
+                return;
+            }
+        }
+        if (fileCanMatch) {
+            ScanMetrics.count("cache", "misses");
+        }
+        final JavaFileOutline outline = JavaFileOutline.of(context.getTree());
+        this.fileRecord = cache.record(fileKey);
+        this.fileRecord.addDeclaredTypes(outline.getDeclaredTypes());
+        this.fileRecord.addReferencedTypes(outline.getReferencedTypes());
+        this.fileRecord.addChecks(checkKeys);
+    }
+
+    /** Returns the cached issues of each check on a finding, at their trees in the file. */
+    @Nonnull
+    private static Map<String, List<Issue<Tree>>> issuesOf(
+            @Nonnull FindingsCache.CachedFinding cachedFinding,
+            @Nonnull Map<FindingsCache.Marker, Tree> issueTrees) {
+        final Map<String, List<Issue<Tree>>> issues = new HashMap<>();
+        cachedFinding
+                .issues()
+                .forEach(
+                        (checkKey, checkIssues) -> {
+                            final List<Issue<Tree>> checkIssuesAtTrees = new ArrayList<>();
+                            for (FindingsCache.CachedIssue issue : checkIssues) {
+                                checkIssuesAtTrees.add(
+                                        new Issue<>(
+                                                issueTrees.get(issue.marker()), issue.message()));
+                            }
+                            issues.put(checkKey, checkIssuesAtTrees);
+                        });
+        return issues;
+    }
+
+    /**
+     * Records a finding of the scanned file, with the issues of each check at the position of the
+     * tree they were reported on.
+     */
+    private void record(
+            @Nonnull FindingsCache.FileRecord record,
+            @Nonnull TranslatedFinding translatedFinding,
+            @Nonnull Map<String, List<Issue<Tree>>> issues) {
+        if (!translatedFinding.scanContext().getFilePath().equals(filePath)) {
+            record.markUncacheable();
+            return;
+        }
+        final Map<String, List<FindingsCache.CachedIssue>> cachedIssues = new LinkedHashMap<>();
+        for (Map.Entry<String, List<Issue<Tree>>> checkIssues : issues.entrySet()) {
+            final List<FindingsCache.CachedIssue> cachedCheckIssues = new ArrayList<>();
+            for (Issue<Tree> issue : checkIssues.getValue()) {
+                final Optional<FindingsCache.Marker> marker =
+                        JavaFileOutline.markerOf(issue.tree());
+                if (marker.isEmpty()) {
+                    record.markUncacheable();
+                    return;
+                }
+                cachedCheckIssues.add(new FindingsCache.CachedIssue(marker.get(), issue.message()));
+            }
+            cachedIssues.put(checkIssues.getKey(), cachedCheckIssues);
+        }
+        record.addFinding(cachedIssues, translatedFinding.nodes());
+    }
+
+    /** Returns the key of a check in the findings cache. */
+    @Nonnull
+    private static String keyOf(@Nonnull JavaBaseDetectionRule check) {
+        return check.getClass().getName();
+    }
+
+    private interface FileFinding {
+        void handOver(@Nonnull JavaBaseDetectionRule check);
+    }
+
+    /** A finding detected and translated in this scan. */
+    private record TranslatedFinding(
+            @Nonnull IScanContext<JavaCheck, Tree> scanContext,
+            @Nonnull Tree markerTree,
+            @Nonnull List<INode> nodes)
+            implements FileFinding {
+
+        @Override
+        public void handOver(@Nonnull JavaBaseDetectionRule check) {
+            report(check);
+        }
+
+        @Nonnull
+        List<Issue<Tree>> report(@Nonnull JavaBaseDetectionRule check) {
+            return check.onTranslatedFinding(scanContext, markerTree, nodes);
+        }
+    }
+
+    /** A finding served from the findings cache, with the cached issues of each check. */
+    private record ServedFinding(
+            @Nonnull IScanContext<JavaCheck, Tree> scanContext,
+            @Nonnull Map<String, List<Issue<Tree>>> issues,
+            @Nonnull RecordedComponents components)
+            implements FileFinding {
+
+        @Override
+        public void handOver(@Nonnull JavaBaseDetectionRule check) {
+            check.onCachedFinding(
+                    scanContext, issues.getOrDefault(keyOf(check), List.of()), components);
+        }
+    }
+}
@@ -64,6 +64,27 @@ import org.sonar.plugins.java.api.tree.Tree;
 
 public final class JavaTranslator
         extends ITranslator<JavaCheck, Tree, Symbol, JavaFileScannerContext> {
+    // the context translators are stateless, they are shared by all translations
+    private static final JavaCipherContextTranslator CIPHER_CONTEXT_TRANSLATOR =
+            new JavaCipherContextTranslator();
+    private static final JavaSecretKeyContextTranslator SECRET_KEY_CONTEXT_TRANSLATOR =
+            new JavaSecretKeyContextTranslator();
+    private static final JavaKeyContextTranslator KEY_CONTEXT_TRANSLATOR =
+            new JavaKeyContextTranslator();
+    private static final JavaKeyAgreementContextTranslator KEY_AGREEMENT_CONTEXT_TRANSLATOR =
+            new JavaKeyAgreementContextTranslator();
+    private static final JavaPRNGContextTranslator PRNG_CONTEXT_TRANSLATOR =
+            new JavaPRNGContextTranslator();
+    private static final JavaDigestContextTranslator DIGEST_CONTEXT_TRANSLATOR =
+            new JavaDigestContextTranslator();
+    private static final JavaSignatureContextTranslator SIGNATURE_CONTEXT_TRANSLATOR =
+            new JavaSignatureContextTranslator();
+    private static final JavaMacContextTranslator MAC_CONTEXT_TRANSLATOR =
+            new JavaMacContextTranslator();
+    private static final JavaAlgorithmParameterContextTranslator
+            ALGORITHM_PARAMETER_CONTEXT_TRANSLATOR = new JavaAlgorithmParameterContextTranslator();
+    private static final JavaProtocolContextTranslator PROTOCOL_CONTEXT_TRANSLATOR =
+            new JavaProtocolContextTranslator();
 
     public JavaTranslator() {
         // nothing
@@ -84,16 +105,12 @@ public final class JavaTranslator
 
         // cipher context
         if (detectionValueContext.is(CipherContext.class)) {
-            JavaCipherContextTranslator javaCipherContextTranslation =
-                    new JavaCipherContextTranslator();
-            return javaCipherContextTranslation.translate(
+            return CIPHER_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
 
             // secret key context
         } else if (detectionValueContext.is(SecretKeyContext.class)) {
-            JavaSecretKeyContextTranslator javaSecretKeyContextTranslation =
-                    new JavaSecretKeyContextTranslator();
-            return javaSecretKeyContextTranslation.translate(
+            return SECRET_KEY_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
 
             // private- / public- / secret- / key context
@@ -101,55 +118,42 @@ public final class JavaTranslator
                 || detectionValueContext.is(PublicKeyContext.class)
                 || detectionValueContext.is(PrivateKeyContext.class)
                 || detectionValueContext.is(SecretKeyContext.class)) {
-            JavaKeyContextTranslator javaKeyContextTranslation = new JavaKeyContextTranslator();
-            return javaKeyContextTranslation.translate(
+            return KEY_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
 
             // key agreement context
         } else if (detectionValueContext.is(KeyAgreementContext.class)) {
-            final JavaKeyAgreementContextTranslator javaKeyAgreementContextTranslator =
-                    new JavaKeyAgreementContextTranslator();
-            return javaKeyAgreementContextTranslator.translate(
+            return KEY_AGREEMENT_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
 
             // PRNG context
         } else if (detectionValueContext.is(PRNGContext.class)) {
-            JavaPRNGContextTranslator javaPRNGContextTranslation = new JavaPRNGContextTranslator();
-            return javaPRNGContextTranslation.translate(
+            return PRNG_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
 
             // digest context
         } else if (detectionValueContext.is(DigestContext.class)) {
-            JavaDigestContextTranslator javaDigestContextTranslation =
-                    new JavaDigestContextTranslator();
-            return javaDigestContextTranslation.translate(
+            return DIGEST_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
 
             // signature context
         } else if (detectionValueContext.is(SignatureContext.class)) {
-            JavaSignatureContextTranslator javaSignatureContextTranslation =
-                    new JavaSignatureContextTranslator();
-            return javaSignatureContextTranslation.translate(
+            return SIGNATURE_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
 
             // mac context
         } else if (detectionValueContext.is(MacContext.class)) {
-            JavaMacContextTranslator javaMacContextTranslation = new JavaMacContextTranslator();
-            return javaMacContextTranslation.translate(
+            return MAC_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
 
             // algorithm parameter context
         } else if (detectionValueContext.is(AlgorithmParameterContext.class)) {
-            JavaAlgorithmParameterContextTranslator javaAlgorithmParameterContextTranslation =
-                    new JavaAlgorithmParameterContextTranslator();
-            return javaAlgorithmParameterContextTranslation.translate(
+            return ALGORITHM_PARAMETER_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
 
             // protocol
         } else if (detectionValueContext.is(ProtocolContext.class)) {
-            final JavaProtocolContextTranslator javaProtocolContextTranslator =
-                    new JavaProtocolContextTranslator();
-            return javaProtocolContextTranslator.translate(
+            return PROTOCOL_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
         }
         return Optional.empty();
@@ -0,0 +1,39 @@
+package test.files.rules.java.index;
+
+import javax.crypto.Cipher;
+import java.security.MessageDigest;
+
+public class HookRepositoryIndexTestFile {
+
+    public void early() throws Exception {
+        Cipher aesGcm = cipher("AES/GCM/NoPadding");
+        Cipher aes = Cipher.getInstance("AES");
+    }
+
+    private static Cipher cipher(String transformation) throws Exception {
+        return Cipher.getInstance(transformation);
+    }
+
+    private static Cipher cipher(String transformation, int keySize) throws Exception {
+        return Cipher.getInstance(transformation + keySize);
+    }
+
+    private static MessageDigest digest(String algorithm) throws Exception {
+        return MessageDigest.getInstance(algorithm);
+    }
+
+    public void late() throws Exception {
+        Cipher aesCbc = cipher("AES/CBC/PKCS5Padding");
+        Cipher aesCtr = cipher("AES/CTR/NoPadding", 128);
+        MessageDigest sha256 = digest("SHA-256");
+        MessageDigest sha512 = digest(digestAlgorithm());
+    }
+
+    private static String digestAlgorithm() {
+        return "SHA-512";
+    }
+
+    public void last() throws Exception {
+        MessageDigest sha512 = digest(digestAlgorithm());
+    }
+}
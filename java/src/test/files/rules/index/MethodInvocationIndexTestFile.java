@@ -0,0 +1,21 @@
+package test.files.rules.java.index;
+
+import javax.crypto.Cipher;
+import javax.crypto.spec.SecretKeySpec;
+import java.security.MessageDigest;
+
+public class MethodInvocationIndexTestFile {
+
+    public void encrypt(byte[] key) throws Exception {
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, new SecretKeySpec(key, "AES"));
+    }
+
+    public byte[] digest(byte[] data) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(data);
+    }
+
+    public int noInvocations(int size) {
+        return size * 8;
+    }
+}
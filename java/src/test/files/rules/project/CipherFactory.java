@@ -0,0 +1,8 @@
+import javax.crypto.Cipher;
+
+public class CipherFactory {
+
+    public static Cipher create(String transformation) throws Exception {
+        return Cipher.getInstance(transformation);
+    }
+}
@@ -0,0 +1,8 @@
+import java.security.MessageDigest;
+
+public class Digests {
+
+    public static byte[] fingerprint(byte[] data) throws Exception {
+        return MessageDigest.getInstance("SHA-256").digest(data);
+    }
+}
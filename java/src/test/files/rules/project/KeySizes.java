@@ -0,0 +1,4 @@
+public class KeySizes {
+
+    public static final int AES = 256;
+}
@@ -0,0 +1,6 @@
+public class MessageEncryptor {
+
+    public Object encryptor() throws Exception {
+        return CipherFactory.create("AES/GCM/NoPadding");
+    }
+}
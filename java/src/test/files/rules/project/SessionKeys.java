@@ -0,0 +1,11 @@
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+public class SessionKeys {
+
+    public SecretKey newKey() throws Exception {
+        KeyGenerator generator = KeyGenerator.getInstance("AES");
+        generator.init(256);
+        return generator.generateKey();
+    }
+}
@@ -0,0 +1,26 @@
+package test.files.rules.java.resolve;
+
+import javax.crypto.Cipher;
+import java.security.MessageDigest;
+
+public class ResolveMethodSummaryTestFile {
+
+    public void encrypt() throws Exception {
+        Cipher aesGcm = cipher("AES/GCM/NoPadding");
+        Cipher aesCbc = cipher("AES/CBC/PKCS5Padding");
+        Cipher des = cipher("DES/ECB/PKCS5Padding");
+    }
+
+    public void digest() throws Exception {
+        MessageDigest first = MessageDigest.getInstance(digestAlgorithm());
+        MessageDigest second = MessageDigest.getInstance(digestAlgorithm());
+    }
+
+    private static Cipher cipher(String transformation) throws Exception {
+        return Cipher.getInstance(transformation);
+    }
+
+    private static String digestAlgorithm() {
+        return "SHA-256";
+    }
+}
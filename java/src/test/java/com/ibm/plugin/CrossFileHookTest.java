@@ -0,0 +1,79 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.plugin.utils.ScanTestHelper;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Scans a call of a project method wrapping a crypto API before and after the file declaring the
+ * method, and checks that both orders produce the same CBOM: the call stack keeps the calls of
+ * project methods across files, for the hooks registered in later files.
+ */
+class CrossFileHookTest {
+    private static final String PROJECT = "src/test/files/rules/project/";
+    private static final String CIPHER_FACTORY = PROJECT + "CipherFactory.java";
+    private static final String MESSAGE_ENCRYPTOR = PROJECT + "MessageEncryptor.java";
+    private static final String DIGESTS = PROJECT + "Digests.java";
+
+    @TempDir static Path classes;
+    private static List<File> classPath;
+
+    @BeforeAll
+    static void compileProject() {
+        classPath = ScanTestHelper.compile(List.of(CIPHER_FACTORY, MESSAGE_ENCRYPTOR), classes);
+    }
+
+    @AfterEach
+    void resetState() {
+        JavaAggregator.reset();
+    }
+
+    @Test
+    void callsBeforeTheHookAreDetectedLikeCallsAfterIt() {
+        final String hookFirstCbom = cbom(List.of(CIPHER_FACTORY, MESSAGE_ENCRYPTOR));
+        final String callFirstCbom = cbom(List.of(MESSAGE_ENCRYPTOR, CIPHER_FACTORY));
+        // another file between the call and the hook releases the calls of the calling file
+        final String callFirstWithOtherFileCbom =
+                cbom(List.of(MESSAGE_ENCRYPTOR, DIGESTS, CIPHER_FACTORY));
+
+        assertThat(hookFirstCbom).contains("AES128-GCM");
+        assertThat(callFirstCbom).isEqualTo(hookFirstCbom);
+        assertThat(callFirstWithOtherFileCbom)
+                .contains("AES128-GCM", "SHA256")
+                .isEqualTo(cbom(List.of(CIPHER_FACTORY, MESSAGE_ENCRYPTOR, DIGESTS)));
+    }
+
+    @Nonnull
+    private static String cbom(@Nonnull List<String> files) {
+        JavaAggregator.reset();
+        ScanTestHelper.scan(files, classPath, ScanTestHelper.inventory());
+        return ScanTestHelper.cbom();
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.executive.DetectionExecutive;
+import com.ibm.engine.utils.ScanMetrics;
+import com.ibm.plugin.rules.detection.bc.BouncyCastleJars;
+import com.ibm.plugin.utils.ScanTestHelper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Scans the test file corpus with and without the eager release of the detection stores, and checks
+ * that both scans emit the same number of findings and produce the same CBOM.
+ */
+class EagerReleaseTest {
+    private static final Path TEST_FILES = Path.of("src/test/files");
+    private static final String PROJECT = "src/test/files/rules/project/";
+
+    @TempDir static Path classes;
+    private static List<String> files;
+    private static List<File> classPath;
+
+    @BeforeAll
+    static void compileProject() throws IOException {
+        try (Stream<Path> paths = Files.walk(TEST_FILES)) {
+            files =
+                    paths.map(Path::toString)
+                            .filter(path -> path.endsWith(".java"))
+                            .sorted()
+                            .toList();
+        }
+        classPath = new ArrayList<>(BouncyCastleJars.latestJar);
+        classPath.addAll(
+                ScanTestHelper.compile(
+                        files.stream().filter(file -> file.startsWith(PROJECT)).toList(), classes));
+    }
+
+    @AfterEach
+    void resetState() {
+        DetectionExecutive.setEagerReleaseEnabled(false);
+        ScanMetrics.setEnabled(false);
+        ScanMetrics.reset();
+        JavaAggregator.reset();
+    }
+
+    @Test
+    void eagerReleaseEmitsTheSameFindings() {
+        ScanMetrics.setEnabled(true);
+        final long findings = scan();
+        final String cbom = ScanTestHelper.cbom();
+
+        DetectionExecutive.setEagerReleaseEnabled(true);
+        final long eagerFindings = scan();
+
+        assertThat(cbom).contains("AES128-GCM");
+        assertThat(eagerFindings).isEqualTo(findings);
+        assertThat(ScanTestHelper.cbom()).isEqualTo(cbom);
+    }
+
+    private static long scan() {
+        ScanMetrics.reset();
+        JavaAggregator.reset();
+        ScanTestHelper.scan(files, classPath, ScanTestHelper.inventory());
+        return ScanMetrics.snapshot().counters().get("detection").get("findings");
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.detection.Handler;
+import com.ibm.engine.detection.MatchContext;
+import com.ibm.engine.hooks.IHook;
+import com.ibm.engine.hooks.IHookDetectionObserver;
+import com.ibm.engine.hooks.MethodInvocationHookWithReturnResolvement;
+import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.language.java.JavaLanguageSupport;
+import com.ibm.engine.language.java.JavaScanContext;
+import com.ibm.engine.rule.Parameter;
+import java.util.ArrayList;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+import org.sonar.check.Rule;
+import org.sonar.java.checks.verifier.CheckVerifier;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.JavaCheck;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.semantic.Symbol;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Registers a hook on each method of a scanned file while visiting it, and checks that the hook
+ * repository fires, for each call, the same hooks as a linear scan over all registered hooks,
+ * including the hooks registered after calls with the same method name were looked up.
+ */
+class HookRepositoryIndexTest {
+    private static final String FILE =
+            "src/test/files/rules/index/HookRepositoryIndexTestFile.java";
+
+    @Test
+    void indexFiresTheHooksOfALinearScan() {
+        final HookCheck check = new HookCheck();
+        CheckVerifier.newVerifier().onFile(FILE).withCheck(check).verifyNoIssues();
+
+        assertThat(check.mismatches).isEmpty();
+        assertThat(check.fired)
+                .containsExactly(
+                        "cipher(String) <- line 26",
+                        "cipher(String, int) <- line 27",
+                        "digest(String) <- line 28",
+                        "digest(String) <- line 29",
+                        // the call on line 29 was looked up before the hook was registered
+                        "digest(String) <- line 37",
+                        "digestAlgorithm() <- line 37");
+        // the repository only checked the hooks sharing the method name of each call
+        assertThat(check.handler.getHookRepository().getNumberOfHookMatches()).isEqualTo(6);
+        assertThat(check.handler.getHookRepository().getNumberOfHookChecks())
+                .isLessThan(check.linearChecks);
+    }
+
+    @Rule(key = "HookRepositoryIndex")
+    private static final class HookCheck extends IssuableSubscriptionVisitor
+            implements IHookDetectionObserver<JavaCheck, Tree, Symbol, JavaFileScannerContext> {
+        @Nonnull private final JavaLanguageSupport languageSupport = new JavaLanguageSupport();
+
+        @Nonnull
+        private final Handler<JavaCheck, Tree, Symbol, JavaFileScannerContext> handler =
+                new Handler<>(languageSupport);
+
+        @Nonnull
+        private final List<IHook<JavaCheck, Tree, Symbol, JavaFileScannerContext>> hooks =
+                new ArrayList<>();
+
+        @Nonnull
+        private final List<IHook<JavaCheck, Tree, Symbol, JavaFileScannerContext>> invoked =
+                new ArrayList<>();
+
+        @Nonnull private final List<String> fired = new ArrayList<>();
+        @Nonnull private final List<String> mismatches = new ArrayList<>();
+        private long linearChecks = 0;
+
+        @Nonnull
+        @Override
+        public List<Tree.Kind> nodesToVisit() {
+            return List.of(Tree.Kind.METHOD, Tree.Kind.METHOD_INVOCATION);
+        }
+
+        @Override
+        public void visitNode(@Nonnull Tree tree) {
+            if (tree instanceof MethodTree method) {
+                final IHook<JavaCheck, Tree, Symbol, JavaFileScannerContext> hook =
+                        new MethodInvocationHookWithReturnResolvement<>(
+                                method,
+                                new Parameter<>("java.lang.String", 0, false, List.of()),
+                                MatchContext.createForHookContext());
+                hooks.add(hook);
+                handler.addHookToHookRepository(hook);
+                handler.subscribeToHookDetectionObservable(hook, this);
+                return;
+            }
+            final List<IHook<JavaCheck, Tree, Symbol, JavaFileScannerContext>> expected =
+                    new ArrayList<>();
+            for (IHook<JavaCheck, Tree, Symbol, JavaFileScannerContext> hook : hooks) {
+                linearChecks++;
+                if (hook.isInvocationOn(tree, languageSupport)) {
+                    expected.add(hook);
+                }
+            }
+            invoked.clear();
+            handler.addCallToCallStack(tree, new JavaScanContext(context));
+            if (!invoked.equals(expected)) {
+                mismatches.add(tree + ": " + invoked + " instead of " + expected);
+            }
+            for (IHook<JavaCheck, Tree, Symbol, JavaFileScannerContext> hook : invoked) {
+                fired.add(
+                        signature((MethodTree) hook.hookValue())
+                                + " <- line "
+                                + ((MethodInvocationTree) tree)
+                                        .firstToken()
+                                        .range()
+                                        .start()
+                                        .line());
+            }
+        }
+
+        @Override
+        public void onHookInvocation(
+                @Nonnull Tree invocationTree,
+                @Nonnull IHook<JavaCheck, Tree, Symbol, JavaFileScannerContext> hook,
+                @Nonnull IScanContext<JavaCheck, Tree> scanContext) {
+            invoked.add(hook);
+        }
+
+        @Override
+        public boolean isRootHook() {
+            return false;
+        }
+    }
+
+    @Nonnull
+    private static String signature(@Nonnull MethodTree method) {
+        return method.simpleName().name()
+                + "("
+                + String.join(
+                        ", ",
+                        method.parameters().stream()
+                                .map(parameter -> parameter.type().symbolType().name())
+                                .toList())
+                + ")";
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.utils.ScanMetrics;
+import com.ibm.output.cache.FindingsCache;
+import com.ibm.plugin.utils.ScanTestHelper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Scans a project, edits one of its files and rescans it incrementally, and checks that the CBOM
+ * equals the one of a full scan: the unchanged files are served from the findings cache, while the
+ * edited file and the files depending on it are scanned again.
+ */
+class IncrementalScanTest {
+    private static final String PROJECT = "src/test/files/rules/project/";
+    private static final List<String> FILES =
+            List.of(
+                    "CipherFactory.java",
+                    "MessageEncryptor.java",
+                    "Digests.java",
+                    "SessionKeys.java",
+                    "KeySizes.java");
+
+    @TempDir Path sources;
+    @TempDir Path cacheDirectory;
+    @TempDir Path classes;
+    @TempDir Path editedClasses;
+
+    private List<String> files;
+
+    @BeforeEach
+    void copyProject() throws IOException {
+        files = new ArrayList<>();
+        for (String file : FILES) {
+            final Path copy = sources.resolve(file);
+            Files.copy(Path.of(PROJECT, file), copy);
+            files.add(copy.toString());
+        }
+        // the session keys depend on the key sizes
+        replace("SessionKeys.java", "generator.init(256)", "generator.init(KeySizes.AES)");
+        FindingsCache.setDirectory(cacheDirectory);
+        ScanMetrics.setEnabled(true);
+    }
+
+    @AfterEach
+    void resetState() {
+        FindingsCache.setEnabled(false);
+        FindingsCache.setDirectory(null);
+        ScanMetrics.setEnabled(false);
+        ScanMetrics.reset();
+        JavaAggregator.reset();
+    }
+
+    @Test
+    void incrementalScansGiveTheCbomOfAFullScan() throws IOException {
+        final List<File> classPath = ScanTestHelper.compile(files, classes);
+        final String fullCbom = scan(classPath, false);
+        scan(classPath, true);
+
+        // the factory registers a hook, so its findings depend on other files and it is scanned
+        assertThat(scan(classPath, true)).isEqualTo(fullCbom).contains("AES256", "SHA256");
+        assertThat(cacheCounters()).containsEntry("hits", 4L).containsEntry("misses", 1L);
+
+        replace("KeySizes.java", "AES = 256", "AES = 128");
+        final List<File> editedClassPath = ScanTestHelper.compile(files, editedClasses);
+        final String incrementalCbom = scan(editedClassPath, true);
+
+        // the edited key sizes and the session keys referencing them are scanned again
+        assertThat(cacheCounters()).containsEntry("hits", 2L).containsEntry("misses", 3L);
+        assertThat(incrementalCbom)
+                .contains("AES128", "SHA256")
+                .doesNotContain("AES256")
+                .isEqualTo(scan(editedClassPath, false));
+    }
+
+    /** Scans the project, and saves the findings cache of an incremental scan. */
+    @Nonnull
+    private String scan(@Nonnull List<File> classPath, boolean incremental) {
+        FindingsCache.setEnabled(incremental);
+        ScanMetrics.reset();
+        JavaAggregator.reset();
+        ScanTestHelper.scan(files, classPath, ScanTestHelper.inventory());
+        JavaAggregator.saveFindingsCache();
+        return ScanTestHelper.cbom();
+    }
+
+    private void replace(@Nonnull String file, @Nonnull String target, @Nonnull String replacement)
+            throws IOException {
+        final Path path = sources.resolve(file);
+        final String content = Files.readString(path);
+        assertThat(content).contains(target);
+        Files.writeString(path, content.replace(target, replacement));
+    }
+
+    @Nonnull
+    private static Map<String, Long> cacheCounters() {
+        return ScanMetrics.snapshot().counters().getOrDefault("cache", Map.of());
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.detection.MethodInvocationIndex;
+import com.ibm.engine.language.java.JavaMethodInvocationCollector;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.Test;
+import org.sonar.check.Rule;
+import org.sonar.java.checks.verifier.CheckVerifier;
+import org.sonar.plugins.java.api.IssuableSubscriptionVisitor;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.MethodTree;
+import org.sonar.plugins.java.api.tree.NewClassTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Looks up the invocations of the methods of a scanned file in a {@link MethodInvocationIndex}, and
+ * checks them by owner type and method name, in the order a visit of the method encounters them.
+ */
+class MethodInvocationIndexTest {
+    private static final String FILE =
+            "src/test/files/rules/index/MethodInvocationIndexTestFile.java";
+
+    @Test
+    void invocationsAreIndexedByMethod() {
+        final IndexingCheck check = new IndexingCheck();
+        CheckVerifier.newVerifier().onFile(FILE).withCheck(check).verifyNoIssues();
+
+        assertThat(check.invocations)
+                .containsEntry(
+                        "encrypt",
+                        List.of(
+                                "javax.crypto.Cipher#getInstance",
+                                "javax.crypto.Cipher#init",
+                                "javax.crypto.spec.SecretKeySpec#<init>"))
+                .containsEntry(
+                        "digest",
+                        List.of(
+                                "java.security.MessageDigest#digest",
+                                "java.security.MessageDigest#getInstance"))
+                .containsEntry("noInvocations", List.of());
+        // every lookup after the first one of a method is a hit
+        assertThat(check.hits).isEqualTo(3);
+    }
+
+    @Rule(key = "MethodInvocationIndex")
+    private static final class IndexingCheck extends IssuableSubscriptionVisitor {
+        @Nonnull
+        private final MethodInvocationIndex<Tree> index =
+                new MethodInvocationIndex<>(JavaMethodInvocationCollector::collect);
+
+        @Nonnull private final Map<String, List<String>> invocations = new LinkedHashMap<>();
+        private int hits = 0;
+
+        @Nonnull
+        @Override
+        public List<Tree.Kind> nodesToVisit() {
+            return List.of(Tree.Kind.METHOD);
+        }
+
+        @Override
+        public void visitNode(@Nonnull Tree tree) {
+            final String file = context.getInputFile().toString();
+            final List<Tree> first = index.invocationsOf(file, tree);
+            if (index.invocationsOf(file, tree) == first) {
+                hits++;
+            }
+            invocations.put(
+                    ((MethodTree) tree).simpleName().name(),
+                    first.stream().map(MethodInvocationIndexTest::ownerAndName).toList());
+        }
+    }
+
+    @Nonnull
+    private static String ownerAndName(@Nonnull Tree invocation) {
+        if (invocation instanceof MethodInvocationTree methodInvocation) {
+            return methodInvocation.methodSymbol().owner().type().fullyQualifiedName()
+                    + "#"
+                    + methodInvocation.methodSymbol().name();
+        }
+        return ((NewClassTree) invocation).symbolType().fullyQualifiedName() + "#<init>";
+    }
+}
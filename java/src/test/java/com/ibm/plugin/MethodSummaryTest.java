@@ -0,0 +1,92 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.utils.ScanMetrics;
+import com.ibm.plugin.utils.ScanTestHelper;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Scans a file calling the same project methods from several call sites, and checks that the
+ * summaries of the methods give each call site the value a hook on the method resolves for it. A
+ * summary is kept for the scan, so that a call site in a later file reuses it.
+ */
+class MethodSummaryTest {
+    private static final String FILE =
+            "src/test/files/rules/resolve/ResolveMethodSummaryTestFile.java";
+    private static final String PROJECT = "src/test/files/rules/project/";
+    private static final String CIPHER_FACTORY = PROJECT + "CipherFactory.java";
+    private static final String MESSAGE_ENCRYPTOR = PROJECT + "MessageEncryptor.java";
+
+    @AfterEach
+    void resetState() {
+        ScanMetrics.setEnabled(false);
+        ScanMetrics.reset();
+        JavaAggregator.reset();
+    }
+
+    @Test
+    void summariesResolveTheValuesOfEachCallSite() {
+        ScanMetrics.setEnabled(true);
+        ScanMetrics.reset();
+        JavaAggregator.reset();
+
+        ScanTestHelper.scan(List.of(FILE), List.of(), ScanTestHelper.inventory());
+
+        // the parameter of the wrapper resolves to the argument of each call site, the return
+        // value of the algorithm method to its returned literal
+        assertThat(ScanTestHelper.occurrences())
+                .contains("AES128-GCM:9", "AES128-CBC-PKCS5:10", "DES56-ECB-PKCS5:11")
+                .contains("SHA256:24");
+        final Map<String, Map<String, Long>> counters = ScanMetrics.snapshot().counters();
+        assertThat(counters.get("detection")).containsEntry("findings", 5L);
+        assertThat(counters.get("summaries"))
+                .containsEntry("returnValues.computed", 1L)
+                .containsEntry("returnValues.reused", 1L);
+    }
+
+    @Test
+    void summariesAreReusedByCallSitesInLaterFiles(@TempDir Path classes) {
+        final List<File> classPath =
+                ScanTestHelper.compile(List.of(CIPHER_FACTORY, MESSAGE_ENCRYPTOR), classes);
+        ScanMetrics.setEnabled(true);
+        ScanMetrics.reset();
+        JavaAggregator.reset();
+
+        ScanTestHelper.scan(List.of(CIPHER_FACTORY), classPath, ScanTestHelper.inventory());
+        ScanTestHelper.scan(List.of(MESSAGE_ENCRYPTOR), classPath, ScanTestHelper.inventory());
+
+        // the hook of the factory method matches the call of the later file with the summary
+        // computed when the hook was registered
+        assertThat(ScanTestHelper.occurrences()).containsExactly("AES128-GCM:4");
+        assertThat(ScanMetrics.snapshot().counters().get("summaries"))
+                .containsEntry("methods", 1L)
+                .containsKey("methods.reused")
+                .doesNotContainKey("methods.invalidated");
+    }
+}
@@ -0,0 +1,242 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.language.LanguageSupporter;
+import com.ibm.mapper.model.IAsset;
+import com.ibm.mapper.model.INode;
+import com.ibm.plugin.rules.detection.bc.BouncyCastleJars;
+import com.ibm.plugin.utils.ScanTestHelper;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Scans the test file corpus and a small project once on a single thread and once in the parallel
+ * detection mode. Both scans of the corpus must detect the same assets at the same locations, and
+ * both scans of the project must produce the same CBOM, also if the call invoking a hook is scanned
+ * by another thread than the one that registered the hook.
+ */
+class ParallelDetectionTest {
+    private static final Path TEST_FILES = Path.of("src/test/files");
+    private static final String PROJECT = "src/test/files/rules/project/";
+    private static final String CIPHER_FACTORY = PROJECT + "CipherFactory.java";
+    private static final String MESSAGE_ENCRYPTOR = PROJECT + "MessageEncryptor.java";
+    private static final String KEY_SIZES = PROJECT + "KeySizes.java";
+    private static final List<String> PROJECT_FILES =
+            List.of(
+                    CIPHER_FACTORY,
+                    PROJECT + "Digests.java",
+                    KEY_SIZES,
+                    MESSAGE_ENCRYPTOR,
+                    PROJECT + "SessionKeys.java");
+    private static final int NUMBER_OF_THREADS = 4;
+
+    @TempDir static Path classes;
+    private static List<String> testFiles;
+    private static List<File> classPath;
+
+    @BeforeAll
+    static void compileProject() throws IOException {
+        try (Stream<Path> paths = Files.walk(TEST_FILES)) {
+            testFiles =
+                    paths.map(Path::toString)
+                            .filter(path -> path.endsWith(".java"))
+                            .sorted()
+                            .toList();
+        }
+        classPath = new ArrayList<>(BouncyCastleJars.latestJar);
+        classPath.addAll(ScanTestHelper.compile(PROJECT_FILES, classes));
+    }
+
+    @AfterEach
+    void resetState() {
+        LanguageSupporter.setParallelDetectionEnabled(false);
+        JavaAggregator.reset();
+    }
+
+    @Test
+    void parallelScanProducesTheSameCbomAsSingleThreadedScan() throws Exception {
+        final String singleThreadedCbom = singleThreadedCbom(PROJECT_FILES);
+
+        LanguageSupporter.setParallelDetectionEnabled(true);
+        JavaAggregator.reset();
+        final ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+        try {
+            final List<Future<?>> scans = new ArrayList<>();
+            PROJECT_FILES.forEach(file -> scans.add(executor.submit(() -> scan(file))));
+            for (Future<?> scan : scans) {
+                scan.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        JavaAggregator.processPendingHookInvocations();
+
+        assertThat(singleThreadedCbom).contains("AES128-GCM", "AES256", "SHA256");
+        assertThat(ScanTestHelper.cbom()).isEqualTo(singleThreadedCbom);
+    }
+
+    @Test
+    void parallelScanOfTheTestFilesDetectsTheSameAssetsAsSingleThreadedScan() throws Exception {
+        JavaAggregator.reset();
+        testFiles.forEach(ParallelDetectionTest::scan);
+        final List<String> singleThreadedAssets = assets(JavaAggregator.getDetectedNodes());
+
+        LanguageSupporter.setParallelDetectionEnabled(true);
+        JavaAggregator.reset();
+        final ExecutorService executor = Executors.newFixedThreadPool(NUMBER_OF_THREADS);
+        try {
+            final List<Future<?>> scans = new ArrayList<>();
+            testFiles.forEach(file -> scans.add(executor.submit(() -> scan(file))));
+            for (Future<?> scan : scans) {
+                scan.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        JavaAggregator.processPendingHookInvocations();
+
+        // the components of the CBOM merge the assets of the same name in the order they were
+        // detected, so the assets are compared instead
+        assertThat(singleThreadedAssets).hasSizeGreaterThan(testFiles.size());
+        assertThat(assets(JavaAggregator.getDetectedNodes()))
+                .containsExactlyInAnyOrderElementsOf(singleThreadedAssets);
+    }
+
+    @Test
+    void hookInvocationsAreProcessedAtTheEndOfTheScan() throws Exception {
+        final String singleThreadedCbom =
+                singleThreadedCbom(List.of(CIPHER_FACTORY, MESSAGE_ENCRYPTOR));
+
+        LanguageSupporter.setParallelDetectionEnabled(true);
+        JavaAggregator.reset();
+        final ExecutorService hookThread = Executors.newSingleThreadExecutor();
+        final ExecutorService callThread = Executors.newSingleThreadExecutor();
+        try {
+            hookThread.submit(() -> scan(CIPHER_FACTORY)).get();
+            callThread.submit(() -> scan(MESSAGE_ENCRYPTOR)).get();
+        } finally {
+            hookThread.shutdown();
+            callThread.shutdown();
+        }
+        // the thread owning the hook did not scan another file since the hook was invoked
+        assertThat(ScanTestHelper.cbom()).doesNotContain("AES128-GCM");
+
+        JavaAggregator.processPendingHookInvocations();
+
+        assertThat(singleThreadedCbom).contains("AES128-GCM");
+        assertThat(ScanTestHelper.cbom()).isEqualTo(singleThreadedCbom);
+    }
+
+    @Test
+    void hookInvocationsAreProcessedAtTheEndOfTheNextFile() throws Exception {
+        final String singleThreadedCbom =
+                singleThreadedCbom(List.of(CIPHER_FACTORY, MESSAGE_ENCRYPTOR, KEY_SIZES));
+
+        LanguageSupporter.setParallelDetectionEnabled(true);
+        JavaAggregator.reset();
+        final ExecutorService hookThread = Executors.newSingleThreadExecutor();
+        final ExecutorService callThread = Executors.newSingleThreadExecutor();
+        try {
+            hookThread.submit(() -> scan(CIPHER_FACTORY)).get();
+            callThread.submit(() -> scan(MESSAGE_ENCRYPTOR)).get();
+            // a file without calls, the invocation is only processed when the file is left
+            hookThread.submit(() -> scan(KEY_SIZES)).get();
+        } finally {
+            hookThread.shutdown();
+            callThread.shutdown();
+        }
+
+        assertThat(singleThreadedCbom).contains("AES128-GCM");
+        assertThat(ScanTestHelper.cbom()).isEqualTo(singleThreadedCbom);
+    }
+
+    @Test
+    void callsOfAnotherThreadBeforeTheHookAreMatched() throws Exception {
+        final String singleThreadedCbom =
+                singleThreadedCbom(List.of(MESSAGE_ENCRYPTOR, CIPHER_FACTORY));
+
+        LanguageSupporter.setParallelDetectionEnabled(true);
+        JavaAggregator.reset();
+        final ExecutorService callThread = Executors.newSingleThreadExecutor();
+        final ExecutorService hookThread = Executors.newSingleThreadExecutor();
+        try {
+            // the call is retained by its thread, the hook is registered afterwards on another one
+            callThread.submit(() -> scan(MESSAGE_ENCRYPTOR)).get();
+            hookThread.submit(() -> scan(CIPHER_FACTORY)).get();
+        } finally {
+            callThread.shutdown();
+            hookThread.shutdown();
+        }
+
+        assertThat(singleThreadedCbom).contains("AES128-GCM");
+        assertThat(ScanTestHelper.cbom()).isEqualTo(singleThreadedCbom);
+    }
+
+    @Nonnull
+    private static String singleThreadedCbom(@Nonnull List<String> files) {
+        JavaAggregator.reset();
+        files.forEach(ParallelDetectionTest::scan);
+        return ScanTestHelper.cbom();
+    }
+
+    private static void scan(@Nonnull String file) {
+        ScanTestHelper.scan(List.of(file), classPath, ScanTestHelper.inventory());
+    }
+
+    @Nonnull
+    private static List<String> assets(@Nonnull List<INode> nodes) {
+        return nodes.stream().map(ParallelDetectionTest::asString).toList();
+    }
+
+    @Nonnull
+    private static String asString(@Nonnull INode node) {
+        final List<String> children =
+                node.getChildren().values().stream()
+                        .map(ParallelDetectionTest::asString)
+                        .sorted()
+                        .toList();
+        final String location =
+                node instanceof IAsset asset
+                        ? "@"
+                                + asset.getDetectionContext().filePath()
+                                + ":"
+                                + asset.getDetectionContext().lineNumber()
+                                + ":"
+                                + asset.getDetectionContext().offSet()
+                        : "";
+        return node.getKind().getSimpleName() + "(" + node.asString() + ")" + location + children;
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.rule.TypePrefixFilter;
+import com.ibm.engine.utils.ScanMetrics;
+import com.ibm.plugin.rules.JavaNoMD5UseRule;
+import com.ibm.plugin.utils.ScanTestHelper;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Scans a small project with the inventory check alone and together with the MD5 check, and checks
+ * that the second check neither changes the CBOM nor the number of findings. If the prefilter is
+ * enabled, files without crypto types are skipped by the shared detection pass, but their calls
+ * still reach the hooks of other files.
+ */
+class SharedDetectionPassTest {
+    private static final String PROJECT = "src/test/files/rules/project/";
+    private static final List<String> PROJECT_FILES =
+            List.of(
+                    PROJECT + "CipherFactory.java",
+                    PROJECT + "Digests.java",
+                    PROJECT + "MessageEncryptor.java",
+                    PROJECT + "SessionKeys.java");
+
+    @TempDir static Path classes;
+    private static List<File> classPath;
+
+    @BeforeAll
+    static void compileProject() {
+        classPath = ScanTestHelper.compile(PROJECT_FILES, classes);
+    }
+
+    @AfterEach
+    void resetState() {
+        ScanMetrics.setEnabled(false);
+        ScanMetrics.reset();
+        TypePrefixFilter.setEnabled(false);
+        JavaAggregator.reset();
+    }
+
+    @Test
+    void reportingChecksShareOneDetectionPass() {
+        ScanMetrics.setEnabled(true);
+
+        ScanMetrics.reset();
+        JavaAggregator.reset();
+        ScanTestHelper.scan(PROJECT_FILES, classPath, ScanTestHelper.inventory());
+        final String inventoryCbom = ScanTestHelper.cbom();
+        final long inventoryFindings = findings();
+
+        ScanMetrics.reset();
+        JavaAggregator.reset();
+        ScanTestHelper.scan(
+                PROJECT_FILES, classPath, ScanTestHelper.inventory(), new JavaNoMD5UseRule());
+
+        assertThat(inventoryFindings).isPositive();
+        assertThat(findings()).isEqualTo(inventoryFindings);
+        assertThat(ScanTestHelper.cbom()).isEqualTo(inventoryCbom);
+    }
+
+    @Test
+    void filesWithoutCryptoTypesAreSkipped() {
+        // MessageEncryptor names no crypto type, it only calls the wrapper CipherFactory.create
+        JavaAggregator.reset();
+        ScanTestHelper.scan(PROJECT_FILES, classPath, ScanTestHelper.inventory());
+        final String cbom = ScanTestHelper.cbom();
+
+        TypePrefixFilter.setEnabled(true);
+        JavaAggregator.reset();
+        ScanTestHelper.scan(PROJECT_FILES, classPath, ScanTestHelper.inventory());
+
+        assertThat(JavaAggregator.getNumberOfScannedFiles()).isEqualTo(PROJECT_FILES.size());
+        assertThat(JavaAggregator.getNumberOfSkippedFiles()).isEqualTo(1);
+        assertThat(cbom).contains("AES128-GCM");
+        assertThat(ScanTestHelper.cbom()).isEqualTo(cbom);
+    }
+
+    private static long findings() {
+        return ScanMetrics.snapshot().counters().get("detection").get("findings");
+    }
+}
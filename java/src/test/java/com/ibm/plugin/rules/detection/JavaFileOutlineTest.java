@@ -0,0 +1,140 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin.rules.detection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.output.cache.FindingsCache;
+import com.ibm.plugin.utils.ScanTestHelper;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.sonar.java.checks.verifier.CheckVerifier;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.JavaFileScannerContext;
+import org.sonar.plugins.java.api.tree.BaseTreeVisitor;
+import org.sonar.plugins.java.api.tree.MethodInvocationTree;
+import org.sonar.plugins.java.api.tree.Tree;
+
+class JavaFileOutlineTest {
+    private static final String PROJECT = "src/test/files/rules/project/";
+    private static final String CIPHER_FACTORY = PROJECT + "CipherFactory.java";
+    private static final String MESSAGE_ENCRYPTOR = PROJECT + "MessageEncryptor.java";
+    private static final String DIGESTS = PROJECT + "Digests.java";
+
+    @TempDir static Path classes;
+    private static List<File> classPath;
+
+    @BeforeAll
+    static void compileProject() {
+        classPath = ScanTestHelper.compile(List.of(CIPHER_FACTORY, MESSAGE_ENCRYPTOR), classes);
+    }
+
+    @Test
+    void outlineHasTheDeclaredAndReferencedProjectTypes() {
+        final JavaFileOutline outline = JavaFileOutline.of(scan(MESSAGE_ENCRYPTOR).compilationUnit);
+
+        assertThat(outline.getDeclaredTypes()).containsExactly("MessageEncryptor");
+        assertThat(outline.getReferencedTypes()).contains("CipherFactory");
+    }
+
+    @Test
+    void outlineLeavesOutTheTypesOfTheJdk() {
+        final JavaFileOutline outline = JavaFileOutline.of(scan(CIPHER_FACTORY).compilationUnit);
+
+        // the file references its own type through its members
+        assertThat(outline.getDeclaredTypes()).containsExactly("CipherFactory");
+        assertThat(outline.getReferencedTypes()).containsExactly("CipherFactory");
+    }
+
+    @Test
+    void markersLocateTheTreesTheyWereTakenFrom() {
+        // the digest call is the receiver of another call starting at the same token
+        final ScannedFile scannedFile = scan(DIGESTS);
+        final List<FindingsCache.Marker> markers = new ArrayList<>();
+        for (Tree invocation : scannedFile.invocations) {
+            markers.add(JavaFileOutline.markerOf(invocation).orElseThrow());
+        }
+        assertThat(markers).doesNotHaveDuplicates().hasSize(2);
+
+        final Optional<Map<FindingsCache.Marker, Tree>> trees =
+                JavaFileOutline.locate(scannedFile.compilationUnit, markers);
+
+        assertThat(trees).isPresent();
+        for (int i = 0; i < markers.size(); i++) {
+            assertThat(trees.get().get(markers.get(i))).isSameAs(scannedFile.invocations.get(i));
+        }
+    }
+
+    @Test
+    void markersOfAnEditedFileAreNotLocated() {
+        final ScannedFile scannedFile = scan(DIGESTS);
+        final FindingsCache.Marker marker =
+                JavaFileOutline.markerOf(scannedFile.invocations.get(0)).orElseThrow();
+        final FindingsCache.Marker movedMarker =
+                new FindingsCache.Marker(
+                        marker.kind(),
+                        marker.firstLine() + 1,
+                        marker.firstColumn(),
+                        marker.lastLine() + 1,
+                        marker.lastColumn());
+
+        assertThat(JavaFileOutline.locate(scannedFile.compilationUnit, List.of(marker)))
+                .isPresent();
+        assertThat(JavaFileOutline.locate(scannedFile.compilationUnit, List.of(movedMarker)))
+                .isEmpty();
+    }
+
+    @Nonnull
+    private static ScannedFile scan(@Nonnull String file) {
+        final ScannedFile scannedFile = new ScannedFile();
+        CheckVerifier.newVerifier()
+                .onFile(file)
+                .withCheck(scannedFile)
+                .withClassPath(classPath)
+                .verifyNoIssues();
+        return scannedFile;
+    }
+
+    /** Keeps the compilation unit of the scanned file, and its method invocations in order. */
+    private static final class ScannedFile extends BaseTreeVisitor implements JavaFileScanner {
+        private Tree compilationUnit;
+        private final List<Tree> invocations = new ArrayList<>();
+
+        @Override
+        public void scanFile(@Nonnull JavaFileScannerContext context) {
+            compilationUnit = context.getTree();
+            scan(context.getTree());
+        }
+
+        @Override
+        public void visitMethodInvocation(@Nonnull MethodInvocationTree tree) {
+            invocations.add(tree);
+            super.visitMethodInvocation(tree);
+        }
+    }
+}
@@ -0,0 +1,232 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin.utils;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.ibm.mapper.model.INode;
+import com.ibm.output.cyclondx.CBOMOutputFile;
+import com.ibm.output.cyclondx.CBOMOutputFileFactory;
+import com.ibm.plugin.JavaAggregator;
+import com.ibm.plugin.rules.JavaInventoryRule;
+import com.ibm.rules.issue.Issue;
+import java.io.File;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import org.cyclonedx.Version;
+import org.cyclonedx.exception.GeneratorException;
+import org.cyclonedx.generators.BomGeneratorFactory;
+import org.cyclonedx.model.Bom;
+import org.cyclonedx.model.Component;
+import org.cyclonedx.model.component.evidence.Occurrence;
+import org.sonar.check.Rule;
+import org.sonar.java.checks.verifier.CheckVerifier;
+import org.sonar.plugins.java.api.JavaFileScanner;
+import org.sonar.plugins.java.api.tree.Tree;
+
+/**
+ * Scans test files with Java checks and renders the CBOM of the detected assets in a canonical
+ * form, so that the output of two scans can be compared.
+ */
+public final class ScanTestHelper {
+    private static final Gson GSON = new Gson();
+    private static final Pattern RANDOM_ID =
+            Pattern.compile("@[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    private ScanTestHelper() {
+        // nothing
+    }
+
+    /**
+     * Compiles the files, so that the types they declare can be resolved while scanning any of
+     * them: the verifier parses each file on its own, like an analysis that gets the compiled
+     * classes of the project as libraries.
+     *
+     * @param files the paths of the files
+     * @param outputDirectory the directory the classes are written to
+     * @return the class path to scan the files with
+     */
+    @Nonnull
+    public static List<File> compile(@Nonnull List<String> files, @Nonnull Path outputDirectory) {
+        final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        final List<String> arguments = new ArrayList<>(List.of("-d", outputDirectory.toString()));
+        arguments.addAll(files);
+        if (compiler.run(null, null, null, arguments.toArray(String[]::new)) != 0) {
+            throw new IllegalStateException("Could not compile " + files);
+        }
+        return List.of(outputDirectory.toFile());
+    }
+
+    /**
+     * Scans the files in one analysis, in the given order, and verifies that the checks report no
+     * issues on them (see {@link #inventory()}).
+     *
+     * @param files the paths of the files
+     * @param classPath the class path of the analysis
+     * @param checks the checks to run
+     */
+    public static void scan(
+            @Nonnull List<String> files,
+            @Nonnull List<File> classPath,
+            @Nonnull JavaFileScanner... checks) {
+        CheckVerifier.newVerifier()
+                .onFiles(files)
+                .withChecks(checks)
+                .withClassPath(classPath)
+                .verifyNoIssues();
+    }
+
+    /**
+     * Returns an inventory check that reports no issues. The issue of a finding is reported in the
+     * file that started its detection, which is another file than the one of the finding if a hook
+     * of that file fired; scans comparing the CBOM do not depend on it.
+     *
+     * @return the inventory check
+     */
+    @Nonnull
+    public static JavaInventoryRule inventory() {
+        return new SilentInventoryRule();
+    }
+
+    /**
+     * Returns the CBOM of the assets detected since the last reset of the {@link JavaAggregator}.
+     * The serial number, the timestamp and the random identifiers are left out, bom-refs are
+     * replaced by the names of their components, and arrays are sorted.
+     *
+     * @return the canonical JSON of the CBOM
+     */
+    @Nonnull
+    public static String cbom() {
+        final Bom bom = bom();
+        final String json;
+        try {
+            json = BomGeneratorFactory.createJson(Version.VERSION_16, bom).toJsonString();
+        } catch (GeneratorException e) {
+            throw new IllegalStateException(e);
+        }
+        final JsonObject root = JsonParser.parseString(json).getAsJsonObject();
+        root.remove("serialNumber");
+        if (root.has("metadata")) {
+            root.getAsJsonObject("metadata").remove("timestamp");
+        }
+        final Map<String, String> names = new HashMap<>();
+        if (root.has("components")) {
+            for (JsonElement component : root.getAsJsonArray("components")) {
+                final JsonObject object = component.getAsJsonObject();
+                names.put(
+                        object.get("bom-ref").getAsString(),
+                        "ref:" + withoutRandomId(object.get("name").getAsString()));
+            }
+        }
+        return GSON.toJson(canonical(root, names));
+    }
+
+    /**
+     * Returns the occurrences of the assets detected since the last reset of the {@link
+     * JavaAggregator}, as sorted {@code name:line} entries.
+     *
+     * @return the occurrences of the detected assets
+     */
+    @Nonnull
+    public static List<String> occurrences() {
+        final Bom bom = bom();
+        final List<String> occurrences = new ArrayList<>();
+        for (Component component : bom.getComponents()) {
+            if (component.getEvidence() == null
+                    || component.getEvidence().getOccurrences() == null) {
+                continue;
+            }
+            for (Occurrence occurrence : component.getEvidence().getOccurrences()) {
+                occurrences.add(withoutRandomId(component.getName()) + ":" + occurrence.getLine());
+            }
+        }
+        occurrences.sort(Comparator.naturalOrder());
+        return occurrences;
+    }
+
+    /**
+     * Returns the BOM of the detected nodes and of the components recorded for the findings served
+     * from the findings cache, in the order they were added to the {@link JavaAggregator}.
+     */
+    @Nonnull
+    private static Bom bom() {
+        final CBOMOutputFile outputFile = new CBOMOutputFileFactory().createOutputFormat(List.of());
+        JavaAggregator.getAggregator().addTo(outputFile);
+        return outputFile.getBom();
+    }
+
+    @Nonnull
+    private static JsonElement canonical(
+            @Nonnull JsonElement element, @Nonnull Map<String, String> names) {
+        if (element.isJsonObject()) {
+            final Map<String, JsonElement> members = new TreeMap<>();
+            element.getAsJsonObject()
+                    .entrySet()
+                    .forEach(
+                            entry ->
+                                    members.put(
+                                            entry.getKey(), canonical(entry.getValue(), names)));
+            final JsonObject object = new JsonObject();
+            members.forEach(object::add);
+            return object;
+        }
+        if (element.isJsonArray()) {
+            final List<JsonElement> elements = new ArrayList<>();
+            element.getAsJsonArray().forEach(child -> elements.add(canonical(child, names)));
+            elements.sort(Comparator.comparing(GSON::toJson));
+            final JsonArray array = new JsonArray();
+            elements.forEach(array::add);
+            return array;
+        }
+        if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isString()) {
+            final String value = element.getAsString();
+            return new JsonPrimitive(names.getOrDefault(value, withoutRandomId(value)));
+        }
+        return element;
+    }
+
+    @Nonnull
+    private static String withoutRandomId(@Nonnull String value) {
+        return RANDOM_ID.matcher(value).replaceAll("");
+    }
+
+    @Rule(key = "Inventory")
+    private static final class SilentInventoryRule extends JavaInventoryRule {
+        @Override
+        @Nonnull
+        public List<Issue<Tree>> report(
+                @Nonnull Tree markerTree, @Nonnull List<INode> translatedNodes) {
+            return List.of();
+        }
+    }
+}
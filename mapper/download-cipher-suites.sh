@@ -6,7 +6,7 @@ status_code=$(curl -s -o /dev/null -w "%{http_code}" "$url")
 if [ "$status_code" -eq 200 ]; then
     curl "$url" -o ciphersuites.json
     echo "Successfully processed $url"
-    python3 creatCipherSuiteClass.py
+    python3 packCipherSuites.py
 else
     echo "Failed to process $url (Status code: $status_code)"
 fi
\ No newline at end of file
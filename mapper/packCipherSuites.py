@@ -0,0 +1,79 @@
+import json
+import os
+import struct
+
+# Packs ciphersuites.json into the binary resource read by JsonCipherSuiteLoader.
+#
+# Layout (big endian, strings in Java's modified UTF-8 as written by DataOutputStream#writeUTF):
+#   int    magic "CSB1"
+#   short  number of strings, followed by each distinct string once
+#   short  number of cipher suites, followed by each cipher suite as
+#          short iana name, short gnutls name, short openssl name,
+#          byte number of identifiers, followed by a short per identifier,
+#          short kex algorithm, short auth algorithm, short enc algorithm, short hash algorithm
+# Every short field is an index into the string table, -1 stands for a missing value.
+
+MAGIC = 0x43534231
+OUTPUT = "./src/main/resources/com/ibm/mapper/mapper/ssl/json/ciphersuites.bin"
+
+
+def optional(value):
+    if value is None or value == "" or value == "-":
+        return None
+    return value
+
+
+with open("./ciphersuites.json", "r") as stream:
+    cipherSuites = json.load(stream)["ciphersuites"]
+
+strings = list()
+stringIndex = dict()
+
+
+def ref(value):
+    if value is None:
+        return -1
+    if value not in stringIndex:
+        stringIndex[value] = len(strings)
+        strings.append(value)
+    return stringIndex[value]
+
+
+records = list()
+for cipherSuite in cipherSuites:
+    name, *_ = cipherSuite.keys()
+    struct_, *_ = cipherSuite.values()
+    identifiers = [
+        ref(hexByte)
+        for hexByte in (struct_["hex_byte_1"], struct_["hex_byte_2"])
+        if hexByte is not None
+    ]
+    records.append(
+        (
+            ref(name),
+            ref(optional(struct_["gnutls_name"])),
+            ref(optional(struct_["openssl_name"])),
+            identifiers,
+            ref(optional(struct_["kex_algorithm"])),
+            ref(optional(struct_["auth_algorithm"])),
+            ref(optional(struct_["enc_algorithm"])),
+            ref(optional(struct_["hash_algorithm"])),
+        )
+    )
+
+out = bytearray()
+out += struct.pack(">i", MAGIC)
+out += struct.pack(">h", len(strings))
+for value in strings:
+    encoded = value.encode("ascii")
+    out += struct.pack(">H", len(encoded)) + encoded
+out += struct.pack(">h", len(records))
+for iana, gnutls, openssl, identifiers, kex, auth, enc, hash_ in records:
+    out += struct.pack(">hhhb", iana, gnutls, openssl, len(identifiers))
+    for identifier in identifiers:
+        out += struct.pack(">h", identifier)
+    out += struct.pack(">hhhh", kex, auth, enc, hash_)
+
+os.makedirs(os.path.dirname(OUTPUT), exist_ok=True)
+with open(OUTPUT, "wb") as outfile:
+    outfile.write(out)
@@ -21,16 +21,21 @@ package com.ibm.mapper;
 
 import com.ibm.engine.detection.DetectionStore;
 import com.ibm.mapper.model.INode;
+import com.ibm.mapper.reorganizer.IReorganizer;
 import com.ibm.mapper.reorganizer.IReorganizerRule;
+import com.ibm.mapper.reorganizer.Reorganizer;
 import java.util.List;
 import javax.annotation.Nonnull;
 
 public abstract class ITranslationProcess<R, T, S, P> {
 
     @Nonnull protected final List<IReorganizerRule> reorganizerRules;
+    /* indexes the reorganizer rules once, for all translations of the process */
+    @Nonnull protected final IReorganizer reorganizer;
 
     protected ITranslationProcess(@Nonnull List<IReorganizerRule> reorganizerRules) {
         this.reorganizerRules = reorganizerRules;
+        this.reorganizer = new Reorganizer(reorganizerRules);
     }
 
     @Nonnull
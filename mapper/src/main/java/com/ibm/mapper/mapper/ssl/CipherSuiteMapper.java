@@ -21,7 +21,7 @@ package com.ibm.mapper.mapper.ssl;
 
 import com.ibm.mapper.mapper.IMapper;
 import com.ibm.mapper.mapper.ssl.json.JsonCipherSuite;
-import com.ibm.mapper.mapper.ssl.json.JsonCipherSuites;
+import com.ibm.mapper.mapper.ssl.json.JsonCipherSuiteIndex;
 import com.ibm.mapper.model.CipherSuite;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.model.Identifier;
@@ -31,13 +31,20 @@ import com.ibm.mapper.model.collections.IdentifierCollection;
 import com.ibm.mapper.utils.DetectionLocation;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
 public final class CipherSuiteMapper implements IMapper {
+    // the algorithm mappers are stateless and can be shared
+    private static final KeyExchangeAlgorithmMapper KEY_EXCHANGE_ALGORITHM_MAPPER =
+            new KeyExchangeAlgorithmMapper();
+    private static final EncryptionAlgorithmMapper ENCRYPTION_ALGORITHM_MAPPER =
+            new EncryptionAlgorithmMapper();
+    private static final HashAlgorithmMapper HASH_ALGORITHM_MAPPER = new HashAlgorithmMapper();
+    private static final AuthenticationAlgorithmMapper AUTHENTICATION_ALGORITHM_MAPPER =
+            new AuthenticationAlgorithmMapper();
 
     @Nonnull
     @Override
@@ -58,42 +65,25 @@ public final class CipherSuiteMapper implements IMapper {
         // key agreement
         jsonCipherSuite
                 .getKexAlgorithm()
-                .flatMap(
-                        algoStr -> {
-                            final KeyExchangeAlgorithmMapper keyExchangeAlgorithmMapper =
-                                    new KeyExchangeAlgorithmMapper();
-                            return keyExchangeAlgorithmMapper.parse(algoStr, detectionLocation);
-                        })
+                .flatMap(algoStr -> KEY_EXCHANGE_ALGORITHM_MAPPER.parse(algoStr, detectionLocation))
                 .ifPresent(assets::add);
         // encryption algorithm
         jsonCipherSuite
                 .getEncAlgorithm()
-                .flatMap(
-                        algoStr -> {
-                            final EncryptionAlgorithmMapper encryptionAlgorithmMapper =
-                                    new EncryptionAlgorithmMapper();
-                            return encryptionAlgorithmMapper.parse(algoStr, detectionLocation);
-                        })
+                .flatMap(algoStr -> ENCRYPTION_ALGORITHM_MAPPER.parse(algoStr, detectionLocation))
                 .ifPresent(assets::add);
         // hash algorithm
         final Optional<MessageDigest> hash =
                 jsonCipherSuite
                         .getHashAlgorithm()
                         .flatMap(
-                                algoStr -> {
-                                    final HashAlgorithmMapper hashAlgorithmMapper =
-                                            new HashAlgorithmMapper();
-                                    return hashAlgorithmMapper.parse(algoStr, detectionLocation);
-                                });
+                                algoStr -> HASH_ALGORITHM_MAPPER.parse(algoStr, detectionLocation));
         // authentication agreement
         jsonCipherSuite
                 .getAuthAlgorithm()
                 .flatMap(
-                        algoStr -> {
-                            final AuthenticationAlgorithmMapper authenticationAlgorithmMapper =
-                                    new AuthenticationAlgorithmMapper();
-                            return authenticationAlgorithmMapper.parse(algoStr, detectionLocation);
-                        })
+                        algoStr ->
+                                AUTHENTICATION_ALGORITHM_MAPPER.parse(algoStr, detectionLocation))
                 .ifPresentOrElse(
                         sign -> {
                             hash.ifPresent(sign::put);
@@ -122,24 +112,19 @@ public final class CipherSuiteMapper implements IMapper {
         return Optional.of(cipherSuite);
     }
 
+    /**
+     * Looks up a cipher suite by its IANA, GnuTLS or OpenSSL name, or by its hex identifier (e.g.
+     * {@code 0xC0,0x1D}).
+     *
+     * @param identifier the name or hex identifier of the cipher suite
+     * @return the cipher suite, if known
+     */
     @Nonnull
     public static Optional<JsonCipherSuite> findCipherSuite(@Nonnull final String identifier) {
-        return Optional.ofNullable(JsonCipherSuites.CIPHER_SUITES.get(identifier))
-                .or(
-                        () -> {
-                            Collection<JsonCipherSuite> suites =
-                                    JsonCipherSuites.CIPHER_SUITES.values();
-                            for (JsonCipherSuite suite : suites) {
-                                if (suite.getGnutlsName().isPresent()
-                                        && suite.getGnutlsName().get().equals(identifier)) {
-                                    return Optional.of(suite);
-                                }
-                                if (suite.getOpensslName().isPresent()
-                                        && suite.getOpensslName().get().equals(identifier)) {
-                                    return Optional.of(suite);
-                                }
-                            }
-                            return Optional.empty();
-                        });
+        final JsonCipherSuiteIndex index = JsonCipherSuiteIndex.getInstance();
+        return index.findByIanaName(identifier)
+                .or(() -> index.findByGnutlsName(identifier))
+                .or(() -> index.findByOpensslName(identifier))
+                .or(() -> index.findByIdentifier(identifier));
     }
 }
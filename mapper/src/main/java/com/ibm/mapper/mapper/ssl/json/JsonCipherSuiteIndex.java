@@ -0,0 +1,123 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.mapper.mapper.ssl.json;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+
+/**
+ * Immutable lookup tables over the known cipher suites, by IANA, GnuTLS and OpenSSL name and by
+ * their hex identifier (e.g. {@code 0xC0,0x1D}). The catalogue is loaded and the tables are built
+ * once, on the first lookup.
+ */
+public final class JsonCipherSuiteIndex {
+
+    @Nonnull private final Map<String, JsonCipherSuite> byIanaName;
+    @Nonnull private final Map<String, JsonCipherSuite> byGnutlsName;
+    @Nonnull private final Map<String, JsonCipherSuite> byOpensslName;
+    @Nonnull private final Map<String, JsonCipherSuite> byIdentifier;
+
+    JsonCipherSuiteIndex(@Nonnull Collection<JsonCipherSuite> cipherSuites) {
+        final Map<String, JsonCipherSuite> iana = new HashMap<>();
+        final Map<String, JsonCipherSuite> gnutls = new HashMap<>();
+        final Map<String, JsonCipherSuite> openssl = new HashMap<>();
+        final Map<String, JsonCipherSuite> identifier = new HashMap<>();
+        // plain loops and lookups, the index is built on the first TLS lookup of a scan
+        for (JsonCipherSuite cipherSuite : cipherSuites) {
+            iana.putIfAbsent(cipherSuite.getIanaName(), cipherSuite);
+            putIfPresent(gnutls, cipherSuite.getGnutlsName(), cipherSuite);
+            putIfPresent(openssl, cipherSuite.getOpensslName(), cipherSuite);
+            final Optional<String[]> identifiers = cipherSuite.getIdentifiers();
+            if (identifiers.isPresent()) {
+                identifier.putIfAbsent(
+                        normalizeIdentifier(String.join(",", identifiers.get())), cipherSuite);
+            }
+        }
+        this.byIanaName = Map.copyOf(iana);
+        this.byGnutlsName = Map.copyOf(gnutls);
+        this.byOpensslName = Map.copyOf(openssl);
+        this.byIdentifier = Map.copyOf(identifier);
+    }
+
+    @Nonnull
+    public static JsonCipherSuiteIndex getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    @Nonnull
+    public Optional<JsonCipherSuite> findByIanaName(@Nonnull String ianaName) {
+        return Optional.ofNullable(byIanaName.get(ianaName));
+    }
+
+    @Nonnull
+    public Optional<JsonCipherSuite> findByGnutlsName(@Nonnull String gnutlsName) {
+        return Optional.ofNullable(byGnutlsName.get(gnutlsName));
+    }
+
+    @Nonnull
+    public Optional<JsonCipherSuite> findByOpensslName(@Nonnull String opensslName) {
+        return Optional.ofNullable(byOpensslName.get(opensslName));
+    }
+
+    /**
+     * Looks up a cipher suite by its hex identifier. The bytes of the identifier are separated by a
+     * comma, case and whitespace are ignored (e.g. {@code 0xC0,0x1D} or {@code 0xc0, 0x1d}).
+     *
+     * @param identifier the hex identifier of the cipher suite
+     * @return the cipher suite with this identifier, if known
+     */
+    @Nonnull
+    public Optional<JsonCipherSuite> findByIdentifier(@Nonnull String identifier) {
+        return Optional.ofNullable(byIdentifier.get(normalizeIdentifier(identifier)));
+    }
+
+    private static void putIfPresent(
+            @Nonnull Map<String, JsonCipherSuite> index,
+            @Nonnull Optional<String> name,
+            @Nonnull JsonCipherSuite cipherSuite) {
+        if (name.isPresent()) {
+            index.putIfAbsent(name.get(), cipherSuite);
+        }
+    }
+
+    @Nonnull
+    private static String normalizeIdentifier(@Nonnull String identifier) {
+        final StringBuilder normalized = new StringBuilder(identifier.length());
+        for (int i = 0; i < identifier.length(); i++) {
+            final char c = identifier.charAt(i);
+            if (!Character.isWhitespace(c)) {
+                normalized.append(Character.toUpperCase(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    private static final class Holder {
+        private static final JsonCipherSuiteIndex INSTANCE =
+                new JsonCipherSuiteIndex(JsonCipherSuiteLoader.load());
+
+        private Holder() {
+            // nothing
+        }
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.mapper.mapper.ssl.json;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * Reads the cipher suite catalogue from the {@code ciphersuites.bin} resource, which is packed from
+ * {@code mapper/ciphersuites.json} by {@code mapper/packCipherSuites.py}.
+ *
+ * <p>The resource starts with a table of all distinct strings, the cipher suites only reference
+ * entries of this table. Values shared by many cipher suites (algorithm names, hex bytes) are
+ * therefore read and allocated once.
+ *
+ * <p>The catalogue is read once per JVM, by code that is not compiled yet. The resource is
+ * therefore read at once and decoded from the byte array with as few calls as possible (see {@code
+ * CipherSuiteCatalogueBenchmark} in the benchmarks module).
+ */
+public final class JsonCipherSuiteLoader {
+    static final String RESOURCE = "ciphersuites.bin";
+    private static final int MAGIC = 0x43534231; // "CSB1"
+    private static final int NONE = -1;
+
+    private JsonCipherSuiteLoader() {
+        // nothing
+    }
+
+    /**
+     * Reads all cipher suites of the catalogue, in the order of {@code ciphersuites.json}.
+     *
+     * @return the cipher suites
+     * @throws UncheckedIOException if the resource is missing or malformed
+     */
+    @Nonnull
+    public static List<JsonCipherSuite> load() {
+        try (InputStream resource = JsonCipherSuiteLoader.class.getResourceAsStream(RESOURCE)) {
+            if (resource == null) {
+                throw new IOException("Missing cipher suite resource " + RESOURCE);
+            }
+            return read(resource.readAllBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Nonnull
+    static List<JsonCipherSuite> read(@Nonnull byte[] data) throws IOException {
+        final Cursor input = new Cursor(data);
+        if (input.readInt() != MAGIC) {
+            throw new IOException("Invalid cipher suite resource " + RESOURCE);
+        }
+
+        final String[] strings = new String[input.readShort()];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = input.readString();
+        }
+
+        final int count = input.readShort();
+        final List<JsonCipherSuite> cipherSuites = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            final String ianaName = string(strings, input.readShort());
+            if (ianaName == null) {
+                throw new IOException("Cipher suite without name in " + RESOURCE);
+            }
+            final String gnutlsName = string(strings, input.readShort());
+            final String opensslName = string(strings, input.readShort());
+            final String[] identifiers = identifiers(strings, input);
+            cipherSuites.add(
+                    new JsonCipherSuite(
+                            ianaName,
+                            gnutlsName,
+                            opensslName,
+                            identifiers,
+                            string(strings, input.readShort()),
+                            string(strings, input.readShort()),
+                            string(strings, input.readShort()),
+                            string(strings, input.readShort())));
+        }
+        return Collections.unmodifiableList(cipherSuites);
+    }
+
+    @Nullable private static String[] identifiers(@Nonnull String[] strings, @Nonnull Cursor input)
+            throws IOException {
+        final int count = input.readByte();
+        if (count == 0) {
+            return null;
+        }
+        final String[] identifiers = new String[count];
+        for (int i = 0; i < count; i++) {
+            identifiers[i] = string(strings, input.readShort());
+        }
+        return identifiers;
+    }
+
+    @Nullable private static String string(@Nonnull String[] strings, int index) throws IOException {
+        if (index == NONE) {
+            return null;
+        }
+        if (index < 0 || index >= strings.length) {
+            throw new IOException("Invalid string reference " + index + " in " + RESOURCE);
+        }
+        return strings[index];
+    }
+
+    /** Reads the big-endian values written by the packer from a byte array. */
+    private static final class Cursor {
+        @Nonnull private final byte[] data;
+        private int position = 0;
+
+        private Cursor(@Nonnull byte[] data) {
+            this.data = data;
+        }
+
+        private int readByte() throws IOException {
+            require(1);
+            return data[position++];
+        }
+
+        private int readShort() throws IOException {
+            require(2);
+            final int value = (short) ((data[position] << 8) | (data[position + 1] & 0xFF));
+            position += 2;
+            return value;
+        }
+
+        private int readInt() throws IOException {
+            return (readShort() << 16) | (readShort() & 0xFFFF);
+        }
+
+        @Nonnull
+        private String readString() throws IOException {
+            final int length = readShort() & 0xFFFF;
+            require(length);
+            // the packer writes ASCII, which decodes like Latin-1 without any check per byte
+            final String value = new String(data, position, length, StandardCharsets.ISO_8859_1);
+            position += length;
+            return value;
+        }
+
+        private void require(int length) throws IOException {
+            if (position + length > data.length) {
+                throw new IOException("Truncated cipher suite resource " + RESOURCE);
+            }
+        }
+    }
+}
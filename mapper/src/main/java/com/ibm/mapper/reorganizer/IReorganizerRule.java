@@ -53,6 +53,16 @@ public interface IReorganizerRule {
     @Nonnull
     Class<? extends INode> getNodeKind();
 
+    /**
+     * Returns if matching the rule can read more than the subtree of the matched node, i.e. the
+     * parent of the node or the root nodes of the translation tree.
+     *
+     * @return {@code true} if the rule, or one of its child rules, reads the parent or the roots
+     */
+    default boolean readsParentOrRoots() {
+        return true;
+    }
+
     /*
      * Builder pattern:
      *  - `[...]` represents optional builder statements
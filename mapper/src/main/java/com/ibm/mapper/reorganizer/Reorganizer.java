@@ -19,147 +19,263 @@
  */
 package com.ibm.mapper.reorganizer;
 
+import com.ibm.engine.utils.ScanMetrics;
+import com.ibm.engine.utils.Tracer;
 import com.ibm.mapper.model.INode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
+import java.util.Set;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import org.apache.commons.lang3.tuple.Pair;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Applies reorganizer rules to a translation tree until no rule matches.
+ *
+ * <p>The nodes to check are kept in a worklist. At the start, every node of the tree is on it, in
+ * BFS order. After a rule was applied, only the nodes the application changed are checked again:
+ * the node the rule matched, its children and its parent, the nodes that were added, moved or lost
+ * a child, and the ancestors of all of them, since a rule matches a node against its subtree. A
+ * detection condition of a rule (see {@link IFunctionDetectionCondition}) can also read the parent
+ * of a node and the root nodes, so the rules with a detection condition (see {@link
+ * IReorganizerRule#readsParentOrRoots()}) are checked again on the whole tree after each
+ * application.
+ *
+ * <p>The rules are indexed by node kind once, so a reorganizer is created once per rule list and
+ * can be shared: the state of a reorganization is local to {@link #reorganize(List)}.
+ */
 public final class Reorganizer implements IReorganizer {
     private static final Logger LOGGER = LoggerFactory.getLogger(Reorganizer.class);
 
-    // Maximum number of reorganization steps (to prevent infinite loops)
-    private static final int MAX_ITERATIONS = 10;
+    /*
+     * Maximum number of rule applications (to prevent infinite loops). This is the bound the
+     * former recursive implementation had with its limit of 10 nested restarts.
+     */
+    private static final int MAX_APPLICATIONS = (1 << 10) - 1;
+
+    @Nonnull private final Map<Class<? extends INode>, List<IReorganizerRule>> rulesByNodeKind;
 
-    private final List<IReorganizerRule> rules;
-    private final Map<INode, IReorganizerRule> alreadyAppliedRules;
+    /* the rules of each kind that read the parent of a node or the root nodes */
+    @Nonnull
+    private final Map<Class<? extends INode>, List<IReorganizerRule>> contextRulesByNodeKind;
 
     public Reorganizer(@Nonnull List<IReorganizerRule> rules) {
-        this.rules = rules;
-        this.alreadyAppliedRules = new HashMap<>();
+        this.rulesByNodeKind = new HashMap<>();
+        this.contextRulesByNodeKind = new HashMap<>();
+        for (IReorganizerRule rule : rules) {
+            // keeps the order of the rules for each kind
+            this.rulesByNodeKind
+                    .computeIfAbsent(rule.getNodeKind(), k -> new ArrayList<>())
+                    .add(rule);
+            if (rule.readsParentOrRoots()) {
+                this.contextRulesByNodeKind
+                        .computeIfAbsent(rule.getNodeKind(), k -> new ArrayList<>())
+                        .add(rule);
+            }
+        }
     }
 
     @Override
     @Nonnull
     public List<INode> reorganize(@Nonnull final List<INode> rootNodes) {
-        final List<INode> reorganizedNodes = this.reorganize(rootNodes, 0);
-        this.alreadyAppliedRules.forEach(
-                (node, rule) -> {
-                    String message =
-                            String.format(
-                                    "[reorganizer] MATCH: Node '%s' & Rule %s",
-                                    node.asString(), rule.asString());
-                    LOGGER.debug(message);
-                });
-        return reorganizedNodes;
+        final boolean collectMetrics = ScanMetrics.isEnabled();
+        final long start = collectMetrics ? System.nanoTime() : 0L;
+        final Reorganization reorganization = new Reorganization(rootNodes);
+        reorganization.run();
+        if (collectMetrics) {
+            ScanMetrics.count("reorganizer", "runs");
+            ScanMetrics.count("reorganizer", "visits", reorganization.visits);
+            ScanMetrics.count("reorganizer", "applications", reorganization.applications);
+            ScanMetrics.addTime("reorganizer", "reorganize", System.nanoTime() - start);
+        }
+        if (LOGGER.isDebugEnabled()) {
+            reorganization.alreadyAppliedRules.forEach(
+                    (node, rule) ->
+                            Tracer.debug(
+                                    LOGGER,
+                                    "[reorganizer] MATCH: Node '{}' & Rule {}",
+                                    node::asString,
+                                    rule::asString));
+        }
+        return reorganization.roots;
     }
 
-    @Nonnull
-    private List<INode> reorganize(@Nonnull final List<INode> rootNodes, int iterations) {
-        /*
-         * Idea: We iterate on all nodes of the tree with a BFS (done by `reorganizeRecursive`),
-         * and we check for each node if it matches with a reorganization rule (in `applyReorganizerRules`).
-         * If it matches, we apply the reorganization and return the updated list of root nodes of the
-         * translation tree. We stop the BFS and start the process again by iterating on all nodes of
-         * starting from the new roots.
-         * This process ends once no reorganization rule matches with the current translation tree. When
-         * this is the case, `reorganizeRecursive` returns an empty Optional, which is our condition to
-         * stop the while loop defined in `reorganize`.
-         */
-        List<INode> lastRootNodes = rootNodes;
-        Optional<List<INode>> newRootNodes = Optional.of(rootNodes);
-        while (newRootNodes.isPresent() && iterations < MAX_ITERATIONS) {
-            lastRootNodes = newRootNodes.get();
-            newRootNodes =
-                    reorganizeRecursive(
-                            lastRootNodes.stream()
-                                    .map(childNode -> Pair.<INode, INode>of(childNode, null))
-                                    .toList(),
-                            lastRootNodes,
-                            iterations);
-            iterations += 1;
+    /** The state of one reorganization of a translation tree. */
+    private final class Reorganization {
+        @Nonnull private List<INode> roots;
+        @Nonnull private TreeIndex index;
+
+        /* nodes to check against all rules of their kind */
+        @Nonnull private final Deque<INode> worklist = new ArrayDeque<>();
+
+        @Nonnull
+        private final Set<INode> queued = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /* nodes to check against the rules that read the parent or the roots */
+        @Nonnull private Deque<INode> contextChecks = new ArrayDeque<>();
+
+        @Nonnull private final Map<INode, IReorganizerRule> alreadyAppliedRules = new HashMap<>();
+        private int applications = 0;
+        private int visits = 0;
+
+        private Reorganization(@Nonnull List<INode> roots) {
+            this.roots = roots;
+            this.index = TreeIndex.of(roots);
+            this.index.nodes().forEach(this::enqueue);
         }
-        if (iterations == MAX_ITERATIONS) {
-            return lastRootNodes;
+
+        private void run() {
+            while (applications < MAX_APPLICATIONS) {
+                final INode node;
+                final Map<Class<? extends INode>, List<IReorganizerRule>> rules;
+                if (!worklist.isEmpty()) {
+                    node = worklist.poll();
+                    queued.remove(node);
+                    rules = rulesByNodeKind;
+                } else if (!contextChecks.isEmpty()) {
+                    node = contextChecks.poll();
+                    rules = contextRulesByNodeKind;
+                } else {
+                    return;
+                }
+                if (!index.contains(node)) {
+                    // the node was removed from the tree by an earlier application
+                    continue;
+                }
+                visits++;
+                applyFirstMatchingRule(
+                        node, rules.getOrDefault(node.getKind(), Collections.emptyList()));
+            }
         }
-        return lastRootNodes;
-    }
 
-    /**
-     * Check the given nodes for a match with reorganizer rules, and apply the reorganization of the
-     * first match. If no match happens, recursively continue with the children of all the nodes.
-     *
-     * @param currentNodeParentPairs - Pairs of nodes with their parent node (if a node is a root
-     *     node, its parent is {@code null})
-     * @param rootNodes - Root nodes of the translation tree
-     * @return Optional containing the new root nodes of the translation tree if a reorganization
-     *     has occured, empty Optional otherwise
-     */
-    @Nonnull
-    private Optional<List<INode>> reorganizeRecursive(
-            @Nonnull final List<Pair<INode, INode>> currentNodeParentPairs,
-            @Nonnull final List<INode> rootNodes,
-            int iterations) {
-        List<Pair<INode, INode>> nextPairs = new LinkedList<>();
-        for (Pair<INode, INode> pair : currentNodeParentPairs) {
-            final INode node = pair.getLeft();
-            final INode parent = pair.getRight();
-            final Optional<List<INode>> optionalUpdatedRootNodes =
-                    applyReorganizerRules(node, parent, rootNodes, iterations);
-            if (optionalUpdatedRootNodes.isPresent()) {
-                return optionalUpdatedRootNodes;
+        /**
+         * Check if {@code node} matches with any of the {@code candidates}, and apply the
+         * reorganization of the first match.
+         *
+         * @param node - the current node
+         * @param candidates - the rules of the kind of {@code node} to check
+         */
+        private void applyFirstMatchingRule(
+                @Nonnull INode node, @Nonnull List<IReorganizerRule> candidates) {
+            @Nullable final INode parent = index.parents().get(node);
+            for (IReorganizerRule reorganizerRule : candidates) {
+                if (reorganizerRule.equals(this.alreadyAppliedRules.get(node))) {
+                    continue;
+                }
+                if (reorganizerRule.match(node, parent, roots)) {
+                    this.alreadyAppliedRules.put(node, reorganizerRule);
+                    @Nullable final List<INode> newRootNodes =
+                            reorganizerRule.applyReorganization(node, parent, roots);
+                    roots = Objects.requireNonNullElse(newRootNodes, roots);
+                    applications++;
+                    onApplication(node, parent);
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Queues the nodes an application changed, and the nodes of the kinds of the rules that
+         * read the parent or the roots.
+         *
+         * @param node - the node the applied rule matched
+         * @param parent - the parent of {@code node} before the application
+         */
+        private void onApplication(@Nonnull INode node, @Nullable INode parent) {
+            final TreeIndex previous = index;
+            index = TreeIndex.of(roots);
+
+            final List<INode> changed = new ArrayList<>();
+            changed.add(node);
+            if (parent != null) {
+                changed.add(parent);
+            }
+            for (INode current : index.nodes()) {
+                if (!previous.contains(current)
+                        || previous.parents().get(current) != index.parents().get(current)) {
+                    // added or moved
+                    changed.add(current);
+                }
+            }
+            for (INode former : previous.nodes()) {
+                if (!index.contains(former)) {
+                    // removed, the former parent lost a child
+                    @Nullable final INode formerParent = previous.parents().get(former);
+                    if (formerParent != null) {
+                        changed.add(formerParent);
+                    }
+                }
+            }
+
+            if (index.contains(node)) {
+                node.getChildren().values().forEach(this::enqueue);
+            }
+            for (INode current : changed) {
+                // a rule matches a node against its subtree, so the ancestors are checked again
+                for (INode ancestor = current;
+                        ancestor != null && index.contains(ancestor);
+                        ancestor = index.parents().get(ancestor)) {
+                    enqueue(ancestor);
+                }
+            }
+
+            contextChecks = new ArrayDeque<>();
+            if (!contextRulesByNodeKind.isEmpty()) {
+                for (INode current : index.nodes()) {
+                    if (contextRulesByNodeKind.containsKey(current.getKind())) {
+                        contextChecks.add(current);
+                    }
+                }
             }
-            nextPairs.addAll(
-                    node.getChildren().values().stream()
-                            .map(childNode -> Pair.of(childNode, node))
-                            .toList());
         }
-        if (nextPairs.isEmpty()) {
-            return Optional.empty();
+
+        private void enqueue(@Nonnull INode node) {
+            if (queued.add(node)) {
+                worklist.add(node);
+            }
         }
-        return reorganizeRecursive(nextPairs, rootNodes, iterations);
     }
 
     /**
-     * Check if {@code node} matches with any reorganization rule, and apply the reorganization of
-     * the first match.
-     *
-     * @param node - the current node
-     * @param parent - Parent of {@code node}, or {@code null} if {@code node} is a root node
-     * @param rootNodes - Root nodes of the translation tree
-     * @return Optional containing the new root nodes of the translation tree if a reorganization
-     *     has occured, empty Optional otherwise
+     * The nodes of a translation tree in BFS order, and the parent of each node ({@code null} for
+     * the root nodes). Nodes are identified by identity, since equal nodes can occur at several
+     * places of the tree.
      */
-    @Nonnull
-    private Optional<List<INode>> applyReorganizerRules(
-            @Nonnull INode node,
-            @Nonnull INode parent,
-            @Nonnull final List<INode> rootNodes,
-            int iterations) {
-        for (IReorganizerRule reorganizerRule : this.rules) {
-            if (this.alreadyAppliedRules.containsKey(node)
-                    && this.alreadyAppliedRules.get(node).equals(reorganizerRule)) {
-                continue;
+    private record TreeIndex(@Nonnull List<INode> nodes, @Nonnull Map<INode, INode> parents) {
+        @Nonnull
+        static TreeIndex of(@Nonnull List<INode> rootNodes) {
+            final List<INode> nodes = new ArrayList<>();
+            final Map<INode, INode> parents = new IdentityHashMap<>();
+            final Deque<INode> queue = new ArrayDeque<>();
+            for (INode rootNode : rootNodes) {
+                if (!parents.containsKey(rootNode)) {
+                    parents.put(rootNode, null);
+                    queue.add(rootNode);
+                }
             }
-            if (reorganizerRule.match(node, parent, rootNodes)) {
-                this.alreadyAppliedRules.put(node, reorganizerRule);
-                @Nullable final List<INode> newRootNodes =
-                        reorganizerRule.applyReorganization(node, parent, rootNodes);
-                // the recursion helps to apply reorganizer rules based on the result of the
-                // previous
-                return Optional.of(
-                        this.reorganize(
-                                Objects.requireNonNullElse(newRootNodes, rootNodes),
-                                iterations + 1));
+            while (!queue.isEmpty()) {
+                final INode current = queue.poll();
+                nodes.add(current);
+                for (INode child : current.getChildren().values()) {
+                    if (!parents.containsKey(child)) {
+                        parents.put(child, current);
+                        queue.add(child);
+                    }
+                }
             }
+            return new TreeIndex(nodes, parents);
+        }
+
+        boolean contains(@Nonnull INode node) {
+            return parents.containsKey(node);
         }
-        return Optional.empty();
     }
 }
@@ -92,4 +92,11 @@ public record ReorganizerRule(
     public Class<? extends INode> getNodeKind() {
         return kind;
     }
+
+    @Override
+    public boolean readsParentOrRoots() {
+        // only the detection condition gets the parent and the roots
+        return detectionConditionFunction != null
+                || children.stream().anyMatch(IReorganizerRule::readsParentOrRoots);
+    }
 }
@@ -19,6 +19,9 @@
  */
 package com.ibm.mapper.utils;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.ibm.engine.utils.Tracer;
 import com.ibm.mapper.ITranslator;
 import com.ibm.mapper.model.Algorithm;
 import com.ibm.mapper.model.INode;
@@ -42,7 +45,19 @@ public final class Utils {
     }
 
     public static void printNodeTree(@Nonnull final String step, @Nonnull List<INode> rootNodes) {
-        printNodes(step, 0, rootNodes);
+        if (LOGGER.isDebugEnabled()) {
+            printNodes(step, 0, rootNodes);
+        }
+        if (Tracer.isStructuredTraceEnabled()) {
+            Tracer.trace(
+                    "node-tree",
+                    () -> {
+                        final JsonObject json = new JsonObject();
+                        json.addProperty("step", step.trim());
+                        json.add("nodes", nodesToJson(rootNodes));
+                        return json;
+                    });
+        }
     }
 
     private static void printNodes(
@@ -67,6 +82,26 @@ public final class Utils {
                 });
     }
 
+    @Nonnull
+    private static JsonArray nodesToJson(@Nonnull Collection<INode> nodes) {
+        final JsonArray json = new JsonArray();
+        nodes.forEach(
+                node -> {
+                    final JsonObject jsonNode = new JsonObject();
+                    jsonNode.addProperty("kind", node.getKind().getSimpleName());
+                    jsonNode.addProperty("value", node.asString());
+                    if (node.hasChildren()) {
+                        jsonNode.add("children", nodesToJson(node.getChildren().values()));
+                    }
+                    if (node instanceof IAssetCollection<?>) {
+                        IAssetCollection<INode> collection = (IAssetCollection<INode>) node;
+                        jsonNode.add("collection", nodesToJson(collection.getCollection()));
+                    }
+                    json.add(jsonNode);
+                });
+        return json;
+    }
+
     @Nonnull
     public static String addChar(@Nonnull String str, char ch, int position) {
         return str.substring(0, position) + ch + str.substring(position);
@@ -21,6 +21,7 @@ package com.ibm.mapper.mapper.ssl;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
+import com.ibm.mapper.mapper.ssl.json.JsonCipherSuite;
 import com.ibm.mapper.model.CipherSuite;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.model.Identifier;
@@ -33,7 +34,7 @@ import com.ibm.mapper.utils.DetectionLocation;
 import com.ibm.mapper.utils.Utils;
 import java.util.List;
 import java.util.Optional;
-import org.junit.Test;
+import org.junit.jupiter.api.Test;
 
 public class CipherSuiteMapperTest {
 
@@ -75,5 +76,10 @@ public class CipherSuiteMapperTest {
                 .isPresent();
         assertThat(CipherSuiteMapper.findCipherSuite("TLS_DHE_DSS_AES_256_CBC_SHA256")).isPresent();
         assertThat(CipherSuiteMapper.findCipherSuite("DHE-DSS-AES256-SHA256")).isPresent();
+        assertThat(CipherSuiteMapper.findCipherSuite("0x00,0x6A"))
+                .map(JsonCipherSuite::getIanaName)
+                .contains("TLS_DHE_DSS_WITH_AES_256_CBC_SHA256");
+        assertThat(CipherSuiteMapper.findCipherSuite("0x00, 0x6a")).isPresent();
+        assertThat(CipherSuiteMapper.findCipherSuite("TLS_UNKNOWN")).isEmpty();
     }
 }
@@ -22,7 +22,7 @@ package com.ibm.mapper.mapper.ssl;
 import static org.assertj.core.api.Assertions.assertThat;
 
 import com.ibm.mapper.mapper.ssl.json.JsonCipherSuite;
-import com.ibm.mapper.mapper.ssl.json.JsonCipherSuites;
+import com.ibm.mapper.mapper.ssl.json.JsonCipherSuiteLoader;
 import com.ibm.mapper.utils.DetectionLocation;
 import java.util.Collection;
 import java.util.List;
@@ -40,7 +40,7 @@ public class EncryptionAlgorithmMapperTest {
 
         final EncryptionAlgorithmMapper mapper = new EncryptionAlgorithmMapper();
         final Collection<String> encCollection =
-                JsonCipherSuites.CIPHER_SUITES.values().stream()
+                JsonCipherSuiteLoader.load().stream()
                         .map(JsonCipherSuite::getEncAlgorithm)
                         .filter(Optional::isPresent)
                         .map(Optional::get)
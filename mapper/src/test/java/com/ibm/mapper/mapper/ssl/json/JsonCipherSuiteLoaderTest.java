@@ -0,0 +1,74 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.mapper.mapper.ssl.json;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class JsonCipherSuiteLoaderTest {
+
+    @Test
+    void loadsCatalogue() {
+        final List<JsonCipherSuite> cipherSuites = JsonCipherSuiteLoader.load();
+        assertThat(cipherSuites).hasSize(348);
+
+        final JsonCipherSuite cipherSuite =
+                cipherSuites.stream()
+                        .filter(c -> c.getIanaName().equals("TLS_AES_128_CCM_SHA256"))
+                        .findFirst()
+                        .orElseThrow();
+        assertThat(cipherSuite.getGnutlsName()).isEmpty();
+        assertThat(cipherSuite.getOpensslName()).contains("TLS_AES_128_CCM_SHA256");
+        assertThat(cipherSuite.getIdentifiers())
+                .hasValueSatisfying(ids -> assertThat(ids).containsExactly("0x13", "0x04"));
+        assertThat(cipherSuite.getKexAlgorithm()).isEmpty();
+        assertThat(cipherSuite.getAuthAlgorithm()).isEmpty();
+        assertThat(cipherSuite.getEncAlgorithm()).contains("AES 128 CCM");
+        assertThat(cipherSuite.getHashAlgorithm()).contains("SHA256");
+    }
+
+    @Test
+    void sharesRepeatedValues() {
+        final List<JsonCipherSuite> cipherSuites = JsonCipherSuiteLoader.load();
+        final String first = cipherSuites.get(0).getHashAlgorithm().orElseThrow();
+        final String second = cipherSuites.get(1).getHashAlgorithm().orElseThrow();
+        assertThat(second).isEqualTo(first).isSameAs(first);
+    }
+
+    @Test
+    void rejectsTruncatedResource() throws IOException {
+        final byte[] data;
+        try (InputStream resource =
+                JsonCipherSuiteLoader.class.getResourceAsStream(JsonCipherSuiteLoader.RESOURCE)) {
+            assertThat(resource).isNotNull();
+            data = resource.readAllBytes();
+        }
+        assertThat(JsonCipherSuiteLoader.read(data)).hasSize(348);
+        assertThatThrownBy(() -> JsonCipherSuiteLoader.read(Arrays.copyOf(data, data.length - 1)))
+                .isInstanceOf(IOException.class)
+                .hasMessageContaining("Truncated");
+    }
+}
@@ -20,6 +20,7 @@
 package com.ibm.output;
 
 import com.ibm.mapper.model.INode;
+import com.ibm.output.cyclondx.RecordedComponents;
 import java.io.File;
 import java.util.List;
 import javax.annotation.Nonnull;
@@ -27,5 +28,7 @@ import javax.annotation.Nonnull;
 public interface IOutputFile {
     void add(@Nonnull List<INode> nodes);
 
+    void add(@Nonnull RecordedComponents recordedComponents);
+
     void saveTo(@Nonnull File file);
 }
@@ -0,0 +1,173 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.output;
+
+import com.ibm.mapper.model.INode;
+import com.ibm.output.cyclondx.RecordedComponents;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
+import javax.annotation.Nonnull;
+
+/**
+ * Collects detected nodes from concurrently running sensors or file scans. Every thread appends to
+ * its own shard, the shards are only merged when the nodes are read. The number of nodes, in total
+ * and per kind, is counted while nodes are added, so statistics do not require a pass over all
+ * nodes.
+ *
+ * <p>Nodes added by the same thread keep their order. Across threads, the nodes are grouped by the
+ * shard they were added to.
+ *
+ * <p>The components recorded for the nodes of a cached finding (see {@link RecordedComponents}) are
+ * kept at the position the nodes would have had, and are counted like these nodes. They are only
+ * part of the output file (see {@link #addTo(IOutputFile)}), not of {@link #getNodes()}.
+ */
+public final class ShardedNodeAggregator {
+    @Nonnull private final Queue<Shard> shards = new ConcurrentLinkedQueue<>();
+    @Nonnull private final ThreadLocal<Shard> localShard = ThreadLocal.withInitial(this::newShard);
+    @Nonnull private final LongAdder numberOfNodes = new LongAdder();
+
+    @Nonnull
+    private final Map<Class<? extends INode>, LongAdder> numberOfNodesPerKind =
+            new ConcurrentHashMap<>();
+
+    public void add(@Nonnull List<INode> nodes) {
+        if (nodes.isEmpty()) {
+            return;
+        }
+        localShard.get().add(nodes);
+        numberOfNodes.add(nodes.size());
+        for (INode node : nodes) {
+            numberOfNodesPerKind
+                    .computeIfAbsent(node.getKind(), kind -> new LongAdder())
+                    .increment();
+        }
+    }
+
+    /**
+     * Adds the recorded components of a cached finding to the shard of the calling thread, in place
+     * of the nodes of the finding.
+     *
+     * @param recordedComponents the recorded components
+     */
+    public void add(@Nonnull RecordedComponents recordedComponents) {
+        localShard.get().add(recordedComponents);
+        numberOfNodes.add(recordedComponents.getKinds().size());
+        for (Class<? extends INode> kind : recordedComponents.getKinds()) {
+            numberOfNodesPerKind.computeIfAbsent(kind, k -> new LongAdder()).increment();
+        }
+    }
+
+    /**
+     * Adds the nodes and the recorded components to an output file, in the order they were added.
+     *
+     * @param outputFile the output file
+     */
+    public void addTo(@Nonnull IOutputFile outputFile) {
+        for (Shard shard : shards) {
+            shard.addTo(outputFile);
+        }
+    }
+
+    /**
+     * Returns a snapshot of all nodes added so far.
+     *
+     * @return the merged nodes of all shards
+     */
+    @Nonnull
+    public List<INode> getNodes() {
+        final List<INode> nodes = new ArrayList<>(size());
+        for (Shard shard : shards) {
+            shard.copyTo(nodes);
+        }
+        return Collections.unmodifiableList(nodes);
+    }
+
+    public int size() {
+        return numberOfNodes.intValue();
+    }
+
+    public boolean isEmpty() {
+        return numberOfNodes.sum() == 0;
+    }
+
+    /**
+     * Returns a snapshot of the number of added nodes per kind.
+     *
+     * @return the number of nodes per kind
+     */
+    @Nonnull
+    public Map<Class<? extends INode>, Long> getNumberOfNodesPerKind() {
+        final Map<Class<? extends INode>, Long> counts = new HashMap<>();
+        numberOfNodesPerKind.forEach((kind, count) -> counts.put(kind, count.sum()));
+        return counts;
+    }
+
+    @Nonnull
+    private Shard newShard() {
+        final Shard shard = new Shard();
+        shards.add(shard);
+        return shard;
+    }
+
+    private static final class Shard {
+        @Nonnull private final List<INode> nodes = new ArrayList<>();
+
+        /*
+         * recorded components, with the number of nodes added before them
+         */
+        @Nonnull private final List<RecordedComponents> recordedComponents = new ArrayList<>();
+        @Nonnull private final List<Integer> recordedPositions = new ArrayList<>();
+
+        synchronized void add(@Nonnull List<INode> newNodes) {
+            nodes.addAll(newNodes);
+        }
+
+        synchronized void add(@Nonnull RecordedComponents components) {
+            recordedComponents.add(components);
+            recordedPositions.add(nodes.size());
+        }
+
+        synchronized void addTo(@Nonnull IOutputFile outputFile) {
+            int position = 0;
+            for (int i = 0; i < recordedComponents.size(); i++) {
+                final int recordedPosition = recordedPositions.get(i);
+                if (recordedPosition > position) {
+                    outputFile.add(nodes.subList(position, recordedPosition));
+                    position = recordedPosition;
+                }
+                outputFile.add(recordedComponents.get(i));
+            }
+            if (position < nodes.size()) {
+                outputFile.add(nodes.subList(position, nodes.size()));
+            }
+        }
+
+        synchronized void copyTo(@Nonnull List<INode> target) {
+            target.addAll(nodes);
+        }
+    }
+}
@@ -0,0 +1,569 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.output.cache;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.ibm.engine.utils.ScanMetrics;
+import com.ibm.mapper.model.INode;
+import com.ibm.output.cyclondx.RecordedComponents;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.CodeSource;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache of the findings of each file, for incremental scans.
+ *
+ * <p>The cache is enabled by {@link #setEnabled(boolean)}, and is a gzipped JSON file in the
+ * directory set by {@link #setDirectory(Path)}. The plugin sets both from the scanner settings. The
+ * {@code .scannerwork} directory is not used since the scanner cleans it before each analysis.
+ *
+ * <p>A finding is cached as the issues each check reported on it, and as the CBOM components of its
+ * translated nodes (see {@link RecordedComponents}), so a file served from the cache gives the same
+ * issues and CBOM without its nodes. The checks that scanned the file are cached as well, since the
+ * issues of other checks are not known.
+ *
+ * <p>The cache is only valid for the plugin version and the fingerprint of the detection rules it
+ * was written with; otherwise it is dropped as a whole. A file is served from the cache if
+ *
+ * <ul>
+ *   <li>its content hash is the one it had when it was cached,
+ *   <li>it was cacheable, i.e. its findings did not depend on another file through a hook,
+ *   <li>the checks scanning it now all scanned it when it was cached, and
+ *   <li>none of the files declaring the types it references changed, directly or through the types
+ *       they reference themselves.
+ * </ul>
+ *
+ * <p>Files are identified by their URI. An issue is cached with the position of the tree it was
+ * reported on, which the language module locates again in the parsed file.
+ */
+public final class FindingsCache {
+    private static final Logger LOGGER = LoggerFactory.getLogger(FindingsCache.class);
+    private static final String CACHE_FILE_NAME = "findings.json.gz";
+    private static final int VERSION = 2;
+
+    private static volatile boolean enabled = false;
+    @Nullable private static volatile Path directory;
+
+    @Nonnull private final Path file;
+    @Nonnull private final String pluginVersion;
+    @Nonnull private final String rulesFingerprint;
+
+    /*
+     * entries of the cache file, and the files declaring the types of these entries
+     */
+    @Nonnull private final Map<String, JsonObject> previousEntries;
+    @Nonnull private final Map<String, String> previousDeclaringFiles = new HashMap<>();
+    @Nullable private Set<String> invalidatedFiles;
+
+    /*
+     * entries of the cache file to write: entries taken over from the previous cache and records
+     * of the scanned files
+     */
+    @Nonnull private final Map<String, Object> entries = new LinkedHashMap<>();
+    @Nonnull private final Map<String, Optional<String>> hashes = new HashMap<>();
+
+    private FindingsCache(
+            @Nonnull Path file,
+            @Nonnull String pluginVersion,
+            @Nonnull String rulesFingerprint,
+            @Nonnull Map<String, JsonObject> previousEntries) {
+        this.file = file;
+        this.pluginVersion = pluginVersion;
+        this.rulesFingerprint = rulesFingerprint;
+        this.previousEntries = previousEntries;
+        previousEntries.forEach(
+                (fileKey, entry) ->
+                        strings(entry, "declares")
+                                .forEach(type -> previousDeclaringFiles.put(type, fileKey)));
+    }
+
+    /**
+     * Returns if incremental scans are enabled.
+     *
+     * @return {@code true} if the findings cache is used
+     */
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Enables or disables incremental scans. Applies to the scans started afterwards.
+     *
+     * @param enabled {@code true} to use the findings cache
+     */
+    public static void setEnabled(boolean enabled) {
+        FindingsCache.enabled = enabled;
+    }
+
+    /**
+     * Sets the directory of the cache file.
+     *
+     * @param directory the cache directory, or {@code null} if none is configured
+     */
+    public static void setDirectory(@Nullable Path directory) {
+        FindingsCache.directory = directory;
+    }
+
+    /**
+     * Returns the path of the cache file.
+     *
+     * @return the cache file in the configured directory, or empty if no directory is configured
+     */
+    @Nonnull
+    public static Optional<Path> location() {
+        return Optional.ofNullable(directory).map(path -> path.resolve(CACHE_FILE_NAME));
+    }
+
+    /**
+     * Returns the version of the code of a class: the implementation version of its package, and
+     * the size and modification time of the jar it was loaded from, so that a rebuilt plugin does
+     * not use the findings of the previous build.
+     *
+     * @param anchor a class of the plugin
+     * @return the version of the plugin
+     */
+    @Nonnull
+    public static String versionOf(@Nonnull Class<?> anchor) {
+        final String implementationVersion = anchor.getPackage().getImplementationVersion();
+        final StringBuilder version =
+                new StringBuilder(
+                        implementationVersion == null ? "unknown" : implementationVersion);
+        try {
+            final CodeSource codeSource = anchor.getProtectionDomain().getCodeSource();
+            final URL location = codeSource == null ? null : codeSource.getLocation();
+            if (location != null) {
+                final Path jar = Path.of(location.toURI());
+                version.append('/')
+                        .append(Files.size(jar))
+                        .append('/')
+                        .append(Files.getLastModifiedTime(jar).toMillis());
+            }
+        } catch (Exception e) {
+            // the version alone
+        }
+        return version.toString();
+    }
+
+    /**
+     * Loads the cache file. A missing or unreadable file, or a file written by another plugin
+     * version or for other detection rules, gives an empty cache.
+     *
+     * @param file the cache file
+     * @param pluginVersion the version of the plugin, see {@link #versionOf(Class)}
+     * @param rulesFingerprint the fingerprint of the detection rules
+     * @return the cache
+     */
+    @Nonnull
+    public static FindingsCache load(
+            @Nonnull Path file, @Nonnull String pluginVersion, @Nonnull String rulesFingerprint) {
+        final Map<String, JsonObject> previousEntries = new LinkedHashMap<>();
+        try (InputStream input = new GZIPInputStream(Files.newInputStream(file));
+                Reader reader = new InputStreamReader(input, StandardCharsets.UTF_8)) {
+            final JsonObject root = JsonParser.parseReader(reader).getAsJsonObject();
+            if (root.get("version").getAsInt() == VERSION
+                    && pluginVersion.equals(root.get("pluginVersion").getAsString())
+                    && rulesFingerprint.equals(root.get("rules").getAsString())) {
+                root.getAsJsonObject("files")
+                        .entrySet()
+                        .forEach(
+                                entry ->
+                                        previousEntries.put(
+                                                entry.getKey(),
+                                                entry.getValue().getAsJsonObject()));
+            } else {
+                LOGGER.info("The findings cache '{}' is outdated and is not used.", file);
+            }
+        } catch (NoSuchFileException e) {
+            LOGGER.info("No findings cache at '{}', all files are scanned.", file);
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not read the findings cache '{}': {}", file, e.getMessage());
+            previousEntries.clear();
+        }
+        return new FindingsCache(file, pluginVersion, rulesFingerprint, previousEntries);
+    }
+
+    /**
+     * Returns the cached findings of a file, if it can be served from the cache for the given
+     * checks. The entry of the file is then taken over to the cache file written by {@link
+     * #save()}.
+     *
+     * @param fileKey the URI of the file
+     * @param checks the keys of the checks scanning the file
+     * @return the cached findings, or empty if the file has to be scanned
+     */
+    @Nonnull
+    public synchronized Optional<List<CachedFinding>> lookup(
+            @Nonnull String fileKey, @Nonnull Collection<String> checks) {
+        final JsonObject entry = previousEntries.get(fileKey);
+        if (entry == null
+                || !entry.get("cacheable").getAsBoolean()
+                || !strings(entry, "checks").containsAll(checks)
+                || invalidatedFiles().contains(fileKey)) {
+            return Optional.empty();
+        }
+        final List<CachedFinding> findings = new ArrayList<>();
+        try {
+            for (JsonElement element : entry.getAsJsonArray("findings")) {
+                final JsonObject finding = element.getAsJsonObject();
+                final Map<String, List<CachedIssue>> issues = new LinkedHashMap<>();
+                for (Map.Entry<String, JsonElement> checkIssues :
+                        finding.getAsJsonObject("issues").entrySet()) {
+                    final List<CachedIssue> decodedIssues = new ArrayList<>();
+                    for (JsonElement issue : checkIssues.getValue().getAsJsonArray()) {
+                        decodedIssues.add(
+                                new CachedIssue(
+                                        decodeMarker(
+                                                issue.getAsJsonObject().getAsJsonArray("marker")),
+                                        issue.getAsJsonObject().get("message").getAsString()));
+                    }
+                    issues.put(checkIssues.getKey(), decodedIssues);
+                }
+                findings.add(
+                        new CachedFinding(
+                                issues,
+                                RecordedComponents.fromJson(
+                                        finding.getAsJsonObject("components"))));
+            }
+        } catch (RuntimeException e) {
+            LOGGER.debug("Could not decode the cached findings of '{}': {}", fileKey, e);
+            return Optional.empty();
+        }
+        entries.put(fileKey, entry);
+        return Optional.of(findings);
+    }
+
+    /**
+     * Starts the record of a scanned file, replacing its previous entry. The record is written to
+     * the cache file by {@link #save()}.
+     *
+     * @param fileKey the URI of the file
+     * @return the record of the file
+     */
+    @Nonnull
+    public synchronized FileRecord record(@Nonnull String fileKey) {
+        final FileRecord fileRecord = new FileRecord();
+        entries.put(fileKey, fileRecord);
+        return fileRecord;
+    }
+
+    /**
+     * Writes the entries of the files served from the cache and of the recorded files to the cache
+     * file.
+     *
+     * @throws IOException if the cache file can not be written
+     */
+    public synchronized void save() throws IOException {
+        final JsonObject files = new JsonObject();
+        int cacheable = 0;
+        for (Map.Entry<String, Object> entry : entries.entrySet()) {
+            final JsonObject encoded =
+                    entry.getValue() instanceof FileRecord fileRecord
+                            ? encode(entry.getKey(), fileRecord)
+                            : (JsonObject) entry.getValue();
+            if (encoded == null) {
+                continue;
+            }
+            if (encoded.get("cacheable").getAsBoolean()) {
+                cacheable++;
+            }
+            files.add(entry.getKey(), encoded);
+        }
+        final JsonObject root = new JsonObject();
+        root.addProperty("version", VERSION);
+        root.addProperty("pluginVersion", pluginVersion);
+        root.addProperty("rules", rulesFingerprint);
+        root.add("files", files);
+
+        final Path directory = file.toAbsolutePath().getParent();
+        Files.createDirectories(directory);
+        final Path temporaryFile = Files.createTempFile(directory, CACHE_FILE_NAME, ".tmp");
+        try {
+            try (OutputStream output = new GZIPOutputStream(Files.newOutputStream(temporaryFile));
+                    Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8)) {
+                new Gson().toJson(root, writer);
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+        ScanMetrics.count("cache", "stored", cacheable);
+        LOGGER.info(
+                "Findings of {} of {} files were written to the findings cache '{}'.",
+                cacheable,
+                files.size(),
+                file);
+    }
+
+    @Nullable private JsonObject encode(@Nonnull String fileKey, @Nonnull FileRecord fileRecord) {
+        final Optional<String> hash = hashOf(fileKey);
+        if (hash.isEmpty()) {
+            return null;
+        }
+        final JsonObject encoded = new JsonObject();
+        encoded.addProperty("hash", hash.get());
+        encoded.add("declares", strings(fileRecord.declares));
+        encoded.add("references", strings(fileRecord.references));
+        encoded.add("checks", strings(fileRecord.checks));
+        encoded.addProperty("cacheable", fileRecord.cacheable);
+        encoded.add("findings", fileRecord.findings);
+        return encoded;
+    }
+
+    /**
+     * Returns the previously cached files that changed, or that reference a type declared by a
+     * changed file, directly or through other files. A file that can not be read any more counts as
+     * changed.
+     */
+    @Nonnull
+    private Set<String> invalidatedFiles() {
+        if (invalidatedFiles != null) {
+            return invalidatedFiles;
+        }
+        final Map<String, Set<String>> dependents = new HashMap<>();
+        final Deque<String> pending = new ArrayDeque<>();
+        previousEntries.forEach(
+                (fileKey, entry) -> {
+                    for (String type : strings(entry, "references")) {
+                        final String declaringFile = previousDeclaringFiles.get(type);
+                        if (declaringFile != null && !declaringFile.equals(fileKey)) {
+                            dependents
+                                    .computeIfAbsent(declaringFile, key -> new HashSet<>())
+                                    .add(fileKey);
+                        }
+                    }
+                    final JsonElement hash = entry.get("hash");
+                    if (hash == null || !hashOf(fileKey).equals(Optional.of(hash.getAsString()))) {
+                        pending.add(fileKey);
+                    }
+                });
+        final Set<String> invalidated = new HashSet<>(pending);
+        while (!pending.isEmpty()) {
+            for (String dependent : dependents.getOrDefault(pending.poll(), Set.of())) {
+                if (invalidated.add(dependent)) {
+                    pending.add(dependent);
+                }
+            }
+        }
+        this.invalidatedFiles = invalidated;
+        return invalidated;
+    }
+
+    /** Returns the SHA-256 hash of the content of a file, or empty if it can not be read. */
+    @Nonnull
+    private Optional<String> hashOf(@Nonnull String fileKey) {
+        return hashes.computeIfAbsent(
+                fileKey,
+                key -> {
+                    try {
+                        final byte[] content = Files.readAllBytes(Path.of(URI.create(key)));
+                        return Optional.of(
+                                HexFormat.of()
+                                        .formatHex(
+                                                MessageDigest.getInstance("SHA-256")
+                                                        .digest(content)));
+                    } catch (IOException | NoSuchAlgorithmException | RuntimeException e) {
+                        return Optional.empty();
+                    }
+                });
+    }
+
+    @Nonnull
+    private static Set<String> strings(@Nonnull JsonObject entry, @Nonnull String member) {
+        final Set<String> strings = new LinkedHashSet<>();
+        final JsonElement array = entry.get(member);
+        if (array != null && array.isJsonArray()) {
+            array.getAsJsonArray().forEach(element -> strings.add(element.getAsString()));
+        }
+        return strings;
+    }
+
+    @Nonnull
+    private static JsonArray strings(@Nonnull Collection<String> strings) {
+        final JsonArray array = new JsonArray(strings.size());
+        strings.forEach(string -> array.add(new JsonPrimitive(string)));
+        return array;
+    }
+
+    @Nonnull
+    private static JsonArray encodeMarker(@Nonnull Marker marker) {
+        final JsonArray encoded = new JsonArray(5);
+        encoded.add(marker.kind());
+        encoded.add(marker.firstLine());
+        encoded.add(marker.firstColumn());
+        encoded.add(marker.lastLine());
+        encoded.add(marker.lastColumn());
+        return encoded;
+    }
+
+    @Nonnull
+    private static Marker decodeMarker(@Nonnull JsonArray encoded) {
+        return new Marker(
+                encoded.get(0).getAsString(),
+                encoded.get(1).getAsInt(),
+                encoded.get(2).getAsInt(),
+                encoded.get(3).getAsInt(),
+                encoded.get(4).getAsInt());
+    }
+
+    /**
+     * The position of a tree in its file: the kind of the tree, and the line and column of its
+     * first and last token.
+     */
+    public record Marker(
+            @Nonnull String kind, int firstLine, int firstColumn, int lastLine, int lastColumn) {}
+
+    /** An issue reported by a check, at the position of the tree it was reported on. */
+    public record CachedIssue(@Nonnull Marker marker, @Nonnull String message) {}
+
+    /** A finding: the issues of each check on it, and the CBOM components of its nodes. */
+    public record CachedFinding(
+            @Nonnull Map<String, List<CachedIssue>> issues,
+            @Nonnull RecordedComponents components) {}
+
+    /**
+     * The record of a scanned file: the types it declares and references, the checks that scanned
+     * it, and its findings. The findings are encoded when they are added, and are only cached if
+     * the file stays cacheable until the cache is saved.
+     */
+    public static final class FileRecord {
+        @Nonnull private final Set<String> declares = new LinkedHashSet<>();
+        @Nonnull private final Set<String> references = new LinkedHashSet<>();
+        @Nonnull private final Set<String> checks = new LinkedHashSet<>();
+        @Nonnull private JsonArray findings = new JsonArray();
+        private boolean cacheable = true;
+
+        private FileRecord() {
+            // created by the cache
+        }
+
+        /**
+         * Adds the fully qualified names of the types declared by the file.
+         *
+         * @param types the declared types
+         */
+        public void addDeclaredTypes(@Nonnull Collection<String> types) {
+            declares.addAll(types);
+        }
+
+        /**
+         * Adds the fully qualified names of the types the file references.
+         *
+         * @param types the referenced types
+         */
+        public void addReferencedTypes(@Nonnull Collection<String> types) {
+            references.addAll(types);
+        }
+
+        /**
+         * Adds the keys of the checks scanning the file.
+         *
+         * @param checkKeys the keys of the checks
+         */
+        public void addChecks(@Nonnull Collection<String> checkKeys) {
+            checks.addAll(checkKeys);
+        }
+
+        /**
+         * Adds a finding of the file.
+         *
+         * @param issues the issues each check reported on the finding
+         * @param nodes the translated nodes of the finding
+         */
+        public void addFinding(
+                @Nonnull Map<String, List<CachedIssue>> issues, @Nonnull List<INode> nodes) {
+            if (!cacheable) {
+                return;
+            }
+            final JsonObject encodedIssues = new JsonObject();
+            issues.forEach(
+                    (check, checkIssues) -> {
+                        final JsonArray encodedCheckIssues = new JsonArray(checkIssues.size());
+                        for (CachedIssue issue : checkIssues) {
+                            final JsonObject encodedIssue = new JsonObject();
+                            encodedIssue.add("marker", encodeMarker(issue.marker()));
+                            encodedIssue.addProperty("message", issue.message());
+                            encodedCheckIssues.add(encodedIssue);
+                        }
+                        encodedIssues.add(check, encodedCheckIssues);
+                    });
+            final JsonObject finding = new JsonObject();
+            finding.add("issues", encodedIssues);
+            try {
+                finding.add("components", RecordedComponents.of(nodes).toJson());
+            } catch (IllegalArgumentException e) {
+                LOGGER.debug("Could not record the components of a finding: {}", e.getMessage());
+                markUncacheable();
+                return;
+            }
+            findings.add(finding);
+        }
+
+        /**
+         * Marks the findings of the file as depending on other files, e.g. because the file
+         * registered a hook. Only its hash and types are cached then.
+         */
+        public void markUncacheable() {
+            cacheable = false;
+            findings = new JsonArray();
+        }
+
+        public boolean isCacheable() {
+            return cacheable;
+        }
+    }
+}
@@ -62,29 +62,31 @@ import com.ibm.output.cyclondx.builder.AlgorithmComponentBuilder;
 import com.ibm.output.cyclondx.builder.ProtocolComponentBuilder;
 import com.ibm.output.cyclondx.builder.RelatedCryptoMaterialComponentBuilder;
 import com.ibm.output.util.Utils;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Properties;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
-import java.util.stream.Stream;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
-import org.apache.commons.io.FileUtils;
 import org.cyclonedx.Version;
-import org.cyclonedx.exception.GeneratorException;
-import org.cyclonedx.generators.BomGeneratorFactory;
-import org.cyclonedx.generators.json.BomJsonGenerator;
 import org.cyclonedx.model.Bom;
 import org.cyclonedx.model.Component;
 import org.cyclonedx.model.Dependency;
+import org.cyclonedx.model.Evidence;
 import org.cyclonedx.model.Metadata;
 import org.cyclonedx.model.OrganizationalEntity;
 import org.cyclonedx.model.Service;
@@ -95,14 +97,33 @@ import org.slf4j.LoggerFactory;
 
 public class CBOMOutputFile implements IOutputFile {
     private static final Logger LOGGER = LoggerFactory.getLogger(CBOMOutputFile.class);
-    private static final Version schema = Version.VERSION_16;
+    static final Version schema = Version.VERSION_16;
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
 
     @Nonnull private final Map<String, Component> components;
     @Nonnull private final Map<String, Dependency> dependencies;
+    @Nonnull private final Map<String, Set<OccurrenceKey>> occurrenceKeys;
+    @Nonnull private final Map<String, Set<String>> dependencyRefs;
+    @Nonnull private final Map<String, Integer> fileIds;
+    @Nonnull private final Map<String, Integer> contextIds;
+
+    /*
+     * the created components, if the output file records them (see RecordedComponents)
+     */
+    @Nullable private final List<RecordedComponents.Entry> recordedEntries;
 
     public CBOMOutputFile() {
+        this(null);
+    }
+
+    private CBOMOutputFile(@Nullable List<RecordedComponents.Entry> recordedEntries) {
+        this.recordedEntries = recordedEntries;
         this.components = new HashMap<>();
         this.dependencies = new HashMap<>();
+        this.occurrenceKeys = new HashMap<>();
+        this.dependencyRefs = new HashMap<>();
+        this.fileIds = new HashMap<>();
+        this.contextIds = new HashMap<>();
     }
 
     @Override
@@ -110,6 +131,67 @@ public class CBOMOutputFile implements IOutputFile {
         add(null, nodes);
     }
 
+    /**
+     * Adds the components recorded for the nodes of a finding, as if the nodes were added. The
+     * recorded bom-refs are replaced by the bom-refs of the components in this output file.
+     *
+     * @param recordedComponents the recorded components
+     * @throws IllegalArgumentException if the recorded components can not be read
+     */
+    @Override
+    public void add(@Nonnull RecordedComponents recordedComponents) {
+        final List<RecordedComponents.Entry> entries = recordedComponents.getEntries();
+        final List<Component> recorded =
+                ComponentJson.read(
+                        entries.stream().map(RecordedComponents.Entry::component).toList());
+        final Map<String, String> bomRefs = new HashMap<>();
+        for (int i = 0; i < entries.size(); i++) {
+            final RecordedComponents.Entry entry = entries.get(i);
+            final Component component = recorded.get(i);
+            replaceAlgorithmRefs(component, bomRefs);
+            final String recordedBomRef = component.getBomRef();
+            final String parentBomRef =
+                    entry.parentBomRef() == null
+                            ? null
+                            : bomRefs.getOrDefault(entry.parentBomRef(), entry.parentBomRef());
+            final Component added = addComponent(component, entry.componentId(), parentBomRef);
+            bomRefs.putIfAbsent(recordedBomRef, added.getBomRef());
+        }
+    }
+
+    /**
+     * Records the components created for the nodes, see {@link RecordedComponents}.
+     *
+     * @param nodes the nodes, which are reorganised while creating the components
+     * @return the recorded components, in the order they were created
+     */
+    @Nonnull
+    static List<RecordedComponents.Entry> record(@Nonnull List<INode> nodes) {
+        final List<RecordedComponents.Entry> entries = new ArrayList<>();
+        new CBOMOutputFile(entries).add(nodes);
+        return entries;
+    }
+
+    /** Replaces the recorded bom-refs of the algorithms of the cipher suites of a protocol. */
+    private static void replaceAlgorithmRefs(
+            @Nonnull Component component, @Nonnull Map<String, String> bomRefs) {
+        if (component.getCryptoProperties() == null
+                || component.getCryptoProperties().getProtocolProperties() == null
+                || component.getCryptoProperties().getProtocolProperties().getCipherSuites()
+                        == null) {
+            return;
+        }
+        for (org.cyclonedx.model.component.crypto.CipherSuite suite :
+                component.getCryptoProperties().getProtocolProperties().getCipherSuites()) {
+            if (suite.getAlgorithms() != null) {
+                suite.setAlgorithms(
+                        suite.getAlgorithms().stream()
+                                .map(ref -> bomRefs.getOrDefault(ref, ref))
+                                .toList());
+            }
+        }
+    }
+
     private void add(@Nullable final String parentBomRef, @Nonnull List<INode> nodes) {
         nodes.forEach(
                 node -> {
@@ -253,57 +335,133 @@ public class CBOMOutputFile implements IOutputFile {
             @Nonnull String componentId,
             @Nullable String parentBomRef,
             @Nonnull INode node) {
-        if (components.get(componentId) == null) {
-            this.components.putIfAbsent(componentId, component);
+        final Component componentIdentify = addComponent(component, componentId, parentBomRef);
+        if (node.hasChildren()) {
+            add(componentIdentify.getBomRef(), node.getChildren().values().stream().toList());
+        }
+    }
+
+    /**
+     * Adds a component, or its occurrences if a component with the same identifier was added
+     * before, and its dependency on the parent component.
+     *
+     * @return the component with the identifier in this output file
+     */
+    @Nonnull
+    private Component addComponent(
+            @Nonnull final Component component,
+            @Nonnull String componentId,
+            @Nullable String parentBomRef) {
+        if (this.recordedEntries != null) {
+            this.recordedEntries.add(
+                    new RecordedComponents.Entry(
+                            componentId, parentBomRef, ComponentJson.write(component)));
+        }
+        final Component existing = this.components.get(componentId);
+        if (existing == null) {
+            this.components.put(componentId, component);
+            final Set<OccurrenceKey> keys = new HashSet<>();
+            this.occurrenceKeys.put(componentId, keys);
+            final List<Occurrence> occurrences = occurrencesOf(component);
+            if (component.getEvidence() != null
+                    && component.getEvidence().getOccurrences() != null) {
+                component.getEvidence().setOccurrences(new ArrayList<>(occurrences.size()));
+            }
+            addOccurrences(component, keys, occurrences);
         } else {
-            this.components.computeIfPresent(
-                    componentId,
-                    (id, c) -> {
-                        final List<Occurrence> merge =
-                                Stream.concat(
-                                                c.getEvidence().getOccurrences().stream(),
-                                                component.getEvidence().getOccurrences().stream())
-                                        .filter(
-                                                com.ibm.output.cyclondx.builder.Utils.distinctByKey(
-                                                        o ->
-                                                                o.getLocation()
-                                                                        + " "
-                                                                        + o.getLine()
-                                                                        + " "
-                                                                        + o.getOffset()
-                                                                        + " "
-                                                                        + o.getAdditionalContext()
-                                                                        + " "))
-                                        .toList();
-                        c.getEvidence().setOccurrences(merge);
-                        return c;
-                    });
+            addOccurrences(
+                    existing, this.occurrenceKeys.get(componentId), occurrencesOf(component));
         }
 
         Component componentIdentify = this.components.get(componentId);
         if (parentBomRef != null) {
-            Dependency newDependency = new Dependency(componentIdentify.getBomRef());
-            if (dependencies.get(parentBomRef) == null) {
-                Dependency parent = new Dependency(parentBomRef);
-                parent.addDependency(newDependency);
-                this.dependencies.putIfAbsent(parentBomRef, parent);
-            } else {
-                this.dependencies.computeIfPresent(
-                        parentBomRef,
-                        (s, d) -> {
-                            d.addDependency(newDependency);
-                            return d;
-                        });
+            final Dependency parent =
+                    this.dependencies.computeIfAbsent(
+                            parentBomRef,
+                            ref -> {
+                                final Dependency dependency = new Dependency(ref);
+                                dependency.setDependencies(new ArrayList<>());
+                                return dependency;
+                            });
+            final Set<String> dependsOn =
+                    this.dependencyRefs.computeIfAbsent(parentBomRef, ref -> new HashSet<>());
+            if (dependsOn.add(componentIdentify.getBomRef())) {
+                parent.getDependencies().add(new Dependency(componentIdentify.getBomRef()));
             }
         }
+        return componentIdentify;
+    }
 
-        if (node.hasChildren()) {
-            add(componentIdentify.getBomRef(), node.getChildren().values().stream().toList());
+    /**
+     * Appends the occurrences to the evidence of the component, skipping those that are already
+     * part of it. The keys of the known occurrences are tracked per component, so adding an
+     * occurrence does not require a scan over the existing ones.
+     */
+    private void addOccurrences(
+            @Nonnull Component component,
+            @Nonnull Set<OccurrenceKey> keys,
+            @Nonnull List<Occurrence> occurrences) {
+        final Evidence evidence = component.getEvidence();
+        if (evidence == null || occurrences.isEmpty()) {
+            return;
+        }
+        if (evidence.getOccurrences() == null) {
+            evidence.setOccurrences(new ArrayList<>(occurrences.size()));
+        }
+        for (Occurrence occurrence : occurrences) {
+            if (keys.add(occurrenceKeyOf(occurrence))) {
+                evidence.getOccurrences().add(occurrence);
+            }
+        }
+    }
+
+    @Nonnull
+    private static List<Occurrence> occurrencesOf(@Nonnull Component component) {
+        final Evidence evidence = component.getEvidence();
+        if (evidence == null || evidence.getOccurrences() == null) {
+            return List.of();
         }
+        return evidence.getOccurrences();
     }
 
+    @Nonnull
+    private OccurrenceKey occurrenceKeyOf(@Nonnull Occurrence occurrence) {
+        return new OccurrenceKey(
+                idOf(fileIds, occurrence.getLocation()),
+                occurrence.getLine(),
+                occurrence.getOffset(),
+                idOf(contextIds, occurrence.getAdditionalContext()));
+    }
+
+    private static int idOf(@Nonnull Map<String, Integer> ids, @Nullable String value) {
+        if (value == null) {
+            return -1;
+        }
+        return ids.computeIfAbsent(value, v -> ids.size());
+    }
+
+    /**
+     * Identifies an occurrence of a component by its location. File paths and contexts are replaced
+     * by ids, which are shared by all components.
+     */
+    private record OccurrenceKey(
+            int fileId, @Nullable Integer line, @Nullable Integer offset, int contextId) {}
+
     @Nonnull
     public Bom getBom() {
+        final Bom bom = createHeader();
+        bom.setComponents(new ArrayList<>(this.components.values()));
+        bom.setDependencies(new ArrayList<>(this.dependencies.values()));
+        return bom;
+    }
+
+    /**
+     * Creates the BOM without its components and dependencies: serial number and metadata.
+     *
+     * @return the BOM header
+     */
+    @Nonnull
+    private Bom createHeader() {
         final Bom bom = new Bom();
         bom.setSerialNumber("urn:uuid:" + UUID.randomUUID());
         // add metadata
@@ -327,22 +485,34 @@ public class CBOMOutputFile implements IOutputFile {
         scannerInfo.setServices(List.of(scannerService));
         metadata.setToolChoice(scannerInfo);
         bom.setMetadata(metadata);
-        bom.setComponents(new ArrayList<>(this.components.values()));
-        bom.setDependencies(new ArrayList<>(this.dependencies.values()));
         return bom;
     }
 
     @Override
     public void saveTo(@Nonnull File file) {
-        final Bom bom = getBom();
-        final BomJsonGenerator bomGenerator = BomGeneratorFactory.createJson(schema, bom);
-        try {
-            final String bomString = bomGenerator.toJsonString();
-            FileUtils.write(file, bomString, StandardCharsets.UTF_8, false);
+        final File parent = file.getAbsoluteFile().getParentFile();
+        if (parent != null && !parent.isDirectory() && !parent.mkdirs()) {
+            LOGGER.error("Could not create directory for CBOM file: {}", parent);
+            return;
+        }
+        try (OutputStream outputStream =
+                new BufferedOutputStream(
+                        Channels.newOutputStream(
+                                FileChannel.open(
+                                        file.toPath(),
+                                        StandardOpenOption.CREATE,
+                                        StandardOpenOption.TRUNCATE_EXISTING,
+                                        StandardOpenOption.WRITE)),
+                        WRITE_BUFFER_SIZE)) {
+            // the components and dependencies are streamed from the maps, without a full Bom
+            new StreamingBomJsonGenerator(
+                            createHeader(),
+                            this.components.values(),
+                            this.dependencies.values(),
+                            schema)
+                    .writeTo(outputStream);
         } catch (IOException e) {
             LOGGER.error("Could not write CBOM file: {}", e.getMessage());
-        } catch (GeneratorException e) {
-            LOGGER.error("Could not generate CBOM: {}", e.getMessage());
         }
     }
 
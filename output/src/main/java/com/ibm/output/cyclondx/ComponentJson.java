@@ -0,0 +1,85 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.output.cyclondx;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.cyclonedx.exception.ParseException;
+import org.cyclonedx.generators.json.BomJsonGenerator;
+import org.cyclonedx.model.Bom;
+import org.cyclonedx.model.Component;
+import org.cyclonedx.parsers.JsonParser;
+
+/**
+ * Writes single components as JSON, with the object mapper of the {@link BomJsonGenerator} for the
+ * schema of the CBOM, and reads them back with the {@link JsonParser} of CycloneDX.
+ */
+final class ComponentJson extends BomJsonGenerator {
+    private static final ComponentJson INSTANCE = new ComponentJson();
+
+    private ComponentJson() {
+        super(new Bom(), CBOMOutputFile.schema);
+    }
+
+    /**
+     * Writes a component as JSON.
+     *
+     * @param component the component
+     * @return the JSON of the component
+     * @throws IllegalArgumentException if the component can not be written
+     */
+    @Nonnull
+    static String write(@Nonnull Component component) {
+        try {
+            return INSTANCE.mapper.writeValueAsString(component);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not write component: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Reads components written by {@link #write(Component)}.
+     *
+     * @param components the JSON of the components
+     * @return the components, in the given order
+     * @throws IllegalArgumentException if the components can not be read
+     */
+    @Nonnull
+    static List<Component> read(@Nonnull List<String> components) {
+        final String bom =
+                "{\"bomFormat\":\"CycloneDX\",\"specVersion\":\""
+                        + CBOMOutputFile.schema.getVersionString()
+                        + "\",\"components\":["
+                        + String.join(",", components)
+                        + "]}";
+        try {
+            final List<Component> read =
+                    new JsonParser().parse(bom.getBytes(StandardCharsets.UTF_8)).getComponents();
+            if (read == null || read.size() != components.size()) {
+                throw new IllegalArgumentException("Could not read all components");
+            }
+            return read;
+        } catch (ParseException e) {
+            throw new IllegalArgumentException("Could not read components: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.output.cyclondx;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.ibm.mapper.model.INode;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+
+/**
+ * The components a {@link CBOMOutputFile} creates for the translated nodes of a finding, recorded
+ * so that they can be added to a CBOM without the nodes, e.g. for a file served from the findings
+ * cache (see {@link com.ibm.output.cache.FindingsCache}).
+ *
+ * <p>Each component is recorded as JSON at the time it is created, with its identifier and the
+ * bom-ref of the component depending on it. Adding the recorded components in this order merges
+ * them into a CBOM like the nodes would be: a component with a known identifier only adds its
+ * occurrences, and the recorded bom-refs are replaced by the ones of the CBOM.
+ */
+public final class RecordedComponents {
+    @Nonnull private final List<Class<? extends INode>> kinds;
+    @Nonnull private final List<Entry> entries;
+
+    RecordedComponents(@Nonnull List<Class<? extends INode>> kinds, @Nonnull List<Entry> entries) {
+        this.kinds = Collections.unmodifiableList(kinds);
+        this.entries = Collections.unmodifiableList(entries);
+    }
+
+    /**
+     * Records the components of the translated nodes of a finding. Creating the components
+     * reorganises the nodes like any output file does (e.g. the functionalities of a key are moved
+     * to its primitive), so adding the nodes to an output file afterwards gives the same
+     * components.
+     *
+     * @param nodes the translated nodes
+     * @return the recorded components
+     * @throws IllegalArgumentException if a component can not be written as JSON
+     */
+    @Nonnull
+    public static RecordedComponents of(@Nonnull List<INode> nodes) {
+        final List<Class<? extends INode>> kinds = new ArrayList<>(nodes.size());
+        nodes.forEach(node -> kinds.add(node.getKind()));
+        return new RecordedComponents(kinds, CBOMOutputFile.record(nodes));
+    }
+
+    /**
+     * Returns the kinds of the translated nodes, which are counted in the scan statistics like the
+     * nodes themselves.
+     *
+     * @return the kind of each node
+     */
+    @Nonnull
+    public List<Class<? extends INode>> getKinds() {
+        return kinds;
+    }
+
+    @Nonnull
+    List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Encodes the recorded components as JSON.
+     *
+     * @return the encoded components
+     */
+    @Nonnull
+    public JsonObject toJson() {
+        final JsonArray encodedKinds = new JsonArray(kinds.size());
+        kinds.forEach(kind -> encodedKinds.add(kind.getName()));
+        final JsonArray encodedEntries = new JsonArray(entries.size());
+        for (Entry entry : entries) {
+            final JsonArray encodedEntry = new JsonArray(3);
+            encodedEntry.add(entry.componentId());
+            encodedEntry.add(entry.parentBomRef());
+            encodedEntry.add(JsonParser.parseString(entry.component()));
+            encodedEntries.add(encodedEntry);
+        }
+        final JsonObject encoded = new JsonObject();
+        encoded.add("kinds", encodedKinds);
+        encoded.add("components", encodedEntries);
+        return encoded;
+    }
+
+    /**
+     * Decodes components encoded by {@link #toJson()}.
+     *
+     * @param encoded the encoded components
+     * @return the recorded components
+     * @throws IllegalArgumentException if the components can not be decoded, e.g. because a kind of
+     *     node does not exist any more
+     */
+    @Nonnull
+    public static RecordedComponents fromJson(@Nonnull JsonObject encoded) {
+        final List<Class<? extends INode>> kinds = new ArrayList<>();
+        for (JsonElement kind : encoded.getAsJsonArray("kinds")) {
+            kinds.add(kindFor(kind.getAsString()));
+        }
+        final List<Entry> entries = new ArrayList<>();
+        for (JsonElement element : encoded.getAsJsonArray("components")) {
+            final JsonArray entry = element.getAsJsonArray();
+            final JsonElement parentBomRef = entry.get(1);
+            entries.add(
+                    new Entry(
+                            entry.get(0).getAsString(),
+                            parentBomRef instanceof JsonNull ? null : parentBomRef.getAsString(),
+                            entry.get(2).toString()));
+        }
+        return new RecordedComponents(kinds, entries);
+    }
+
+    @Nonnull
+    private static Class<? extends INode> kindFor(@Nonnull String name) {
+        try {
+            return Class.forName(name, false, INode.class.getClassLoader()).asSubclass(INode.class);
+        } catch (ClassNotFoundException | ClassCastException e) {
+            throw new IllegalArgumentException("Unknown kind of node " + name, e);
+        }
+    }
+
+    /**
+     * A component, as JSON, with its identifier in the CBOM and the bom-ref of the component
+     * depending on it, if any.
+     */
+    record Entry(
+            @Nonnull String componentId,
+            @Nullable String parentBomRef,
+            @Nonnull String component) {}
+}
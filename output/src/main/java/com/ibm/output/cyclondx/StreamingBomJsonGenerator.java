@@ -0,0 +1,123 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.output.cyclondx;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.DefaultIndenter;
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.List;
+import javax.annotation.Nonnull;
+import org.cyclonedx.Version;
+import org.cyclonedx.generators.json.BomJsonGenerator;
+import org.cyclonedx.model.Bom;
+import org.cyclonedx.model.BomReference;
+import org.cyclonedx.model.Component;
+import org.cyclonedx.model.Dependency;
+import org.cyclonedx.util.mixin.MixInBomReference;
+
+/**
+ * Serialises a BOM directly into an output stream, without materialising the document as a {@code
+ * Bom} holding all components, as a JSON tree or as a {@code String}. The header of the BOM
+ * (format, spec version, serial number, version and metadata) is taken from a {@code Bom} without
+ * components, and the components and dependencies are written one by one from the given
+ * collections, e.g. the values of the maps of a {@link CBOMOutputFile}.
+ *
+ * <p>It uses the object mapper and the pretty printer configuration of {@link
+ * BomJsonGenerator#toJsonString()}, and writes the dependencies like its dependency serializer, so
+ * the written bytes are the UTF-8 encoding of the string {@link BomJsonGenerator} creates for the
+ * header with the components and dependencies set. The other fields of the header (services,
+ * external references, compositions, ...) are not written; the CBOM does not use them.
+ */
+public final class StreamingBomJsonGenerator extends BomJsonGenerator {
+    @Nonnull private final Collection<Component> components;
+    @Nonnull private final Collection<Dependency> dependencies;
+
+    public StreamingBomJsonGenerator(
+            @Nonnull Bom header,
+            @Nonnull Collection<Component> components,
+            @Nonnull Collection<Dependency> dependencies,
+            @Nonnull Version version) {
+        super(header, version);
+        this.components = components;
+        this.dependencies = dependencies;
+    }
+
+    /**
+     * Writes the BOM as pretty printed JSON to the given stream. The stream is flushed, but not
+     * closed.
+     *
+     * @param outputStream the stream to write to
+     * @throws IOException if the BOM could not be serialised or written
+     */
+    public void writeTo(@Nonnull OutputStream outputStream) throws IOException {
+        mapper.addMixIn(BomReference.class, MixInBomReference.class);
+        final DefaultPrettyPrinter prettyPrinter = new DefaultPrettyPrinter();
+        prettyPrinter.indentArraysWith(DefaultIndenter.SYSTEM_LINEFEED_INSTANCE);
+        try (JsonGenerator generator = mapper.getFactory().createGenerator(outputStream)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setPrettyPrinter(prettyPrinter);
+            generator.writeStartObject();
+            // the order of the fields is the JSON property order of the Bom class
+            generator.writeStringField("bomFormat", bom.getBomFormat());
+            generator.writeStringField("specVersion", bom.getSpecVersion());
+            if (bom.getSerialNumber() != null) {
+                generator.writeStringField("serialNumber", bom.getSerialNumber());
+            }
+            generator.writeNumberField("version", bom.getVersion());
+            if (bom.getMetadata() != null) {
+                generator.writeFieldName("metadata");
+                mapper.writeValue(generator, bom.getMetadata());
+            }
+            if (!components.isEmpty()) {
+                generator.writeArrayFieldStart("components");
+                for (Component component : components) {
+                    mapper.writeValue(generator, component);
+                }
+                generator.writeEndArray();
+            }
+            // like the dependency serializer, an empty list of dependencies is written
+            generator.writeArrayFieldStart("dependencies");
+            for (Dependency dependency : dependencies) {
+                writeDependency(generator, dependency);
+            }
+            generator.writeEndArray();
+            generator.writeEndObject();
+        }
+    }
+
+    /* writes a dependency like the dependency serializer of the cyclonedx library */
+    private static void writeDependency(
+            @Nonnull JsonGenerator generator, @Nonnull Dependency dependency) throws IOException {
+        generator.writeStartObject();
+        generator.writeStringField("ref", dependency.getRef());
+        generator.writeArrayFieldStart("dependsOn");
+        final List<Dependency> dependsOn = dependency.getDependencies();
+        if (dependsOn != null) {
+            for (Dependency child : dependsOn) {
+                generator.writeString(child.getRef());
+            }
+        }
+        generator.writeEndArray();
+        generator.writeEndObject();
+    }
+}
@@ -19,27 +19,65 @@
  */
 package com.ibm.output.statistics;
 
+import com.ibm.engine.utils.ScanMetrics;
 import com.ibm.mapper.model.INode;
 import java.util.Map;
+import java.util.Optional;
 import java.util.function.Consumer;
 import java.util.function.IntSupplier;
+import java.util.function.LongSupplier;
 import java.util.function.Supplier;
 import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
 
 public final class ScanStatistics implements IStatistics {
     private final int numberOfDetectedAssets;
     @Nonnull private final Map<Class<? extends INode>, Long> numberOfAssetsPerType;
+    private final long numberOfScannedFiles;
+    private final long numberOfSkippedFiles;
+    @Nullable private final ScanMetrics.Snapshot metrics;
 
     public ScanStatistics(
             @Nonnull IntSupplier numberOfDetectedAssetsSupplier,
             @Nonnull Supplier<Map<Class<? extends INode>, Long>> numberOfAssetsPerTypeSupplier) {
+        this(numberOfDetectedAssetsSupplier, numberOfAssetsPerTypeSupplier, () -> 0, () -> 0);
+    }
+
+    /**
+     * Creates the statistics of a scan. If the {@link ScanMetrics} are enabled, a snapshot of them
+     * is taken and printed after the asset counts.
+     *
+     * @param numberOfDetectedAssetsSupplier the number of detected assets
+     * @param numberOfAssetsPerTypeSupplier the number of detected assets per node type
+     * @param numberOfScannedFilesSupplier the number of files visited by the detection
+     * @param numberOfSkippedFilesSupplier the number of visited files skipped by the prefilter
+     */
+    public ScanStatistics(
+            @Nonnull IntSupplier numberOfDetectedAssetsSupplier,
+            @Nonnull Supplier<Map<Class<? extends INode>, Long>> numberOfAssetsPerTypeSupplier,
+            @Nonnull LongSupplier numberOfScannedFilesSupplier,
+            @Nonnull LongSupplier numberOfSkippedFilesSupplier) {
         this.numberOfDetectedAssets = numberOfDetectedAssetsSupplier.getAsInt();
         this.numberOfAssetsPerType = numberOfAssetsPerTypeSupplier.get();
+        this.numberOfScannedFiles = numberOfScannedFilesSupplier.getAsLong();
+        this.numberOfSkippedFiles = numberOfSkippedFilesSupplier.getAsLong();
+        this.metrics = ScanMetrics.isEnabled() ? ScanMetrics.snapshot() : null;
+    }
+
+    @Nonnull
+    public Optional<ScanMetrics.Snapshot> getMetrics() {
+        return Optional.ofNullable(metrics);
     }
 
     @Override
     public void print(@Nonnull Consumer<String> out) {
         out.accept("========== CBOM Statistics ==========");
+        if (numberOfScannedFiles > 0) {
+            out.accept(String.format("%-33s: %s", "Scanned Files", numberOfScannedFiles));
+            out.accept(
+                    String.format(
+                            " - %-30s: %s", "Skipped (no crypto types)", numberOfSkippedFiles));
+        }
         out.accept(String.format("%-33s: %s", "Detected Assets", numberOfDetectedAssets));
         for (Map.Entry<Class<? extends INode>, Long> entry : numberOfAssetsPerType.entrySet()) {
             out.accept(
@@ -47,5 +85,8 @@ public final class ScanStatistics implements IStatistics {
                             " - %-30s: %s", entry.getKey().getSimpleName(), entry.getValue()));
         }
         out.accept("=====================================");
+        if (metrics != null) {
+            metrics.print(out);
+        }
     }
 }
@@ -0,0 +1,87 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.output;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.mapper.model.BlockCipher;
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.model.PublicKeyEncryption;
+import com.ibm.mapper.model.algorithms.AES;
+import com.ibm.mapper.model.algorithms.RSA;
+import com.ibm.mapper.utils.DetectionLocation;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import org.junit.jupiter.api.Test;
+
+class ShardedNodeAggregatorTest {
+    private final DetectionLocation detectionLocation =
+            new DetectionLocation("test.java", 1, 1, Collections.emptyList(), () -> "Test");
+
+    @Test
+    void keepsOrderOfSingleThread() {
+        final ShardedNodeAggregator aggregator = new ShardedNodeAggregator();
+        final INode aes = new AES(detectionLocation);
+        final INode rsa = new RSA(detectionLocation);
+        aggregator.add(List.of(aes));
+        aggregator.add(List.of(rsa, aes));
+
+        assertThat(aggregator.getNodes()).containsExactly(aes, rsa, aes);
+        assertThat(aggregator.size()).isEqualTo(3);
+        assertThat(aggregator.getNumberOfNodesPerKind())
+                .containsEntry(BlockCipher.class, 2L)
+                .containsEntry(PublicKeyEncryption.class, 1L)
+                .hasSize(2);
+    }
+
+    @Test
+    void collectsFromConcurrentThreads() throws Exception {
+        final ShardedNodeAggregator aggregator = new ShardedNodeAggregator();
+        final int threads = 8;
+        final int nodesPerThread = 1_000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    for (int i = 0; i < nodesPerThread; i++) {
+                                        aggregator.add(List.of(new AES(detectionLocation)));
+                                    }
+                                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertThat(aggregator.getNodes()).hasSize(threads * nodesPerThread);
+        assertThat(aggregator.size()).isEqualTo(threads * nodesPerThread);
+        assertThat(aggregator.getNumberOfNodesPerKind())
+                .containsEntry(BlockCipher.class, (long) threads * nodesPerThread);
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.output.cache;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+
+import com.ibm.mapper.model.algorithms.AES;
+import com.ibm.mapper.model.functionality.Encrypt;
+import com.ibm.mapper.model.mode.GCM;
+import com.ibm.mapper.utils.DetectionLocation;
+import com.ibm.output.cyclondx.CBOMOutputFile;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import org.cyclonedx.model.Component;
+import org.cyclonedx.model.component.evidence.Occurrence;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class FindingsCacheTest {
+    private static final FindingsCache.Marker MARKER =
+            new FindingsCache.Marker("METHOD_INVOCATION", 3, 8, 3, 30);
+
+    @TempDir Path directory;
+
+    @Test
+    void cachedFindingsGiveTheRecordedIssuesAndComponents() throws IOException {
+        final String file = source("Crypto.java", "class Crypto {}");
+        final DetectionLocation detectionLocation =
+                new DetectionLocation(file, 3, 8, List.of("getInstance"), () -> "Jca");
+        final AES aes = new AES(128, new GCM(detectionLocation), detectionLocation);
+        aes.put(new Encrypt(detectionLocation));
+        final FindingsCache.CachedIssue issue =
+                new FindingsCache.CachedIssue(MARKER, "(BlockCipher) AES128-GCM");
+
+        final FindingsCache cache = load("rules");
+        final FindingsCache.FileRecord fileRecord = cache.record(file);
+        fileRecord.addChecks(List.of("Inventory"));
+        fileRecord.addFinding(Map.of("Inventory", List.of(issue)), List.of(aes));
+        cache.save();
+
+        final Optional<List<FindingsCache.CachedFinding>> findings =
+                load("rules").lookup(file, List.of("Inventory"));
+        assertThat(findings).isPresent();
+        assertThat(findings.get()).hasSize(1);
+        final FindingsCache.CachedFinding finding = findings.get().get(0);
+        assertThat(finding.issues()).containsExactly(entry("Inventory", List.of(issue)));
+        assertThat(finding.components().getKinds()).containsExactly(aes.getKind());
+
+        final CBOMOutputFile outputFile = new CBOMOutputFile();
+        outputFile.add(finding.components());
+        final List<Component> components = outputFile.getBom().getComponents();
+        assertThat(components).hasSize(1);
+        assertThat(components.get(0).getName()).isEqualTo("AES128-GCM");
+        final Occurrence occurrence = components.get(0).getEvidence().getOccurrences().get(0);
+        assertThat(occurrence.getLocation()).isEqualTo(file);
+        assertThat(occurrence.getLine()).isEqualTo(3);
+        assertThat(occurrence.getAdditionalContext()).isEqualTo("getInstance");
+
+        // the issues of a check that did not scan the file are not known
+        assertThat(load("rules").lookup(file, List.of("Inventory", "JavaNoMD5use"))).isEmpty();
+    }
+
+    @Test
+    void changedFilesAndTheirDependentsAreScannedAgain() throws IOException {
+        final String callee = source("Callee.java", "class Callee {}");
+        final String caller = source("Caller.java", "class Caller { Callee callee; }");
+        final String other = source("Other.java", "class Other {}");
+
+        final FindingsCache cache = load("rules");
+        final FindingsCache.FileRecord calleeRecord = cache.record(callee);
+        calleeRecord.addDeclaredTypes(List.of("Callee"));
+        final FindingsCache.FileRecord callerRecord = cache.record(caller);
+        callerRecord.addDeclaredTypes(List.of("Caller"));
+        callerRecord.addReferencedTypes(List.of("Callee"));
+        cache.record(other).addDeclaredTypes(List.of("Other"));
+        cache.save();
+
+        assertThat(load("rules").lookup(caller, List.of())).isPresent();
+
+        Files.writeString(Path.of(URI.create(callee)), "class Callee { int i; }");
+        final FindingsCache reloaded = load("rules");
+        assertThat(reloaded.lookup(callee, List.of())).isEmpty();
+        assertThat(reloaded.lookup(caller, List.of())).isEmpty();
+        assertThat(reloaded.lookup(other, List.of())).isPresent();
+    }
+
+    @Test
+    void uncacheableFilesAndOutdatedCachesAreNotServed() throws IOException {
+        final String open = source("Open.java", "class Open {}");
+        final String cached = source("Cached.java", "class Cached {}");
+
+        final FindingsCache cache = load("rules");
+        final FindingsCache.FileRecord openRecord = cache.record(open);
+        openRecord.markUncacheable();
+        openRecord.addFinding(Map.of(), List.of());
+        assertThat(openRecord.isCacheable()).isFalse();
+        cache.record(cached);
+        cache.save();
+
+        assertThat(load("rules").lookup(open, List.of())).isEmpty();
+        assertThat(load("rules").lookup(cached, List.of())).isPresent();
+        assertThat(load("other rules").lookup(cached, List.of())).isEmpty();
+    }
+
+    @Nonnull
+    private FindingsCache load(@Nonnull String rulesFingerprint) {
+        return FindingsCache.load(directory.resolve("findings.json.gz"), "1.0", rulesFingerprint);
+    }
+
+    @Nonnull
+    private String source(@Nonnull String name, @Nonnull String content) throws IOException {
+        final Path file = Files.writeString(directory.resolve(name), content);
+        return file.toUri().toString();
+    }
+}
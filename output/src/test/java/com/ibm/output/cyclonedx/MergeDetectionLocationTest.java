@@ -23,8 +23,10 @@ import static org.assertj.core.api.Assertions.assertThat;
 
 import com.ibm.mapper.model.algorithms.RSA;
 import com.ibm.mapper.utils.DetectionLocation;
+import com.ibm.output.cyclondx.CBOMOutputFile;
 import java.util.Collections;
 import java.util.List;
+import org.cyclonedx.model.Bom;
 import org.cyclonedx.model.Component;
 import org.cyclonedx.model.component.crypto.CryptoProperties;
 import org.cyclonedx.model.component.crypto.enums.AssetType;
@@ -75,4 +77,26 @@ class MergeDetectionLocationTest extends TestBase {
                             .isEqualTo("test.java");
                 });
     }
+
+    @Test
+    void manyOccurrences() {
+        final int distinctLines = 50_000;
+        final CBOMOutputFile outputFile = new CBOMOutputFile();
+        for (int i = 0; i < 2 * distinctLines; i++) {
+            outputFile.add(
+                    List.of(
+                            new RSA(
+                                    new DetectionLocation(
+                                            filePath,
+                                            i % distinctLines,
+                                            offset,
+                                            Collections.emptyList(),
+                                            bundle))));
+        }
+
+        final Bom bom = outputFile.getBom();
+        assertThat(bom.getComponents()).hasSize(1);
+        assertThat(bom.getComponents().get(0).getEvidence().getOccurrences())
+                .hasSize(distinctLines);
+    }
 }
@@ -0,0 +1,211 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.output.cyclonedx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+import com.ibm.mapper.model.BlockCipher;
+import com.ibm.mapper.model.CipherSuite;
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.model.Identifier;
+import com.ibm.mapper.model.KeyAgreement;
+import com.ibm.mapper.model.KeyLength;
+import com.ibm.mapper.model.PublicKey;
+import com.ibm.mapper.model.PublicKeyEncryption;
+import com.ibm.mapper.model.algorithms.AES;
+import com.ibm.mapper.model.algorithms.DH;
+import com.ibm.mapper.model.algorithms.RSA;
+import com.ibm.mapper.model.algorithms.SHA2;
+import com.ibm.mapper.model.collections.AssetCollection;
+import com.ibm.mapper.model.collections.CipherSuiteCollection;
+import com.ibm.mapper.model.collections.IdentifierCollection;
+import com.ibm.mapper.model.functionality.Encrypt;
+import com.ibm.mapper.model.functionality.KeyGeneration;
+import com.ibm.mapper.model.mode.CBC;
+import com.ibm.mapper.model.mode.GCM;
+import com.ibm.mapper.model.protocol.TLS;
+import com.ibm.mapper.utils.DetectionLocation;
+import com.ibm.output.cyclondx.CBOMOutputFile;
+import com.ibm.output.cyclondx.RecordedComponents;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import javax.annotation.Nonnull;
+import org.cyclonedx.Version;
+import org.cyclonedx.exception.GeneratorException;
+import org.cyclonedx.generators.BomGeneratorFactory;
+import org.cyclonedx.model.Bom;
+import org.junit.jupiter.api.Test;
+
+class RecordedComponentsTest {
+    private static final Gson GSON = new Gson();
+    private static final Pattern RANDOM_ID =
+            Pattern.compile("@[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12}");
+
+    @Test
+    void recordedComponentsAreMergedLikeTheirNodes() {
+        final CBOMOutputFile fromNodes = new CBOMOutputFile();
+        fromNodes.add(first());
+        fromNodes.add(second());
+
+        final CBOMOutputFile fromRecords = new CBOMOutputFile();
+        fromRecords.add(first());
+        fromRecords.add(RecordedComponents.fromJson(RecordedComponents.of(second()).toJson()));
+
+        assertThat(canonical(fromRecords.getBom())).isEqualTo(canonical(fromNodes.getBom()));
+    }
+
+    @Test
+    void recordingKeepsTheComponentsOfTheNodes() {
+        final List<INode> nodes = first();
+        final RecordedComponents recorded = RecordedComponents.of(nodes);
+        assertThat(recorded.getKinds())
+                .containsExactly(BlockCipher.class, TLS.class, PublicKey.class);
+
+        final CBOMOutputFile recordedNodes = new CBOMOutputFile();
+        recordedNodes.add(nodes);
+        final CBOMOutputFile freshNodes = new CBOMOutputFile();
+        freshNodes.add(first());
+        assertThat(canonical(recordedNodes.getBom())).isEqualTo(canonical(freshNodes.getBom()));
+    }
+
+    /**
+     * An AES cipher, a cipher suite with an AES cipher and a digest, and an RSA key, found at line
+     * 1.
+     */
+    @Nonnull
+    private static List<INode> first() {
+        final DetectionLocation detectionLocation = location(1);
+        final AES aes = new AES(128, new GCM(detectionLocation), detectionLocation);
+        aes.put(new Encrypt(detectionLocation));
+        final CipherSuite cipherSuite =
+                new CipherSuite("TLS_DHE_RSA_WITH_AES_256_CBC_SHA256", detectionLocation);
+        cipherSuite.put(
+                new AssetCollection(
+                        List.of(
+                                new DH(KeyAgreement.class, detectionLocation),
+                                new AES(256, new CBC(detectionLocation), detectionLocation),
+                                new SHA2(256, detectionLocation))));
+        cipherSuite.put(
+                new IdentifierCollection(
+                        List.of(
+                                new Identifier("0x00", detectionLocation),
+                                new Identifier("0x6B", detectionLocation))));
+        final TLS tls = new TLS(detectionLocation);
+        tls.put(new CipherSuiteCollection(List.of(cipherSuite)));
+        final PublicKey key = new PublicKey((PublicKeyEncryption) new RSA(detectionLocation));
+        key.put(new KeyGeneration(detectionLocation));
+        key.put(new KeyLength(2048, detectionLocation));
+        return List.of(aes, tls, key);
+    }
+
+    /**
+     * An AES cipher and a cipher suite sharing its AES cipher with the one of {@link #first()},
+     * found at line 2, and the other assets of {@link #first()}.
+     */
+    @Nonnull
+    private static List<INode> second() {
+        final DetectionLocation detectionLocation = location(2);
+        final AES aes = new AES(128, new GCM(detectionLocation), detectionLocation);
+        aes.put(new Encrypt(detectionLocation));
+        final CipherSuite cipherSuite =
+                new CipherSuite("TLS_RSA_WITH_AES_256_CBC_SHA256", detectionLocation);
+        cipherSuite.put(
+                new AssetCollection(
+                        List.of(
+                                new AES(256, new CBC(detectionLocation), detectionLocation),
+                                new SHA2(256, detectionLocation))));
+        final List<INode> nodes = new ArrayList<>(List.of(aes, cipherSuite));
+        nodes.addAll(first().subList(1, 3));
+        return nodes;
+    }
+
+    @Nonnull
+    private static DetectionLocation location(int line) {
+        return new DetectionLocation("test.java", line, 1, List.of(), () -> "Test");
+    }
+
+    /**
+     * Returns the JSON of the components and dependencies of a BOM, with the bom-refs replaced by
+     * the names of their components, the random identifiers of the names (e.g. of keys) left out,
+     * and the arrays sorted.
+     */
+    @Nonnull
+    private static String canonical(@Nonnull Bom bom) {
+        final String json;
+        try {
+            json = BomGeneratorFactory.createJson(Version.VERSION_16, bom).toJsonString();
+        } catch (GeneratorException e) {
+            throw new IllegalStateException(e);
+        }
+        final JsonObject root = JsonParser.parseString(json).getAsJsonObject();
+        final Map<String, String> names = new HashMap<>();
+        for (JsonElement component : root.getAsJsonArray("components")) {
+            names.put(
+                    component.getAsJsonObject().get("bom-ref").getAsString(),
+                    "ref:" + component.getAsJsonObject().get("name").getAsString());
+        }
+        final JsonObject content = new JsonObject();
+        content.add("components", root.get("components"));
+        content.add("dependencies", root.get("dependencies"));
+        return GSON.toJson(canonical(content, names));
+    }
+
+    @Nonnull
+    private static JsonElement canonical(
+            @Nonnull JsonElement element, @Nonnull Map<String, String> names) {
+        if (element.isJsonObject()) {
+            final Map<String, JsonElement> members = new TreeMap<>();
+            element.getAsJsonObject()
+                    .entrySet()
+                    .forEach(
+                            entry ->
+                                    members.put(
+                                            entry.getKey(), canonical(entry.getValue(), names)));
+            final JsonObject object = new JsonObject();
+            members.forEach(object::add);
+            return object;
+        }
+        if (element.isJsonArray()) {
+            final List<JsonElement> elements = new ArrayList<>();
+            element.getAsJsonArray().forEach(child -> elements.add(canonical(child, names)));
+            elements.sort(Comparator.comparing(GSON::toJson));
+            final JsonArray array = new JsonArray();
+            elements.forEach(array::add);
+            return array;
+        }
+        if (element.isJsonPrimitive() && element.getAsJsonPrimitive().isString()) {
+            final String value = element.getAsString();
+            return new JsonPrimitive(
+                    RANDOM_ID.matcher(names.getOrDefault(value, value)).replaceAll(""));
+        }
+        return element;
+    }
+}
@@ -0,0 +1,95 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.output.cyclonedx;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.mapper.model.INode;
+import com.ibm.mapper.model.algorithms.AES;
+import com.ibm.mapper.model.algorithms.RSA;
+import com.ibm.mapper.model.functionality.Encrypt;
+import com.ibm.mapper.model.mode.GCM;
+import com.ibm.output.cyclondx.CBOMOutputFile;
+import com.ibm.output.cyclondx.StreamingBomJsonGenerator;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import org.cyclonedx.Version;
+import org.cyclonedx.generators.BomGeneratorFactory;
+import org.cyclonedx.model.Bom;
+import org.cyclonedx.model.Component;
+import org.cyclonedx.model.Dependency;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class StreamingBomJsonGeneratorTest extends TestBase {
+
+    private CBOMOutputFile outputFile() {
+        final AES aes = new AES(128, new GCM(detectionLocation), detectionLocation);
+        aes.put(new Encrypt(detectionLocation));
+        final RSA rsa = new RSA(2048, detectionLocation);
+        final CBOMOutputFile outputFile = new CBOMOutputFile();
+        outputFile.add(List.<INode>of(aes, rsa));
+        return outputFile;
+    }
+
+    @Test
+    void writesSameBytesAsJsonString() throws Exception {
+        assertWritesSameBytesAsJsonString(outputFile().getBom());
+    }
+
+    @Test
+    void writesSameBytesAsJsonStringWithoutComponents() throws Exception {
+        assertWritesSameBytesAsJsonString(new CBOMOutputFile().getBom());
+    }
+
+    private static void assertWritesSameBytesAsJsonString(Bom bom) throws Exception {
+        final List<Component> components = bom.getComponents();
+        final List<Dependency> dependencies = bom.getDependencies();
+        final String expected =
+                BomGeneratorFactory.createJson(Version.VERSION_16, bom).toJsonString();
+
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        new StreamingBomJsonGenerator(
+                        bom,
+                        Objects.requireNonNullElse(components, List.of()),
+                        Objects.requireNonNullElse(dependencies, List.of()),
+                        Version.VERSION_16)
+                .writeTo(outputStream);
+
+        assertThat(outputStream.toByteArray()).isEqualTo(expected.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void savesToFile(@TempDir Path directory) throws Exception {
+        final File file = directory.resolve("nested").resolve("cbom.json").toFile();
+        outputFile().saveTo(file);
+
+        final String content = Files.readString(file.toPath(), StandardCharsets.UTF_8);
+        assertThat(content)
+                .contains("\"bomFormat\" : \"CycloneDX\"")
+                .contains("\"specVersion\" : \"1.6\"")
+                .contains("\"components\" : [");
+    }
+}
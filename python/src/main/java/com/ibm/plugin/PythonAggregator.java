@@ -19,13 +19,16 @@
  */
 package com.ibm.plugin;
 
+import com.ibm.engine.hooks.SharedHookRegistry;
 import com.ibm.engine.language.ILanguageSupport;
 import com.ibm.engine.language.LanguageSupporter;
 import com.ibm.mapper.model.INode;
 import com.ibm.output.IAggregator;
-import java.util.ArrayList;
-import java.util.Collections;
+import com.ibm.output.ShardedNodeAggregator;
 import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.LongAdder;
 import javax.annotation.Nonnull;
 import org.sonar.plugins.python.api.PythonCheck;
 import org.sonar.plugins.python.api.PythonVisitorContext;
@@ -34,9 +37,22 @@ import org.sonar.plugins.python.api.tree.Tree;
 
 public final class PythonAggregator implements IAggregator {
 
-    private static ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext>
+    private static volatile ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext>
             pythonLanguageSupport = LanguageSupporter.pythonLanguageSupporter();
-    private static List<INode> detectedNodes = new ArrayList<>();
+
+    /*
+     * parallel detection mode: one language support per scanning thread, sharing their hooks
+     */
+    @Nonnull
+    private static volatile Queue<ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext>>
+            threadLanguageSupports = new ConcurrentLinkedQueue<>();
+
+    private static volatile ThreadLocal<
+                    ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext>>
+            threadLanguageSupport = newThreadLanguageSupport(threadLanguageSupports);
+    private static volatile ShardedNodeAggregator detectedNodes = new ShardedNodeAggregator();
+    @Nonnull private static volatile LongAdder scannedFiles = new LongAdder();
+    @Nonnull private static volatile LongAdder skippedFiles = new LongAdder();
 
     private PythonAggregator() {
         // nothing
@@ -45,21 +61,87 @@ public final class PythonAggregator implements IAggregator {
     @Nonnull
     public static ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext>
             getLanguageSupport() {
+        if (LanguageSupporter.isParallelDetectionEnabled()) {
+            return threadLanguageSupport.get();
+        }
         return pythonLanguageSupport;
     }
 
     @Nonnull
     public static List<INode> getDetectedNodes() {
-        return Collections.unmodifiableList(detectedNodes);
+        return detectedNodes.getNodes();
+    }
+
+    @Nonnull
+    public static ShardedNodeAggregator getAggregator() {
+        return detectedNodes;
+    }
+
+    /**
+     * Counts a file visited by the shared detection pass.
+     *
+     * @param skipped if the file was skipped because none of the rules can match it
+     */
+    public static void addScannedFile(boolean skipped) {
+        scannedFiles.increment();
+        if (skipped) {
+            skippedFiles.increment();
+        }
+    }
+
+    public static long getNumberOfScannedFiles() {
+        return scannedFiles.sum();
+    }
+
+    public static long getNumberOfSkippedFiles() {
+        return skippedFiles.sum();
     }
 
     public static void addNodes(@Nonnull List<INode> newNodes) {
-        detectedNodes.addAll(newNodes);
+        detectedNodes.add(newNodes);
         IAggregator.log(newNodes);
     }
 
+    /**
+     * Processes the hook invocations that the threads of a parallel scan handed over to each other
+     * after the thread owning the hook scanned its last file. It has to be called once all files
+     * are scanned, before the detected nodes are read.
+     */
+    public static void processPendingHookInvocations() {
+        boolean processed;
+        do {
+            processed = pythonLanguageSupport.processPendingHookInvocations();
+            for (ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext> languageSupport :
+                    threadLanguageSupports) {
+                processed |= languageSupport.processPendingHookInvocations();
+            }
+        } while (processed);
+    }
+
     public static void reset() {
         pythonLanguageSupport = LanguageSupporter.pythonLanguageSupporter();
-        detectedNodes = new ArrayList<>();
+        threadLanguageSupports = new ConcurrentLinkedQueue<>();
+        threadLanguageSupport = newThreadLanguageSupport(threadLanguageSupports);
+        detectedNodes = new ShardedNodeAggregator();
+        scannedFiles = new LongAdder();
+        skippedFiles = new LongAdder();
+    }
+
+    @Nonnull
+    private static ThreadLocal<ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext>>
+            newThreadLanguageSupport(
+                    @Nonnull
+                            Queue<ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext>>
+                                    languageSupports) {
+        final SharedHookRegistry<PythonCheck, Tree, Symbol, PythonVisitorContext>
+                sharedHookRegistry = new SharedHookRegistry<>();
+        return ThreadLocal.withInitial(
+                () -> {
+                    final ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext>
+                            languageSupport =
+                                    LanguageSupporter.pythonLanguageSupporter(sharedHookRegistry);
+                    languageSupports.add(languageSupport);
+                    return languageSupport;
+                });
     }
 }
@@ -22,7 +22,6 @@ package com.ibm.plugin.rules;
 import com.ibm.engine.rule.IDetectionRule;
 import com.ibm.mapper.model.INode;
 import com.ibm.plugin.rules.detection.PythonBaseDetectionRule;
-import com.ibm.plugin.rules.detection.PythonDetectionRules;
 import com.ibm.plugin.translation.reorganizer.PythonReorganizerRules;
 import com.ibm.rules.InventoryRule;
 import com.ibm.rules.issue.Issue;
@@ -36,7 +35,7 @@ import org.sonar.plugins.python.api.tree.Tree;
 public class PythonInventoryRule extends PythonBaseDetectionRule {
 
     public PythonInventoryRule() {
-        super(true, PythonDetectionRules.rules(), PythonReorganizerRules.rules());
+        super(true);
     }
 
     @VisibleForTesting
@@ -22,7 +22,10 @@ package com.ibm.plugin.rules.detection;
 import com.ibm.common.IObserver;
 import com.ibm.engine.detection.Finding;
 import com.ibm.engine.executive.DetectionExecutive;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.IScanContext;
 import com.ibm.engine.language.python.PythonScanContext;
+import com.ibm.engine.rule.DetectionRuleIndex;
 import com.ibm.engine.rule.IDetectionRule;
 import com.ibm.mapper.model.INode;
 import com.ibm.mapper.reorganizer.IReorganizerRule;
@@ -46,42 +49,91 @@ public abstract class PythonBaseDetectionRule extends PythonVisitorCheck
                 IReportableDetectionRule<Tree> {
 
     private final boolean isInventory;
+    private final boolean sharesDetection;
     @Nonnull protected final PythonTranslationProcess pythonTranslationProcess;
     @Nonnull protected final List<IDetectionRule<Tree>> detectionRules;
+    @Nonnull protected final DetectionRuleIndex<Tree> detectionRuleIndex;
 
     protected PythonBaseDetectionRule() {
-        this.isInventory = false;
-        this.detectionRules = PythonDetectionRules.rules();
-        this.pythonTranslationProcess =
-                new PythonTranslationProcess(PythonReorganizerRules.rules());
+        this(false);
     }
 
+    /**
+     * Creates a check using the default detection and reorganizer rules. The detection and
+     * translation of a file is shared with the other checks using the default rules (see {@link
+     * PythonSharedDetectionPass}), so the check only adds the cost of its {@link #report}.
+     *
+     * @param isInventory if the translated nodes are added to the {@link PythonAggregator}
+     */
+    protected PythonBaseDetectionRule(final boolean isInventory) {
+        this(isInventory, true, PythonDetectionRules.rules(), PythonReorganizerRules.rules());
+    }
+
+    /**
+     * Creates a check running its own detection pass with the given rules.
+     *
+     * @param isInventory if the translated nodes are added to the {@link PythonAggregator}
+     * @param detectionRules the detection rules of the check
+     * @param reorganizerRules the reorganizer rules applied to the translated nodes
+     */
     protected PythonBaseDetectionRule(
             final boolean isInventory,
             @Nonnull List<IDetectionRule<Tree>> detectionRules,
             @Nonnull List<IReorganizerRule> reorganizerRules) {
+        this(isInventory, false, detectionRules, reorganizerRules);
+    }
+
+    private PythonBaseDetectionRule(
+            final boolean isInventory,
+            final boolean sharesDetection,
+            @Nonnull List<IDetectionRule<Tree>> detectionRules,
+            @Nonnull List<IReorganizerRule> reorganizerRules) {
         this.isInventory = isInventory;
+        this.sharesDetection = sharesDetection;
         this.detectionRules = detectionRules;
+        this.detectionRuleIndex = new DetectionRuleIndex<>(this.detectionRules);
         this.pythonTranslationProcess = new PythonTranslationProcess(reorganizerRules);
     }
 
     @Override
     public void visitCallExpression(@Nonnull CallExpression tree) {
-        detectionRules.forEach(
-                rule -> {
-                    DetectionExecutive<PythonCheck, Tree, Symbol, PythonVisitorContext>
-                            detectionExecutive =
-                                    PythonAggregator.getLanguageSupport()
-                                            .createDetectionExecutive(
-                                                    tree,
-                                                    rule,
-                                                    new PythonScanContext(this.getContext()));
-                    detectionExecutive.subscribe(this);
-                    detectionExecutive.start();
-                });
+        if (sharesDetection) {
+            PythonSharedDetectionPass.current().visitCallExpression(this, this.getContext(), tree);
+            super.visitCallExpression(tree); // Necessary to visit children nodes
+            return;
+        }
+        final ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext> languageSupport =
+                PythonAggregator.getLanguageSupport();
+        final PythonScanContext scanContext = new PythonScanContext(this.getContext());
+        // the call stack has to know about every call, even if no rule can match it
+        languageSupport.addCallToCallStack(tree, scanContext);
+        detectionRuleIndex
+                .candidates(tree, languageSupport.translation())
+                .forEach(
+                        rule -> {
+                            DetectionExecutive<PythonCheck, Tree, Symbol, PythonVisitorContext>
+                                    detectionExecutive =
+                                            languageSupport.createDetectionExecutive(
+                                                    tree, rule, scanContext);
+                            detectionExecutive.subscribe(this);
+                            detectionExecutive.start();
+                        });
         super.visitCallExpression(tree); // Necessary to visit children nodes of this CallExpression
     }
 
+    /**
+     * Scans the file, then ends it for the language support: it processes the invocations of the
+     * hooks of this thread found by other threads of a parallel scan, and releases the method
+     * summaries.
+     *
+     * @param visitorContext the context of the scanned file
+     */
+    @Override
+    public void scanFile(@Nonnull PythonVisitorContext visitorContext) {
+        super.scanFile(visitorContext);
+        PythonAggregator.getLanguageSupport().leaveFile();
+    }
+
     /**
      * Updates the output file with the translated nodes resulting from a finding.
      *
@@ -90,16 +142,28 @@ public abstract class PythonBaseDetectionRule extends PythonVisitorCheck
     @Override
     public void update(@Nonnull Finding<PythonCheck, Tree, Symbol, PythonVisitorContext> finding) {
         List<INode> nodes = pythonTranslationProcess.initiate(finding.detectionStore());
+        onTranslatedFinding(
+                finding.detectionStore().getScanContext(), finding.getMarkerTree(), nodes);
+    }
+
+    /**
+     * Adds the translated nodes of a finding to the output file, if this check is an inventory
+     * check, and reports the issues of this check on them.
+     *
+     * @param scanContext the scan context of the file the finding was detected in
+     * @param markerTree the tree the issues are reported on by default
+     * @param nodes the translated nodes of the finding
+     */
+    void onTranslatedFinding(
+            @Nonnull IScanContext<PythonCheck, Tree> scanContext,
+            @Nonnull Tree markerTree,
+            @Nonnull List<INode> nodes) {
         if (isInventory) {
             PythonAggregator.addNodes(nodes);
         }
         // report
-        this.report(finding.getMarkerTree(), nodes)
-                .forEach(
-                        issue ->
-                                finding.detectionStore()
-                                        .getScanContext()
-                                        .reportIssue(this, issue.tree(), issue.message()));
+        this.report(markerTree, nodes)
+                .forEach(issue -> scanContext.reportIssue(this, issue.tree(), issue.message()));
     }
 
     @Override
@@ -0,0 +1,181 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin.rules.detection;
+
+import com.ibm.common.IObserver;
+import com.ibm.engine.detection.Finding;
+import com.ibm.engine.executive.DetectionExecutive;
+import com.ibm.engine.language.ILanguageSupport;
+import com.ibm.engine.language.IScanContext;
+import com.ibm.engine.language.python.PythonScanContext;
+import com.ibm.engine.rule.DetectionRuleIndex;
+import com.ibm.engine.rule.IDetectionRule;
+import com.ibm.engine.rule.TypePrefixFilter;
+import com.ibm.mapper.model.INode;
+import com.ibm.plugin.PythonAggregator;
+import com.ibm.plugin.translation.PythonTranslationProcess;
+import com.ibm.plugin.translation.reorganizer.PythonReorganizerRules;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import org.sonar.plugins.python.api.PythonCheck;
+import org.sonar.plugins.python.api.PythonVisitorContext;
+import org.sonar.plugins.python.api.symbols.Symbol;
+import org.sonar.plugins.python.api.tree.CallExpression;
+import org.sonar.plugins.python.api.tree.Tree;
+
+/**
+ * The detection, translation, reorganisation and enrichment of the default Python detection rules,
+ * run once per file for all the checks using these rules.
+ *
+ * <p>The first check visiting a tree of the file runs the detection on it; the other checks skip
+ * it. Each finding is translated once, and the translated nodes are handed to every check that
+ * joined the file. A check joining the file later (Python checks visit the file one after the
+ * other) first receives the findings translated so far.
+ *
+ * <p>If the prefilter is enabled, files that none of the rules can match (see {@link
+ * TypePrefixFilter}) skip the detection. Their calls are still added to the call stack, since they
+ * may invoke the hooks of other files (e.g. a call of a project function wrapping a crypto API).
+ *
+ * <p>There is one pass per thread, like the language support of the {@link PythonAggregator} in a
+ * parallel scan. The passes share the index of the rules.
+ */
+final class PythonSharedDetectionPass
+        implements IObserver<Finding<PythonCheck, Tree, Symbol, PythonVisitorContext>> {
+    private static final ThreadLocal<PythonSharedDetectionPass> CURRENT =
+            ThreadLocal.withInitial(PythonSharedDetectionPass::new);
+
+    /*
+     * the rules do not change during a scan, so the passes of all threads share their index
+     */
+    @Nonnull private static final DetectionRuleIndex<Tree> DETECTION_RULE_INDEX;
+    @Nonnull private static final TypePrefixFilter TYPE_PREFIX_FILTER;
+
+    static {
+        final List<IDetectionRule<Tree>> detectionRules = PythonDetectionRules.rules();
+        DETECTION_RULE_INDEX = new DetectionRuleIndex<>(detectionRules);
+        // modules can be imported from their top-level package (from cryptography import fernet)
+        TYPE_PREFIX_FILTER = TypePrefixFilter.of(detectionRules, 1, Set.of("builtins"));
+    }
+
+    @Nonnull private final PythonTranslationProcess pythonTranslationProcess;
+
+    /*
+     * state of the file being scanned, identified by its root tree
+     */
+    @Nullable private Tree file;
+    private boolean fileCanMatch;
+    @Nonnull private final List<PythonBaseDetectionRule> checks = new ArrayList<>();
+    @Nonnull private final List<TranslatedFinding> findings = new ArrayList<>();
+
+    @Nonnull
+    private final Set<Tree> visitedTrees = Collections.newSetFromMap(new IdentityHashMap<>());
+
+    private PythonSharedDetectionPass() {
+        this.pythonTranslationProcess =
+                new PythonTranslationProcess(PythonReorganizerRules.rules());
+    }
+
+    @Nonnull
+    static PythonSharedDetectionPass current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Runs the detection on a call expression, unless another check already visited it.
+     *
+     * @param check the check visiting the call expression
+     * @param context the context of the file the call expression belongs to
+     * @param tree the visited call expression
+     */
+    void visitCallExpression(
+            @Nonnull PythonBaseDetectionRule check,
+            @Nonnull PythonVisitorContext context,
+            @Nonnull CallExpression tree) {
+        join(check, context);
+        if (!visitedTrees.add(tree)) {
+            return;
+        }
+        final ILanguageSupport<PythonCheck, Tree, Symbol, PythonVisitorContext> languageSupport =
+                PythonAggregator.getLanguageSupport();
+        final PythonScanContext scanContext = new PythonScanContext(context);
+        // the call stack has to know about every call, even if no rule can match it
+        languageSupport.addCallToCallStack(tree, scanContext);
+        if (!fileCanMatch) {
+            return;
+        }
+        DETECTION_RULE_INDEX
+                .candidates(tree, languageSupport.translation())
+                .forEach(
+                        rule -> {
+                            DetectionExecutive<PythonCheck, Tree, Symbol, PythonVisitorContext>
+                                    detectionExecutive =
+                                            languageSupport.createDetectionExecutive(
+                                                    tree, rule, scanContext);
+                            detectionExecutive.subscribe(this);
+                            detectionExecutive.start();
+                        });
+    }
+
+    @Override
+    public void update(@Nonnull Finding<PythonCheck, Tree, Symbol, PythonVisitorContext> finding) {
+        final TranslatedFinding translatedFinding =
+                new TranslatedFinding(
+                        finding.detectionStore().getScanContext(),
+                        finding.getMarkerTree(),
+                        pythonTranslationProcess.initiate(finding.detectionStore()));
+        findings.add(translatedFinding);
+        for (PythonBaseDetectionRule check : checks) {
+            translatedFinding.handOver(check);
+        }
+    }
+
+    private void join(
+            @Nonnull PythonBaseDetectionRule check, @Nonnull PythonVisitorContext context) {
+        if (this.file != context.rootTree()) {
+            this.file = context.rootTree();
+            this.fileCanMatch =
+                    !TypePrefixFilter.isEnabled()
+                            || TYPE_PREFIX_FILTER.canMatch(context.pythonFile().content());
+            PythonAggregator.addScannedFile(!fileCanMatch);
+            this.checks.clear();
+            this.findings.clear();
+            this.visitedTrees.clear();
+        }
+        if (this.checks.stream().noneMatch(joined -> joined == check)) {
+            this.checks.add(check);
+            this.findings.forEach(translatedFinding -> translatedFinding.handOver(check));
+        }
+    }
+
+    private record TranslatedFinding(
+            @Nonnull IScanContext<PythonCheck, Tree> scanContext,
+            @Nonnull Tree markerTree,
+            @Nonnull List<INode> nodes) {
+
+        void handOver(@Nonnull PythonBaseDetectionRule check) {
+            check.onTranslatedFinding(scanContext, markerTree, nodes);
+        }
+    }
+}
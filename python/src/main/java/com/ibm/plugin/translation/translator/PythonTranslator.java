@@ -58,6 +58,27 @@ import org.sonar.plugins.python.api.tree.Token;
 import org.sonar.plugins.python.api.tree.Tree;
 
 public class PythonTranslator extends ITranslator<PythonCheck, Tree, Symbol, PythonVisitorContext> {
+    // the context translators are stateless, they are shared by all translations
+    private static final PycaKeyAgreementContextTranslator KEY_AGREEMENT_CONTEXT_TRANSLATOR =
+            new PycaKeyAgreementContextTranslator();
+    private static final PycaKeyDerivationContextTranslator KEY_DERIVATION_CONTEXT_TRANSLATOR =
+            new PycaKeyDerivationContextTranslator();
+    private static final PycaSecretContextTranslator SECRET_CONTEXT_TRANSLATOR =
+            new PycaSecretContextTranslator();
+    private static final PycaPrivateKeyContextTranslator PRIVATE_KEY_CONTEXT_TRANSLATOR =
+            new PycaPrivateKeyContextTranslator();
+    private static final PycaSecretKeyContextTranslator SECRET_KEY_CONTEXT_TRANSLATOR =
+            new PycaSecretKeyContextTranslator();
+    private static final PycaPublicKeyContextTranslator PUBLIC_KEY_CONTEXT_TRANSLATOR =
+            new PycaPublicKeyContextTranslator();
+    private static final PycaDigestContextTranslator DIGEST_CONTEXT_TRANSLATOR =
+            new PycaDigestContextTranslator();
+    private static final PycaSignatureContextTranslator SIGNATURE_CONTEXT_TRANSLATOR =
+            new PycaSignatureContextTranslator();
+    private static final PycaCipherContextTranslator CIPHER_CONTEXT_TRANSLATOR =
+            new PycaCipherContextTranslator();
+    private static final PycaMacContextTranslator MAC_CONTEXT_TRANSLATOR =
+            new PycaMacContextTranslator();
 
     public PythonTranslator() {
         // nothing
@@ -77,54 +98,34 @@ public class PythonTranslator extends ITranslator<PythonCheck, Tree, Symbol, Pyt
         }
 
         if (detectionValueContext.is(KeyAgreementContext.class)) {
-            final PycaKeyAgreementContextTranslator pycaKeyAgreementContextTranslator =
-                    new PycaKeyAgreementContextTranslator();
-            return pycaKeyAgreementContextTranslator.translate(
+            return KEY_AGREEMENT_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
         } else if (detectionValueContext.is(KeyDerivationFunctionContext.class)) {
-            final PycaKeyDerivationContextTranslator pycaKeyDerivationContextTranslator =
-                    new PycaKeyDerivationContextTranslator();
-            return pycaKeyDerivationContextTranslator.translate(
+            return KEY_DERIVATION_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
         } else if (detectionValueContext.is(KeyContext.class)) {
-            final PycaSecretContextTranslator pycaSecretContextTranslator =
-                    new PycaSecretContextTranslator();
-            return pycaSecretContextTranslator.translate(
+            return SECRET_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
         } else if (detectionValueContext.is(PrivateKeyContext.class)) {
-            final PycaPrivateKeyContextTranslator pycaPrivateKeyContextTranslator =
-                    new PycaPrivateKeyContextTranslator();
-            return pycaPrivateKeyContextTranslator.translate(
+            return PRIVATE_KEY_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
         } else if (detectionValueContext.is(SecretKeyContext.class)) {
-            final PycaSecretKeyContextTranslator pycaSecretKeyContextTranslator =
-                    new PycaSecretKeyContextTranslator();
-            return pycaSecretKeyContextTranslator.translate(
+            return SECRET_KEY_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
         } else if (detectionValueContext.is(PublicKeyContext.class)) {
-            final PycaPublicKeyContextTranslator pycaPublicKeyContextTranslator =
-                    new PycaPublicKeyContextTranslator();
-            return pycaPublicKeyContextTranslator.translate(
+            return PUBLIC_KEY_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
         } else if (detectionValueContext.is(DigestContext.class)) {
-            final PycaDigestContextTranslator pycaDigestContextTranslator =
-                    new PycaDigestContextTranslator();
-            return pycaDigestContextTranslator.translate(
+            return DIGEST_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
         } else if (detectionValueContext.is(SignatureContext.class)) {
-            final PycaSignatureContextTranslator pycaSignatureContextTranslator =
-                    new PycaSignatureContextTranslator();
-            return pycaSignatureContextTranslator.translate(
+            return SIGNATURE_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
         } else if (detectionValueContext.is(CipherContext.class)) {
-            final PycaCipherContextTranslator pycaCipherContextTranslator =
-                    new PycaCipherContextTranslator();
-            return pycaCipherContextTranslator.translate(
+            return CIPHER_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
         } else if (detectionValueContext.is(MacContext.class)) {
-            final PycaMacContextTranslator pycaMacContextTranslator =
-                    new PycaMacContextTranslator();
-            return pycaMacContextTranslator.translate(
+            return MAC_CONTEXT_TRANSLATOR.translate(
                     bundleIdentifier, value, detectionValueContext, detectionLocation);
         }
         return Optional.empty();
@@ -0,0 +1,6 @@
+from cryptography.hazmat.primitives.asymmetric import ec
+
+# The same symbols are resolved again in ResolutionCacheSecondTestFile.py, to other values
+curve = ec.SECP384R1()
+signing_key = ec.generate_private_key(curve) # Noncompliant {{SECP384R1}}
+exchange_key = ec.generate_private_key(curve) # Noncompliant {{SECP384R1}}
@@ -0,0 +1,6 @@
+from cryptography.hazmat.primitives.asymmetric import ec
+
+# The same symbols are resolved in ResolutionCacheFirstTestFile.py, to other values
+curve = ec.BrainpoolP256R1()
+signing_key = ec.generate_private_key(curve) # Noncompliant {{BrainpoolP256R1}}
+exchange_key = ec.generate_private_key(curve) # Noncompliant {{BrainpoolP256R1}}
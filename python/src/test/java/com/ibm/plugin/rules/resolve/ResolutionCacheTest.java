@@ -0,0 +1,123 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin.rules.resolve;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.detection.IType;
+import com.ibm.engine.detection.ResolvedValue;
+import com.ibm.engine.language.python.PythonSemantic;
+import com.ibm.engine.utils.ScanMetrics;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import javax.annotation.Nonnull;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sonar.check.Rule;
+import org.sonar.plugins.python.api.PythonSubscriptionCheck;
+import org.sonar.plugins.python.api.SubscriptionContext;
+import org.sonar.plugins.python.api.tree.CallExpression;
+import org.sonar.plugins.python.api.tree.Expression;
+import org.sonar.plugins.python.api.tree.RegularArgument;
+import org.sonar.plugins.python.api.tree.Tree;
+import org.sonar.python.checks.utils.PythonCheckVerifier;
+
+/**
+ * Resolves the same symbols in two files, one after the other on the same thread, and checks that
+ * the results memoised by {@link PythonSemantic} are reused within a file but never for another
+ * file.
+ */
+class ResolutionCacheTest {
+    private static final String FIRST_FILE =
+            "src/test/files/rules/resolve/ResolutionCacheFirstTestFile.py";
+    private static final String SECOND_FILE =
+            "src/test/files/rules/resolve/ResolutionCacheSecondTestFile.py";
+
+    @AfterEach
+    void disableMetrics() {
+        ScanMetrics.setEnabled(false);
+        ScanMetrics.reset();
+    }
+
+    @Test
+    void resolutionsAreReusedWithinAFileOnly() {
+        ScanMetrics.setEnabled(true);
+        ScanMetrics.reset();
+
+        final ResolvingCheck check = new ResolvingCheck();
+        PythonCheckVerifier.verify(FIRST_FILE, check);
+        final Map<String, Long> firstFile = ScanMetrics.snapshot().counters().get("resolution");
+        // each argument is resolved twice, the second resolution is a hit
+        assertThat(firstFile)
+                .containsEntry("values.computed", 2L)
+                .containsEntry("values.reused", 2L)
+                .containsEntry("types.reused", 2L);
+
+        // the same symbols of the second file are misses, and resolve to its own curve
+        PythonCheckVerifier.verify(SECOND_FILE, check);
+        assertThat(ScanMetrics.snapshot().counters().get("resolution"))
+                .containsEntry("values.computed", 4L)
+                .containsEntry("values.reused", 4L);
+        assertThat(check.mismatches).isEmpty();
+    }
+
+    @Rule(key = "ResolutionCache")
+    private static final class ResolvingCheck extends PythonSubscriptionCheck {
+        @Nonnull private final List<String> mismatches = new ArrayList<>();
+
+        @Override
+        public void initialize(@Nonnull Context context) {
+            context.registerSyntaxNodeConsumer(Tree.Kind.CALL_EXPR, this::visitCall);
+        }
+
+        private void visitCall(@Nonnull SubscriptionContext context) {
+            final CallExpression call = (CallExpression) context.syntaxNode();
+            if (call.calleeSymbol() == null
+                    || !"generate_private_key".equals(call.calleeSymbol().name())
+                    || !(call.arguments().get(0) instanceof RegularArgument argument)) {
+                return;
+            }
+            // the language support enters the scope of each visited file the same way
+            PythonSemantic.enterScope(context.pythonFile().uri().getPath());
+            final Expression curve = argument.expression();
+
+            final List<String> values = curveNames(curve);
+            final Optional<IType> type = PythonSemantic.resolveTreeType(curve);
+            if (!values.equals(curveNames(curve))
+                    || !type.equals(PythonSemantic.resolveTreeType(curve))) {
+                mismatches.add(curve.firstToken().line() + ": " + values);
+            }
+            values.forEach(value -> context.addIssue(call, value));
+        }
+
+        @Nonnull
+        private static List<String> curveNames(@Nonnull Expression curve) {
+            final List<String> names = new ArrayList<>();
+            for (ResolvedValue<Object, Tree> value :
+                    PythonSemantic.resolveValues(
+                            Object.class, curve, new ArrayList<>(), null, false, null)) {
+                names.add(String.valueOf(value.value()));
+            }
+            return names;
+        }
+    }
+}
@@ -21,6 +21,7 @@ package com.ibm.plugin;
 
 import java.util.List;
 import javax.annotation.Nonnull;
+import org.sonar.api.PropertyType;
 import org.sonar.api.config.PropertyDefinition;
 import org.sonar.api.resources.Qualifiers;
 
@@ -36,6 +37,83 @@ public final class Configuration {
                         .name("CBOM filename")
                         .description("Filename for the generated CBOM")
                         .defaultValue(Constants.CBOM_OUTPUT_NAME_DEFAULT)
+                        .build(),
+                PropertyDefinition.builder(Constants.FILE_PREFILTER)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+                        .name("Skip files without crypto types")
+                        .description(
+                                "Skips the detection in Java files that do not name a package of"
+                                        + " the detection rules. Calls on types that are only"
+                                        + " inferred in such files are not detected.")
+                        .type(PropertyType.BOOLEAN)
+                        .defaultValue("false")
+                        .build(),
+                PropertyDefinition.builder(Constants.PARALLEL_DETECTION)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+                        .name("Parallel detection")
+                        .description(
+                                "Confines the detection state to the thread that scans a file"
+                                        + " and matches calls across threads at the end of each"
+                                        + " file. The plugin itself does not scan files in"
+                                        + " parallel, as the Java and Python analyzers visit the"
+                                        + " files one at a time. Incremental scans are not"
+                                        + " supported in this mode.")
+                        .type(PropertyType.BOOLEAN)
+                        .defaultValue("false")
+                        .build(),
+                PropertyDefinition.builder(Constants.EAGER_RELEASE)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+                        .name("Release detection state eagerly")
+                        .description(
+                                "Releases the detection state of a finding once it was translated,"
+                                        + " unless it waits for a call in another file. Lowers the"
+                                        + " memory use of large scans.")
+                        .type(PropertyType.BOOLEAN)
+                        .defaultValue("false")
+                        .build(),
+                PropertyDefinition.builder(Constants.INCREMENTAL)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+                        .name("Incremental scans")
+                        .description(
+                                "Caches the issues and CBOM components of each Java file, and"
+                                        + " serves the files that did not change, nor the files"
+                                        + " they depend on, from the cache in the next scan.")
+                        .type(PropertyType.BOOLEAN)
+                        .defaultValue("false")
+                        .build(),
+                PropertyDefinition.builder(Constants.INCREMENTAL_CACHE_DIRECTORY)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_PERFORMANCE)
+                        .name("Incremental scan cache directory")
+                        .description(
+                                "Directory of the cache of incremental scans, relative to the"
+                                        + " project base directory. It must survive between"
+                                        + " scans, so it should not be in the scanner work"
+                                        + " directory.")
+                        .defaultValue(Constants.INCREMENTAL_CACHE_DIRECTORY_DEFAULT)
+                        .build(),
+                PropertyDefinition.builder(Constants.TRACE_FILE)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_DIAGNOSTICS)
+                        .name("Trace file")
+                        .description(
+                                "File to which a structured trace of the detection, translation"
+                                        + " and reorganisation steps is appended, one JSON object"
+                                        + " per line. No trace is written if empty.")
+                        .build(),
+                PropertyDefinition.builder(Constants.SCAN_METRICS)
+                        .onQualifiers(Qualifiers.PROJECT)
+                        .subCategory(Constants.SUB_CATEGORY_DIAGNOSTICS)
+                        .name("Scan metrics")
+                        .description(
+                                "Collects match attempts, hits and timings per detection rule and"
+                                        + " adds them to the scan statistics.")
+                        .type(PropertyType.BOOLEAN)
+                        .defaultValue("false")
                         .build());
     }
 }
@@ -25,7 +25,26 @@ public final class Constants {
 
     public static final String CBOM_OUTPUT_NAME_DEFAULT = "cbom";
 
+    public static final String TRACE_FILE = "sonar.cryptoScanner.traceFile";
+
+    public static final String SCAN_METRICS = "sonar.cryptoScanner.metrics";
+
+    public static final String FILE_PREFILTER = "sonar.cryptoScanner.filePrefilter";
+
+    public static final String PARALLEL_DETECTION = "sonar.cryptoScanner.parallelDetection";
+
+    public static final String EAGER_RELEASE = "sonar.cryptoScanner.eagerRelease";
+
+    public static final String INCREMENTAL = "sonar.cryptoScanner.incremental";
+
+    public static final String INCREMENTAL_CACHE_DIRECTORY =
+            "sonar.cryptoScanner.incrementalCacheDir";
+
+    public static final String INCREMENTAL_CACHE_DIRECTORY_DEFAULT = ".crypto-scanner-cache";
+
     public static final String SUB_CATEGORY_GENERAL = "General";
+    public static final String SUB_CATEGORY_PERFORMANCE = "Performance";
+    public static final String SUB_CATEGORY_DIAGNOSTICS = "Diagnostics";
 
     private Constants() {}
 }
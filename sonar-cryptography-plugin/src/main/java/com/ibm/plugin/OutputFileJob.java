@@ -20,7 +20,9 @@
 package com.ibm.plugin;
 
 import com.ibm.output.cyclondx.CBOMOutputFileFactory;
+import com.ibm.output.statistics.ScanStatistics;
 import java.io.File;
+import java.io.IOException;
 import javax.annotation.Nonnull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -44,10 +46,30 @@ public class OutputFileJob implements PostJob {
                         .get(Constants.CBOM_OUTPUT_NAME)
                         .orElse(Constants.CBOM_OUTPUT_NAME_DEFAULT);
         ScannerManager scannerManager = new ScannerManager(new CBOMOutputFileFactory());
+        scannerManager.finishDetection();
         final File cbom = new File(cbomFilename + ".json");
         scannerManager.getOutputFile().saveTo(cbom);
         LOGGER.info("CBOM was successfully generated '{}'.", cbom.getAbsolutePath());
-        scannerManager.getStatistics().print(LOGGER::info);
+        scannerManager.saveFindingsCache();
+        final ScanStatistics statistics = scannerManager.getStatistics();
+        statistics
+                .getMetrics()
+                .ifPresent(
+                        metrics -> {
+                            final File metricsFile = new File(cbomFilename + "-metrics.json");
+                            try {
+                                metrics.saveTo(metricsFile.toPath());
+                                LOGGER.info(
+                                        "Scan metrics were written to '{}'.",
+                                        metricsFile.getAbsolutePath());
+                            } catch (IOException e) {
+                                LOGGER.warn(
+                                        "Could not write the scan metrics to '{}': {}",
+                                        metricsFile.getAbsolutePath(),
+                                        e.getMessage());
+                            }
+                        });
+        statistics.print(LOGGER::info);
         scannerManager.reset();
     }
 }
@@ -19,15 +19,17 @@
  */
 package com.ibm.plugin;
 
+import com.ibm.engine.utils.ScanMetrics;
+import com.ibm.engine.utils.Tracer;
 import com.ibm.mapper.model.INode;
 import com.ibm.output.IOutputFile;
 import com.ibm.output.IOutputFileFactory;
-import com.ibm.output.statistics.IStatistics;
+import com.ibm.output.ShardedNodeAggregator;
 import com.ibm.output.statistics.ScanStatistics;
-import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 
@@ -38,38 +40,82 @@ public final class ScannerManager {
         this.outputFileFactory = outputFileFactory;
     }
 
+    /**
+     * Completes the detection once all files are scanned: in a parallel scan, it processes the hook
+     * invocations a thread found for the hooks of another thread after that thread scanned its last
+     * file.
+     */
+    public void finishDetection() {
+        JavaAggregator.processPendingHookInvocations();
+        PythonAggregator.processPendingHookInvocations();
+    }
+
+    /**
+     * Creates the output file of the detected nodes, and of the components recorded for the
+     * findings served from the findings cache of an incremental scan, in the order they were found.
+     *
+     * @return the output file
+     */
     @Nonnull
     public IOutputFile getOutputFile() {
-        return Optional.ofNullable(this.outputFileFactory)
-                .orElse(IOutputFileFactory.DEFAULT)
-                .createOutputFormat(getAggregatedNodes());
+        final IOutputFile outputFile =
+                Optional.ofNullable(this.outputFileFactory)
+                        .orElse(IOutputFileFactory.DEFAULT)
+                        .createOutputFormat(List.of());
+        getAggregators().forEach(aggregator -> aggregator.addTo(outputFile));
+        return outputFile;
     }
 
     @Nonnull
-    public IStatistics getStatistics() {
+    public ScanStatistics getStatistics() {
+        final List<ShardedNodeAggregator> aggregators = getAggregators();
         return new ScanStatistics(
-                () -> getAggregatedNodes().size(), // numberOfDetectedAssetsSupplier
                 () ->
-                        getAggregatedNodes().stream() // numberOfAssetsPerTypeSupplier
-                                .collect(
-                                        Collectors.groupingBy(
-                                                INode::getKind, Collectors.counting())));
+                        aggregators.stream() // numberOfDetectedAssetsSupplier
+                                .mapToInt(ShardedNodeAggregator::size)
+                                .sum(),
+                () -> {
+                    // numberOfAssetsPerTypeSupplier
+                    final Map<Class<? extends INode>, Long> numberOfAssetsPerType = new HashMap<>();
+                    aggregators.forEach(
+                            aggregator ->
+                                    aggregator
+                                            .getNumberOfNodesPerKind()
+                                            .forEach(
+                                                    (kind, count) ->
+                                                            numberOfAssetsPerType.merge(
+                                                                    kind, count, Long::sum)));
+                    return numberOfAssetsPerType;
+                },
+                () ->
+                        JavaAggregator.getNumberOfScannedFiles()
+                                + PythonAggregator.getNumberOfScannedFiles(),
+                () ->
+                        JavaAggregator.getNumberOfSkippedFiles()
+                                + PythonAggregator.getNumberOfSkippedFiles());
+    }
+
+    /**
+     * Writes the findings cache of an incremental scan, if incremental scans are enabled (see
+     * {@link com.ibm.output.cache.FindingsCache}). Only Java files are cached.
+     */
+    public void saveFindingsCache() {
+        JavaAggregator.saveFindingsCache();
     }
 
     public boolean hasResults() {
-        return !this.getAggregatedNodes().isEmpty();
+        return getAggregators().stream().anyMatch(aggregator -> !aggregator.isEmpty());
     }
 
     @Nonnull
-    private List<INode> getAggregatedNodes() {
-        List<INode> nodes = new ArrayList<>();
-        nodes.addAll(JavaAggregator.getDetectedNodes());
-        nodes.addAll(PythonAggregator.getDetectedNodes());
-        return nodes;
+    private List<ShardedNodeAggregator> getAggregators() {
+        return List.of(JavaAggregator.getAggregator(), PythonAggregator.getAggregator());
     }
 
     public void reset() {
         JavaAggregator.reset();
         PythonAggregator.reset();
+        ScanMetrics.reset();
+        Tracer.close();
     }
 }
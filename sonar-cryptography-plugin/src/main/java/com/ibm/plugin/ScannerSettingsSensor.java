@@ -0,0 +1,72 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin;
+
+import com.ibm.engine.executive.DetectionExecutive;
+import com.ibm.engine.language.LanguageSupporter;
+import com.ibm.engine.rule.TypePrefixFilter;
+import com.ibm.engine.utils.ScanMetrics;
+import com.ibm.engine.utils.Tracer;
+import com.ibm.output.cache.FindingsCache;
+import java.nio.file.Path;
+import javax.annotation.Nonnull;
+import org.sonar.api.batch.Phase;
+import org.sonar.api.batch.sensor.Sensor;
+import org.sonar.api.batch.sensor.SensorContext;
+import org.sonar.api.batch.sensor.SensorDescriptor;
+
+/**
+ * Applies the scanner settings defined in {@link Configuration} to the detection engine. It runs in
+ * the {@link Phase.Name#PRE} phase, before the language sensors that run the detection rules.
+ */
+@Phase(name = Phase.Name.PRE)
+public class ScannerSettingsSensor implements Sensor {
+
+    @Override
+    public void describe(@Nonnull SensorDescriptor sensorDescriptor) {
+        sensorDescriptor.name("Cryptography scanner settings");
+    }
+
+    @Override
+    public void execute(@Nonnull SensorContext sensorContext) {
+        apply(sensorContext.config(), sensorContext.fileSystem().baseDir().toPath());
+    }
+
+    static void apply(
+            @Nonnull org.sonar.api.config.Configuration config, @Nonnull Path baseDirectory) {
+        TypePrefixFilter.setEnabled(config.getBoolean(Constants.FILE_PREFILTER).orElse(false));
+        LanguageSupporter.setParallelDetectionEnabled(
+                config.getBoolean(Constants.PARALLEL_DETECTION).orElse(false));
+        DetectionExecutive.setEagerReleaseEnabled(
+                config.getBoolean(Constants.EAGER_RELEASE).orElse(false));
+        ScanMetrics.setEnabled(config.getBoolean(Constants.SCAN_METRICS).orElse(false));
+        FindingsCache.setEnabled(config.getBoolean(Constants.INCREMENTAL).orElse(false));
+        FindingsCache.setDirectory(
+                baseDirectory.resolve(
+                        config.get(Constants.INCREMENTAL_CACHE_DIRECTORY)
+                                .filter(directory -> !directory.isBlank())
+                                .orElse(Constants.INCREMENTAL_CACHE_DIRECTORY_DEFAULT)));
+        Tracer.setTraceFile(
+                config.get(Constants.TRACE_FILE)
+                        .filter(file -> !file.isBlank())
+                        .map(Path::of)
+                        .orElse(null));
+    }
+}
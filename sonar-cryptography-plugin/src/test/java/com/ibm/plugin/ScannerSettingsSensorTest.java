@@ -0,0 +1,76 @@
+/*
+ * SonarQube Cryptography Plugin
+ * Copyright (C) 2024 IBM
+ *
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to you under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ibm.plugin;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import com.ibm.engine.executive.DetectionExecutive;
+import com.ibm.engine.language.LanguageSupporter;
+import com.ibm.engine.rule.TypePrefixFilter;
+import com.ibm.engine.utils.ScanMetrics;
+import com.ibm.engine.utils.Tracer;
+import com.ibm.output.cache.FindingsCache;
+import java.nio.file.Path;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.sonar.api.config.internal.MapSettings;
+
+class ScannerSettingsSensorTest {
+    private static final Path BASE_DIRECTORY = Path.of("project").toAbsolutePath();
+
+    @AfterEach
+    void restoreDefaults() {
+        ScannerSettingsSensor.apply(new MapSettings().asConfig(), BASE_DIRECTORY);
+    }
+
+    @Test
+    void defaultsDisableOptionalBehaviour() {
+        ScannerSettingsSensor.apply(new MapSettings().asConfig(), BASE_DIRECTORY);
+        assertThat(Tracer.isStructuredTraceEnabled()).isFalse();
+        assertThat(TypePrefixFilter.isEnabled()).isFalse();
+        assertThat(ScanMetrics.isEnabled()).isFalse();
+        assertThat(LanguageSupporter.isParallelDetectionEnabled()).isFalse();
+        assertThat(DetectionExecutive.isEagerReleaseEnabled()).isFalse();
+        assertThat(FindingsCache.isEnabled()).isFalse();
+        assertThat(FindingsCache.location())
+                .contains(BASE_DIRECTORY.resolve(".crypto-scanner-cache/findings.json.gz"));
+    }
+
+    @Test
+    void settingsAreAppliedToTheEngine() {
+        final MapSettings settings = new MapSettings();
+        settings.setProperty(Constants.TRACE_FILE, "target/trace.jsonl");
+        settings.setProperty(Constants.FILE_PREFILTER, true);
+        settings.setProperty(Constants.SCAN_METRICS, true);
+        settings.setProperty(Constants.PARALLEL_DETECTION, true);
+        settings.setProperty(Constants.EAGER_RELEASE, true);
+        settings.setProperty(Constants.INCREMENTAL, true);
+        settings.setProperty(Constants.INCREMENTAL_CACHE_DIRECTORY, "build/cache");
+        ScannerSettingsSensor.apply(settings.asConfig(), BASE_DIRECTORY);
+        assertThat(Tracer.isStructuredTraceEnabled()).isTrue();
+        assertThat(TypePrefixFilter.isEnabled()).isTrue();
+        assertThat(ScanMetrics.isEnabled()).isTrue();
+        assertThat(LanguageSupporter.isParallelDetectionEnabled()).isTrue();
+        assertThat(DetectionExecutive.isEagerReleaseEnabled()).isTrue();
+        assertThat(FindingsCache.isEnabled()).isTrue();
+        assertThat(FindingsCache.location())
+                .contains(BASE_DIRECTORY.resolve("build/cache/findings.json.gz"));
+    }
+}